@@ -0,0 +1,167 @@
+package bench;
+
+import org.json.JSONArray;
+import org.json.JSONObject;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/*
+ * Runs the benchmarks of the ledger, its JSON persistence and the expenses table, and saves the results as
+ * JSON for comparing runs over time. Each workload is run for warmup iterations that are thrown away and
+ * then for measured iterations, each repeating the workload until it has run for the iteration time; the
+ * score is the average time per operation with the 99.9% confidence error, the way JMH reports average
+ * time. The results file uses the layout of JMH's JSON results, so tools that read those can read it.
+ *
+ * Settings are system properties:
+ *   bench.rows        comma separated ledger sizes (default 1000,100000,1000000)
+ *   bench.filter      only runs workloads whose name contains this text
+ *   bench.warmup      warmup iterations (default 3)
+ *   bench.iterations  measured iterations, at least 2 (default 5)
+ *   bench.time        milliseconds per iteration (default 1000)
+ *   bench.out         results file (default ./data/bench/results-<time>.json)
+ * The 1,000,000 row sizes need a heap of about 2 GB, e.g. java -Xmx2g bench.BenchRunner.
+ */
+public final class BenchRunner {
+    // Student's t for a two-sided 99.9% interval with 1 to 10 degrees of freedom; 3.29 (normal) after that
+    private static final double[] T_999 = {636.62, 31.60, 12.92, 8.61, 6.87, 5.96, 5.41, 5.04, 4.78, 4.59};
+    private static volatile Object sink;
+
+    private final int warmup = Integer.getInteger("bench.warmup", 3);
+    private final int iterations = Math.max(2, Integer.getInteger("bench.iterations", 5));
+    private final long iterationNanos = Long.getLong("bench.time", 1000) * 1_000_000;
+    private final JSONArray results = new JSONArray();
+
+    // EFFECTS: runs every benchmark matching bench.filter at every size in bench.rows and saves the results
+    public static void main(String[] args) throws IOException {
+        String filter = System.getProperty("bench.filter", "");
+        String[] sizes = System.getProperty("bench.rows", "1000,100000,1000000").split(",");
+        BenchRunner runner = new BenchRunner();
+        for (Map.Entry<String, Supplier<Workload>> workload : workloads().entrySet()) {
+            if (!workload.getKey().contains(filter)) {
+                continue;
+            }
+            for (String size : sizes) {
+                runner.run(workload.getKey(), workload.getValue().get(), Integer.parseInt(size.trim()));
+            }
+        }
+        String stamp = new SimpleDateFormat("yyyyMMdd-HHmmss").format(new Date());
+        runner.save(Paths.get(System.getProperty("bench.out", "./data/bench/results-" + stamp + ".json")));
+    }
+
+    // EFFECTS: returns the workloads that can be run, by name
+    static Map<String, Supplier<Workload>> workloads() {
+        Map<String, Supplier<Workload>> workloads = new LinkedHashMap<>();
+        workloads.put("ledger.addExpense", LedgerWorkloads.AddExpense::new);
+        workloads.put("ledger.removeExpense", LedgerWorkloads.RemoveExpense::new);
+        workloads.put("ledger.totalExpenses", LedgerWorkloads.TotalExpenses::new);
+        workloads.put("json.read", JsonWorkloads.Read::new);
+        workloads.put("json.write", JsonWorkloads.Write::new);
+        workloads.put("table.buildExpenses", TableWorkloads.BuildExpenseTable::new);
+        return workloads;
+    }
+
+    // EFFECTS: keeps value reachable so the work that produced it cannot be optimized away
+    static void consume(Object value) {
+        sink = value;
+    }
+
+    // MODIFIES: this
+    // EFFECTS: measures workload on a ledger of rows rows, prints the score and adds it to the results
+    void run(String name, Workload workload, int rows) throws IOException {
+        workload.setUp(rows);
+        try {
+            for (int i = 0; i < warmup; i++) {
+                iteration(workload);
+            }
+            double[] scores = new double[iterations];
+            for (int i = 0; i < iterations; i++) {
+                scores[i] = iteration(workload);
+            }
+            JSONObject result = result(name, rows, scores);
+            JSONObject metric = result.getJSONObject("primaryMetric");
+            System.out.printf("%-24s %,10d rows %,16.1f +- %,.1f ns/op%n", name, rows, metric.getDouble("score"),
+                    metric.getDouble("scoreError"));
+            results.put(result);
+        } finally {
+            workload.tearDown();
+        }
+    }
+
+    // EFFECTS: repeats workload for the iteration time and returns the average nanoseconds per operation,
+    //          counting only the time spent in invoke and not in restore
+    private double iteration(Workload workload) throws IOException {
+        long operations = 0;
+        long measured = 0;
+        long start = System.nanoTime();
+        do {
+            long before = System.nanoTime();
+            operations += workload.invoke();
+            measured += System.nanoTime() - before;
+            workload.restore();
+        } while (System.nanoTime() - start < iterationNanos);
+        return (double) measured / operations;
+    }
+
+    // EFFECTS: returns the result of a benchmark in the layout of a JMH result
+    private JSONObject result(String name, int rows, double[] scores) {
+        return new JSONObject()
+                .put("benchmark", "bench." + name)
+                .put("mode", "avgt")
+                .put("threads", 1)
+                .put("forks", 0)
+                .put("jvm", System.getProperty("java.home"))
+                .put("jdkVersion", System.getProperty("java.version"))
+                .put("vmName", System.getProperty("java.vm.name"))
+                .put("warmupIterations", warmup)
+                .put("warmupTime", iterationNanos / 1_000_000 + " ms")
+                .put("measurementIterations", iterations)
+                .put("measurementTime", iterationNanos / 1_000_000 + " ms")
+                .put("params", new JSONObject().put("rows", String.valueOf(rows)))
+                .put("primaryMetric", metric(scores));
+    }
+
+    // EFFECTS: returns the mean of scores with its error and the scores themselves, as JMH's primaryMetric
+    private static JSONObject metric(double[] scores) {
+        double mean = 0;
+        for (double score : scores) {
+            mean += score / scores.length;
+        }
+        double error = error(scores, mean);
+        return new JSONObject()
+                .put("score", mean)
+                .put("scoreError", error)
+                .put("scoreConfidence", new JSONArray().put(mean - error).put(mean + error))
+                .put("scoreUnit", "ns/op")
+                .put("rawData", new JSONArray().put(new JSONArray(scores)));
+    }
+
+    // REQUIRES: scores.length >= 2
+    // EFFECTS: returns the half-width of the 99.9% confidence interval of the mean of scores
+    private static double error(double[] scores, double mean) {
+        double squares = 0;
+        for (double score : scores) {
+            squares += (score - mean) * (score - mean);
+        }
+        int freedom = scores.length - 1;
+        double t = freedom <= T_999.length ? T_999[freedom - 1] : 3.29;
+        return t * Math.sqrt(squares / freedom) / Math.sqrt(scores.length);
+    }
+
+    // EFFECTS: writes the results to path as JSON, creating its directory if needed
+    private void save(Path path) throws IOException {
+        if (path.getParent() != null) {
+            Files.createDirectories(path.getParent());
+        }
+        Files.write(path, results.toString(2).getBytes(StandardCharsets.UTF_8));
+        System.out.println("Results saved to " + path);
+    }
+}
@@ -0,0 +1,85 @@
+package bench;
+
+import model.Ledger;
+import persistence.JsonReader;
+import persistence.JsonWriter;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+// Workloads measuring how long a ledger takes to be saved to and loaded from a JSON file
+final class JsonWorkloads {
+
+    private JsonWorkloads() {
+    }
+
+    // EFFECTS: writes ledger to the JSON file at path, as saving does, including forcing it to disk
+    static void write(Ledger ledger, Path path) throws IOException {
+        JsonWriter writer = new JsonWriter(path.toString());
+        writer.open();
+        writer.write(ledger);
+        writer.close();
+    }
+
+    // EFFECTS: deletes directory and the files in it
+    static void delete(Path directory) throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            for (Path file : files.collect(Collectors.toList())) {
+                Files.delete(file);
+            }
+        }
+        Files.delete(directory);
+    }
+
+    // Represents reading a ledger from a JSON file written once during setup
+    static final class Read implements Workload {
+        private Path directory;
+        private Path file;
+
+        @Override
+        public void setUp(int rows) throws IOException {
+            directory = Files.createTempDirectory("ledger-bench");
+            file = directory.resolve("ledger.json");
+            write(SyntheticLedger.generate(rows), file);
+        }
+
+        @Override
+        public long invoke() throws IOException {
+            BenchRunner.consume(new JsonReader(file.toString()).read());
+            return 1;
+        }
+
+        @Override
+        public void tearDown() throws IOException {
+            delete(directory);
+        }
+    }
+
+    // Represents writing a ledger over the same JSON file again and again
+    static final class Write implements Workload {
+        private Path directory;
+        private Path file;
+        private Ledger ledger;
+
+        @Override
+        public void setUp(int rows) throws IOException {
+            directory = Files.createTempDirectory("ledger-bench");
+            file = directory.resolve("ledger.json");
+            ledger = SyntheticLedger.generate(rows);
+        }
+
+        @Override
+        public long invoke() throws IOException {
+            write(ledger, file);
+            return 1;
+        }
+
+        @Override
+        public void tearDown() throws IOException {
+            delete(directory);
+        }
+    }
+}
@@ -0,0 +1,89 @@
+package bench;
+
+import model.Ledger;
+
+// Workloads measuring changes to and totals of a ledger held in memory
+final class LedgerWorkloads {
+
+    private LedgerWorkloads() {
+    }
+
+    private static final int BATCH = 100; // changes per invocation, so the clock is read once per hundred
+
+    // Represents adding an expense with logging, as the UI does; the expenses added are removed again
+    // between invocations, untimed, so the ledger keeps its size for the whole run
+    static final class AddExpense implements Workload {
+        private Ledger ledger;
+
+        @Override
+        public void setUp(int rows) {
+            ledger = SyntheticLedger.generate(rows);
+        }
+
+        @Override
+        public long invoke() {
+            for (int i = 0; i < BATCH; i++) {
+                ledger.addExpense("Uber Eats", 67.34, "2022-10-27", "Lunch");
+            }
+            return BATCH;
+        }
+
+        @Override
+        public void restore() {
+            for (int i = 0; i < BATCH; i++) {
+                ledger.removeExpenseNoLog(ledger.getExpenses().size() - 1);
+            }
+        }
+    }
+
+    // Represents removing an expense from the middle of the ledger with logging, as the UI does; as many
+    // expenses are added back between invocations, untimed, so the ledger keeps its size for the whole run
+    static final class RemoveExpense implements Workload {
+        private Ledger ledger;
+        private int middle;
+        private int count; // expenses removed per invocation, fewer than BATCH only in a tiny ledger
+
+        @Override
+        public void setUp(int rows) {
+            ledger = SyntheticLedger.generate(rows);
+            count = Math.min(BATCH, rows);
+            middle = (rows - count) / 2;
+        }
+
+        @Override
+        public long invoke() {
+            for (int i = 0; i < count; i++) {
+                ledger.removeExpense(middle);
+            }
+            return count;
+        }
+
+        @Override
+        public void restore() {
+            for (int i = 0; i < count; i++) {
+                ledger.addExpenseNoLog("Uber Eats", 67.34, "2022-10-27", "Lunch");
+            }
+        }
+    }
+
+    // Represents asking for the total of all expenses, as the dashboard does on every refresh
+    static final class TotalExpenses implements Workload {
+        private static final int CALLS = 1000;
+        private Ledger ledger;
+
+        @Override
+        public void setUp(int rows) {
+            ledger = SyntheticLedger.generate(rows);
+        }
+
+        @Override
+        public long invoke() {
+            double sum = 0;
+            for (int i = 0; i < CALLS; i++) {
+                sum += ledger.totalExpenses();
+            }
+            BenchRunner.consume(sum);
+            return CALLS;
+        }
+    }
+}
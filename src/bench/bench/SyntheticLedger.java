@@ -0,0 +1,22 @@
+package bench;
+
+import model.Ledger;
+import model.LedgerGenerator;
+
+/*
+ * Generates the ledgers benchmarks run on. The same row count always gives the same ledger, on any JVM, so
+ * results of different runs are measured on the same data.
+ */
+public final class SyntheticLedger {
+    public static final long DEFAULT_SEED = 20221027L;
+
+    private SyntheticLedger() {
+    }
+
+    // EFFECTS: returns a ledger with rows expenses, one income per ten expenses and one saving goal per
+    //          thousand, generated from DEFAULT_SEED without logging
+    public static Ledger generate(int rows) {
+        return new LedgerGenerator(Math.max(1, rows / 10), rows, Math.max(1, rows / 1000), DEFAULT_SEED)
+                .generateLedger();
+    }
+}
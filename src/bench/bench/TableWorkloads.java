@@ -0,0 +1,48 @@
+package bench;
+
+import model.Ledger;
+import ui.ExpenseTableModel;
+
+import javax.swing.JTable;
+import javax.swing.table.TableCellRenderer;
+import java.awt.Component;
+
+// Workloads measuring how long the tables of the UI take to show a ledger
+final class TableWorkloads {
+
+    private TableWorkloads() {
+    }
+
+    // Represents building the expenses table the way the expenses panel does and preparing the cells of
+    // the rows a window shows at first. Runs off the event dispatch thread, which no other thread touches
+    // these components from, so only the cost of the table itself is measured.
+    static final class BuildExpenseTable implements Workload {
+        private static final int VISIBLE_ROWS = 40;
+        private final Ledger detached = new Ledger();
+        private Ledger ledger;
+
+        @Override
+        public void setUp(int rows) {
+            ledger = SyntheticLedger.generate(rows);
+        }
+
+        @Override
+        public long invoke() {
+            ExpenseTableModel model = new ExpenseTableModel();
+            model.setLedger(ledger);
+            JTable table = new JTable(model);
+            table.setDefaultEditor(Object.class, null);
+            table.setRowHeight(30);
+            int rows = Math.min(VISIBLE_ROWS, table.getRowCount());
+            for (int row = 0; row < rows; row++) {
+                for (int column = 0; column < table.getColumnCount(); column++) {
+                    TableCellRenderer renderer = table.getCellRenderer(row, column);
+                    Component cell = table.prepareRenderer(renderer, row, column);
+                    BenchRunner.consume(cell);
+                }
+            }
+            model.setLedger(detached); // stops the model listening to the benchmarked ledger
+            return 1;
+        }
+    }
+}
@@ -0,0 +1,25 @@
+package bench;
+
+import java.io.IOException;
+
+// Represents an operation measured by BenchRunner on a ledger of a given number of rows
+public interface Workload {
+
+    // MODIFIES: this
+    // EFFECTS: prepares the state invocations run against for a ledger of rows expenses; not timed
+    void setUp(int rows) throws IOException;
+
+    // MODIFIES: this
+    // EFFECTS: runs the measured operation once or more and returns how many times it ran
+    long invoke() throws IOException;
+
+    // MODIFIES: this
+    // EFFECTS: undoes what the last invoke changed, so every invocation starts from the same state; not timed
+    default void restore() throws IOException {
+    }
+
+    // MODIFIES: this
+    // EFFECTS: releases what setUp acquired; not timed
+    default void tearDown() throws IOException {
+    }
+}
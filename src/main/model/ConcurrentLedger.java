@@ -0,0 +1,233 @@
+package model;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/*
+ * Represents a ledger that many threads can add incomes and expenses to at once, such as importers reading
+ * several bank statements in parallel, while another thread removes entries or saves it.
+ *
+ * An add only locks one of several stripes, chosen by the adding thread, and appends the new entry to that
+ * stripe's pending lists; the entry is built (and its date parsed) before the lock is taken. The balance
+ * and totals are kept in LongAdders, so adds never contend on them either. Pending entries are merged into
+ * the underlying ledger, one stripe after another and in the order each stripe received them, whenever an
+ * entry is removed or a snapshot is taken; those are serialized by a single merge lock. Snapshots are
+ * taken of the merged ledger, so their lists, totals and balance always agree with each other.
+ *
+ * Entries added by different threads are merged in no particular order, so the position of an entry says
+ * nothing to the thread that added it. An entry is therefore removed by passing the entry its add returned.
+ */
+public class ConcurrentLedger {
+    private static final int STRIPES = stripeCount(Runtime.getRuntime().availableProcessors());
+
+    private final Ledger ledger;          // entries merged so far; only touched while holding mergeLock
+    private final ReentrantLock mergeLock;
+    private final Stripe[] stripes;
+    private final LongAdder balance;      // in cents
+    private final LongAdder totalIncome;  // in cents
+    private final LongAdder totalExpenses; // in cents
+
+    // Represents the entries added through one stripe that have not been merged yet
+    private static final class Stripe {
+        final ReentrantLock lock = new ReentrantLock();
+        List<Income> incomes = new ArrayList<>();
+        List<Expense> expenses = new ArrayList<>();
+    }
+
+    // EFFECTS: constructs an empty concurrent ledger
+    public ConcurrentLedger() {
+        this(new Ledger(false));
+    }
+
+    // REQUIRES: ledger stores expenses in rows, not columns, and is no longer changed other than through this
+    // EFFECTS: constructs a concurrent ledger starting from the entries of ledger, which it takes over
+    public ConcurrentLedger(Ledger ledger) {
+        this.ledger = ledger;
+        this.mergeLock = new ReentrantLock();
+        this.stripes = new Stripe[STRIPES];
+        for (int i = 0; i < stripes.length; i++) {
+            stripes[i] = new Stripe();
+        }
+        this.balance = new LongAdder();
+        this.totalIncome = new LongAdder();
+        this.totalExpenses = new LongAdder();
+        balance.add(ledger.getBalanceCents());
+        totalIncome.add(ledger.totalIncomeCents());
+        totalExpenses.add(ledger.totalExpensesCents());
+    }
+
+    // EFFECTS: returns the smallest power of two that is at least twice processors
+    static int stripeCount(int processors) {
+        return Integer.highestOneBit(Math.max(1, processors * 2 - 1)) << 1;
+    }
+
+    /*
+     * REQUIRES: amount >= 0
+     * MODIFIES: this
+     * EFFECTS: adds an income and returns it, to be passed to removeIncome; safe to call from any thread
+     */
+    public Income addIncome(double amount, String source) {
+        Income income = new Income(amount, source);
+        Stripe stripe = stripe();
+        stripe.lock.lock();
+        try {
+            stripe.incomes.add(income);
+        } finally {
+            stripe.lock.unlock();
+        }
+        totalIncome.add(income.getAmountCents());
+        balance.add(income.getAmountCents());
+        EventLog.getInstance().logEvent(Event.added(Event.Kind.INCOME, source, income.getAmountCents()));
+        return income;
+    }
+
+    /*
+     * REQUIRES: amount >= 0
+     * MODIFIES: this
+     * EFFECTS: adds an expense and returns it, to be passed to removeExpense; safe to call from any thread
+     */
+    public Expense addExpense(String title, double amount, String date, String note) {
+        Expense expense = new Expense(title, amount, date, note);
+        Stripe stripe = stripe();
+        stripe.lock.lock();
+        try {
+            stripe.expenses.add(expense);
+        } finally {
+            stripe.lock.unlock();
+        }
+        totalExpenses.add(expense.getAmountCents());
+        balance.add(-expense.getAmountCents());
+        EventLog.getInstance().logEvent(Event.added(Event.Kind.EXPENSE, title, expense.getAmountCents()));
+        return expense;
+    }
+
+    // MODIFIES: this
+    // EFFECTS: merges pending entries, then removes income, an income of the ledger such as one returned by
+    //          addIncome, and returns true; returns false if income is not in the ledger (any more)
+    public boolean removeIncome(Income income) {
+        mergeLock.lock();
+        try {
+            merge();
+            int index = income.getIndex();
+            if (index >= ledger.getIncomeList().size() || ledger.getIncome(index) != income) {
+                return false;
+            }
+            ledger.removeIncome(index);
+        } finally {
+            mergeLock.unlock();
+        }
+        totalIncome.add(-income.getAmountCents());
+        balance.add(-income.getAmountCents());
+        return true;
+    }
+
+    // MODIFIES: this
+    // EFFECTS: merges pending entries, then removes expense, an expense of the ledger such as one returned by
+    //          addExpense, and returns true; returns false if expense is not in the ledger (any more)
+    public boolean removeExpense(Expense expense) {
+        mergeLock.lock();
+        try {
+            merge();
+            int index = expense.getIndex();
+            if (index >= ledger.getExpenses().size() || ledger.getExpense(index) != expense) {
+                return false;
+            }
+            ledger.removeExpense(index);
+        } finally {
+            mergeLock.unlock();
+        }
+        totalExpenses.add(-expense.getAmountCents());
+        balance.add(expense.getAmountCents());
+        return true;
+    }
+
+    // MODIFIES: this
+    // EFFECTS: returns a snapshot of the ledger holding every entry added before the call, taken at one
+    //          point in time, so its lists, totals and balance agree with each other
+    public LedgerSnapshot snapshot() {
+        mergeLock.lock();
+        try {
+            merge();
+            return ledger.snapshot();
+        } finally {
+            mergeLock.unlock();
+        }
+    }
+
+    // MODIFIES: this
+    // EFFECTS: returns the number of incomes, counting pending ones
+    public int incomeCount() {
+        mergeLock.lock();
+        try {
+            merge();
+            return ledger.getIncomeList().size();
+        } finally {
+            mergeLock.unlock();
+        }
+    }
+
+    // MODIFIES: this
+    // EFFECTS: returns the number of expenses, counting pending ones
+    public int expenseCount() {
+        mergeLock.lock();
+        try {
+            merge();
+            return ledger.getExpenses().size();
+        } finally {
+            mergeLock.unlock();
+        }
+    }
+
+    // EFFECTS: returns the balance in cents without blocking; while other threads are changing the ledger
+    //          it may include only some of their changes, so use snapshot() when totals must agree
+    public long getBalanceCents() {
+        return balance.sum();
+    }
+
+    // EFFECTS: returns total of incomes in cents without blocking, as getBalanceCents does
+    public long totalIncomeCents() {
+        return totalIncome.sum();
+    }
+
+    // EFFECTS: returns total of expenses in cents without blocking, as getBalanceCents does
+    public long totalExpensesCents() {
+        return totalExpenses.sum();
+    }
+
+    // EFFECTS: returns the stripe used by the current thread
+    private Stripe stripe() {
+        long id = Thread.currentThread().getId();
+        int hash = (int) (id ^ (id >>> 32)) * 0x9E3779B9;
+        return stripes[(hash >>> 16) & (stripes.length - 1)];
+    }
+
+    // REQUIRES: mergeLock is held
+    // MODIFIES: this
+    // EFFECTS: moves the pending entries of every stripe into the ledger
+    private void merge() {
+        for (Stripe stripe : stripes) {
+            List<Income> incomes;
+            List<Expense> expenses;
+            stripe.lock.lock();
+            try {
+                incomes = stripe.incomes;
+                expenses = stripe.expenses;
+                if (incomes.isEmpty() && expenses.isEmpty()) {
+                    continue;
+                }
+                stripe.incomes = new ArrayList<>();
+                stripe.expenses = new ArrayList<>();
+            } finally {
+                stripe.lock.unlock();
+            }
+            for (Income income : incomes) {
+                ledger.addIncomeEntry(income);
+            }
+            for (Expense expense : expenses) {
+                ledger.addExpenseEntry(expense);
+            }
+        }
+    }
+}
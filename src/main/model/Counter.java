@@ -0,0 +1,35 @@
+package model;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/*
+ * Represents a metric counting how often something happened, such as expenses added. Safe to update from
+ * any thread without contention; does nothing when metrics are disabled (see Metrics).
+ */
+public final class Counter {
+    private final LongAdder count = new LongAdder();
+
+    // EFFECTS: constructs a counter at zero; use Metrics.counter to create one
+    Counter() {
+    }
+
+    // MODIFIES: this
+    // EFFECTS: adds one to the count
+    public void increment() {
+        if (Metrics.ENABLED) {
+            count.increment();
+        }
+    }
+
+    // MODIFIES: this
+    // EFFECTS: adds n to the count
+    public void add(long n) {
+        if (Metrics.ENABLED) {
+            count.add(n);
+        }
+    }
+
+    public long getCount() {
+        return count.sum();
+    }
+}
@@ -0,0 +1,148 @@
+package model;
+
+import java.time.LocalDate;
+
+// Parses the free-form dates entered for expenses, such as "25 Dec, 2022", "Dec 25th 2022" or "2022-12-25",
+// into epoch days (days since 1970-01-01) so they can be compared and indexed without parsing them again.
+public final class Dates {
+    public static final int UNKNOWN = Integer.MIN_VALUE; // epoch day of a date that could not be parsed
+
+    private static final String[] MONTHS = {"jan", "feb", "mar", "apr", "may", "jun",
+                                            "jul", "aug", "sep", "oct", "nov", "dec"};
+
+    private Dates() {
+    }
+
+    /*
+     * EFFECTS: returns the epoch day of text, which is either a day, a month name (at least its first three
+     *      letters) and a four-digit year in any order, or a numeric year-month-day; returns UNKNOWN if text
+     *      is null, has no year, or is not a valid date
+     */
+    public static int parseEpochDay(String text) {
+        if (text == null) {
+            return UNKNOWN;
+        }
+        Fields fields = new Fields();
+        int i = 0;
+        while (i >= 0 && i < text.length()) {
+            char c = text.charAt(i);
+            if (isDigit(c)) {
+                i = fields.readNumber(text, i);
+            } else if (Character.isLetter(c)) {
+                i = fields.readWord(text, i);
+            } else {
+                i++;
+            }
+        }
+        if (i < 0) {
+            return UNKNOWN;
+        }
+        return fields.month != 0 ? namedMonthDate(fields.month, fields.numbers, fields.digits, fields.count)
+                : numericDate(fields.numbers, fields.digits, fields.count);
+    }
+
+    // Represents the month name and numbers read from a date so far
+    private static final class Fields {
+        int month;
+        final int[] numbers = new int[3];
+        final int[] digits = new int[3];
+        int count;
+
+        // MODIFIES: this
+        // EFFECTS: reads the number starting at start and returns the position after it, or -1 if the date
+        //          already has three numbers
+        int readNumber(String text, int start) {
+            int i = start;
+            int value = 0;
+            while (i < text.length() && isDigit(text.charAt(i)) && i - start < 9) {
+                value = value * 10 + (text.charAt(i++) - '0');
+            }
+            if (count == numbers.length) {
+                return -1;
+            }
+            numbers[count] = value;
+            digits[count++] = i - start;
+            return i;
+        }
+
+        // MODIFIES: this
+        // EFFECTS: reads the word starting at start, which must be an ordinal suffix or the only month name,
+        //          and returns the position after it, or -1 if it is neither
+        int readWord(String text, int start) {
+            int i = start;
+            while (i < text.length() && Character.isLetter(text.charAt(i))) {
+                i++;
+            }
+            if (isOrdinalSuffix(text, start, i, count)) {
+                return i;
+            }
+            if (month != 0) {
+                return -1;
+            }
+            month = monthOf(text, start, i);
+            return month == 0 ? -1 : i;
+        }
+    }
+
+    // EFFECTS: returns the epoch day of a date written as "year-month-day", or UNKNOWN
+    private static int numericDate(int[] numbers, int[] digits, int count) {
+        if (count != 3 || digits[0] != 4) {
+            return UNKNOWN;
+        }
+        return epochDay(numbers[0], numbers[1], numbers[2]);
+    }
+
+    // EFFECTS: returns the epoch day of a date with a named month, one day number and one four-digit year,
+    //          or UNKNOWN
+    private static int namedMonthDate(int month, int[] numbers, int[] digits, int count) {
+        if (count != 2) {
+            return UNKNOWN;
+        }
+        if (digits[0] == 4 && digits[1] <= 2) {
+            return epochDay(numbers[0], month, numbers[1]);
+        }
+        if (digits[1] == 4 && digits[0] <= 2) {
+            return epochDay(numbers[1], month, numbers[0]);
+        }
+        return UNKNOWN;
+    }
+
+    // EFFECTS: returns the epoch day of year-month-day, or UNKNOWN if it is not a valid date
+    private static int epochDay(int year, int month, int day) {
+        if (month < 1 || month > 12 || day < 1 || day > 31) {
+            return UNKNOWN;
+        }
+        LocalDate first = LocalDate.of(year, month, 1);
+        if (day > first.lengthOfMonth()) {
+            return UNKNOWN;
+        }
+        return (int) first.toEpochDay() + day - 1;
+    }
+
+    // EFFECTS: returns 1-12 if text[start, end) starts with the first three letters of a month name, else 0
+    private static int monthOf(String text, int start, int end) {
+        if (end - start < 3) {
+            return 0;
+        }
+        for (int m = 0; m < MONTHS.length; m++) {
+            if (text.regionMatches(true, start, MONTHS[m], 0, 3)) {
+                return m + 1;
+            }
+        }
+        return 0;
+    }
+
+    // EFFECTS: returns true if text[start, end) is "st", "nd", "rd" or "th" directly after a number
+    private static boolean isOrdinalSuffix(String text, int start, int end, int count) {
+        if (end - start != 2 || count == 0 || !isDigit(text.charAt(start - 1))) {
+            return false;
+        }
+        String suffix = text.substring(start, end);
+        return suffix.equalsIgnoreCase("st") || suffix.equalsIgnoreCase("nd")
+                || suffix.equalsIgnoreCase("rd") || suffix.equalsIgnoreCase("th");
+    }
+
+    private static boolean isDigit(char c) {
+        return c >= '0' && c <= '9';
+    }
+}
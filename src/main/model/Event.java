@@ -1,16 +1,34 @@
 package model;
 
-import java.util.Calendar;
 import java.util.Date;
 
 
 /**
  * Represents a ledger event.
+ * An event records what happened as plain fields (its type, the kind of
+ * entry, the amounts in cents and the name of the entry) and a time
+ * stamp in milliseconds; the human-readable description is only built
+ * when it is asked for, since most events are never displayed.
  */
 public class Event {
     private static final int HASH_CONSTANT = 13;
-    private Date dateLogged;
-    private String description;
+
+    /**
+     * What happened.
+     */
+    public enum Type { MESSAGE, ADDED, DELETED, CONTRIBUTED }
+
+    /**
+     * The kind of entry it happened to.
+     */
+    public enum Kind { NONE, INCOME, EXPENSE, SAVING_GOAL }
+
+    private final long timestamp;
+    private final Type type;
+    private final Kind kind;
+    private final long amountCents;
+    private final long otherCents;
+    private final String text; // the entry's title, source or name; the description itself for a MESSAGE
 
     /**
      * Creates an event with the given description
@@ -18,8 +36,58 @@ public class Event {
      * @param description  a description of the event
      */
     public Event(String description) {
-        dateLogged = Calendar.getInstance().getTime();
-        this.description = description;
+        this(System.currentTimeMillis(), Type.MESSAGE, Kind.NONE, 0, 0, description);
+    }
+
+    /**
+     * Creates an event from its fields, such as one read back from disk.
+     * @param timestamp    the time of the event in milliseconds since the epoch
+     * @param type         what happened
+     * @param kind         the kind of entry it happened to
+     * @param amountCents  the amount involved, in cents
+     * @param otherCents   a second amount (the goal amount of a deleted saving goal), in cents
+     * @param text         the name of the entry, or the description of a MESSAGE
+     */
+    Event(long timestamp, Type type, Kind kind, long amountCents, long otherCents, String text) {
+        this.timestamp = timestamp;
+        this.type = type;
+        this.kind = kind;
+        this.amountCents = amountCents;
+        this.otherCents = otherCents;
+        this.text = text;
+    }
+
+    /**
+     * Creates an event for an entry that was added.
+     * @param kind         the kind of entry
+     * @param name         its title, source or name
+     * @param amountCents  its amount (the goal amount of a saving goal), in cents
+     * @return  the event, stamped with the current time
+     */
+    public static Event added(Kind kind, String name, long amountCents) {
+        return new Event(System.currentTimeMillis(), Type.ADDED, kind, amountCents, 0, name);
+    }
+
+    /**
+     * Creates an event for an entry that was deleted.
+     * @param kind         the kind of entry
+     * @param name         its title, source or name
+     * @param amountCents  its amount (the amount saved so far for a saving goal), in cents
+     * @param otherCents   the goal amount of a saving goal, in cents; ignored otherwise
+     * @return  the event, stamped with the current time
+     */
+    public static Event deleted(Kind kind, String name, long amountCents, long otherCents) {
+        return new Event(System.currentTimeMillis(), Type.DELETED, kind, amountCents, otherCents, name);
+    }
+
+    /**
+     * Creates an event for a contribution to a saving goal.
+     * @param name         the name of the saving goal
+     * @param amountCents  the amount contributed, in cents
+     * @return  the event, stamped with the current time
+     */
+    public static Event contributed(String name, long amountCents) {
+        return new Event(System.currentTimeMillis(), Type.CONTRIBUTED, Kind.SAVING_GOAL, amountCents, 0, name);
     }
 
     /**
@@ -27,7 +95,56 @@ public class Event {
      * @return  the date of the event
      */
     public Date getDate() {
-        return dateLogged;
+        return new Date(timestamp);
+    }
+
+    /**
+     * Gets the time of this event.
+     * @return  the time of the event in milliseconds since the epoch
+     */
+    public long getTimestamp() {
+        return timestamp;
+    }
+
+    /**
+     * Gets the type of this event.
+     * @return  what happened
+     */
+    public Type getType() {
+        return type;
+    }
+
+    /**
+     * Gets the kind of this event.
+     * @return  the kind of entry it happened to
+     */
+    public Kind getKind() {
+        return kind;
+    }
+
+    /**
+     * Gets the amount of this event.
+     * @return  the amount involved, in cents
+     */
+    public long getAmountCents() {
+        return amountCents;
+    }
+
+    /**
+     * Gets the second amount of this event.
+     * @return  the goal amount of a deleted saving goal, in cents; 0 otherwise
+     */
+    public long getOtherCents() {
+        return otherCents;
+    }
+
+    /**
+     * Gets the title, source or name of the entry, or the description
+     * of an event that is only a message.
+     * @return  the text stored with the event
+     */
+    public String getText() {
+        return text;
     }
 
     /**
@@ -35,7 +152,39 @@ public class Event {
      * @return  the description of the event
      */
     public String getDescription() {
-        return description;
+        if (type == Type.MESSAGE) {
+            return text;
+        }
+        return appendDescription(new StringBuilder(64)).toString();
+    }
+
+    /**
+     * Appends the description of this event to sb.
+     * @param sb  the builder to append to
+     * @return  sb
+     */
+    public StringBuilder appendDescription(StringBuilder sb) {
+        switch (type) {
+            case ADDED:
+                sb.append(kind == Kind.EXPENSE ? "Added an expense '"
+                        : kind == Kind.INCOME ? "Added an income '" : "Added a saving goal '");
+                sb.append(text).append(kind == Kind.SAVING_GOAL ? "' of goal amount $" : "' of amount $");
+                return Money.appendTo(sb, amountCents);
+            case DELETED:
+                if (kind == Kind.SAVING_GOAL) {
+                    sb.append("Deleted saving goal '").append(text).append("' ($");
+                    Money.appendTo(sb, amountCents).append(" out of $");
+                    return Money.appendTo(sb, otherCents).append(')');
+                }
+                sb.append(kind == Kind.EXPENSE ? "Deleted expense '" : "Deleted income '");
+                sb.append(text).append("' of amount $");
+                return Money.appendTo(sb, amountCents);
+            case CONTRIBUTED:
+                sb.append("Contributed $");
+                return Money.appendTo(sb, amountCents).append(" to '").append(text).append("'.");
+            default:
+                return sb.append(text);
+        }
     }
 
     @Override
@@ -49,18 +198,18 @@ public class Event {
 
         Event otherEvent = (Event) other;
 
-        return (this.dateLogged.equals(otherEvent.dateLogged)
+        return (this.timestamp == otherEvent.timestamp
                 &&
-                this.description.equals(otherEvent.description));
+                this.getDescription().equals(otherEvent.getDescription()));
     }
 
     @Override
     public int hashCode() {
-        return (HASH_CONSTANT * dateLogged.hashCode() + description.hashCode());
+        return (HASH_CONSTANT * Long.hashCode(timestamp) + getDescription().hashCode());
     }
 
     @Override
     public String toString() {
-        return dateLogged.toString() + "\n" + description;
+        return appendDescription(new StringBuilder(96).append(getDate()).append('\n')).toString();
     }
-}
\ No newline at end of file
+}
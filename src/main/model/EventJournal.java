@@ -0,0 +1,490 @@
+package model;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+
+/*
+ * Represents a persistent, append-only journal of every event logged, kept across runs of the program.
+ * Events are written one per line in the same format as the event log's spill segments. Appending only
+ * queues the event; a background thread writes whatever has queued up in one batch and forces it to disk.
+ *
+ * Every BLOCK events form a block, and a sparse index in a sidecar file (<journal>.idx) records for each
+ * block its byte range and its earliest and latest time stamps. A time-range query binary searches the
+ * index for the first block that can hold a match, reads only the blocks whose time range overlaps the
+ * query, and stops at the first block after which every event is too late, so it seeks instead of
+ * scanning the whole journal. The index is rebuilt from the journal for any events it is missing when the
+ * journal is opened.
+ */
+public class EventJournal {
+    static final int BLOCK = 128;          // events per index entry
+    private static final int ENTRY_BYTES = 4 * 8; // start, end, earliest, latest
+    private static final int QUEUE_CAPACITY = 64 * 1024;
+    private static final int BATCH = 1024;
+    private static final Object STOP = new Object();
+
+    private final Path path;
+    private final Path indexPath;
+    private final BlockingQueue<Object> queue; // events to write, flush latches and STOP
+    private FileChannel channel;
+    private FileChannel indexChannel;
+    private Thread writer;
+    private boolean failed; // a write failed and has been reported; accessed by the writer thread only
+
+    // the index, guarded by this
+    private long[] starts;
+    private long[] ends;
+    private long[] earliest;
+    private long[] latest;
+    private long[] prefixLatest;    // latest time stamp in blocks 0..b
+    private long[] suffixEarliest;  // earliest time stamp in blocks b..blocks-1
+    private int blocks;
+    private long tailStart;         // the events after the last full block
+    private int tailCount;
+    private long tailEarliest;
+    private long tailLatest;
+    private long size;              // bytes written to the journal
+    private long blocksRead;        // blocks read by queries, for testing
+
+    // Represents one page of the events matching a query
+    public static final class Page {
+        private final List<Event> events;
+        private final long next;
+
+        Page(List<Event> events, long next) {
+            this.events = events;
+            this.next = next;
+        }
+
+        // EFFECTS: returns the events on this page, oldest first
+        public List<Event> getEvents() {
+            return events;
+        }
+
+        // EFFECTS: returns the cursor to pass to get the next page, or -1 if there are no more matches
+        public long getNext() {
+            return next;
+        }
+
+        // EFFECTS: returns true if there may be more matches after this page
+        public boolean hasMore() {
+            return next >= 0;
+        }
+    }
+
+    // EFFECTS: constructs a journal stored at location, with its index at location + ".idx"
+    public EventJournal(String location) {
+        this.path = Paths.get(location);
+        this.indexPath = Paths.get(location + ".idx");
+        this.queue = new ArrayBlockingQueue<>(QUEUE_CAPACITY);
+        this.starts = new long[16];
+        this.ends = new long[16];
+        this.earliest = new long[16];
+        this.latest = new long[16];
+        this.prefixLatest = new long[16];
+        this.suffixEarliest = new long[16];
+    }
+
+    /*
+     * MODIFIES: this
+     * EFFECTS: opens the journal and its index, creating them if needed, drops a damaged or partly written
+     *      tail left by a crash, indexes events the index is missing, and starts the writer thread;
+     *      throws IOException if the journal cannot be opened
+     */
+    public void open() throws IOException {
+        channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE);
+        indexChannel = FileChannel.open(indexPath, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE);
+        readIndex();
+        indexTail();
+        channel.position(size);
+        indexChannel.position((long) blocks * ENTRY_BYTES);
+        writer = new Thread(this::writeLoop, "event-journal-writer");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    // REQUIRES: the journal is open
+    // MODIFIES: this
+    // EFFECTS: queues e to be written by the writer thread; waits only if the queue is full
+    public void append(Event e) {
+        enqueue(e);
+    }
+
+    // REQUIRES: the journal is open
+    // EFFECTS: waits until every event appended so far has been written
+    public void flush() {
+        CountDownLatch written = new CountDownLatch(1);
+        enqueue(written);
+        try {
+            written.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    // MODIFIES: this
+    // EFFECTS: writes every queued event, stops the writer thread and closes the files
+    public void close() throws IOException {
+        if (writer == null) {
+            return;
+        }
+        flush();
+        enqueue(STOP);
+        try {
+            writer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        writer = null;
+        channel.close();
+        indexChannel.close();
+    }
+
+    // EFFECTS: returns the number of events in the journal that have been written
+    public synchronized long size() {
+        return (long) blocks * BLOCK + tailCount;
+    }
+
+    /*
+     * REQUIRES: limit > 0
+     * EFFECTS: returns up to limit events matching query, oldest first, starting at cursor (0 for the first
+     *      page, then the cursor of the previous page); only events already written are seen (see flush);
+     *      throws IOException if the journal cannot be read
+     */
+    public Page query(EventQuery query, long cursor, int limit) throws IOException {
+        long[][] index;
+        int count;
+        synchronized (this) {
+            count = blocks + (tailCount > 0 ? 1 : 0);
+            index = snapshot(count);
+        }
+        long[] blockEarliest = index[2];
+        long[] blockLatest = index[3];
+        long[] laterEarliest = index[4];
+        int b = Math.max((int) (cursor / BLOCK), firstBlockReaching(index[5], count, query.getFromMillis()));
+        long record = Math.max(cursor, (long) b * BLOCK);
+        List<Event> matches = new ArrayList<>(Math.min(limit, BLOCK));
+        for (; b < count && laterEarliest[b] <= query.getToMillis(); b++, record = (long) b * BLOCK) {
+            if (blockLatest[b] >= query.getFromMillis() && blockEarliest[b] <= query.getToMillis()) {
+                List<Event> events = readBlock(index[0][b], index[1][b]);
+                int stoppedAt = collect(events, (int) (record - (long) b * BLOCK), query, matches, limit);
+                if (stoppedAt >= 0) {
+                    return new Page(matches, (long) b * BLOCK + stoppedAt + 1);
+                }
+            }
+        }
+        return new Page(matches, -1);
+    }
+
+    // MODIFIES: matches
+    // EFFECTS: adds the events from position first on that match query to matches until it holds limit
+    //          events; returns the position of the event that filled it, or -1 if it is not full yet
+    private static int collect(List<Event> events, int first, EventQuery query, List<Event> matches, int limit) {
+        for (int i = first; i < events.size(); i++) {
+            if (query.matches(events.get(i))) {
+                matches.add(events.get(i));
+                if (matches.size() == limit) {
+                    return i;
+                }
+            }
+        }
+        return -1;
+    }
+
+    // EFFECTS: returns the number of blocks read by queries so far
+    synchronized long blocksRead() {
+        return blocksRead;
+    }
+
+    // REQUIRES: holding this
+    // EFFECTS: returns copies of the starts, ends, earliest and latest time stamps, earliest time stamp at
+    //          or after and latest at or before each of the first count blocks, the tail counted as a block
+    private long[][] snapshot(int count) {
+        long[][] index = new long[6][];
+        index[0] = Arrays.copyOf(starts, count);
+        index[1] = Arrays.copyOf(ends, count);
+        index[2] = Arrays.copyOf(earliest, count);
+        index[3] = Arrays.copyOf(latest, count);
+        index[4] = Arrays.copyOf(suffixEarliest, count);
+        index[5] = Arrays.copyOf(prefixLatest, count);
+        if (count > blocks) {
+            index[0][blocks] = tailStart;
+            index[1][blocks] = size;
+            index[2][blocks] = tailEarliest;
+            index[3][blocks] = tailLatest;
+            index[4][blocks] = tailEarliest;
+            index[5][blocks] = blocks == 0 ? tailLatest : Math.max(prefixLatest[blocks - 1], tailLatest);
+            for (int b = blocks - 1; b >= 0 && index[4][b] > tailEarliest; b--) {
+                index[4][b] = tailEarliest;
+            }
+        }
+        return index;
+    }
+
+    // EFFECTS: returns the first block whose events, or any before them, are logged at or after from
+    private static int firstBlockReaching(long[] prefixLatest, int count, long from) {
+        int lo = 0;
+        int hi = count;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (prefixLatest[mid] < from) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        return lo;
+    }
+
+    // EFFECTS: returns the events stored in the journal from byte start to byte end
+    private List<Event> readBlock(long start, long end) throws IOException {
+        synchronized (this) {
+            blocksRead++;
+        }
+        String text = new String(read(channel, start, (int) (end - start)), StandardCharsets.UTF_8);
+        List<Event> events = new ArrayList<>(BLOCK);
+        for (int from = 0, to; (to = text.indexOf('\n', from)) >= 0; from = to + 1) {
+            events.add(EventSegments.decode(text.substring(from, to)));
+        }
+        return events;
+    }
+
+    // MODIFIES: this
+    // EFFECTS: loads the index entries that describe complete blocks of the journal and drops the rest
+    private void readIndex() throws IOException {
+        long journalSize = channel.size();
+        int entries = (int) (indexChannel.size() / ENTRY_BYTES);
+        ByteBuffer buffer = ByteBuffer.wrap(read(indexChannel, 0, entries * ENTRY_BYTES));
+        long previousEnd = 0;
+        while (buffer.remaining() >= ENTRY_BYTES) {
+            long start = buffer.getLong();
+            long end = buffer.getLong();
+            long first = buffer.getLong();
+            long last = buffer.getLong();
+            if (start != previousEnd || end <= start || end > journalSize || first > last) {
+                break;
+            }
+            addBlock(start, end, first, last);
+            previousEnd = end;
+        }
+        indexChannel.truncate((long) blocks * ENTRY_BYTES);
+        indexChannel.position((long) blocks * ENTRY_BYTES); // entries rebuilt by indexTail go after these
+        size = previousEnd;
+        tailStart = previousEnd;
+    }
+
+    // MODIFIES: this
+    // EFFECTS: reads the events after the last indexed block, indexes every full block among them and
+    //          truncates the journal after the last complete, readable event
+    private void indexTail() throws IOException {
+        byte[] bytes = read(channel, size, (int) (channel.size() - size));
+        int from = 0;
+        for (int to = 0; to < bytes.length; to++) {
+            if (bytes[to] != '\n') {
+                continue;
+            }
+            Event e;
+            try {
+                e = EventSegments.decode(new String(bytes, from, to - from, StandardCharsets.UTF_8));
+            } catch (IllegalArgumentException ex) {
+                break;
+            }
+            List<long[]> completed = new ArrayList<>(1);
+            record(e.getTimestamp(), to + 1 - from, completed);
+            writeIndexEntries(completed);
+            from = to + 1;
+        }
+        if (from < bytes.length) {
+            System.out.println("Ignoring damaged event journal tail in " + path);
+        }
+        channel.truncate(size);
+    }
+
+    // EFFECTS: takes events off the queue in batches and writes them until STOP is taken
+    private void writeLoop() {
+        List<Object> batch = new ArrayList<>(BATCH);
+        while (true) {
+            try {
+                batch.add(queue.take());
+            } catch (InterruptedException e) {
+                return;
+            }
+            queue.drainTo(batch, BATCH - 1);
+            boolean stop = write(batch);
+            batch.clear();
+            if (stop) {
+                return;
+            }
+        }
+    }
+
+    /*
+     * MODIFIES: this
+     * EFFECTS: writes the events in batch with one write and one force, indexes them, then releases the
+     *      flushes waiting in batch; returns true if batch holds STOP
+     */
+    private boolean write(List<Object> batch) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(batch.size() * 64);
+        List<long[]> lines = new ArrayList<>(batch.size()); // time stamp and length of each line
+        boolean stop = false;
+        for (Object item : batch) {
+            if (item instanceof Event) {
+                byte[] line = (EventSegments.encode((Event) item) + "\n").getBytes(StandardCharsets.UTF_8);
+                bytes.write(line, 0, line.length);
+                lines.add(new long[] {((Event) item).getTimestamp(), line.length});
+            }
+            stop |= item == STOP;
+        }
+        if (!lines.isEmpty()) {
+            writeLines(bytes.toByteArray(), lines);
+        }
+        for (Object item : batch) {
+            if (item instanceof CountDownLatch) {
+                ((CountDownLatch) item).countDown();
+            }
+        }
+        return stop;
+    }
+
+    // MODIFIES: this
+    // EFFECTS: appends bytes, which hold the given lines, to the journal, forces it to disk and indexes the
+    //          lines; reports the first failure and drops the lines if they cannot be written
+    private void writeLines(byte[] bytes, List<long[]> lines) {
+        try {
+            ByteBuffer buffer = ByteBuffer.wrap(bytes);
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            channel.force(false);
+            List<long[]> completed = new ArrayList<>();
+            synchronized (this) {
+                for (long[] line : lines) {
+                    record(line[0], (int) line[1], completed);
+                }
+            }
+            writeIndexEntries(completed);
+        } catch (IOException e) {
+            if (!failed) {
+                failed = true;
+                System.out.println("Unable to write event journal: " + path);
+            }
+            dropPartialWrite();
+        }
+    }
+
+    // REQUIRES: holding this, or opening the journal
+    // MODIFIES: this
+    // EFFECTS: adds a written line of length bytes logged at timestamp to the tail, and adds the tail to
+    //          completed as {start, end, earliest, latest} once it is a full block
+    private void record(long timestamp, int length, List<long[]> completed) {
+        if (tailCount == 0) {
+            tailStart = size;
+            tailEarliest = timestamp;
+            tailLatest = timestamp;
+        } else {
+            tailEarliest = Math.min(tailEarliest, timestamp);
+            tailLatest = Math.max(tailLatest, timestamp);
+        }
+        tailCount++;
+        size += length;
+        if (tailCount == BLOCK) {
+            completed.add(new long[] {tailStart, size, tailEarliest, tailLatest});
+            addBlock(tailStart, size, tailEarliest, tailLatest);
+            tailCount = 0;
+        }
+    }
+
+    // REQUIRES: holding this, or opening the journal
+    // MODIFIES: this
+    // EFFECTS: adds an index entry for the block of events from byte start to byte end
+    private void addBlock(long start, long end, long first, long last) {
+        if (blocks == starts.length) {
+            int capacity = blocks * 2;
+            starts = Arrays.copyOf(starts, capacity);
+            ends = Arrays.copyOf(ends, capacity);
+            earliest = Arrays.copyOf(earliest, capacity);
+            latest = Arrays.copyOf(latest, capacity);
+            prefixLatest = Arrays.copyOf(prefixLatest, capacity);
+            suffixEarliest = Arrays.copyOf(suffixEarliest, capacity);
+        }
+        starts[blocks] = start;
+        ends[blocks] = end;
+        earliest[blocks] = first;
+        latest[blocks] = last;
+        prefixLatest[blocks] = blocks == 0 ? last : Math.max(prefixLatest[blocks - 1], last);
+        suffixEarliest[blocks] = first;
+        for (int b = blocks - 1; b >= 0 && suffixEarliest[b] > first; b--) {
+            suffixEarliest[b] = first; // only when the clock moved back since those blocks
+        }
+        blocks++;
+        tailStart = end;
+    }
+
+    // EFFECTS: appends the index entries of completed blocks to the index file
+    private void writeIndexEntries(List<long[]> completed) throws IOException {
+        if (completed.isEmpty()) {
+            return;
+        }
+        ByteBuffer buffer = ByteBuffer.allocate(completed.size() * ENTRY_BYTES);
+        for (long[] entry : completed) {
+            for (long value : entry) {
+                buffer.putLong(value);
+            }
+        }
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            indexChannel.write(buffer);
+        }
+    }
+
+    // EFFECTS: cuts off whatever part of a failed batch reached the journal, so later batches follow the
+    //          last indexed event
+    private void dropPartialWrite() {
+        try {
+            channel.truncate(size);
+            channel.position(size);
+        } catch (IOException e) {
+            // the next write will fail and try again
+        }
+    }
+
+    // EFFECTS: returns length bytes of file starting at position; throws IOException if the file is shorter
+    private static byte[] read(FileChannel file, long position, int length) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(length);
+        while (buffer.hasRemaining()) {
+            if (file.read(buffer, position + buffer.position()) < 0) {
+                throw new IOException("Unexpected end of file");
+            }
+        }
+        return buffer.array();
+    }
+
+    // EFFECTS: puts item on the queue, waiting for room if it is full
+    private void enqueue(Object item) {
+        boolean interrupted = false;
+        while (true) {
+            try {
+                queue.put(item);
+                break;
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -1,60 +1,320 @@
 package model;
 
+import java.io.IOException;
 import java.util.ArrayList;
-import java.util.Collection;
+import java.util.Collections;
 import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.ReentrantLock;
 
 /**
  * Represents a log of ledger events.
  * We use the Singleton Design Pattern to ensure that there is only
  * one EventLog in the system and that the system has global access
  * to the single instance of the EventLog.
+ *
+ * The newest events are kept in a fixed-size ring buffer that any
+ * thread can log to without locking: each event claims the next
+ * sequence number and is stored in the slot for that number. When the
+ * ring is full, the oldest events are moved to rolling segment files on
+ * disk (see EventSegments) to make room, so memory use is bounded. A
+ * log that runs for long enough eventually loses its oldest events as
+ * the oldest segment is deleted.
+ *
+ * Once a journal is opened (see openJournal), every event is also
+ * appended to it, so the history survives the program and can be
+ * queried by time range, type and kind of entry.
  */
 public class EventLog implements Iterable<Event> {
+    private static final int DEFAULT_CAPACITY = 4096;
+    private static final int EVENTS_PER_SEGMENT = 16384;
+    private static final int MAX_SEGMENTS = 8;
+
     /** the only EventLog in the system (Singleton Design Pattern) */
-    private static EventLog theLog;
-    private Collection<Event> events;
+    private static final EventLog theLog = new EventLog(
+            Integer.getInteger("eventlog.capacity", DEFAULT_CAPACITY), EVENTS_PER_SEGMENT, MAX_SEGMENTS);
+
+    private final int capacity;
+    private final int mask;
+    private final AtomicReferenceArray<Event> slots;
+    private final AtomicLongArray published; // sequence of the event stored in each slot
+    private final AtomicLong next;            // sequence of the next event to be logged
+    private final ReentrantLock spillLock;    // held while moving events to disk or taking a snapshot
+    private final EventSegments segments;
+    private volatile long spilled;            // events before this sequence have left the ring
+    private long cleared;                     // events before this sequence were cleared; guarded by spillLock
+    private long failed;                      // events lost to disk errors; guarded by spillLock
+    private volatile EventJournal journal;    // persistent history, if one is open
 
     /**
      * Prevent external construction.
      * (Singleton Design Pattern).
+     * Constructs a log that keeps at least capacity events in memory and
+     * at most maxSegments segments of eventsPerSegment events on disk.
      */
-    private EventLog() {
-        events = new ArrayList<Event>();
+    EventLog(int capacity, int eventsPerSegment, int maxSegments) {
+        int size = Integer.highestOneBit(Math.max(2, capacity - 1)) << 1;
+        this.capacity = size;
+        this.mask = size - 1;
+        this.slots = new AtomicReferenceArray<>(size);
+        this.published = new AtomicLongArray(size);
+        for (int i = 0; i < size; i++) {
+            published.set(i, -1);
+        }
+        this.next = new AtomicLong();
+        this.spillLock = new ReentrantLock();
+        this.segments = new EventSegments(eventsPerSegment, maxSegments);
     }
 
     /**
-     * Gets instance of EventLog - creates it
-     * if it doesn't already exist.
+     * Gets instance of EventLog.
      * (Singleton Design Pattern)
      * @return  instance of EventLog
      */
     public static EventLog getInstance() {
-        if (theLog == null) {
-            theLog = new EventLog();
-        }
-
         return theLog;
     }
 
     /**
-     * Adds an event to the event log.
+     * Adds an event to the event log. Safe to call from any thread;
+     * only blocks when the ring is full and the oldest events have to
+     * be moved to disk first.
      * @param e the event to be added
      */
     public void logEvent(Event e) {
-        events.add(e);
+        long seq = next.getAndIncrement();
+        while (seq - spilled >= capacity) {
+            makeRoom(seq);
+        }
+        int slot = (int) seq & mask;
+        slots.set(slot, e);
+        published.lazySet(slot, seq);
+        EventJournal history = journal;
+        if (history != null) {
+            history.append(e);
+        }
+    }
+
+    /**
+     * Opens the persistent journal at the given location, closing the
+     * one open before. Every event logged from now on is appended to it
+     * by a background thread.
+     * @param location  the file of the journal
+     * @throws IOException  if the journal cannot be opened
+     */
+    public synchronized void openJournal(String location) throws IOException {
+        EventJournal opened = new EventJournal(location);
+        opened.open();
+        closeJournal();
+        journal = opened;
+    }
+
+    /**
+     * Writes every event still queued for the journal and closes it.
+     * Does nothing if no journal is open.
+     * @throws IOException  if the journal cannot be closed
+     */
+    public synchronized void closeJournal() throws IOException {
+        EventJournal open = journal;
+        journal = null;
+        if (open != null) {
+            open.close();
+        }
+    }
+
+    /**
+     * Gets a page of the events matching the query, oldest first. They
+     * come from the journal, including events logged in earlier runs,
+     * or from this log if no journal is open.
+     * @param query   the events to find
+     * @param cursor  0 for the first page, then the cursor of the previous page
+     * @param limit   the most events to return, at least 1
+     * @return  the page
+     * @throws IOException  if the journal cannot be read
+     */
+    public EventJournal.Page history(EventQuery query, long cursor, int limit) throws IOException {
+        EventJournal history = journal;
+        if (history == null) {
+            return historyInMemory(query, cursor, limit);
+        }
+        history.flush();
+        return history.query(query, cursor, limit);
     }
 
     /**
      * Clears the event log and logs the event.
      */
     public void clear() {
-        events.clear();
+        spillLock.lock();
+        try {
+            cleared = next.get();
+            failed = 0;
+            segments.clear();
+        } catch (IOException e) {
+            System.out.println("Unable to delete the event log segments.");
+        } finally {
+            spillLock.unlock();
+        }
         logEvent(new Event("Event log cleared."));
     }
 
+    /**
+     * Gets the number of events that are no longer in the log, because
+     * their segment was deleted to bound the disk used or could not be
+     * written.
+     * @return  the number of events lost since the log was last cleared
+     */
+    public long getDroppedCount() {
+        spillLock.lock();
+        try {
+            return segments.dropped() + failed;
+        } finally {
+            spillLock.unlock();
+        }
+    }
+
+    /**
+     * Iterates over a snapshot of the log, oldest event first: the
+     * events on disk, then the ones still in memory. Events logged
+     * while the snapshot is taken may or may not be included.
+     */
     @Override
     public Iterator<Event> iterator() {
-        return events.iterator();
+        List<EventSegments.Segment> onDisk;
+        List<Event> inMemory = new ArrayList<>();
+        spillLock.lock();
+        try {
+            try {
+                onDisk = segments.snapshot();
+            } catch (IOException e) {
+                onDisk = Collections.emptyList();
+            }
+            // slots from spilled on cannot be overwritten while the lock is held
+            long end = Math.min(next.get(), spilled + capacity);
+            for (long seq = Math.max(spilled, cleared); seq < end; seq++) {
+                int slot = (int) seq & mask;
+                if (published.get(slot) != seq) {
+                    break; // still being logged
+                }
+                inMemory.add(slots.get(slot));
+            }
+        } finally {
+            spillLock.unlock();
+        }
+        return new SnapshotIterator(onDisk, inMemory);
+    }
+
+    // EFFECTS: returns a page of the events in this log matching query, with cursor counting events
+    private EventJournal.Page historyInMemory(EventQuery query, long cursor, int limit) {
+        List<Event> matches = new ArrayList<>();
+        long position = 0;
+        for (Event e : this) {
+            position++;
+            if (position > cursor && query.matches(e)) {
+                matches.add(e);
+                if (matches.size() == limit) {
+                    return new EventJournal.Page(matches, position);
+                }
+            }
+        }
+        return new EventJournal.Page(matches, -1);
+    }
+
+    /*
+     * MODIFIES: this
+     * EFFECTS: if no other thread is already doing it, moves the oldest published events to disk until
+     *      seq has a free slot, and a quarter of the ring more so later events need not wait; otherwise
+     *      yields so that thread can make progress
+     */
+    private void makeRoom(long seq) {
+        if (!spillLock.tryLock()) {
+            Thread.yield();
+            return;
+        }
+        try {
+            spillUpTo(seq - capacity + 1 + capacity / 4);
+        } finally {
+            spillLock.unlock();
+        }
+        if (seq - spilled >= capacity) {
+            Thread.yield();
+        }
+    }
+
+    // REQUIRES: spillLock is held
+    // MODIFIES: this
+    // EFFECTS: moves the events before sequence upTo out of the ring, stopping early at one still being logged
+    private void spillUpTo(long upTo) {
+        long s = spilled;
+        while (s < upTo) {
+            int slot = (int) s & mask;
+            if (published.get(slot) != s) {
+                break; // an older event is still being logged; its thread will make room next
+            }
+            if (s >= cleared) {
+                spill(slots.get(slot));
+            }
+            slots.set(slot, null);
+            spilled = ++s;
+        }
+    }
+
+    // REQUIRES: spillLock is held
+    // MODIFIES: this
+    // EFFECTS: writes e to disk, counting it as dropped if it cannot be written
+    private void spill(Event e) {
+        try {
+            segments.append(e);
+        } catch (IOException ex) {
+            if (failed++ == 0) {
+                System.out.println("Unable to write the event log to disk; older events are being dropped.");
+            }
+        }
+    }
+
+    // Represents an iterator over the segments of a snapshot, read one at a time, followed by its events
+    // still in memory
+    private static final class SnapshotIterator implements Iterator<Event> {
+        private final Iterator<EventSegments.Segment> onDisk;
+        private final List<Event> inMemory;
+        private Iterator<Event> current;
+        private boolean inMemoryStarted;
+
+        SnapshotIterator(List<EventSegments.Segment> onDisk, List<Event> inMemory) {
+            this.onDisk = onDisk.iterator();
+            this.inMemory = inMemory;
+            this.current = Collections.emptyIterator();
+        }
+
+        @Override
+        public boolean hasNext() {
+            while (!current.hasNext()) {
+                if (onDisk.hasNext()) {
+                    try {
+                        current = EventSegments.read(onDisk.next()).iterator();
+                    } catch (IOException e) {
+                        current = Collections.emptyIterator();
+                    }
+                } else if (!inMemoryStarted) {
+                    inMemoryStarted = true;
+                    current = inMemory.iterator();
+                } else {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        @Override
+        public Event next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            return current.next();
+        }
     }
-}
\ No newline at end of file
+}
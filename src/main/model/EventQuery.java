@@ -0,0 +1,56 @@
+package model;
+
+import java.util.Date;
+
+/*
+ * Represents a query over logged events: the events logged in a time range, optionally only those of one
+ * type and of one kind of entry, such as "all deletions this month".
+ */
+public final class EventQuery {
+    private final long fromMillis;
+    private final long toMillis;
+    private final Event.Type type; // null for any type
+    private final Event.Kind kind; // null for any kind
+
+    // EFFECTS: constructs a query for the events logged from fromMillis to toMillis inclusive, of the given
+    //          type and kind, where null matches any
+    public EventQuery(long fromMillis, long toMillis, Event.Type type, Event.Kind kind) {
+        this.fromMillis = fromMillis;
+        this.toMillis = toMillis;
+        this.type = type;
+        this.kind = kind;
+    }
+
+    // EFFECTS: returns a query for every event logged from from to to inclusive
+    public static EventQuery between(Date from, Date to) {
+        return new EventQuery(from.getTime(), to.getTime(), null, null);
+    }
+
+    // EFFECTS: returns a query for every event ever logged
+    public static EventQuery all() {
+        return new EventQuery(Long.MIN_VALUE, Long.MAX_VALUE, null, null);
+    }
+
+    // EFFECTS: returns true if e was logged in the range and has the type and kind asked for
+    public boolean matches(Event e) {
+        return e.getTimestamp() >= fromMillis && e.getTimestamp() <= toMillis
+                && (type == null || e.getType() == type)
+                && (kind == null || e.getKind() == kind);
+    }
+
+    public long getFromMillis() {
+        return fromMillis;
+    }
+
+    public long getToMillis() {
+        return toMillis;
+    }
+
+    public Event.Type getType() {
+        return type;
+    }
+
+    public Event.Kind getKind() {
+        return kind;
+    }
+}
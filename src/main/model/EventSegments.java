@@ -0,0 +1,200 @@
+package model;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+
+/*
+ * Represents the on-disk part of the event log: the events that no longer fit in memory, written one per
+ * line as "milliseconds<TAB>type<TAB>kind<TAB>amount<TAB>other amount<TAB>text" into segment files of a
+ * fixed number of events. Only the newest few segments are kept; when another one is started the oldest is
+ * deleted, so the disk used stays bounded.
+ * The segments live in a temporary directory that is removed when the program exits.
+ * Not thread-safe: the event log calls it while holding its spill lock.
+ */
+final class EventSegments {
+    // text of an event whose text is null; escape never writes a lone backslash, so no real text looks like it
+    private static final String NULL_TEXT = "\\0";
+
+    private final int eventsPerSegment;
+    private final int maxSegments;
+    private final Deque<Segment> segments; // oldest first; the last one is being written
+    private Path dir;
+    private BufferedWriter out;
+    private int nextIndex;
+    private long dropped;
+
+    // Represents a segment file and the number of events written to it
+    static final class Segment {
+        final Path path;
+        int count;
+
+        Segment(Path path, int count) {
+            this.path = path;
+            this.count = count;
+        }
+    }
+
+    // REQUIRES: eventsPerSegment > 0, maxSegments > 0
+    // EFFECTS: constructs an empty store that keeps at most maxSegments segments of eventsPerSegment events
+    EventSegments(int eventsPerSegment, int maxSegments) {
+        this.eventsPerSegment = eventsPerSegment;
+        this.maxSegments = maxSegments;
+        this.segments = new ArrayDeque<>();
+    }
+
+    // MODIFIES: this
+    // EFFECTS: appends e to the newest segment, starting a new segment (and deleting the oldest one if
+    //          there are too many) when it is full; throws IOException if the segment cannot be written
+    void append(Event e) throws IOException {
+        Segment current = segments.peekLast();
+        if (current == null || current.count == eventsPerSegment) {
+            current = startSegment();
+        }
+        out.write(encode(e));
+        out.write('\n');
+        current.count++;
+    }
+
+    // MODIFIES: this
+    // EFFECTS: flushes the newest segment and returns a copy of the segments currently on disk, oldest first
+    List<Segment> snapshot() throws IOException {
+        if (out != null) {
+            out.flush();
+        }
+        List<Segment> copy = new ArrayList<>(segments.size());
+        for (Segment s : segments) {
+            copy.add(new Segment(s.path, s.count));
+        }
+        return copy;
+    }
+
+    // EFFECTS: returns the number of events lost because their segment was deleted to make room
+    long dropped() {
+        return dropped;
+    }
+
+    // MODIFIES: this
+    // EFFECTS: deletes every segment
+    void clear() throws IOException {
+        closeWriter();
+        for (Segment s : segments) {
+            Files.deleteIfExists(s.path);
+        }
+        segments.clear();
+        dropped = 0;
+    }
+
+    // EFFECTS: returns the first count events of segment; a segment deleted since the snapshot was taken
+    //          reads as empty; throws IOException if it cannot be read
+    static List<Event> read(Segment segment) throws IOException {
+        List<Event> events = new ArrayList<>(segment.count);
+        try (BufferedReader in = Files.newBufferedReader(segment.path, StandardCharsets.UTF_8)) {
+            String line;
+            while (events.size() < segment.count && (line = in.readLine()) != null) {
+                events.add(decode(line));
+            }
+        } catch (NoSuchFileException e) {
+            events.clear();
+        }
+        return events;
+    }
+
+    // EFFECTS: returns e as one line of text, without the line break; a null text is written as NULL_TEXT
+    static String encode(Event e) {
+        String text = e.getText() == null ? NULL_TEXT : escape(e.getText());
+        return e.getTimestamp() + "\t" + e.getType().name() + "\t" + e.getKind().name() + "\t"
+                + e.getAmountCents() + "\t" + e.getOtherCents() + "\t" + text;
+    }
+
+    // EFFECTS: returns the event encoded in line; throws IllegalArgumentException if line is not one
+    static Event decode(String line) {
+        String[] fields = line.split("\t", 6);
+        if (fields.length != 6) {
+            throw new IllegalArgumentException("Not an event: " + line);
+        }
+        return new Event(Long.parseLong(fields[0]), Event.Type.valueOf(fields[1]), Event.Kind.valueOf(fields[2]),
+                Long.parseLong(fields[3]), Long.parseLong(fields[4]),
+                fields[5].equals(NULL_TEXT) ? null : unescape(fields[5]));
+    }
+
+    // MODIFIES: this
+    // EFFECTS: closes the full segment, drops the oldest if there are too many, and opens a new one
+    private Segment startSegment() throws IOException {
+        closeWriter();
+        if (segments.size() == maxSegments) {
+            Segment oldest = segments.removeFirst();
+            dropped += oldest.count;
+            Files.deleteIfExists(oldest.path);
+        }
+        Path path = directory().resolve("events-" + nextIndex++ + ".log");
+        path.toFile().deleteOnExit();
+        out = Files.newBufferedWriter(path, StandardCharsets.UTF_8);
+        Segment segment = new Segment(path, 0);
+        segments.addLast(segment);
+        return segment;
+    }
+
+    // MODIFIES: this
+    // EFFECTS: returns the directory of the segments, creating it the first time
+    private Path directory() throws IOException {
+        if (dir == null) {
+            dir = Files.createTempDirectory("expense-tracker-events");
+            dir.toFile().deleteOnExit(); // registered first, so deleted after the segments in it
+        }
+        return dir;
+    }
+
+    private void closeWriter() throws IOException {
+        if (out != null) {
+            out.close();
+            out = null;
+        }
+    }
+
+    // EFFECTS: returns s with backslashes, line breaks and tabs escaped, so it fits on one line
+    private static String escape(String s) {
+        StringBuilder sb = new StringBuilder(s.length());
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            if (c == '\\') {
+                sb.append("\\\\");
+            } else if (c == '\n') {
+                sb.append("\\n");
+            } else if (c == '\r') {
+                sb.append("\\r");
+            } else if (c == '\t') {
+                sb.append("\\t");
+            } else {
+                sb.append(c);
+            }
+        }
+        return sb.toString();
+    }
+
+    // EFFECTS: reverses escape
+    private static String unescape(String s) {
+        if (s.indexOf('\\') < 0) {
+            return s;
+        }
+        StringBuilder sb = new StringBuilder(s.length());
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            if (c == '\\' && i + 1 < s.length()) {
+                char next = s.charAt(++i);
+                sb.append(next == 'n' ? '\n' : next == 'r' ? '\r' : next == 't' ? '\t' : next);
+            } else {
+                sb.append(c);
+            }
+        }
+        return sb.toString();
+    }
+}
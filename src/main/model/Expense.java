@@ -2,54 +2,132 @@ package model;
 
 // Represents an expense with a title, amount, date, and note.
 public class Expense {
-    private String title;
-    private double amount;
-    private String date;
-    private String note;
+    private State state; // values of this expense; replaced on every change, never changed, so it can be shared
+    private Ledger owner; // ledger this expense belongs to, notified of changes; null if none
+    private int index; // position in the expenses of owner
+
+    // Represents the values of an expense at one point in time, shared by the snapshots taken at that time
+    static final class State {
+        final String title;
+        final long amountCents;
+        final String date;
+        final int epochDay; // date parsed once, Dates.UNKNOWN if it could not be parsed
+        final String note;
+
+        State(String title, long amountCents, String date, int epochDay, String note) {
+            this.title = title;
+            this.amountCents = amountCents;
+            this.date = date;
+            this.epochDay = epochDay;
+            this.note = note;
+        }
+    }
 
     // REQUIRES: amount > 0
     // MODIFIES: this
     // EFFECTS: Constructs an expense object with associated title, amount, date, and a note.
     public Expense(String title, double amount, String date, String note) {
-        this.title = title;
-        this.amount = amount;
-        this.date = date;
-        this.note = note;
+        this.state = new State(title, Money.toCents(amount), date, Dates.parseEpochDay(date), note);
+    }
+
+    // EFFECTS: constructs a standalone copy of other without parsing its date again
+    Expense(Expense other) {
+        this(new State(other.getTitle(), other.getAmountCents(), other.getDate(), other.getEpochDay(),
+                other.getNote()));
+    }
+
+    // EFFECTS: constructs a standalone expense with the values of state
+    Expense(State state) {
+        this.state = state;
+    }
+
+    // EFFECTS: constructs an expense whose accessors are all overridden, for views of stored rows
+    Expense() {
     }
 
     // GETTERS
 
     public String getTitle() {
-        return title;
+        return state.title;
     }
 
     public double getAmount() {
-        return amount;
+        return Money.toDouble(state.amountCents);
+    }
+
+    public long getAmountCents() {
+        return state.amountCents;
     }
 
     public String getDate() {
-        return date;
+        return state.date;
+    }
+
+    // EFFECTS: returns the date as days since 1970-01-01, or Dates.UNKNOWN if it could not be parsed
+    public int getEpochDay() {
+        return state.epochDay;
     }
 
     public String getNote() {
-        return note;
+        return state.note;
+    }
+
+    // EFFECTS: returns the current values of this expense; null for a view of a stored row
+    State getState() {
+        return state;
     }
 
     //SETTERS
 
     public void setTitle(String title) {
-        this.title = title;
+        State old = state;
+        state = new State(title, old.amountCents, old.date, old.epochDay, old.note);
+        notifyOwner(old.amountCents, old.epochDay);
     }
 
     public void setAmount(double amount) {
-        this.amount = amount;
+        setAmountCents(Money.toCents(amount));
+    }
+
+    void setAmountCents(long amountCents) {
+        State old = state;
+        state = new State(old.title, amountCents, old.date, old.epochDay, old.note);
+        notifyOwner(old.amountCents, old.epochDay);
     }
 
     public void setDate(String date) {
-        this.date = date;
+        State old = state;
+        state = new State(old.title, old.amountCents, date, Dates.parseEpochDay(date), old.note);
+        notifyOwner(old.amountCents, old.epochDay);
     }
 
     public void setNote(String note) {
-        this.note = note;
+        State old = state;
+        state = new State(old.title, old.amountCents, old.date, old.epochDay, note);
+        notifyOwner(old.amountCents, old.epochDay);
+    }
+
+    // MODIFIES: this
+    // EFFECTS: sets the ledger to be notified when this expense changes
+    void setOwner(Ledger owner) {
+        this.owner = owner;
+    }
+
+    // MODIFIES: this
+    // EFFECTS: records that this expense is at index of its owner's expenses
+    void setIndex(int index) {
+        this.index = index;
+    }
+
+    // EFFECTS: returns the position of this expense in its owner's expenses, kept up to date by the owner
+    int getIndex() {
+        return index;
+    }
+
+    // EFFECTS: tells the owning ledger, if any, that this expense changed from oldCents and oldDay
+    private void notifyOwner(long oldCents, int oldDay) {
+        if (owner != null) {
+            owner.expenseChanged(this, oldCents, oldDay);
+        }
     }
 }
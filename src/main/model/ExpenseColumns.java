@@ -0,0 +1,404 @@
+package model;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.ConcurrentModificationException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/*
+ * Represents a list of expenses stored column by column instead of as one object per row.
+ * Amounts are kept in a long[] of cents and parsed dates in an int[] of epoch days; titles and date
+ * text, which repeat a lot, are dictionary-encoded into int[] ids that share one string table; notes,
+ * which mostly do not repeat, are kept in their own String[]. get(int) hands out a lightweight view of a
+ * row that reads and writes the columns, so nothing but the columns is kept per expense. A view refers to
+ * a row by position, so like an iterator it fails fast with a ConcurrentModificationException once rows
+ * have been added or removed.
+ *
+ * freeze() hands out a read-only copy in O(1) that shares the columns; the next write to this store copies
+ * them first, so the frozen copy never changes and may be read from another thread it is safely handed to.
+ */
+public final class ExpenseColumns extends AbstractList<Expense> {
+    private static final int INITIAL_CAPACITY = 16;
+
+    private final Ledger owner; // ledger notified when a row changes through a view; null if none
+    private long[] amounts;
+    private int[] titleIds;
+    private int[] dateIds;
+    private int[] days;
+    private String[] notes;
+    private int size;
+    private List<String> strings; // string table shared by titles and dates
+    private final Map<String, Integer> stringIds; // null in a frozen copy, which cannot be written
+    private boolean shared; // true if the columns are shared with a frozen copy and must be copied on write
+
+    // EFFECTS: constructs an empty store whose rows belong to no ledger
+    public ExpenseColumns() {
+        this((Ledger) null);
+    }
+
+    // EFFECTS: constructs an empty store whose views notify owner when changed
+    ExpenseColumns(Ledger owner) {
+        this.owner = owner;
+        this.amounts = new long[INITIAL_CAPACITY];
+        this.titleIds = new int[INITIAL_CAPACITY];
+        this.dateIds = new int[INITIAL_CAPACITY];
+        this.days = new int[INITIAL_CAPACITY];
+        this.notes = new String[INITIAL_CAPACITY];
+        this.strings = new ArrayList<>();
+        this.stringIds = new HashMap<>();
+    }
+
+    // EFFECTS: constructs a read-only copy of source sharing its columns
+    private ExpenseColumns(ExpenseColumns source) {
+        this.owner = null;
+        this.amounts = source.amounts;
+        this.titleIds = source.titleIds;
+        this.dateIds = source.dateIds;
+        this.days = source.days;
+        this.notes = source.notes;
+        this.size = source.size;
+        this.strings = source.strings;
+        this.stringIds = null;
+    }
+
+    // MODIFIES: this
+    // EFFECTS: returns a read-only copy of this store as it is now, sharing its columns until this store is
+    //          next written to
+    public ExpenseColumns freeze() {
+        shared = true;
+        return new ExpenseColumns(this);
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    // EFFECTS: returns a view of the expense at index; throws IndexOutOfBoundsException if there is none
+    @Override
+    public Expense get(int index) {
+        checkIndex(index, size);
+        return new Row(index);
+    }
+
+    // MODIFIES: this
+    // EFFECTS: inserts a copy of the values of expense at index
+    @Override
+    public void add(int index, Expense expense) {
+        checkIndex(index, size + 1);
+        beforeWrite();
+        if (size == amounts.length) {
+            grow();
+        }
+        int tail = size - index;
+        System.arraycopy(amounts, index, amounts, index + 1, tail);
+        System.arraycopy(titleIds, index, titleIds, index + 1, tail);
+        System.arraycopy(dateIds, index, dateIds, index + 1, tail);
+        System.arraycopy(days, index, days, index + 1, tail);
+        System.arraycopy(notes, index, notes, index + 1, tail);
+        store(index, expense);
+        size++;
+        modCount++;
+    }
+
+    // MODIFIES: this
+    // EFFECTS: replaces the values at index with those of expense and returns the previous values
+    @Override
+    public Expense set(int index, Expense expense) {
+        Expense old = detach(index);
+        beforeWrite();
+        store(index, expense);
+        return old;
+    }
+
+    // MODIFIES: this
+    // EFFECTS: removes the expense at index and returns a standalone copy of it
+    @Override
+    public Expense remove(int index) {
+        Expense old = detach(index);
+        beforeWrite();
+        int tail = size - index - 1;
+        System.arraycopy(amounts, index + 1, amounts, index, tail);
+        System.arraycopy(titleIds, index + 1, titleIds, index, tail);
+        System.arraycopy(dateIds, index + 1, dateIds, index, tail);
+        System.arraycopy(days, index + 1, days, index, tail);
+        System.arraycopy(notes, index + 1, notes, index, tail);
+        size--;
+        notes[size] = null;
+        modCount++;
+        return old;
+    }
+
+    // MODIFIES: this
+    // EFFECTS: removes every expense; the string table is kept for rows added later
+    @Override
+    public void clear() {
+        beforeWrite();
+        Arrays.fill(notes, 0, size, null);
+        size = 0;
+        modCount++;
+    }
+
+    // EFFECTS: returns the row of a current view handed out by this store, or the first row with equal
+    //          values if o is another expense; -1 if there is none
+    @Override
+    public int indexOf(Object o) {
+        if (o instanceof Row && ((Row) o).columns() == this) {
+            Row view = (Row) o;
+            return view.isCurrent() ? view.row : -1;
+        }
+        return super.indexOf(o);
+    }
+
+    /*
+     *  Primitive access to the columns, for scans that should not create views
+     */
+
+    // EFFECTS: returns the amount of the expense at row in cents
+    public long amountCents(int row) {
+        checkIndex(row, size);
+        return amounts[row];
+    }
+
+    // EFFECTS: returns the string table id of the title of the expense at row
+    public int titleId(int row) {
+        checkIndex(row, size);
+        return titleIds[row];
+    }
+
+    // EFFECTS: returns the string table id of the date of the expense at row
+    public int dateId(int row) {
+        checkIndex(row, size);
+        return dateIds[row];
+    }
+
+    // EFFECTS: returns the date of the expense at row as an epoch day, or Dates.UNKNOWN
+    public int epochDay(int row) {
+        checkIndex(row, size);
+        return days[row];
+    }
+
+    // EFFECTS: returns the title or date with the given string table id
+    public String string(int id) {
+        return strings.get(id);
+    }
+
+    // EFFECTS: returns the sum of all amounts in cents
+    public long totalCents() {
+        long total = 0;
+        for (int i = 0; i < size; i++) {
+            total += amounts[i];
+        }
+        return total;
+    }
+
+    // EFFECTS: returns the sum of the amounts of all expenses with the given title id in cents
+    public long totalCentsForTitle(int titleId) {
+        long total = 0;
+        for (int i = 0; i < size; i++) {
+            if (titleIds[i] == titleId) {
+                total += amounts[i];
+            }
+        }
+        return total;
+    }
+
+    // REQUIRES: beforeWrite() has been called
+    // MODIFIES: this
+    // EFFECTS: writes the values of expense into the columns at index
+    private void store(int index, Expense expense) {
+        amounts[index] = expense.getAmountCents();
+        titleIds[index] = idOf(expense.getTitle());
+        dateIds[index] = idOf(expense.getDate());
+        days[index] = expense.getEpochDay();
+        String note = expense.getNote();
+        notes[index] = "".equals(note) ? "" : note; // share one empty note
+    }
+
+    // EFFECTS: returns a standalone expense with the values at index
+    private Expense detach(int index) {
+        checkIndex(index, size);
+        return new Expense(new Row(index));
+    }
+
+    /*
+     * MODIFIES: this
+     * EFFECTS: throws UnsupportedOperationException if this is a frozen copy; otherwise first copies the
+     *      columns and string table if they are shared with a frozen copy
+     */
+    private void beforeWrite() {
+        if (stringIds == null) {
+            throw new UnsupportedOperationException("Frozen expenses cannot be modified");
+        }
+        if (shared) {
+            amounts = amounts.clone();
+            titleIds = titleIds.clone();
+            dateIds = dateIds.clone();
+            days = days.clone();
+            notes = notes.clone();
+            strings = new ArrayList<>(strings);
+            shared = false;
+        }
+    }
+
+    // REQUIRES: beforeWrite() has been called
+    // MODIFIES: this
+    // EFFECTS: returns the string table id of s, adding s to the table if it is new
+    private int idOf(String s) {
+        Integer id = stringIds.get(s);
+        if (id == null) {
+            id = strings.size();
+            stringIds.put(s, id);
+            strings.add(s);
+        }
+        return id;
+    }
+
+    // MODIFIES: this
+    // EFFECTS: doubles the capacity of every column
+    private void grow() {
+        int capacity = amounts.length * 2;
+        amounts = Arrays.copyOf(amounts, capacity);
+        titleIds = Arrays.copyOf(titleIds, capacity);
+        dateIds = Arrays.copyOf(dateIds, capacity);
+        days = Arrays.copyOf(days, capacity);
+        notes = Arrays.copyOf(notes, capacity);
+    }
+
+    // EFFECTS: throws IndexOutOfBoundsException unless 0 <= index < bound
+    private void checkIndex(int index, int bound) {
+        if (index < 0 || index >= bound) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+        }
+    }
+
+    // Represents a view of one row of the columns; reads and writes go straight to the columns
+    private final class Row extends Expense {
+        private final int row;
+        private final int expectedModCount;
+
+        Row(int row) {
+            this.row = row;
+            this.expectedModCount = modCount;
+        }
+
+        ExpenseColumns columns() {
+            return ExpenseColumns.this;
+        }
+
+        // EFFECTS: returns true if no row has been added or removed since this view was handed out
+        boolean isCurrent() {
+            return modCount == expectedModCount;
+        }
+
+        // EFFECTS: returns the row of this view; throws ConcurrentModificationException if rows have been
+        //          added or removed since, as it may then refer to a different expense
+        private int at() {
+            if (!isCurrent()) {
+                throw new ConcurrentModificationException("Expense view used after the list was modified");
+            }
+            return row;
+        }
+
+        @Override
+        public String getTitle() {
+            return strings.get(titleIds[at()]);
+        }
+
+        @Override
+        public double getAmount() {
+            return Money.toDouble(amounts[at()]);
+        }
+
+        @Override
+        public long getAmountCents() {
+            return amounts[at()];
+        }
+
+        @Override
+        public String getDate() {
+            return strings.get(dateIds[at()]);
+        }
+
+        @Override
+        public int getEpochDay() {
+            return days[at()];
+        }
+
+        @Override
+        public String getNote() {
+            return notes[at()];
+        }
+
+        @Override
+        public void setTitle(String title) {
+            beforeWrite(); // first, as it may replace the columns written below
+            titleIds[at()] = idOf(title);
+            notifyOwner(amounts[at()], days[at()]);
+        }
+
+        @Override
+        public void setAmount(double amount) {
+            setAmountCents(Money.toCents(amount));
+        }
+
+        @Override
+        void setAmountCents(long amountCents) {
+            beforeWrite();
+            long oldCents = amounts[at()];
+            amounts[at()] = amountCents;
+            notifyOwner(oldCents, days[at()]);
+        }
+
+        @Override
+        public void setDate(String date) {
+            beforeWrite();
+            int oldDay = days[at()];
+            dateIds[at()] = idOf(date);
+            days[at()] = Dates.parseEpochDay(date);
+            notifyOwner(amounts[at()], oldDay);
+        }
+
+        @Override
+        public void setNote(String note) {
+            beforeWrite();
+            notes[at()] = note;
+            notifyOwner(amounts[at()], days[at()]);
+        }
+
+        @Override
+        void setOwner(Ledger owner) {
+            // rows always belong to the ledger that owns the columns
+        }
+
+        @Override
+        void setIndex(int index) {
+            // a view knows its row
+        }
+
+        @Override
+        int getIndex() {
+            return at();
+        }
+
+        // EFFECTS: tells the owning ledger, if any, that this row changed from oldCents and oldDay
+        private void notifyOwner(long oldCents, int oldDay) {
+            if (owner != null) {
+                owner.expenseChanged(this, oldCents, oldDay);
+            }
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof Row && ((Row) o).columns() == columns() && ((Row) o).row == row;
+        }
+
+        @Override
+        public int hashCode() {
+            return System.identityHashCode(columns()) * 31 + row;
+        }
+    }
+}
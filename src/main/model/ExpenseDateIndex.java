@@ -0,0 +1,205 @@
+package model;
+
+import java.util.Arrays;
+
+/*
+ * Represents an index of expense rows sorted by date. Each entry packs an epoch day and a row number into
+ * one long (day in the high half, row in the low half), so the entries sort by date and then by row and
+ * a date range is found with two binary searches. New entries are appended unsorted and merged in the
+ * next time the index is used, so loading rows in any date order costs O(n log n) overall instead of
+ * O(n) per row. Rows whose date is Dates.UNKNOWN are not indexed.
+ *
+ * Removing a row moves every later row up by one. Removing the last row needs no renumbering; any other
+ * removed row is remembered and the later rows are renumbered for all of them at once the next time the
+ * index is queried, so a run of removals costs one pass over the entries instead of one pass each.
+ * Entries keep their row numbers from the last renumbering ("stored" rows) until then.
+ */
+final class ExpenseDateIndex {
+    private static final int MAX_PENDING = 256; // removals remembered before renumbering anyway
+
+    private long[] keys;
+    private int size;
+    private int sorted; // keys[0, sorted) are in order, keys[sorted, size) were appended since
+    private int rows; // rows in stored numbering, indexed or not, including the removed ones pending
+    private int[] pending; // stored rows removed since the last renumbering, in order
+    private int pendingCount;
+
+    // EFFECTS: constructs an empty index
+    ExpenseDateIndex() {
+        keys = new long[16];
+        pending = new int[MAX_PENDING];
+    }
+
+    // EFFECTS: returns the number of indexed rows
+    int size() {
+        return size;
+    }
+
+    // REQUIRES: row is the last row, just added
+    // MODIFIES: this
+    // EFFECTS: indexes row under day
+    void add(int row, int day) {
+        insert(rows++, day);
+    }
+
+    // MODIFIES: this
+    // EFFECTS: moves row from oldDay to newDay
+    void move(int row, int oldDay, int newDay) {
+        if (oldDay != newDay) {
+            int stored = storedRow(row);
+            unindex(stored, oldDay);
+            insert(stored, newDay);
+        }
+    }
+
+    // MODIFIES: this
+    // EFFECTS: drops row, which was indexed under day; the rows after it move up by one
+    void remove(int row, int day) {
+        int stored = storedRow(row);
+        unindex(stored, day);
+        if (stored == rows - 1) {
+            rows--; // nothing after it to renumber
+            while (pendingCount > 0 && pending[pendingCount - 1] == rows - 1) {
+                pendingCount--;
+                rows--;
+            }
+            return;
+        }
+        if (pendingCount == MAX_PENDING) {
+            renumber();
+            stored = row;
+        }
+        int at = pendingCount;
+        while (at > 0 && pending[at - 1] > stored) {
+            pending[at] = pending[at - 1];
+            at--;
+        }
+        pending[at] = stored;
+        pendingCount++;
+    }
+
+    // MODIFIES: this
+    // EFFECTS: drops every entry
+    void clear() {
+        size = 0;
+        sorted = 0;
+        rows = 0;
+        pendingCount = 0;
+    }
+
+    // MODIFIES: this
+    // EFFECTS: returns the position of the first entry dated on or after day
+    int first(int day) {
+        sort();
+        renumber();
+        return lowerBound(key(day, 0));
+    }
+
+    // MODIFIES: this
+    // EFFECTS: returns the position just past the last entry dated on or before day
+    int end(int day) {
+        sort();
+        renumber();
+        return day == Integer.MAX_VALUE ? size : lowerBound(key(day + 1, 0));
+    }
+
+    // REQUIRES: first or end was called since the last change
+    // EFFECTS: returns the row of the entry at position
+    int rowAt(int position) {
+        return (int) keys[position];
+    }
+
+    // EFFECTS: returns the epoch day of the entry at position
+    int dayAt(int position) {
+        return (int) (keys[position] >> 32);
+    }
+
+    // MODIFIES: this
+    // EFFECTS: indexes the stored row under day
+    private void insert(int stored, int day) {
+        if (day == Dates.UNKNOWN) {
+            return;
+        }
+        if (size == keys.length) {
+            keys = Arrays.copyOf(keys, size * 2);
+        }
+        keys[size++] = key(day, stored);
+    }
+
+    // EFFECTS: returns the stored number of the row now at row, counting the removed rows pending before it
+    private int storedRow(int row) {
+        int stored = row;
+        for (int i = 0; i < pendingCount && pending[i] <= stored; i++) {
+            stored++;
+        }
+        return stored;
+    }
+
+    // MODIFIES: this
+    // EFFECTS: moves every entry up by the number of removed rows pending before it, in one pass; as the
+    //          order of the entries does not change, they stay sorted
+    private void renumber() {
+        if (pendingCount == 0) {
+            return;
+        }
+        for (int i = 0; i < size; i++) {
+            int stored = (int) keys[i];
+            int before = Arrays.binarySearch(pending, 0, pendingCount, stored);
+            keys[i] -= before < 0 ? -before - 1 : before;
+        }
+        rows -= pendingCount;
+        pendingCount = 0;
+    }
+
+    // MODIFIES: this
+    // EFFECTS: drops the entry for the stored row under day, if there is one
+    private void unindex(int row, int day) {
+        if (day == Dates.UNKNOWN) {
+            return;
+        }
+        sort();
+        int at = lowerBound(key(day, row));
+        if (at < size && keys[at] == key(day, row)) {
+            System.arraycopy(keys, at + 1, keys, at, size - at - 1);
+            size--;
+            sorted--;
+        }
+    }
+
+    // MODIFIES: this
+    // EFFECTS: sorts the entries appended since the last use and merges them into the sorted ones
+    private void sort() {
+        if (sorted == size) {
+            return;
+        }
+        Arrays.sort(keys, sorted, size);
+        if (sorted > 0 && keys[sorted - 1] > keys[sorted]) {
+            long[] tail = Arrays.copyOfRange(keys, sorted, size);
+            int i = sorted - 1; // last sorted entry
+            int j = tail.length - 1; // last appended entry
+            for (int out = size - 1; j >= 0; out--) {
+                keys[out] = i >= 0 && keys[i] > tail[j] ? keys[i--] : tail[j--];
+            }
+        }
+        sorted = size;
+    }
+
+    // EFFECTS: returns the position of the first entry >= key
+    private int lowerBound(long key) {
+        int lo = 0;
+        int hi = size;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (keys[mid] < key) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        return lo;
+    }
+
+    private static long key(int day, int row) {
+        return ((long) day << 32) | row;
+    }
+}
@@ -0,0 +1,152 @@
+package model;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Threshold;
+
+import java.io.File;
+
+/*
+ * JDK Flight Recorder events of the app, shown under "Expense Tracker" in JDK Mission Control. A recording
+ * of a slow session, e.g. java -XX:StartFlightRecording=filename=session.jfr ui.Main, shows every load,
+ * save and UI refresh with how long it took and on which thread, so a save or refresh that blocked the
+ * event dispatch thread stands out. Ledger changes are only recorded when they took at least a millisecond,
+ * which happens when a listener such as a journal did slow work; lower the threshold of LedgerMutation in
+ * the recording settings to see all of them.
+ *
+ * When no recording is running an event is never committed, and the JIT removes its allocation, so the
+ * events cost next to nothing.
+ */
+public final class FlightEvents {
+
+    private FlightEvents() {
+    }
+
+    @Name("expensetracker.LedgerLoad")
+    @Label("Ledger Load")
+    @Category("Expense Tracker")
+    @Description("A ledger read from a file")
+    public static final class LedgerLoad extends Event {
+        @Label("File")
+        public String file;
+
+        @Label("Format")
+        public String format;
+
+        @Label("Rows")
+        @Description("Incomes, expenses and saving goals read")
+        public int rows;
+
+        @Label("Size")
+        @DataAmount(DataAmount.BYTES)
+        public long bytes;
+
+        // MODIFIES: this
+        // EFFECTS: ends this event and, if a recording wants it, commits it as rows entries read from file
+        public void loaded(String file, String format, int rows) {
+            end();
+            if (shouldCommit()) {
+                this.file = file;
+                this.format = format;
+                this.rows = rows;
+                this.bytes = new File(file).length();
+                commit();
+            }
+        }
+    }
+
+    @Name("expensetracker.LedgerSave")
+    @Label("Ledger Save")
+    @Category("Expense Tracker")
+    @Description("A ledger written to a file, from opening the file until it replaced the previous one")
+    public static final class LedgerSave extends Event {
+        @Label("File")
+        public String file;
+
+        @Label("Format")
+        public String format;
+
+        @Label("Rows")
+        @Description("Incomes, expenses and saving goals written")
+        public int rows;
+
+        @Label("Size")
+        @DataAmount(DataAmount.BYTES)
+        public long bytes;
+
+        // MODIFIES: this
+        // EFFECTS: ends this event and, if a recording wants it, commits it as rows entries written to file
+        public void saved(String file, String format, int rows) {
+            end();
+            if (shouldCommit()) {
+                this.file = file;
+                this.format = format;
+                this.rows = rows;
+                this.bytes = new File(file).length();
+                commit();
+            }
+        }
+    }
+
+    @Name("expensetracker.UiRefresh")
+    @Label("UI Refresh")
+    @Category("Expense Tracker")
+    @Description("Components brought up to date with the ledger")
+    @StackTrace(false)
+    public static final class UiRefresh extends Event {
+        @Label("What")
+        @Description("update: every tab, dashboard: the dashboard labels, table: one table rebuilt")
+        public String what;
+
+        @Label("Rows")
+        @Description("Rows of the ledger shown")
+        public int rows;
+
+        // MODIFIES: this
+        // EFFECTS: ends this event and, if a recording wants it, commits it as a refresh of what showing rows
+        public void refreshed(String what, int rows) {
+            end();
+            if (shouldCommit()) {
+                this.what = what;
+                this.rows = rows;
+                commit();
+            }
+        }
+    }
+
+    @Name("expensetracker.LedgerMutation")
+    @Label("Ledger Mutation")
+    @Category("Expense Tracker")
+    @Description("A change to a ledger, including the time its listeners took to follow it")
+    @Threshold("1 ms")
+    public static final class LedgerMutation extends Event {
+        @Label("Operation")
+        public String operation;
+
+        @Label("Changes")
+        @Description("1, or the number of changes of a batch")
+        public int changes;
+
+        @Label("Rows")
+        @Description("Incomes, expenses and saving goals in the ledger afterwards")
+        public int rows;
+
+        // MODIFIES: this
+        // EFFECTS: ends this event and, if a recording wants it, commits it as operation, made of the given
+        //          number of changes and leaving rows entries in the ledger
+        public void done(String operation, int changes, int rows) {
+            end();
+            if (shouldCommit()) {
+                this.operation = operation;
+                this.changes = changes;
+                this.rows = rows;
+                commit();
+            }
+        }
+    }
+}
@@ -2,32 +2,89 @@ package model;
 
 // Constructs an income object with its amount and source.
 public class Income {
-    private double amount;
-    private String source;
+    private State state; // values of this income; replaced on every change, never changed, so it can be shared
+    private Ledger owner; // ledger this income belongs to, notified of changes; null if none
+    private int index; // position in the incomes of owner
+
+    // Represents the values of an income at one point in time, shared by the snapshots taken at that time
+    static final class State {
+        final long amountCents;
+        final String source;
+
+        State(long amountCents, String source) {
+            this.amountCents = amountCents;
+            this.source = source;
+        }
+    }
 
     // Constructs an income object with its source and amount.
     public Income(double amount, String source) {
-        this.amount = amount;
-        this.source = source;
+        this.state = new State(Money.toCents(amount), source);
+    }
+
+    // EFFECTS: constructs a standalone copy of other
+    Income(Income other) {
+        this(other.state);
+    }
+
+    // EFFECTS: constructs a standalone income with the values of state
+    Income(State state) {
+        this.state = state;
     }
 
     // GETTERS
 
     public double getAmount() {
-        return amount;
+        return Money.toDouble(state.amountCents);
+    }
+
+    public long getAmountCents() {
+        return state.amountCents;
     }
 
     public String getSource() {
-        return source;
+        return state.source;
+    }
+
+    // EFFECTS: returns the current values of this income
+    State getState() {
+        return state;
     }
 
     // SETTERS
 
     public void setAmount(double amount) {
-        this.amount = amount;
+        long oldCents = state.amountCents;
+        state = new State(Money.toCents(amount), state.source);
+        notifyOwner(oldCents);
     }
 
     public void setSource(String source) {
-        this.source = source;
+        state = new State(state.amountCents, source);
+        notifyOwner(state.amountCents);
+    }
+
+    // MODIFIES: this
+    // EFFECTS: sets the ledger to be notified when this income changes
+    void setOwner(Ledger owner) {
+        this.owner = owner;
+    }
+
+    // MODIFIES: this
+    // EFFECTS: records that this income is at index of its owner's incomes
+    void setIndex(int index) {
+        this.index = index;
+    }
+
+    // EFFECTS: returns the position of this income in its owner's incomes, kept up to date by the owner
+    int getIndex() {
+        return index;
+    }
+
+    // EFFECTS: tells the owning ledger, if any, that this income changed from oldCents
+    private void notifyOwner(long oldCents) {
+        if (owner != null) {
+            owner.incomeChanged(this, oldCents);
+        }
     }
 }
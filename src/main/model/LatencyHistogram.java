@@ -0,0 +1,110 @@
+package model;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/*
+ * Represents a metric of how long something takes, such as a save, as a histogram of durations. Durations
+ * below 16ns get a bucket each; above that every power of two is split into eight buckets, so a percentile
+ * is reported within 12.5% of the true duration while the whole histogram is a fixed array of counters.
+ * Recording is safe from any thread, never allocates and does nothing when metrics are disabled.
+ *
+ * Use: long start = HISTOGRAM.start(); ... HISTOGRAM.stop(start);
+ */
+public final class LatencyHistogram {
+    private static final int SUB_BUCKETS = 8;
+    private static final int LINEAR = 2 * SUB_BUCKETS; // durations below this get a bucket each
+    private static final int BUCKETS = LINEAR + (63 - 4) * SUB_BUCKETS;
+
+    private final AtomicLongArray buckets = new AtomicLongArray(BUCKETS);
+    private final LongAdder count = new LongAdder();
+    private final LongAdder total = new LongAdder(); // in nanoseconds
+    private final LongAccumulator max = new LongAccumulator(Math::max, 0);
+
+    // EFFECTS: constructs an empty histogram; use Metrics.histogram to create one
+    LatencyHistogram() {
+    }
+
+    // EFFECTS: returns the current time to pass to stop, or 0 without reading the clock if metrics are
+    //          disabled
+    public long start() {
+        return Metrics.ENABLED ? System.nanoTime() : 0;
+    }
+
+    // MODIFIES: this
+    // EFFECTS: records the time since start, a value returned by start()
+    public void stop(long start) {
+        if (Metrics.ENABLED) {
+            record(System.nanoTime() - start);
+        }
+    }
+
+    // MODIFIES: this
+    // EFFECTS: records a duration of nanos nanoseconds; negative durations count as zero
+    public void record(long nanos) {
+        if (!Metrics.ENABLED) {
+            return;
+        }
+        long duration = Math.max(0, nanos);
+        buckets.incrementAndGet(bucketOf(duration));
+        count.increment();
+        total.add(duration);
+        max.accumulate(duration);
+    }
+
+    public long getCount() {
+        return count.sum();
+    }
+
+    public long getMaxNanos() {
+        return max.get();
+    }
+
+    // EFFECTS: returns the mean duration in nanoseconds, or 0 if nothing was recorded
+    public long getMeanNanos() {
+        long n = count.sum();
+        return n == 0 ? 0 : total.sum() / n;
+    }
+
+    // REQUIRES: 0 < quantile <= 1
+    // EFFECTS: returns the duration in nanoseconds that the given fraction of recorded durations did not
+    //          exceed, rounded up to the end of its bucket but never above the longest recorded; 0 if
+    //          nothing was recorded
+    public long getPercentileNanos(double quantile) {
+        long recorded = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            recorded += buckets.get(i);
+        }
+        long rank = (long) Math.ceil(quantile * recorded);
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += buckets.get(i);
+            if (seen >= rank && seen > 0) {
+                return Math.min(upperBound(i), max.get());
+            }
+        }
+        return 0;
+    }
+
+    // EFFECTS: returns the bucket that nanos falls in
+    static int bucketOf(long nanos) {
+        if (nanos < LINEAR) {
+            return (int) nanos;
+        }
+        int exponent = 63 - Long.numberOfLeadingZeros(nanos); // at least 4
+        int sub = (int) (nanos >>> (exponent - 3)) & (SUB_BUCKETS - 1);
+        return LINEAR + (exponent - 4) * SUB_BUCKETS + sub;
+    }
+
+    // EFFECTS: returns the longest duration that falls in bucket
+    static long upperBound(int bucket) {
+        if (bucket < LINEAR) {
+            return bucket;
+        }
+        int exponent = (bucket - LINEAR) / SUB_BUCKETS + 4;
+        long sub = (bucket - LINEAR) % SUB_BUCKETS;
+        long width = 1L << (exponent - 3);
+        return (SUB_BUCKETS + sub) * width + width - 1;
+    }
+}
@@ -3,29 +3,152 @@ package model;
 import org.json.JSONArray;
 import org.json.JSONObject;
 
+import java.time.LocalDate;
+import java.time.YearMonth;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.ObjIntConsumer;
 
 // Represents a ledger responsible for creation and handling of incomes, expenses, and saving goals
 public class Ledger {
-
-    private double balance; // current balance
+    // Changes made to all ledgers, shown over JMX (see Metrics)
+    private static final Counter ADDED = Metrics.counter("ledger.added");
+    private static final Counter REMOVED = Metrics.counter("ledger.removed");
+    private static final Counter EDITED = Metrics.counter("ledger.edited");
+    private static final Counter CONTRIBUTIONS = Metrics.counter("ledger.contributions");
+    private static final Counter BATCHES = Metrics.counter("ledger.batches");
+
+    private long balance; // current balance in cents
+    private long totalIncome; // running sum of income amounts in cents
+    private long totalExpenses; // running sum of expense amounts in cents
+    private boolean verifyAggregates; // debug mode: recompute totals after every change
 
     // Create a list of all the expenses
     private final List<Expense> expenses;
 
+    // Rows of expenses sorted by date, for period queries
+    private final ExpenseDateIndex dateIndex;
+
     // Create a list of all the income sources
     private final List<Income> incomeList;
 
     // Create a list of all the saving goals
     private final List<SavingGoal> goals;
 
+    // Observers notified after every change to this ledger; copied on write, as a listener may register
+    // another while it is being notified
+    private final List<LedgerListener> listeners;
+
+    // States of the incomes, expenses and goals, in the same order, for snapshots to freeze in O(1); an
+    // entry's state is replaced, never changed, so these share it with the entry. Expenses stored in columns
+    // are frozen by ExpenseColumns itself, and expenseStates is then null.
+    private final SharedRows<Income.State> incomeStates;
+    private final SharedRows<Expense.State> expenseStates;
+    private final SharedRows<SavingGoal.State> goalStates;
+    private long version; // changes made to this ledger
+
     // EFFECTS: Constructs lists for expenses, incomes, and goals and sets the balance to zero.
+    //          Expenses are stored in columns if -Dledger.columnar=true is set.
     public Ledger() {
-        this.expenses = new ArrayList<>();
+        this(Boolean.getBoolean("ledger.columnar"));
+    }
+
+    // EFFECTS: Constructs an empty ledger, storing expenses in columns (see ExpenseColumns) if columnarExpenses
+    public Ledger(boolean columnarExpenses) {
+        this.expenses = columnarExpenses ? new ExpenseColumns(this) : new ArrayList<>();
+        this.dateIndex = new ExpenseDateIndex();
         this.incomeList = new ArrayList<>();
         this.goals = new ArrayList<>();
+        this.incomeStates = new SharedRows<>();
+        this.expenseStates = columnarExpenses ? null : new SharedRows<>();
+        this.goalStates = new SharedRows<>();
+        this.listeners = new CopyOnWriteArrayList<>();
         balance = 0;
+        verifyAggregates = Boolean.getBoolean("ledger.verifyAggregates");
+    }
+
+    // MODIFIES: this
+    // EFFECTS: registers listener to be notified of every following change to this ledger
+    public void addListener(LedgerListener listener) {
+        listeners.add(listener);
+    }
+
+    // MODIFIES: this
+    // EFFECTS: stops notifying listener of changes to this ledger
+    public void removeListener(LedgerListener listener) {
+        listeners.remove(listener);
+    }
+
+    // EFFECTS: returns a copy of this ledger with copies of its incomes, expenses and goals, and no listeners
+    public Ledger copy() {
+        Ledger copy = new Ledger(isColumnar());
+        for (Income income : incomeList) {
+            copy.addIncomeNoLog(income.getAmount(), income.getSource());
+        }
+        for (Expense e : expenses) {
+            copy.addExpenseEntry(new Expense(e));
+        }
+        for (SavingGoal g : goals) {
+            copy.setOldSavingGoal(g.getName(), g.getGoalAmount(), g.getCurrentAmount(), g.isComplete());
+        }
+        copy.balance = balance;
+        return copy;
+    }
+
+    // EFFECTS: returns a new, empty batch of changes to this ledger
+    public LedgerBatch batch() {
+        return new LedgerBatch(this);
+    }
+
+    // EFFECTS: tells listeners that the changes of a batch are about to be applied
+    void batchStarted() {
+        for (LedgerListener listener : listeners) {
+            listener.batchStarted();
+        }
+    }
+
+    // EFFECTS: tells listeners that all changes of a batch have been applied
+    void batchApplied(int changes) {
+        BATCHES.increment();
+        for (LedgerListener listener : listeners) {
+            listener.batchApplied(changes);
+        }
+    }
+
+    // EFFECTS: returns a flight recorder event for a change to a ledger, started now (see FlightEvents)
+    static FlightEvents.LedgerMutation mutationStarted() {
+        FlightEvents.LedgerMutation event = new FlightEvents.LedgerMutation();
+        event.begin();
+        return event;
+    }
+
+    // EFFECTS: records event as operation, made of the given number of changes, if a flight recording wants it
+    void mutationDone(FlightEvents.LedgerMutation event, String operation, int changes) {
+        event.done(operation, changes, entryCount());
+    }
+
+    /*
+     * MODIFIES: this
+     * EFFECTS: returns an immutable snapshot of this ledger as it is now, which another thread may read while
+     *      this ledger keeps changing. It takes O(1): the snapshot shares the arrays of entry states (or the
+     *      expense columns) with this ledger, and the next write to one of them copies it first.
+     */
+    public LedgerSnapshot snapshot() {
+        List<Expense> frozenExpenses = isColumnar() ? ((ExpenseColumns) expenses).freeze()
+                : expenseStates.freeze(Expense::new);
+        return new LedgerSnapshot(version, incomeStates.freeze(Income::new), frozenExpenses,
+                goalStates.freeze(SavingGoal::new), balance, totalIncome, totalExpenses);
+    }
+
+    /*
+     * MODIFIES: this
+     * EFFECTS: turns on or off the debug mode in which the running totals are checked against a full
+     *      recomputation after every change (also turned on by -Dledger.verifyAggregates=true)
+     */
+    public void setVerifyAggregates(boolean verifyAggregates) {
+        this.verifyAggregates = verifyAggregates;
+        checkAggregates();
     }
 
     /*
@@ -36,13 +159,38 @@ public class Ledger {
     public void addExpense(String title, double amount, String date, String note) {
         addExpenseNoLog(title, amount, date, note);
 
-        EventLog.getInstance().logEvent(new Event("Added an expense '" + title + "' of amount $"
-                                                  + String.format("%,.2f",amount)));
+        EventLog.getInstance().logEvent(Event.added(Event.Kind.EXPENSE, title, Money.toCents(amount)));
     }
 
+    // REQUIRES: amount >= 0
+    // MODIFIES: this
+    // EFFECTS: Adds an expense to expenses list without logging; its date is parsed once, here
     public void addExpenseNoLog(String title, double amount, String date, String note) {
-        expenses.add(new Expense(title, amount, date, note));
-        balance -= amount;
+        addExpenseEntry(new Expense(title, amount, date, note));
+    }
+
+    // MODIFIES: this
+    // EFFECTS: adds entry to expenses and the date index and updates the totals
+    void addExpenseEntry(Expense entry) {
+        FlightEvents.LedgerMutation event = mutationStarted();
+        expenses.add(entry);
+        int row = expenses.size() - 1;
+        Expense expense = expenses.get(row); // a view of the new row if stored in columns
+        expense.setOwner(this);
+        expense.setIndex(row);
+        dateIndex.add(row, expense.getEpochDay());
+        totalExpenses += expense.getAmountCents();
+        balance -= expense.getAmountCents();
+        if (expenseStates != null) {
+            expenseStates.add(expense.getState());
+        }
+        version++;
+        checkAggregates();
+        ADDED.increment();
+        for (LedgerListener listener : listeners) {
+            listener.expenseAdded(expenses.size() - 1, expense);
+        }
+        mutationDone(event, "addExpense", 1);
     }
 
     /*
@@ -53,13 +201,30 @@ public class Ledger {
     public void addIncome(double amount, String source) {
         addIncomeNoLog(amount, source);
 
-        EventLog.getInstance().logEvent(new Event("Added an income '" + source + "' of amount $"
-                                                 + String.format("%,.2f", amount)));
+        EventLog.getInstance().logEvent(Event.added(Event.Kind.INCOME, source, Money.toCents(amount)));
     }
 
     public void addIncomeNoLog(double amount, String source) {
-        incomeList.add(new Income(amount, source));
-        balance += amount;
+        addIncomeEntry(new Income(amount, source));
+    }
+
+    // MODIFIES: this
+    // EFFECTS: adds income to incomeList and updates the totals
+    void addIncomeEntry(Income income) {
+        FlightEvents.LedgerMutation event = mutationStarted();
+        income.setOwner(this);
+        income.setIndex(incomeList.size());
+        incomeList.add(income);
+        totalIncome += income.getAmountCents();
+        balance += income.getAmountCents();
+        incomeStates.add(income.getState());
+        version++;
+        checkAggregates();
+        ADDED.increment();
+        for (LedgerListener listener : listeners) {
+            listener.incomeAdded(incomeList.size() - 1, income);
+        }
+        mutationDone(event, "addIncome", 1);
     }
 
     /*
@@ -68,10 +233,9 @@ public class Ledger {
      * EFFECTS: Set a saving goal and add it to goals list
      */
     public void setSavingGoal(String title, double goalAmount) {
-        goals.add(new SavingGoal(title,goalAmount));
+        setOldSavingGoal(title, goalAmount, 0, false);
 
-        EventLog.getInstance().logEvent(new Event("Added a saving goal '" + title + "' of goal amount $"
-                                                 + String.format("%,.2f",goalAmount)));
+        EventLog.getInstance().logEvent(Event.added(Event.Kind.SAVING_GOAL, title, Money.toCents(goalAmount)));
     }
 
     /*
@@ -80,8 +244,24 @@ public class Ledger {
      * EFFECTS: Set a saving goal and add it to goals list
      */
     public void setOldSavingGoal(String title, double goalAmount, double currentAmount, boolean complete) {
-        goals.add(new SavingGoal(title,goalAmount,currentAmount,complete));
-        balance -= currentAmount;
+        addGoalEntry(new SavingGoal(title,goalAmount,currentAmount,complete));
+    }
+
+    // MODIFIES: this
+    // EFFECTS: adds goal to goals and takes what was already saved for it out of the balance
+    void addGoalEntry(SavingGoal goal) {
+        FlightEvents.LedgerMutation event = mutationStarted();
+        goal.setOwner(this);
+        goal.setIndex(goals.size());
+        goals.add(goal);
+        balance -= goal.getCurrentCents();
+        goalStates.add(goal.getState());
+        version++;
+        ADDED.increment();
+        for (LedgerListener listener : listeners) {
+            listener.goalAdded(goals.size() - 1, goal);
+        }
+        mutationDone(event, "addSavingGoal", 1);
     }
 
     /*
@@ -90,7 +270,14 @@ public class Ledger {
      * EFFECTS: Set the balance to given value
      */
     public void setBalance(double balance) {
-        this.balance = balance;
+        FlightEvents.LedgerMutation event = mutationStarted();
+        this.balance = Money.toCents(balance);
+        version++;
+        EDITED.increment();
+        for (LedgerListener listener : listeners) {
+            listener.balanceSet(balance);
+        }
+        mutationDone(event, "setBalance", 1);
     }
 
     // GETTERS
@@ -125,35 +312,201 @@ public class Ledger {
         return goals;
     }
 
+    // EFFECTS: returns the number of incomes, expenses and saving goals
+    public int entryCount() {
+        return incomeList.size() + expenses.size() + goals.size();
+    }
+
+    // EFFECTS: returns true if expenses are stored in columns
+    public boolean isColumnar() {
+        return expenses instanceof ExpenseColumns;
+    }
+
     // EFFECTS: returns the current balance
     public double getBalance() {
+        return Money.toDouble(balance);
+    }
+
+    // EFFECTS: returns the current balance in cents
+    public long getBalanceCents() {
         return balance;
     }
 
-    // EFFECTS: returns total of incomes as a double
+    // EFFECTS: returns total of incomes as a double, kept up to date as incomes change
     public double totalIncome() {
-        double totalIncome = 0;
+        return Money.toDouble(totalIncome);
+    }
+
+    // EFFECTS: returns total of incomes in cents, kept up to date as incomes change
+    public long totalIncomeCents() {
+        return totalIncome;
+    }
+
+    // EFFECTS: returns total of expenses as a double, kept up to date as expenses change
+    public double totalExpenses() {
+        return Money.toDouble(totalExpenses);
+    }
+
+    // EFFECTS: returns total of expenses in cents, kept up to date as expenses change
+    public long totalExpensesCents() {
+        return totalExpenses;
+    }
+
+    /*
+     *  Period queries, answered from the date index in O(log n + k) for k matching expenses.
+     *  Expenses whose date could not be parsed (see Dates) are never included.
+     */
+
+    // EFFECTS: returns the expenses dated from from to to, inclusive, in date order
+    public List<Expense> getExpensesBetween(LocalDate from, LocalDate to) {
+        int end = dateIndex.end(epochDay(to));
+        List<Expense> result = new ArrayList<>();
+        for (int i = dateIndex.first(epochDay(from)); i < end; i++) {
+            result.add(expenses.get(dateIndex.rowAt(i)));
+        }
+        return result;
+    }
+
+    // EFFECTS: returns total of expenses dated from from to to, inclusive, in cents
+    public long totalExpensesCentsBetween(LocalDate from, LocalDate to) {
+        int end = dateIndex.end(epochDay(to));
+        long total = 0;
+        for (int i = dateIndex.first(epochDay(from)); i < end; i++) {
+            total += expenseCentsAt(dateIndex.rowAt(i));
+        }
+        return total;
+    }
+
+    // EFFECTS: returns total of expenses dated in month in cents
+    public long totalExpensesCentsIn(YearMonth month) {
+        return totalExpensesCentsBetween(month.atDay(1), month.atEndOfMonth());
+    }
+
+    // EFFECTS: returns the amount of the expense at row in cents without creating a view
+    private long expenseCentsAt(int row) {
+        if (isColumnar()) {
+            return ((ExpenseColumns) expenses).amountCents(row);
+        }
+        return expenses.get(row).getAmountCents();
+    }
+
+    // EFFECTS: returns date as an epoch day, clamped to the range of an int
+    private static int epochDay(LocalDate date) {
+        return (int) Math.max(Integer.MIN_VALUE, Math.min(Integer.MAX_VALUE, date.toEpochDay()));
+    }
+
+    // EFFECTS: returns total of incomes in cents by adding up every income
+    private long recomputeTotalIncome() {
+        long totalIncome = 0;
         for (int i = 0; i < getIncomeList().size(); i++) {
-            totalIncome += getIncome(i).getAmount();
+            totalIncome += getIncome(i).getAmountCents();
         }
         return totalIncome;
     }
 
-    // EFFECTS: returns total of expenses as a double
-    public double totalExpenses() {
-        double totalExpense = 0;
+    // EFFECTS: returns total of expenses in cents by adding up every expense
+    private long recomputeTotalExpenses() {
+        if (isColumnar()) {
+            return ((ExpenseColumns) expenses).totalCents();
+        }
+        long totalExpense = 0;
         for (int i = 0; i < getExpenses().size(); i++) {
-            totalExpense += getExpense(i).getAmount();
+            totalExpense += getExpense(i).getAmountCents();
         }
         return totalExpense;
     }
 
+    // EFFECTS: in debug mode, throws IllegalStateException if a running total differs from a full recomputation
+    private void checkAggregates() {
+        if (!verifyAggregates) {
+            return;
+        }
+        long income = recomputeTotalIncome();
+        long expense = recomputeTotalExpenses();
+        if (income != totalIncome || expense != totalExpenses) {
+            throw new IllegalStateException("Running totals (" + totalIncome + ", " + totalExpenses
+                    + ") differ from recomputed totals (" + income + ", " + expense + ")");
+        }
+    }
+
+    /*
+     *  Change notifications from incomes, expenses and goals
+     */
+
+    // MODIFIES: this
+    // EFFECTS: updates the totals and balance after an income of this ledger changed from oldCents
+    void incomeChanged(Income income, long oldCents) {
+        FlightEvents.LedgerMutation event = mutationStarted();
+        long delta = income.getAmountCents() - oldCents;
+        totalIncome += delta;
+        balance += delta;
+        incomeStates.set(income.getIndex(), income.getState());
+        version++;
+        checkAggregates();
+        EDITED.increment();
+        for (LedgerListener listener : listeners) {
+            listener.incomeChanged(income.getIndex(), income);
+        }
+        mutationDone(event, "editIncome", 1);
+    }
+
+    // MODIFIES: this
+    // EFFECTS: updates the totals, balance and date index after an expense of this ledger changed from
+    //          oldCents and oldDay
+    void expenseChanged(Expense expense, long oldCents, int oldDay) {
+        FlightEvents.LedgerMutation event = mutationStarted();
+        long delta = expense.getAmountCents() - oldCents;
+        totalExpenses += delta;
+        balance -= delta;
+        if (expenseStates != null) {
+            expenseStates.set(expense.getIndex(), expense.getState());
+        }
+        version++;
+        checkAggregates();
+        EDITED.increment();
+        int index = expense.getIndex();
+        dateIndex.move(index, oldDay, expense.getEpochDay());
+        for (LedgerListener listener : listeners) {
+            listener.expenseChanged(index, expense);
+        }
+        mutationDone(event, "editExpense", 1);
+    }
+
+    // EFFECTS: tells listeners that a goal of this ledger changed
+    void goalChanged(SavingGoal goal) {
+        FlightEvents.LedgerMutation event = mutationStarted();
+        goalStates.set(goal.getIndex(), goal.getState());
+        version++;
+        EDITED.increment();
+        for (LedgerListener listener : listeners) {
+            listener.goalChanged(goal.getIndex(), goal);
+        }
+        mutationDone(event, "editSavingGoal", 1);
+    }
+
+    // MODIFIES: entries
+    // EFFECTS: tells the entries from index from on of their new positions, after one before them was removed
+    private static <T> void renumber(List<T> entries, int from, ObjIntConsumer<T> setIndex) {
+        for (int i = from; i < entries.size(); i++) {
+            setIndex.accept(entries.get(i), i);
+        }
+    }
+
     /*
      * REQUIRES: amount >= 0
      * MODIFIES: this
      * EFFECTS: Contributes to a saving goal in goals list and reduce the balance by that amount
      */
     public boolean addToSavingGoal(int index, double amount) {
+        if (!addToSavingGoalNoLog(index, amount)) {
+            return false;
+        }
+
+        EventLog.getInstance().logEvent(Event.contributed(getSavingGoal(index).getName(), Money.toCents(amount)));
+        return true;
+    }
+
+    public boolean addToSavingGoalNoLog(int index, double amount) {
         // If goal is complete
         if (this.goals.get(index).isComplete()) {
             System.out.println("This saving goal has already been completed. Cannot contribute!");
@@ -169,10 +522,15 @@ public class Ledger {
             System.out.println("Unable to contribute to savings.");
             return false;
         }
-        balance -= amount;
-
-        EventLog.getInstance().logEvent(new Event("Contributed $" + String.format("%,.2f",amount)
-                + " to '" + getSavingGoal(index).getName() + "'."));
+        FlightEvents.LedgerMutation event = mutationStarted();
+        balance -= Money.toCents(amount);
+        goalStates.set(index, goals.get(index).getState());
+        version++;
+        CONTRIBUTIONS.increment();
+        for (LedgerListener listener : listeners) {
+            listener.contributed(index, amount);
+        }
+        mutationDone(event, "contribute", 1);
         return true;
     }
 
@@ -183,35 +541,91 @@ public class Ledger {
     // MODIFIES: incomesList (this)
     // EFFECTS: deletes an income of given index from incomeList
     public void removeIncome(int index) {
-        Income income = incomeList.get(index);
-        incomeList.remove(index);
-        balance = balance - income.getAmount();
+        Income income = removeIncomeNoLog(index);
 
-        EventLog.getInstance().logEvent(new Event("Deleted income '" + income.getSource()
-                + "' of amount $" + String.format("%,.2f",income.getAmount())));
+        EventLog.getInstance().logEvent(Event.deleted(Event.Kind.INCOME, income.getSource(),
+                income.getAmountCents(), 0));
     }
 
     // MODIFIES: expenses (this)
     // EFFECTS: deletes an expense of given index from expenses
     public void removeExpense(int index) {
-        Expense expense = expenses.get(index);
-        expenses.remove(index);
-        balance = balance + expense.getAmount();
+        Expense expense = removeExpenseNoLog(index);
 
-        EventLog.getInstance().logEvent(new Event("Deleted expense '" + expense.getTitle()
-                + "' of amount $" + String.format("%,.2f",expense.getAmount())));
+        EventLog.getInstance().logEvent(Event.deleted(Event.Kind.EXPENSE, expense.getTitle(),
+                expense.getAmountCents(), 0));
     }
 
     // MODIFIES: goals (this)
     // EFFECTS: deletes a saving goal of given index from goals
     public void removeSavingGoal(int index) {
-        SavingGoal goal = goals.get(index);
-        goals.remove(index);
-        balance = balance + goal.getCurrentAmount();
+        SavingGoal goal = removeSavingGoalNoLog(index);
 
-        EventLog.getInstance().logEvent(new Event("Deleted saving goal '" + goal.getName()
-                + "' ($" + String.format("%,.2f",goal.getCurrentAmount())
-                + " out of $" + String.format("%,.2f",goal.getGoalAmount()) + ")"));
+        EventLog.getInstance().logEvent(Event.deleted(Event.Kind.SAVING_GOAL, goal.getName(),
+                goal.getCurrentCents(), goal.getGoalCents()));
+    }
+
+    // MODIFIES: incomesList (this)
+    // EFFECTS: deletes an income of given index from incomeList without logging and returns it
+    public Income removeIncomeNoLog(int index) {
+        FlightEvents.LedgerMutation event = mutationStarted();
+        Income income = incomeList.remove(index);
+        income.setOwner(null);
+        renumber(incomeList, index, Income::setIndex);
+        totalIncome -= income.getAmountCents();
+        balance = balance - income.getAmountCents();
+        incomeStates.remove(index);
+        version++;
+        checkAggregates();
+        REMOVED.increment();
+        for (LedgerListener listener : listeners) {
+            listener.incomeRemoved(index, income);
+        }
+        mutationDone(event, "removeIncome", 1);
+        return income;
+    }
+
+    // MODIFIES: expenses (this)
+    // EFFECTS: deletes an expense of given index from expenses without logging and returns it
+    public Expense removeExpenseNoLog(int index) {
+        FlightEvents.LedgerMutation event = mutationStarted();
+        Expense expense = expenses.remove(index);
+        expense.setOwner(null);
+        if (!isColumnar()) {
+            renumber(expenses, index, Expense::setIndex);
+        }
+        dateIndex.remove(index, expense.getEpochDay());
+        totalExpenses -= expense.getAmountCents();
+        balance = balance + expense.getAmountCents();
+        if (expenseStates != null) {
+            expenseStates.remove(index);
+        }
+        version++;
+        checkAggregates();
+        REMOVED.increment();
+        for (LedgerListener listener : listeners) {
+            listener.expenseRemoved(index, expense);
+        }
+        mutationDone(event, "removeExpense", 1);
+        return expense;
+    }
+
+    // MODIFIES: goals (this)
+    // EFFECTS: deletes a saving goal of given index from goals without logging and returns it
+    public SavingGoal removeSavingGoalNoLog(int index) {
+        FlightEvents.LedgerMutation event = mutationStarted();
+        SavingGoal goal = goals.remove(index);
+        goal.setOwner(null);
+        renumber(goals, index, SavingGoal::setIndex);
+        balance = balance + goal.getCurrentCents();
+        goalStates.remove(index);
+        version++;
+        REMOVED.increment();
+        for (LedgerListener listener : listeners) {
+            listener.goalRemoved(index, goal);
+        }
+        mutationDone(event, "removeSavingGoal", 1);
+        return goal;
     }
 
     // JSON Writer functions
@@ -219,7 +633,7 @@ public class Ledger {
     // EFFECTS: returns json object consisting of this ledger's data
     public JSONObject toJson() {
         JSONObject json = new JSONObject();
-        json.put("balance", balance);
+        json.put("balance", getBalance());
         json.put("data", listsToJson());
         return json;
     }
@@ -235,19 +649,38 @@ public class Ledger {
 
     // EFFECTS: returns expenses in this ledger as a JSON array
     private JSONObject expensesToJson() {
-        JSONArray jsonArray = new JSONArray(expenses);
+        JSONArray jsonArray = new JSONArray();
+        for (Expense e : expenses) {
+            jsonArray.put(new JSONObject()
+                    .put("title", e.getTitle())
+                    .put("amount", e.getAmount())
+                    .put("date", e.getDate())
+                    .put("note", e.getNote()));
+        }
         return new JSONObject().put("expenses", jsonArray);
     }
 
     // EFFECTS: returns incomes in this ledger as a JSON array
     private JSONObject incomesToJson() {
-        JSONArray jsonArray = new JSONArray(incomeList);
+        JSONArray jsonArray = new JSONArray();
+        for (Income income : incomeList) {
+            jsonArray.put(new JSONObject()
+                    .put("amount", income.getAmount())
+                    .put("source", income.getSource()));
+        }
         return new JSONObject().put("incomes", jsonArray);
     }
 
     // EFFECTS: returns saving goals in this ledger as a JSON array
     private JSONObject goalsToJson() {
-        JSONArray jsonArray = new JSONArray(goals);
+        JSONArray jsonArray = new JSONArray();
+        for (SavingGoal g : goals) {
+            jsonArray.put(new JSONObject()
+                    .put("name", g.getName())
+                    .put("goalAmount", g.getGoalAmount())
+                    .put("currentAmount", g.getCurrentAmount())
+                    .put("complete", g.isComplete()));
+        }
         return new JSONObject().put("goals", jsonArray);
     }
 }
@@ -0,0 +1,306 @@
+package model;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/*
+ * Represents a batch of changes to a ledger that are applied together, such as the rows of an imported
+ * bank statement. Changes are queued with the same methods Ledger has and applied in order by commit().
+ * Before anything is applied the whole batch is checked against the ledger, with each change seeing the
+ * ones queued before it, so either every change is applied or, if one is invalid, none is.
+ *
+ * Entries are built, and expense dates parsed, as they are queued. A commit tells listeners once that a
+ * batch starts and once that it was applied, with the usual notification for each change in between, and
+ * logs one event summing up the whole batch instead of one event per change.
+ */
+public class LedgerBatch {
+    private static final int ADD_INCOME = 0;
+    private static final int ADD_EXPENSE = 1;
+    private static final int ADD_GOAL = 2;
+    private static final int CONTRIBUTE = 3;
+    private static final int REMOVE_INCOME = 4;
+    private static final int REMOVE_EXPENSE = 5;
+    private static final int REMOVE_GOAL = 6;
+    private static final String[] NAMES = {"added %d incomes", "added %d expenses", "added %d saving goals",
+        "made %d contributions", "removed %d incomes", "removed %d expenses", "removed %d saving goals"};
+
+    private final Ledger ledger;
+    private final List<Change> changes;
+
+    // Represents one queued change: an entry to add, or the index of an entry to remove or contribute to
+    private static final class Change {
+        final int type;
+        final Object entry;
+        final int index;
+        final double amount;
+
+        Change(int type, Object entry, int index, double amount) {
+            this.type = type;
+            this.entry = entry;
+            this.index = index;
+            this.amount = amount;
+        }
+    }
+
+    // EFFECTS: constructs an empty batch of changes to ledger
+    LedgerBatch(Ledger ledger) {
+        this.ledger = ledger;
+        this.changes = new ArrayList<>();
+    }
+
+    // MODIFIES: this
+    // EFFECTS: queues adding an income
+    public LedgerBatch addIncome(double amount, String source) {
+        changes.add(new Change(ADD_INCOME, new Income(amount, source), -1, amount));
+        return this;
+    }
+
+    // MODIFIES: this
+    // EFFECTS: queues adding an expense
+    public LedgerBatch addExpense(String title, double amount, String date, String note) {
+        changes.add(new Change(ADD_EXPENSE, new Expense(title, amount, date, note), -1, amount));
+        return this;
+    }
+
+    // MODIFIES: this
+    // EFFECTS: queues adding a new saving goal
+    public LedgerBatch setSavingGoal(String title, double goalAmount) {
+        return setOldSavingGoal(title, goalAmount, 0, false);
+    }
+
+    // MODIFIES: this
+    // EFFECTS: queues adding a saving goal that has already been saved for
+    public LedgerBatch setOldSavingGoal(String title, double goalAmount, double currentAmount, boolean complete) {
+        SavingGoal goal = new SavingGoal(title, goalAmount, currentAmount, complete);
+        changes.add(new Change(ADD_GOAL, goal, -1, goalAmount));
+        return this;
+    }
+
+    // REQUIRES: income belongs to no ledger
+    // MODIFIES: this
+    // EFFECTS: queues adding income itself rather than a copy, such as an income handed over by a reader
+    public LedgerBatch addIncome(Income income) {
+        changes.add(new Change(ADD_INCOME, income, -1, income.getAmount()));
+        return this;
+    }
+
+    // REQUIRES: expense belongs to no ledger
+    // MODIFIES: this
+    // EFFECTS: queues adding expense itself rather than a copy, such as an expense handed over by a reader
+    public LedgerBatch addExpense(Expense expense) {
+        changes.add(new Change(ADD_EXPENSE, expense, -1, expense.getAmount()));
+        return this;
+    }
+
+    // REQUIRES: goal belongs to no ledger
+    // MODIFIES: this
+    // EFFECTS: queues adding goal itself rather than a copy, such as a goal handed over by a reader
+    public LedgerBatch addSavingGoal(SavingGoal goal) {
+        changes.add(new Change(ADD_GOAL, goal, -1, goal.getGoalAmount()));
+        return this;
+    }
+
+    // MODIFIES: this
+    // EFFECTS: queues contributing amount to the saving goal at index
+    public LedgerBatch addToSavingGoal(int index, double amount) {
+        changes.add(new Change(CONTRIBUTE, null, index, amount));
+        return this;
+    }
+
+    // MODIFIES: this
+    // EFFECTS: queues removing the income at index
+    public LedgerBatch removeIncome(int index) {
+        changes.add(new Change(REMOVE_INCOME, null, index, 0));
+        return this;
+    }
+
+    // MODIFIES: this
+    // EFFECTS: queues removing the expense at index
+    public LedgerBatch removeExpense(int index) {
+        changes.add(new Change(REMOVE_EXPENSE, null, index, 0));
+        return this;
+    }
+
+    // MODIFIES: this
+    // EFFECTS: queues removing the saving goal at index
+    public LedgerBatch removeSavingGoal(int index) {
+        changes.add(new Change(REMOVE_GOAL, null, index, 0));
+        return this;
+    }
+
+    // EFFECTS: returns the number of queued changes
+    public int size() {
+        return changes.size();
+    }
+
+    /*
+     * MODIFIES: this, ledger
+     * EFFECTS: applies every queued change as commitNoLog does and, if they were applied, logs one event
+     *      summing them up; returns false if the batch was rejected
+     */
+    public boolean commit() {
+        String summary = summary();
+        if (!commitNoLog()) {
+            return false;
+        }
+        if (summary != null) {
+            EventLog.getInstance().logEvent(new Event(summary));
+        }
+        return true;
+    }
+
+    /*
+     * MODIFIES: this, ledger
+     * EFFECTS: if every queued change is valid, applies them all in order without logging, empties this
+     *      batch and returns true; otherwise leaves the ledger and this batch as they are and returns false
+     */
+    public boolean commitNoLog() {
+        String error = validate();
+        if (error != null) {
+            System.out.println("Unable to apply batch: " + error);
+            return false;
+        }
+        if (changes.isEmpty()) {
+            return true;
+        }
+        FlightEvents.LedgerMutation event = Ledger.mutationStarted();
+        ledger.batchStarted();
+        for (Change change : changes) {
+            apply(change);
+        }
+        int applied = changes.size();
+        changes.clear();
+        ledger.batchApplied(applied);
+        ledger.mutationDone(event, "batch", applied);
+        return true;
+    }
+
+    // MODIFIES: ledger
+    // EFFECTS: applies a validated change to the ledger without logging it
+    private void apply(Change change) {
+        switch (change.type) {
+            case ADD_INCOME:
+                ledger.addIncomeEntry((Income) change.entry);
+                break;
+            case ADD_EXPENSE:
+                ledger.addExpenseEntry((Expense) change.entry);
+                break;
+            case ADD_GOAL:
+                ledger.addGoalEntry((SavingGoal) change.entry);
+                break;
+            case CONTRIBUTE:
+                ledger.addToSavingGoalNoLog(change.index, change.amount);
+                break;
+            case REMOVE_INCOME:
+                ledger.removeIncomeNoLog(change.index);
+                break;
+            case REMOVE_EXPENSE:
+                ledger.removeExpenseNoLog(change.index);
+                break;
+            default:
+                ledger.removeSavingGoalNoLog(change.index);
+        }
+    }
+
+    /*
+     * EFFECTS: returns why the queued changes cannot all be applied in order, or null if they can. Only list
+     *      sizes and what is left to save for each goal are tracked, so nothing is copied or applied.
+     */
+    private String validate() {
+        int[] sizes = {ledger.getIncomeList().size(), ledger.getExpenses().size()};
+        List<long[]> goals = new ArrayList<>(); // goal cents, current cents, 1 if complete
+        for (SavingGoal goal : ledger.getGoals()) {
+            goals.add(new long[] {goal.getGoalCents(), goal.getCurrentCents(), goal.isComplete() ? 1 : 0});
+        }
+        for (int i = 0; i < changes.size(); i++) {
+            String error = check(changes.get(i), sizes, goals);
+            if (error != null) {
+                return "change " + (i + 1) + " " + error;
+            }
+        }
+        return null;
+    }
+
+    // MODIFIES: sizes, goals
+    // EFFECTS: returns why change cannot be applied to a ledger with the given list sizes and goals, or null
+    //          after updating them as the change would
+    private static String check(Change change, int[] sizes, List<long[]> goals) {
+        if (change.type <= ADD_GOAL) {
+            return checkAdd(change, sizes, goals);
+        }
+        if (change.type == CONTRIBUTE) {
+            return checkContribution(change, goals);
+        }
+        int size = change.type == REMOVE_GOAL ? goals.size() : sizes[change.type - REMOVE_INCOME];
+        if (change.index < 0 || change.index >= size) {
+            return "removes index " + change.index + " of " + size + " entries";
+        }
+        if (change.type == REMOVE_GOAL) {
+            goals.remove(change.index);
+        } else {
+            sizes[change.type - REMOVE_INCOME]--;
+        }
+        return null;
+    }
+
+    // MODIFIES: sizes, goals
+    // EFFECTS: returns why the change adding an entry cannot be applied, or null after counting the entry
+    private static String checkAdd(Change change, int[] sizes, List<long[]> goals) {
+        if (!(change.amount >= 0)) {
+            return "has a negative amount";
+        }
+        if (change.type == ADD_GOAL) {
+            SavingGoal goal = (SavingGoal) change.entry;
+            goals.add(new long[] {goal.getGoalCents(), goal.getCurrentCents(), goal.isComplete() ? 1 : 0});
+        } else {
+            sizes[change.type]++;
+        }
+        return null;
+    }
+
+    // MODIFIES: goals
+    // EFFECTS: returns why the contribution change cannot be made to goals, or null after recording it; follows
+    //          the rules of SavingGoal.addToCurrentAmount
+    private static String checkContribution(Change change, List<long[]> goals) {
+        if (change.index < 0 || change.index >= goals.size()) {
+            return "contributes to goal " + change.index + " of " + goals.size();
+        }
+        long[] goal = goals.get(change.index);
+        long cents = Money.toCents(change.amount);
+        if (goal[2] == 1) {
+            return "contributes to a completed goal";
+        }
+        if (!(change.amount >= 0) || cents <= 0 || cents > goal[0] - goal[1]) {
+            return "contributes an amount that is not between zero and what is left to save";
+        }
+        goal[1] += cents;
+        goal[2] = goal[1] == goal[0] ? 1 : 0;
+        return null;
+    }
+
+    // EFFECTS: returns a description of the queued changes for the event log, or null if there are none
+    private String summary() {
+        if (changes.isEmpty()) {
+            return null;
+        }
+        int[] counts = new int[NAMES.length];
+        long[] cents = new long[NAMES.length];
+        for (Change change : changes) {
+            counts[change.type]++;
+            cents[change.type] += Money.toCents(change.amount);
+        }
+        StringBuilder sb = new StringBuilder("Applied a batch of ").append(changes.size()).append(" changes:");
+        String separator = " ";
+        for (int type = 0; type < NAMES.length; type++) {
+            if (counts[type] > 0) {
+                sb.append(separator).append(String.format(NAMES[type], counts[type]));
+                if (type == ADD_INCOME || type == ADD_EXPENSE || type == CONTRIBUTE) {
+                    sb.append(" of $");
+                    Money.appendTo(sb, cents[type]);
+                }
+                separator = ", ";
+            }
+        }
+        return sb.toString();
+    }
+}
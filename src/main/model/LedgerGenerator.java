@@ -0,0 +1,229 @@
+package model;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.function.IntFunction;
+
+/*
+ * Generates large, realistic looking ledgers for load tests. A few titles and sources make up most entries
+ * (they are drawn from a Zipf distribution, as real spending is), expense amounts are spread over a log
+ * scale from $1 to about a thousand dollars, dates cover several years and some notes are a few hundred
+ * characters long.
+ *
+ * Entry i is computed from the seed and i alone, so the same generator always produces the same ledger and
+ * entries can be produced in any order. generate() returns a snapshot whose lists compute their entries
+ * when asked for them instead of holding them, so a writer that streams the snapshot, such as JsonWriter,
+ * can write ten million rows without the ledger ever being in memory.
+ */
+public class LedgerGenerator {
+    public static final int FIRST_YEAR = 2015;
+    public static final int YEARS = 8;
+    private static final long GOLDEN = 0x9E3779B97F4A7C15L;
+    private static final double ZIPF_EXPONENT = 1.1;
+    private static final String[] TITLES = {"Groceries", "Rent", "Coffee", "Uber Eats", "Gas", "Amazon",
+        "Phone Bill", "Internet", "Transit Pass", "Restaurant", "Pharmacy", "Gym", "Netflix", "Spotify",
+        "Clothing", "Electricity", "Insurance", "Movie Night", "Books", "Parking", "Haircut", "Pet Food",
+        "Hardware Store", "Concert Tickets", "Flights", "Hotel", "Car Repair", "Dentist", "Charity", "Gift"};
+    private static final String[] SOURCES = {"ABC Corp.", "Freelance", "Refund", "Dividends", "Tax Return",
+        "Side Business", "Gift", "Interest", "Bonus", "Sold Furniture"};
+    private static final String[] GOALS = {"Emergency fund", "Buy a new car", "Vacation", "House down payment",
+        "New laptop", "Wedding", "Tuition", "Retirement"};
+    private static final String[] SHORT_NOTES = {"Lunch", "Monthly", "Weekly shop", "Shared with roommate",
+        "Paid by credit card", "Birthday", "Work trip", "Split three ways"};
+    private static final String[] WORDS = {"paid", "with", "the", "card", "ending", "in", "claim", "on",
+        "next", "expense", "report", "receipt", "kept", "in", "drawer", "split", "between", "friends",
+        "returned", "one", "item", "for", "store", "credit", "price", "matched", "after", "complaint"};
+    private static final double[] TITLE_CDF = zipf(TITLES.length);
+    private static final double[] SOURCE_CDF = zipf(SOURCES.length);
+    private static final String[] DATES = dates();
+
+    private final int incomes;
+    private final int expenses;
+    private final int goals;
+    private final long seed;
+
+    // REQUIRES: incomes, expenses and goals >= 0
+    // EFFECTS: constructs a generator of ledgers with the given numbers of entries, drawn from seed
+    public LedgerGenerator(int incomes, int expenses, int goals, long seed) {
+        this.incomes = incomes;
+        this.expenses = expenses;
+        this.goals = goals;
+        this.seed = seed;
+    }
+
+    /*
+     * EFFECTS: returns the generated ledger as a snapshot whose entries are computed each time they are
+     *      read; reads every amount once to compute the totals and balance, but keeps no entry
+     */
+    public LedgerSnapshot generate() {
+        long totalIncome = 0;
+        for (int i = 0; i < incomes; i++) {
+            totalIncome += incomeCents(random(0, i));
+        }
+        long totalExpenses = 0;
+        for (int i = 0; i < expenses; i++) {
+            totalExpenses += expenseCents(random(1, i));
+        }
+        long saved = 0;
+        for (int i = 0; i < goals; i++) {
+            saved += goal(i).getCurrentCents();
+        }
+        return new LedgerSnapshot(0, new Generated<>(incomes, this::income), new Generated<>(expenses,
+                this::expense), new Generated<>(goals, this::goal), totalIncome - totalExpenses - saved,
+                totalIncome, totalExpenses);
+    }
+
+    // EFFECTS: returns a ledger holding every generated entry, added without logging
+    public Ledger generateLedger() {
+        LedgerSnapshot snapshot = generate();
+        Ledger ledger = new Ledger();
+        for (Income income : snapshot.getIncomeList()) {
+            ledger.addIncomeEntry(income);
+        }
+        for (Expense expense : snapshot.getExpenses()) {
+            ledger.addExpenseEntry(expense);
+        }
+        for (SavingGoal goal : snapshot.getGoals()) {
+            ledger.addGoalEntry(goal);
+        }
+        return ledger;
+    }
+
+    // EFFECTS: returns income i
+    Income income(int i) {
+        long random = random(0, i);
+        return new Income(Money.toDouble(incomeCents(random)), SOURCES[pick(SOURCE_CDF, next(random))]);
+    }
+
+    // EFFECTS: returns expense i
+    Expense expense(int i) {
+        long random = random(1, i);
+        long cents = expenseCents(random);
+        random = next(random);
+        String title = TITLES[pick(TITLE_CDF, random)];
+        random = next(random);
+        String date = DATES[(int) ((random >>> 1) % DATES.length)];
+        return new Expense(title, Money.toDouble(cents), date, note(next(random)));
+    }
+
+    // EFFECTS: returns saving goal i; one goal in ten is complete
+    SavingGoal goal(int i) {
+        long random = random(2, i);
+        long goalCents = 50000 + (random >>> 1) % 5000000;
+        random = next(random);
+        boolean complete = (random >>> 1) % 10 == 0;
+        long currentCents = complete ? goalCents : (next(random) >>> 1) % goalCents;
+        return new SavingGoal(GOALS[i % GOALS.length] + " #" + (i + 1), Money.toDouble(goalCents),
+                Money.toDouble(currentCents), complete);
+    }
+
+    // EFFECTS: returns the amount in cents of the income drawn from random, from $500 to $6,000
+    private static long incomeCents(long random) {
+        return 50000 + (random >>> 1) % 550001;
+    }
+
+    // EFFECTS: returns the amount in cents of the expense drawn from random, from $1 on a log scale up to
+    //          $1,024, so small amounts are much more common than large ones
+    private static long expenseCents(long random) {
+        return Math.round(100 * Math.pow(2, uniform(random) * 10));
+    }
+
+    // EFFECTS: returns the note drawn from random: empty for 60% of expenses, a short phrase for 25% and
+    //          a sentence of 20 to 100 words for the rest
+    private static String note(long random) {
+        int kind = (int) ((random >>> 1) % 100);
+        if (kind < 60) {
+            return "";
+        }
+        random = next(random);
+        if (kind < 85) {
+            return SHORT_NOTES[(int) ((random >>> 1) % SHORT_NOTES.length)];
+        }
+        int words = 20 + (int) ((random >>> 1) % 81);
+        StringBuilder note = new StringBuilder(words * 7);
+        for (int w = 0; w < words; w++) {
+            random = next(random);
+            note.append(w == 0 ? "" : " ").append(WORDS[(int) ((random >>> 1) % WORDS.length)]);
+        }
+        return note.toString();
+    }
+
+    // EFFECTS: returns the first random number of entry i of the given kind of entry
+    private long random(int kind, int i) {
+        return next(seed + ((long) i * 3 + kind) * GOLDEN);
+    }
+
+    // EFFECTS: returns the random number following random (the SplitMix64 mixing function)
+    private static long next(long random) {
+        long z = random + GOLDEN;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    // EFFECTS: returns random as a number from 0 (inclusive) to 1 (exclusive)
+    private static double uniform(long random) {
+        return (random >>> 11) * 0x1.0p-53;
+    }
+
+    // EFFECTS: returns the index that random falls on in the cumulative distribution cdf
+    private static int pick(double[] cdf, long random) {
+        int index = Arrays.binarySearch(cdf, uniform(random));
+        return Math.min(cdf.length - 1, index >= 0 ? index : -index - 1);
+    }
+
+    // EFFECTS: returns the cumulative Zipf distribution over n ranks
+    private static double[] zipf(int n) {
+        double[] cdf = new double[n];
+        double sum = 0;
+        for (int rank = 1; rank <= n; rank++) {
+            sum += 1 / Math.pow(rank, ZIPF_EXPONENT);
+            cdf[rank - 1] = sum;
+        }
+        for (int i = 0; i < n; i++) {
+            cdf[i] /= sum;
+        }
+        return cdf;
+    }
+
+    // EFFECTS: returns every date of the YEARS years from FIRST_YEAR on, as yyyy-MM-dd
+    private static String[] dates() {
+        int[] daysInMonth = {31, 28, 31, 30, 31, 30, 31, 31, 30, 31, 30, 31};
+        String[] dates = new String[YEARS * 366];
+        int count = 0;
+        for (int year = FIRST_YEAR; year < FIRST_YEAR + YEARS; year++) {
+            boolean leap = year % 4 == 0 && (year % 100 != 0 || year % 400 == 0);
+            for (int month = 1; month <= 12; month++) {
+                int days = month == 2 && leap ? 29 : daysInMonth[month - 1];
+                for (int day = 1; day <= days; day++) {
+                    dates[count++] = String.format("%d-%02d-%02d", year, month, day);
+                }
+            }
+        }
+        return Arrays.copyOf(dates, count);
+    }
+
+    // Represents a list whose entries are computed from their index each time they are read
+    private static final class Generated<T> extends AbstractList<T> {
+        private final int size;
+        private final IntFunction<T> entry;
+
+        Generated(int size, IntFunction<T> entry) {
+            this.size = size;
+            this.entry = entry;
+        }
+
+        @Override
+        public T get(int index) {
+            if (index < 0 || index >= size) {
+                throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+            }
+            return entry.apply(index);
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package model;
+
+// Represents an observer that is notified after each change made to a ledger.
+// Every method has an empty default so observers only override the changes they care about.
+public interface LedgerListener {
+
+    // EFFECTS: called after income was added at index of the incomes list
+    default void incomeAdded(int index, Income income) {
+    }
+
+    // EFFECTS: called after expense was added at index of the expenses list
+    default void expenseAdded(int index, Expense expense) {
+    }
+
+    // EFFECTS: called after goal was added at index of the goals list
+    default void goalAdded(int index, SavingGoal goal) {
+    }
+
+    // EFFECTS: called after amount was contributed to the goal at index
+    default void contributed(int index, double amount) {
+    }
+
+    // EFFECTS: called after income was removed from index of the incomes list
+    default void incomeRemoved(int index, Income income) {
+    }
+
+    // EFFECTS: called after expense was removed from index of the expenses list
+    default void expenseRemoved(int index, Expense expense) {
+    }
+
+    // EFFECTS: called after goal was removed from index of the goals list
+    default void goalRemoved(int index, SavingGoal goal) {
+    }
+
+    // EFFECTS: called after a field of the income at index was changed through its setters
+    default void incomeChanged(int index, Income income) {
+    }
+
+    // EFFECTS: called after a field of the expense at index was changed through its setters
+    default void expenseChanged(int index, Expense expense) {
+    }
+
+    // EFFECTS: called after a field of the goal at index was changed through its setters
+    default void goalChanged(int index, SavingGoal goal) {
+    }
+
+    // EFFECTS: called after the balance was overwritten with balance
+    default void balanceSet(double balance) {
+    }
+
+    // EFFECTS: called before the changes of a batch are applied; each change is then reported as usual,
+    //          and batchApplied follows once they all are, so a listener may wait for it instead
+    default void batchStarted() {
+    }
+
+    // EFFECTS: called after all changes of a batch were applied
+    default void batchApplied(int changes) {
+    }
+}
@@ -0,0 +1,82 @@
+package model;
+
+import java.util.List;
+
+/*
+ * Represents an immutable view of a ledger as it was when Ledger.snapshot() was called. The ledger can keep
+ * changing on its own thread while a snapshot is read on another, such as by an autosave or a report, and
+ * the snapshot's lists, totals and balance always agree with each other.
+ *
+ * Reading an entry returns a new standalone entry made from values the snapshot shares with the ledger, or
+ * a read-only view of frozen expense columns, so changing it changes neither the ledger nor the snapshot.
+ */
+public final class LedgerSnapshot {
+    private final long version;
+    private final List<Income> incomes;
+    private final List<Expense> expenses;
+    private final List<SavingGoal> goals;
+    private final long balance;       // in cents
+    private final long totalIncome;   // in cents
+    private final long totalExpenses; // in cents
+
+    // EFFECTS: constructs a snapshot of the given version holding the given frozen lists and amounts
+    LedgerSnapshot(long version, List<Income> incomes, List<Expense> expenses, List<SavingGoal> goals,
+                   long balance, long totalIncome, long totalExpenses) {
+        this.version = version;
+        this.incomes = incomes;
+        this.expenses = expenses;
+        this.goals = goals;
+        this.balance = balance;
+        this.totalIncome = totalIncome;
+        this.totalExpenses = totalExpenses;
+    }
+
+    // EFFECTS: returns the number of changes made to the ledger before this snapshot, so two snapshots of a
+    //          ledger with the same version hold the same entries
+    public long getVersion() {
+        return version;
+    }
+
+    // EFFECTS: returns the incomes; the list cannot be modified
+    public List<Income> getIncomeList() {
+        return incomes;
+    }
+
+    // EFFECTS: returns the expenses; the list cannot be modified
+    public List<Expense> getExpenses() {
+        return expenses;
+    }
+
+    // EFFECTS: returns the saving goals; the list cannot be modified
+    public List<SavingGoal> getGoals() {
+        return goals;
+    }
+
+    public Income getIncome(int index) {
+        return incomes.get(index);
+    }
+
+    public Expense getExpense(int index) {
+        return expenses.get(index);
+    }
+
+    public SavingGoal getSavingGoal(int index) {
+        return goals.get(index);
+    }
+
+    public double getBalance() {
+        return Money.toDouble(balance);
+    }
+
+    public long getBalanceCents() {
+        return balance;
+    }
+
+    public long totalIncomeCents() {
+        return totalIncome;
+    }
+
+    public long totalExpensesCents() {
+        return totalExpenses;
+    }
+}
@@ -0,0 +1,165 @@
+package model;
+
+import javax.management.Attribute;
+import javax.management.AttributeList;
+import javax.management.AttributeNotFoundException;
+import javax.management.DynamicMBean;
+import javax.management.JMException;
+import javax.management.MBeanAttributeInfo;
+import javax.management.MBeanInfo;
+import javax.management.MBeanOperationInfo;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.function.LongSupplier;
+
+/*
+ * Represents the registry of the app's metrics: counters, gauges and latency histograms, each under a
+ * dotted name such as "json.write". Classes create the metrics they update once, in static fields, and
+ * updating them never allocates. With -Dledger.metrics=false every update returns at once without reading
+ * the clock.
+ *
+ * The registry is a platform MBean named expensetracker:type=Metrics, so JConsole or VisualVM attached to
+ * the app shows every metric as an attribute: a counter or gauge by its name, a histogram as <name>.count,
+ * <name>.meanMicros, <name>.p50Micros, <name>.p99Micros and <name>.maxMicros (Singleton Design Pattern).
+ */
+public final class Metrics implements DynamicMBean {
+    public static final boolean ENABLED = !"false".equals(System.getProperty("ledger.metrics"));
+    public static final String OBJECT_NAME = "expensetracker:type=Metrics";
+    private static final String[] HISTOGRAM_FIELDS = {"count", "meanMicros", "p50Micros", "p99Micros",
+        "maxMicros"};
+    private static final Metrics theMetrics = new Metrics();
+
+    private final Map<String, Counter> counters = new ConcurrentSkipListMap<>();
+    private final Map<String, LongSupplier> gauges = new ConcurrentSkipListMap<>();
+    private final Map<String, LatencyHistogram> histograms = new ConcurrentSkipListMap<>();
+
+    // EFFECTS: constructs the registry and, if metrics are enabled, registers it as a platform MBean
+    private Metrics() {
+        if (ENABLED) {
+            try {
+                ManagementFactory.getPlatformMBeanServer().registerMBean(this, new ObjectName(OBJECT_NAME));
+            } catch (JMException | SecurityException e) {
+                System.out.println("Unable to register metrics MBean: " + e.getMessage());
+            }
+        }
+    }
+
+    // EFFECTS: returns the registry
+    public static Metrics getInstance() {
+        return theMetrics;
+    }
+
+    // MODIFIES: this
+    // EFFECTS: returns the counter named name, creating it if needed
+    public static Counter counter(String name) {
+        return theMetrics.counters.computeIfAbsent(name, n -> new Counter());
+    }
+
+    // MODIFIES: this
+    // EFFECTS: returns the latency histogram named name, creating it if needed
+    public static LatencyHistogram histogram(String name) {
+        return theMetrics.histograms.computeIfAbsent(name, n -> new LatencyHistogram());
+    }
+
+    // MODIFIES: this
+    // EFFECTS: reports the value of value under name from now on, replacing any gauge of that name;
+    //          value is called on the thread reading the metrics and must be safe to call from it
+    public static void gauge(String name, LongSupplier value) {
+        theMetrics.gauges.put(name, value);
+    }
+
+    // EFFECTS: returns the value of the metric attribute named name, as shown over JMX
+    @Override
+    public Object getAttribute(String name) throws AttributeNotFoundException {
+        Counter counter = counters.get(name);
+        if (counter != null) {
+            return counter.getCount();
+        }
+        LongSupplier gauge = gauges.get(name);
+        if (gauge != null) {
+            return gauge.getAsLong();
+        }
+        int dot = name.lastIndexOf('.');
+        LatencyHistogram histogram = dot < 0 ? null : histograms.get(name.substring(0, dot));
+        if (histogram == null) {
+            throw new AttributeNotFoundException(name);
+        }
+        return histogramField(histogram, name.substring(dot + 1), name);
+    }
+
+    // EFFECTS: returns the field of histogram named field
+    private static long histogramField(LatencyHistogram histogram, String field, String name)
+            throws AttributeNotFoundException {
+        switch (field) {
+            case "count":
+                return histogram.getCount();
+            case "meanMicros":
+                return histogram.getMeanNanos() / 1000;
+            case "p50Micros":
+                return histogram.getPercentileNanos(0.5) / 1000;
+            case "p99Micros":
+                return histogram.getPercentileNanos(0.99) / 1000;
+            case "maxMicros":
+                return histogram.getMaxNanos() / 1000;
+            default:
+                throw new AttributeNotFoundException(name);
+        }
+    }
+
+    @Override
+    public void setAttribute(Attribute attribute) throws AttributeNotFoundException {
+        throw new AttributeNotFoundException("Metrics are read-only: " + attribute.getName());
+    }
+
+    // EFFECTS: returns the values of the named attributes, leaving out those that do not exist
+    @Override
+    public AttributeList getAttributes(String[] names) {
+        AttributeList values = new AttributeList();
+        for (String name : names) {
+            try {
+                values.add(new Attribute(name, getAttribute(name)));
+            } catch (AttributeNotFoundException e) {
+                // left out, as the MBean contract allows
+            }
+        }
+        return values;
+    }
+
+    @Override
+    public AttributeList setAttributes(AttributeList attributes) {
+        return new AttributeList();
+    }
+
+    @Override
+    public Object invoke(String action, Object[] params, String[] signature) {
+        throw new UnsupportedOperationException(action);
+    }
+
+    // EFFECTS: describes every metric registered so far as a read-only long attribute
+    @Override
+    public MBeanInfo getMBeanInfo() {
+        List<MBeanAttributeInfo> attributes = new ArrayList<>();
+        for (String name : counters.keySet()) {
+            attributes.add(attribute(name, "Counter"));
+        }
+        for (String name : gauges.keySet()) {
+            attributes.add(attribute(name, "Gauge"));
+        }
+        for (String name : histograms.keySet()) {
+            for (String field : HISTOGRAM_FIELDS) {
+                attributes.add(attribute(name + "." + field, "Latency histogram"));
+            }
+        }
+        return new MBeanInfo(getClass().getName(), "Expense tracker metrics",
+                attributes.toArray(new MBeanAttributeInfo[0]), null, new MBeanOperationInfo[0], null);
+    }
+
+    // EFFECTS: returns the description of a read-only long attribute
+    private static MBeanAttributeInfo attribute(String name, String description) {
+        return new MBeanAttributeInfo(name, "long", description, true, false, false);
+    }
+}
@@ -0,0 +1,49 @@
+package model;
+
+// Represents money as a whole number of cents held in a long, with conversions and formatting.
+// Sums of cents are exact, unlike sums of double amounts, and formatting avoids String.format.
+public final class Money {
+
+    private Money() {
+    }
+
+    // EFFECTS: returns amount rounded to the nearest cent
+    public static long toCents(double amount) {
+        return Math.round(amount * 100);
+    }
+
+    // EFFECTS: returns cents as an amount in dollars
+    public static double toDouble(long cents) {
+        return cents / 100.0;
+    }
+
+    // EFFECTS: returns cents formatted with thousands separators and two decimals, e.g. "-1,234.50",
+    //          the same text String.format("%,.2f", ...) produces in an English locale
+    public static String format(long cents) {
+        return appendTo(new StringBuilder(16), cents).toString();
+    }
+
+    // MODIFIES: sb
+    // EFFECTS: appends cents formatted as by format(cents) to sb and returns sb, without allocating
+    public static StringBuilder appendTo(StringBuilder sb, long cents) {
+        long dollars = Math.abs(cents / 100); // cents / 100 cannot overflow, unlike Math.abs(cents)
+        int fraction = (int) Math.abs(cents % 100);
+        if (cents < 0) {
+            sb.append('-');
+        }
+        long unit = 1;
+        while (dollars / unit >= 1000) {
+            unit *= 1000;
+        }
+        sb.append(dollars / unit);
+        for (unit /= 1000; unit > 0; unit /= 1000) {
+            int group = (int) (dollars / unit % 1000);
+            sb.append(',').append(digit(group / 100)).append(digit(group / 10 % 10)).append(digit(group % 10));
+        }
+        return sb.append('.').append(digit(fraction / 10)).append(digit(fraction % 10));
+    }
+
+    private static char digit(int value) {
+        return (char) ('0' + value);
+    }
+}
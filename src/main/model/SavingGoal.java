@@ -2,75 +2,133 @@ package model;
 
 // Represents a saving goal with a name, goalAmount, currentAmount and status(complete or incomplete)
 public class SavingGoal {
-    private double goalAmount;
-    private double currentAmount;
-    private String name;
-    private boolean complete;
+    private State state; // values of this goal; replaced on every change, never changed, so it can be shared
+    private Ledger owner; // ledger this goal belongs to, notified of changes; null if none
+    private int index; // position in the goals of owner
+
+    // Represents the values of a goal at one point in time, shared by the snapshots taken at that time
+    static final class State {
+        final long goalCents;
+        final long currentCents;
+        final String name;
+        final boolean complete;
+
+        State(String name, long goalCents, long currentCents, boolean complete) {
+            this.name = name;
+            this.goalCents = goalCents;
+            this.currentCents = currentCents;
+            this.complete = complete;
+        }
+    }
 
     // EFFECTS: creates a saving goal with its name, goal, being incomplete and current contribution being zero
     public SavingGoal(String name, double goalAmount) {
-        this.name = name;
-        this.goalAmount = goalAmount;
-        currentAmount = 0;
-        complete = false;
+        this(name, goalAmount, 0, false);
     }
 
     // EFFECTS: used when parsing data from json and creating a new goal
     public SavingGoal(String name, double goalAmount, double currentAmount, boolean complete) {
-        this.name = name;
-        this.goalAmount = goalAmount;
-        this.currentAmount = currentAmount;
-        this.complete = complete;
+        this.state = new State(name, Money.toCents(goalAmount), Money.toCents(currentAmount), complete);
+    }
+
+    // EFFECTS: constructs a standalone copy of other
+    SavingGoal(SavingGoal other) {
+        this(other.state);
+    }
+
+    // EFFECTS: constructs a standalone goal with the values of state
+    SavingGoal(State state) {
+        this.state = state;
     }
 
     // GETTERS
 
     public String getName() {
-        return name;
+        return state.name;
     }
 
     public double getGoalAmount() {
-        return goalAmount;
+        return Money.toDouble(state.goalCents);
     }
 
     public double getCurrentAmount() {
-        return currentAmount;
+        return Money.toDouble(state.currentCents);
+    }
+
+    public long getGoalCents() {
+        return state.goalCents;
+    }
+
+    public long getCurrentCents() {
+        return state.currentCents;
     }
 
     public boolean isComplete() {
-        return complete;
+        return state.complete;
+    }
+
+    // EFFECTS: returns the current values of this goal
+    State getState() {
+        return state;
     }
 
     // SETTERS
 
     public void setName(String name) {
-        this.name = name;
+        state = new State(name, state.goalCents, state.currentCents, state.complete);
+        notifyOwner();
     }
 
     public void setGoalAmount(double goalAmount) {
-        this.goalAmount = goalAmount;
+        state = new State(state.name, Money.toCents(goalAmount), state.currentCents, state.complete);
+        notifyOwner();
     }
 
     public void setComplete(boolean complete) {
-        this.complete = complete;
+        state = new State(state.name, state.goalCents, state.currentCents, complete);
+        notifyOwner();
+    }
+
+    // MODIFIES: this
+    // EFFECTS: sets the ledger to be notified when this goal changes
+    void setOwner(Ledger owner) {
+        this.owner = owner;
+    }
+
+    // MODIFIES: this
+    // EFFECTS: records that this goal is at index of its owner's goals
+    void setIndex(int index) {
+        this.index = index;
+    }
+
+    // EFFECTS: returns the position of this goal in its owner's goals, kept up to date by the owner
+    int getIndex() {
+        return index;
+    }
+
+    // EFFECTS: tells the owning ledger, if any, that this goal changed
+    private void notifyOwner() {
+        if (owner != null) {
+            owner.goalChanged(this);
+        }
     }
 
     /* MODIFIES: this
      * EFFECTS: sets the current amount of this goal to provided value and returns true.
      *          returns false, if goal is complete, amount is negative or contribution is more than amount left.
      *          sets the complete boolean true if current amount reaches the goal amount.
+     *          amount is rounded to the nearest cent.
      */
     public boolean addToCurrentAmount(double amount) {
+        long cents = Money.toCents(amount);
         // If goal is complete
-        if (complete || amount <= 0) {
+        if (state.complete || cents <= 0) {
             return false;
         }
         // If amount is less than or equal to remaining savings goal
-        if (amount <= (goalAmount - currentAmount)) {
-            currentAmount += amount;
-            if (currentAmount == goalAmount) {
-                complete = true;
-            }
+        if (cents <= (state.goalCents - state.currentCents)) {
+            long current = state.currentCents + cents;
+            state = new State(state.name, state.goalCents, current, current == state.goalCents);
             return true;
         }
         return false;
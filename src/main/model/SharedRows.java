@@ -0,0 +1,97 @@
+package model;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.RandomAccess;
+import java.util.function.Function;
+
+/*
+ * Represents a list of immutable values, such as the states of a ledger's incomes, that can be frozen in
+ * O(1) as ExpenseColumns can: freeze() hands out a read-only view sharing the array, and the next write
+ * copies the array first, so the view never changes and may be read from another thread it is safely
+ * handed to.
+ */
+final class SharedRows<T> {
+    private static final int INITIAL_CAPACITY = 16;
+
+    private Object[] items;
+    private int size;
+    private boolean shared; // true if items is shared with a frozen view and must be copied on write
+
+    // EFFECTS: constructs an empty list
+    SharedRows() {
+        this.items = new Object[INITIAL_CAPACITY];
+    }
+
+    // MODIFIES: this
+    // EFFECTS: adds item to the end of the list
+    void add(T item) {
+        if (shared || size == items.length) {
+            items = Arrays.copyOf(items, size == items.length ? size * 2 : items.length);
+            shared = false;
+        }
+        items[size++] = item;
+    }
+
+    // REQUIRES: 0 <= index < size of this list
+    // MODIFIES: this
+    // EFFECTS: replaces the item at index with item
+    void set(int index, T item) {
+        beforeWrite();
+        items[index] = item;
+    }
+
+    // REQUIRES: 0 <= index < size of this list
+    // MODIFIES: this
+    // EFFECTS: removes the item at index, moving the items after it down by one
+    void remove(int index) {
+        beforeWrite();
+        System.arraycopy(items, index + 1, items, index, size - index - 1);
+        items[--size] = null;
+    }
+
+    // MODIFIES: this
+    // EFFECTS: returns an unmodifiable view of the list as it is now, showing each item as view makes it;
+    //          later changes to this list are not seen by it
+    <E> List<E> freeze(Function<T, E> view) {
+        shared = true;
+        return new Frozen<>(items, size, view);
+    }
+
+    // MODIFIES: this
+    // EFFECTS: first copies the array if it is shared with a frozen view
+    private void beforeWrite() {
+        if (shared) {
+            items = items.clone();
+            shared = false;
+        }
+    }
+
+    // Represents a frozen view of the list: an array and size that are never changed again
+    private static final class Frozen<T, E> extends AbstractList<E> implements RandomAccess {
+        private final Object[] items;
+        private final int size;
+        private final Function<T, E> view;
+
+        Frozen(Object[] items, int size, Function<T, E> view) {
+            this.items = items;
+            this.size = size;
+            this.view = view;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public E get(int index) {
+            if (index < 0 || index >= size) {
+                throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+            }
+            return view.apply((T) items[index]);
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+    }
+}
@@ -0,0 +1,115 @@
+package persistence;
+
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.InvalidPathException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+
+/*
+ * Represents a file whose contents are replaced atomically. New contents are written to a temporary
+ * sibling, forced to disk and then moved over the target in one step, so a crash or a failed write
+ * leaves either the old or the new file, never a truncated one. Optionally keeps a bounded number of
+ * previous versions in a backup directory as <name>.1 (newest) to <name>.<generations> (oldest).
+ */
+public class AtomicFile {
+    private final String location;
+    private final String backupDirectory; // null if no backups are kept
+    private final int generations;
+    private Path target;
+    private Path temp;
+    private FileChannel channel;
+
+    // EFFECTS: constructs an atomic file at location that keeps no backups
+    public AtomicFile(String location) {
+        this(location, null, 0);
+    }
+
+    // EFFECTS: constructs an atomic file at location that keeps the given number of previous versions
+    //          in backupDirectory
+    public AtomicFile(String location, String backupDirectory, int generations) {
+        this.location = location;
+        this.backupDirectory = backupDirectory;
+        this.generations = generations;
+    }
+
+    // MODIFIES: this
+    // EFFECTS: opens a temporary file next to the target and returns a channel for the new contents;
+    //          throws IOException if it cannot be created
+    public FileChannel begin() throws IOException {
+        try {
+            target = Paths.get(location);
+        } catch (InvalidPathException e) {
+            throw new FileNotFoundException(location + " (" + e.getReason() + ")");
+        }
+        temp = target.resolveSibling(target.getFileName() + ".tmp");
+        channel = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING);
+        return channel;
+    }
+
+    // MODIFIES: this, target file, backup directory
+    // EFFECTS: forces the new contents to disk, keeps the current target as the newest backup and moves the
+    //          new contents over the target; discards the new contents and throws IOException on failure
+    public void commit() throws IOException {
+        try {
+            channel.force(true);
+            channel.close();
+            if (backupDirectory != null && generations > 0 && Files.exists(target)) {
+                rotateBackups();
+            }
+            moveIntoPlace();
+        } catch (IOException e) {
+            abort();
+            throw e;
+        }
+    }
+
+    // MODIFIES: this
+    // EFFECTS: discards the new contents, leaving the target untouched
+    public void abort() {
+        try {
+            channel.close();
+            Files.deleteIfExists(temp);
+        } catch (IOException e) {
+            System.out.println("Unable to delete temporary file: " + temp);
+        }
+    }
+
+    // MODIFIES: target file
+    // EFFECTS: replaces the target with the temporary file, atomically where the file system supports it
+    private void moveIntoPlace() throws IOException {
+        try {
+            Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    // MODIFIES: backup directory
+    // EFFECTS: shifts every backup one generation older, dropping the oldest, and keeps the current
+    //          target as generation 1; uses a hard link where possible so the target is not copied
+    private void rotateBackups() throws IOException {
+        Path directory = Paths.get(backupDirectory);
+        Files.createDirectories(directory);
+        String name = target.getFileName().toString();
+        Files.deleteIfExists(directory.resolve(name + "." + generations));
+        for (int i = generations - 1; i >= 1; i--) {
+            Path older = directory.resolve(name + "." + i);
+            if (Files.exists(older)) {
+                Files.move(older, directory.resolve(name + "." + (i + 1)), StandardCopyOption.REPLACE_EXISTING);
+            }
+        }
+        Path newest = directory.resolve(name + ".1");
+        try {
+            Files.createLink(newest, target);
+        } catch (IOException | UnsupportedOperationException e) {
+            Files.copy(target, newest, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+}
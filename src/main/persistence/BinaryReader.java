@@ -0,0 +1,178 @@
+package persistence;
+
+import model.FlightEvents;
+import model.Ledger;
+import model.LedgerListener;
+import model.Money;
+
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+
+// Represents a reader that rebuilds a ledger from a binary snapshot (.ledger) written by BinaryWriter.
+// The file is read into one heap buffer and decoded from there, so no text is parsed. It is not
+// memory-mapped: a mapping stays open until it is garbage collected, and on Windows an open mapping
+// keeps the next save from replacing the file.
+public class BinaryReader {
+    private final String source;
+    private long journalSeq; // last journal record included in the file, 0 if none
+    private int version; // format version of the file being read
+
+    // EFFECTS: constructs a reader for the snapshot file at source
+    public BinaryReader(String source) {
+        this.source = source;
+    }
+
+    // EFFECTS: reads ledger from file and returns it; throws IOException if file cannot be read or is not
+    //          a supported snapshot
+    public Ledger read() throws IOException {
+        return read(null);
+    }
+
+    // EFFECTS: reads ledger from file as read() does, telling listener (if not null) about every income,
+    //          expense and goal on the reading thread as soon as it has been decoded
+    public Ledger read(LedgerListener listener) throws IOException {
+        return parse(ReadTarget.building(listener));
+    }
+
+    // EFFECTS: reads the file as read() does but builds no ledger: every income, expense and goal is handed
+    //          to sink on the reading thread as soon as it has been decoded, as a new entry of no ledger, and
+    //          is not kept, followed by sink.balanceSet if the balance was set by hand; throws IOException if
+    //          file cannot be read or is not a supported snapshot
+    public void stream(LedgerListener sink) throws IOException {
+        parse(ReadTarget.streaming(sink));
+    }
+
+    // MODIFIES: target
+    // EFFECTS: decodes the file into target and returns what target.finish() returns
+    private Ledger parse(ReadTarget target) throws IOException {
+        FlightEvents.LedgerLoad event = new FlightEvents.LedgerLoad();
+        event.begin();
+        try {
+            parseLedger(readFile(), target);
+            event.loaded(source, "binary", target.entryCount());
+            return target.finish();
+        } catch (BufferUnderflowException | IllegalArgumentException | IndexOutOfBoundsException e) {
+            throw new IOException("Truncated or corrupt snapshot: " + source, e);
+        }
+    }
+
+    // EFFECTS: returns the whole source file in a heap buffer ready to be read; throws IOException if it
+    //          cannot be read
+    private ByteBuffer readFile() throws IOException {
+        try (FileChannel channel = FileChannel.open(Paths.get(source), StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size > Integer.MAX_VALUE) {
+                throw new IOException("Snapshot too large: " + source);
+            }
+            ByteBuffer buffer = ByteBuffer.allocate((int) size);
+            while (buffer.hasRemaining() && channel.read(buffer) >= 0) {
+                // read until full; a file that shrank underneath ends early and is found truncated
+            }
+            buffer.flip();
+            return buffer;
+        }
+    }
+
+    // EFFECTS: returns the sequence number of the last journal record included in the last file read
+    public long getJournalSeq() {
+        return journalSeq;
+    }
+
+    /*
+     * MODIFIES: target
+     * EFFECTS: parses the header, string table and records into target
+     *      adding the items rebuilds the balance; the stored balance only differs from it if the balance
+     *      was set by hand (Ledger.setBalance), and is then set again so it is not lost
+     */
+    private void parseLedger(ByteBuffer buffer, ReadTarget target) throws IOException {
+        if (buffer.getInt() != BinaryWriter.MAGIC) {
+            throw new IOException("Not a ledger snapshot: " + source);
+        }
+        version = buffer.getInt();
+        if (version < 1 || version > BinaryWriter.VERSION) {
+            throw new IOException("Unsupported snapshot version " + version + ": " + source);
+        }
+        journalSeq = buffer.getLong();
+        double balance = readAmount(buffer);
+        String[] strings = readStrings(buffer);
+        readIncomes(buffer, strings, target);
+        readExpenses(buffer, strings, target);
+        readGoals(buffer, strings, target);
+        target.restoreBalance(balance);
+    }
+
+    // EFFECTS: decodes the string table
+    private String[] readStrings(ByteBuffer buffer) {
+        String[] strings = new String[buffer.getInt()];
+        byte[] bytes = new byte[256];
+        for (int i = 0; i < strings.length; i++) {
+            int length = buffer.getInt();
+            if (length > bytes.length) {
+                bytes = new byte[Math.max(length, bytes.length * 2)];
+            }
+            buffer.get(bytes, 0, length);
+            strings[i] = new String(bytes, 0, length, StandardCharsets.UTF_8);
+        }
+        return strings;
+    }
+
+    // MODIFIES: target
+    // EFFECTS: reads income records and adds them to target
+    private void readIncomes(ByteBuffer buffer, String[] strings, ReadTarget target) {
+        int count = buffer.getInt();
+        for (int i = 0; i < count; i++) {
+            int next = recordEnd(buffer);
+            target.addIncome(readAmount(buffer), strings[buffer.getInt()]);
+            buffer.position(next);
+        }
+    }
+
+    // MODIFIES: target
+    // EFFECTS: reads expense records and adds them to target
+    private void readExpenses(ByteBuffer buffer, String[] strings, ReadTarget target) {
+        int count = buffer.getInt();
+        for (int i = 0; i < count; i++) {
+            int next = recordEnd(buffer);
+            double amount = readAmount(buffer);
+            String title = strings[buffer.getInt()];
+            String date = strings[buffer.getInt()];
+            String note = strings[buffer.getInt()];
+            target.addExpense(title, amount, date, note);
+            buffer.position(next);
+        }
+    }
+
+    // MODIFIES: target
+    // EFFECTS: reads saving goal records and adds them to target
+    private void readGoals(ByteBuffer buffer, String[] strings, ReadTarget target) {
+        int count = buffer.getInt();
+        for (int i = 0; i < count; i++) {
+            int next = recordEnd(buffer);
+            double goalAmount = readAmount(buffer);
+            double currentAmount = readAmount(buffer);
+            String name = strings[buffer.getInt()];
+            boolean complete = buffer.get() != 0;
+            target.addGoal(name, goalAmount, currentAmount, complete);
+            buffer.position(next);
+        }
+    }
+
+    // MODIFIES: buffer
+    // EFFECTS: reads an amount, stored in cents since version 2 and as a double before that; the cents
+    //          survive the conversion to a double and back exactly
+    private double readAmount(ByteBuffer buffer) {
+        return version >= 2 ? Money.toDouble(buffer.getLong()) : buffer.getDouble();
+    }
+
+    // MODIFIES: buffer
+    // EFFECTS: reads a record length prefix and returns the position just past that record
+    private int recordEnd(ByteBuffer buffer) {
+        int length = buffer.getInt();
+        return buffer.position() + length;
+    }
+}
@@ -0,0 +1,228 @@
+package persistence;
+
+import model.Expense;
+import model.FlightEvents;
+import model.Income;
+import model.Ledger;
+import model.LedgerSnapshot;
+import model.SavingGoal;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/*
+ * Represents a writer that writes a compact binary snapshot (.ledger) of a ledger to a file.
+ *
+ * Layout (big-endian):
+ *   int magic, int version, long journalSeq, long balance
+ *   int stringCount, then per string: int byteLength, UTF-8 bytes
+ *   int incomeCount,  then per income:  int recordLength, long amount, int sourceId
+ *   int expenseCount, then per expense: int recordLength, long amount, int titleId, int dateId, int noteId
+ *   int goalCount,    then per goal:    int recordLength, long goalAmount, long currentAmount,
+ *                                       int nameId, byte complete
+ * Amounts are in cents. Version 1 files stored them as doubles in dollars and can still be read.
+ * Titles, sources, dates and notes are stored once in the string table and referenced by index.
+ * recordLength counts the bytes after itself, so readers can skip fields added by later versions.
+ * The file is replaced atomically when the writer is closed, so a failed write never damages it.
+ */
+public class BinaryWriter {
+    public static final int MAGIC = 0x4C444752; // "LDGR"
+    public static final int VERSION = 2;
+    static final int INCOME_RECORD = 8 + 4;
+    static final int EXPENSE_RECORD = 8 + 4 + 4 + 4;
+    static final int GOAL_RECORD = 8 + 8 + 4 + 1;
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final String location;
+    private final AtomicFile file;
+    private FileChannel channel;
+    private ByteBuffer buffer;
+    private Map<String, Integer> stringIds;
+    private List<String> strings;
+    private FlightEvents.LedgerSave event; // this save, from open to close
+    private int rows; // entries written
+
+    // EFFECTS: constructs a writer for the snapshot file at location
+    public BinaryWriter(String location) {
+        this.location = location;
+        this.file = new AtomicFile(location);
+    }
+
+    // EFFECTS: constructs a writer that also keeps the given number of previous versions of the file
+    //          in backupDirectory
+    public BinaryWriter(String location, String backupDirectory, int generations) {
+        this.location = location;
+        this.file = new AtomicFile(location, backupDirectory, generations);
+    }
+
+    // MODIFIES: this
+    // EFFECTS: opens a temporary file next to the destination; throws IOException if it cannot be opened
+    public void open() throws IOException {
+        event = new FlightEvents.LedgerSave();
+        event.begin();
+        rows = 0;
+        channel = file.begin();
+        buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+    }
+
+    // MODIFIES: this
+    // EFFECTS: writes a binary snapshot of ledger to file
+    public void write(Ledger ledger) throws IOException {
+        write(ledger, 0);
+    }
+
+    // MODIFIES: this
+    // EFFECTS: writes a binary snapshot of ledger to file, recording that it includes journal records up to
+    //          journalSeq; discards the partly written file if anything cannot be written
+    public void write(Ledger ledger, long journalSeq) throws IOException {
+        write(ledger.getBalanceCents(), ledger.getIncomeList(), ledger.getExpenses(), ledger.getGoals(), journalSeq);
+    }
+
+    // MODIFIES: this
+    // EFFECTS: writes a binary snapshot of the ledger as it was when snapshot was taken, recording that it
+    //          includes journal records up to journalSeq; safe to call while the ledger keeps changing
+    public void write(LedgerSnapshot snapshot, long journalSeq) throws IOException {
+        write(snapshot.getBalanceCents(), snapshot.getIncomeList(), snapshot.getExpenses(), snapshot.getGoals(),
+                journalSeq);
+    }
+
+    // MODIFIES: this
+    // EFFECTS: writes a binary snapshot of a ledger with the given balance and entries; discards the partly
+    //          written file if anything cannot be written
+    private void write(long balance, List<Income> incomes, List<Expense> expenses, List<SavingGoal> goals,
+                       long journalSeq) throws IOException {
+        rows = incomes.size() + expenses.size() + goals.size();
+        try {
+            buildStringTable(incomes, expenses, goals);
+            ensure(4 + 4 + 8 + 8);
+            buffer.putInt(MAGIC).putInt(VERSION).putLong(journalSeq).putLong(balance);
+            writeStrings();
+            writeIncomes(incomes);
+            writeExpenses(expenses);
+            writeGoals(goals);
+            flush();
+        } catch (IOException e) {
+            file.abort();
+            throw e;
+        }
+    }
+
+    // MODIFIES: this
+    // EFFECTS: flushes remaining bytes, forces them to disk and moves the file over the destination;
+    //          throws IOException and leaves the destination untouched if that fails
+    public void close() throws IOException {
+        flush();
+        file.commit();
+        event.saved(location, "binary", rows);
+    }
+
+    // MODIFIES: this
+    // EFFECTS: assigns an id to every distinct string in the entries, in order of first use
+    private void buildStringTable(List<Income> incomes, List<Expense> expenses, List<SavingGoal> goals) {
+        stringIds = new HashMap<>();
+        strings = new ArrayList<>();
+        for (Income income : incomes) {
+            idOf(income.getSource());
+        }
+        for (Expense expense : expenses) {
+            idOf(expense.getTitle());
+            idOf(expense.getDate());
+            idOf(expense.getNote());
+        }
+        for (SavingGoal goal : goals) {
+            idOf(goal.getName());
+        }
+    }
+
+    // MODIFIES: this
+    // EFFECTS: returns the string table id of s, adding s to the table if it is new
+    private int idOf(String s) {
+        Integer id = stringIds.get(s);
+        if (id == null) {
+            id = strings.size();
+            stringIds.put(s, id);
+            strings.add(s);
+        }
+        return id;
+    }
+
+    // MODIFIES: this
+    // EFFECTS: writes the string table
+    private void writeStrings() throws IOException {
+        ensure(4);
+        buffer.putInt(strings.size());
+        for (String s : strings) {
+            byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+            ensure(4);
+            buffer.putInt(bytes.length);
+            int offset = 0;
+            while (offset < bytes.length) {
+                ensure(1);
+                int n = Math.min(buffer.remaining(), bytes.length - offset);
+                buffer.put(bytes, offset, n);
+                offset += n;
+            }
+        }
+    }
+
+    // MODIFIES: this
+    // EFFECTS: writes the income records
+    private void writeIncomes(List<Income> incomes) throws IOException {
+        ensure(4);
+        buffer.putInt(incomes.size());
+        for (Income income : incomes) {
+            ensure(4 + INCOME_RECORD);
+            buffer.putInt(INCOME_RECORD).putLong(income.getAmountCents()).putInt(stringIds.get(income.getSource()));
+        }
+    }
+
+    // MODIFIES: this
+    // EFFECTS: writes the expense records
+    private void writeExpenses(List<Expense> expenses) throws IOException {
+        ensure(4);
+        buffer.putInt(expenses.size());
+        for (Expense expense : expenses) {
+            ensure(4 + EXPENSE_RECORD);
+            buffer.putInt(EXPENSE_RECORD).putLong(expense.getAmountCents())
+                    .putInt(stringIds.get(expense.getTitle()))
+                    .putInt(stringIds.get(expense.getDate()))
+                    .putInt(stringIds.get(expense.getNote()));
+        }
+    }
+
+    // MODIFIES: this
+    // EFFECTS: writes the saving goal records
+    private void writeGoals(List<SavingGoal> goals) throws IOException {
+        ensure(4);
+        buffer.putInt(goals.size());
+        for (SavingGoal goal : goals) {
+            ensure(4 + GOAL_RECORD);
+            buffer.putInt(GOAL_RECORD).putLong(goal.getGoalCents()).putLong(goal.getCurrentCents())
+                    .putInt(stringIds.get(goal.getName())).put((byte) (goal.isComplete() ? 1 : 0));
+        }
+    }
+
+    // MODIFIES: this
+    // EFFECTS: flushes the buffer to file if fewer than n bytes are left in it
+    private void ensure(int n) throws IOException {
+        if (buffer.remaining() < n) {
+            flush();
+        }
+    }
+
+    // MODIFIES: this
+    // EFFECTS: writes buffered bytes to file
+    private void flush() throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+}
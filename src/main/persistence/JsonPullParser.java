@@ -0,0 +1,311 @@
+package persistence;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Reader;
+
+// Represents a pull-based JSON tokenizer that reads values one at a time from a character stream,
+// so a document can be consumed without building it in memory first
+public class JsonPullParser implements Closeable {
+    private static final int BUFFER_SIZE = 8192;
+
+    private final Reader reader;
+    private final char[] buffer;
+    private final StringBuilder scratch;
+    private int pos;
+    private int limit;
+    private long consumed; // characters consumed before the current buffer
+    private boolean memberRead; // true if a value was just read, so a ',' must come before the next member
+
+    // EFFECTS: constructs a parser reading JSON text from reader
+    public JsonPullParser(Reader reader) {
+        this.reader = reader;
+        this.buffer = new char[BUFFER_SIZE];
+        this.scratch = new StringBuilder();
+    }
+
+    // MODIFIES: this
+    // EFFECTS: consumes the start of an object; throws IOException if next value is not an object
+    public void beginObject() throws IOException {
+        expect('{');
+        memberRead = false;
+    }
+
+    // MODIFIES: this
+    // EFFECTS: consumes the end of an object; throws IOException if the object has more members
+    public void endObject() throws IOException {
+        expect('}');
+        memberRead = true;
+    }
+
+    // MODIFIES: this
+    // EFFECTS: consumes the start of an array; throws IOException if next value is not an array
+    public void beginArray() throws IOException {
+        expect('[');
+        memberRead = false;
+    }
+
+    // MODIFIES: this
+    // EFFECTS: consumes the end of an array; throws IOException if the array has more elements
+    public void endArray() throws IOException {
+        expect(']');
+        memberRead = true;
+    }
+
+    // MODIFIES: this
+    // EFFECTS: returns true if the current object or array has another member, consuming the ',' before it;
+    //          throws IOException if members are not separated by a ',' or there is a leading or trailing ','
+    public boolean hasNext() throws IOException {
+        int c = peekToken();
+        if (c == '}' || c == ']' || c == -1) {
+            return false;
+        }
+        if (!memberRead) {
+            if (c == ',') {
+                throw error("Unexpected ','");
+            }
+            return true;
+        }
+        expect(',');
+        memberRead = false;
+        c = peekToken();
+        if (c == '}' || c == ']' || c == -1) {
+            throw error("Expected a member after ','");
+        }
+        return true;
+    }
+
+    // MODIFIES: this
+    // EFFECTS: reads a member name and its ':' separator and returns the name
+    public String nextName() throws IOException {
+        String name = nextString();
+        expect(':');
+        memberRead = false;
+        return name;
+    }
+
+    // MODIFIES: this
+    // EFFECTS: reads a string value and returns it
+    public String nextString() throws IOException {
+        expect('"');
+        scratch.setLength(0);
+        while (true) {
+            int c = read();
+            if (c == '"') {
+                memberRead = true;
+                return scratch.toString();
+            } else if (c == '\\') {
+                scratch.append(readEscape());
+            } else if (c == -1) {
+                throw error("Unterminated string");
+            } else {
+                scratch.append((char) c);
+            }
+        }
+    }
+
+    // MODIFIES: this
+    // EFFECTS: reads a numeric value (or a string holding a number) and returns it as a double
+    public double nextDouble() throws IOException {
+        if (peekToken() == '"') {
+            return parseDouble(nextString());
+        }
+        scratch.setLength(0);
+        int c = peek();
+        while (c != -1 && isNumberChar(c)) {
+            scratch.append((char) c);
+            pos++;
+            c = peek();
+        }
+        memberRead = true;
+        return parseDouble(scratch.toString());
+    }
+
+    // MODIFIES: this
+    // EFFECTS: reads a boolean literal (or a string holding one) and returns it
+    public boolean nextBoolean() throws IOException {
+        if (peekToken() == '"') {
+            return parseBoolean(nextString());
+        }
+        return parseBoolean(nextLiteral());
+    }
+
+    // MODIFIES: this
+    // EFFECTS: skips over the next value, including any nested objects or arrays
+    public void skipValue() throws IOException {
+        int c = peekToken();
+        if (c == '"') {
+            nextString();
+        } else if (c == '{' || c == '[') {
+            skipContainer();
+        } else {
+            nextLiteral();
+        }
+    }
+
+    // MODIFIES: this
+    // EFFECTS: closes the underlying reader
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+
+    // MODIFIES: this
+    // EFFECTS: consumes an object or array and everything nested in it
+    private void skipContainer() throws IOException {
+        int depth = 0;
+        do {
+            int c = peekToken();
+            if (c == '"') {
+                nextString();
+                continue;
+            }
+            pos++;
+            if (c == '{' || c == '[') {
+                depth++;
+            } else if (c == '}' || c == ']') {
+                depth--;
+            } else if (c == -1) {
+                throw error("Unexpected end of input");
+            }
+        } while (depth > 0);
+        memberRead = true;
+    }
+
+    // MODIFIES: this
+    // EFFECTS: reads an unquoted literal such as true, false, null or a number
+    private String nextLiteral() throws IOException {
+        peekToken();
+        scratch.setLength(0);
+        int c = peek();
+        while (c != -1 && (Character.isLetterOrDigit(c) || isNumberChar(c))) {
+            scratch.append((char) c);
+            pos++;
+            c = peek();
+        }
+        if (scratch.length() == 0) {
+            throw error("Expected a value");
+        }
+        memberRead = true;
+        return scratch.toString();
+    }
+
+    // MODIFIES: this
+    // EFFECTS: reads the character following a backslash and returns the character it stands for
+    private char readEscape() throws IOException {
+        int c = read();
+        switch (c) {
+            case 'b':
+                return '\b';
+            case 'f':
+                return '\f';
+            case 'n':
+                return '\n';
+            case 'r':
+                return '\r';
+            case 't':
+                return '\t';
+            case 'u':
+                return readUnicode();
+            case '"':
+            case '\\':
+            case '/':
+                return (char) c;
+            default:
+                throw error("Illegal escape");
+        }
+    }
+
+    // MODIFIES: this
+    // EFFECTS: reads four hex digits of a \\u escape and returns the character
+    private char readUnicode() throws IOException {
+        int value = 0;
+        for (int i = 0; i < 4; i++) {
+            int digit = Character.digit(read(), 16);
+            if (digit < 0) {
+                throw error("Illegal unicode escape");
+            }
+            value = (value << 4) | digit;
+        }
+        return (char) value;
+    }
+
+    // MODIFIES: this
+    // EFFECTS: consumes the next non-whitespace character; throws IOException if it is not expected
+    private void expect(char expected) throws IOException {
+        if (peekToken() != expected) {
+            throw error("Expected '" + expected + "'");
+        }
+        pos++;
+    }
+
+    // MODIFIES: this
+    // EFFECTS: skips whitespace and returns the next character without consuming it, or -1 at end
+    private int peekToken() throws IOException {
+        int c = peek();
+        while (c == ' ' || c == '\n' || c == '\r' || c == '\t') {
+            pos++;
+            c = peek();
+        }
+        return c;
+    }
+
+    // MODIFIES: this
+    // EFFECTS: returns the next character without consuming it, or -1 at end of input
+    private int peek() throws IOException {
+        if (pos == limit && !fill()) {
+            return -1;
+        }
+        return buffer[pos];
+    }
+
+    // MODIFIES: this
+    // EFFECTS: consumes and returns the next character, or -1 at end of input
+    private int read() throws IOException {
+        int c = peek();
+        if (c != -1) {
+            pos++;
+        }
+        return c;
+    }
+
+    // MODIFIES: this
+    // EFFECTS: refills the buffer from the reader; returns false if there is nothing left to read
+    private boolean fill() throws IOException {
+        consumed += limit;
+        pos = 0;
+        limit = 0;
+        int n = reader.read(buffer, 0, buffer.length);
+        if (n <= 0) {
+            return false;
+        }
+        limit = n;
+        return true;
+    }
+
+    private boolean isNumberChar(int c) {
+        return (c >= '0' && c <= '9') || c == '-' || c == '+' || c == '.' || c == 'e' || c == 'E';
+    }
+
+    private double parseDouble(String text) throws IOException {
+        try {
+            return Double.parseDouble(text);
+        } catch (NumberFormatException e) {
+            throw error("Expected a number but was '" + text + "'");
+        }
+    }
+
+    private boolean parseBoolean(String text) throws IOException {
+        if (text.equalsIgnoreCase("true")) {
+            return true;
+        } else if (text.equalsIgnoreCase("false")) {
+            return false;
+        }
+        throw error("Expected a boolean but was '" + text + "'");
+    }
+
+    // EFFECTS: returns an exception describing a syntax error at the current position
+    private IOException error(String message) {
+        return new IOException(message + " at offset " + (consumed + pos));
+    }
+}
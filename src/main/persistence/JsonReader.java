@@ -1,110 +1,214 @@
 package persistence;
 
+import model.FlightEvents;
 import model.Ledger;
-import org.json.JSONArray;
-import org.json.JSONObject;
+import model.LatencyHistogram;
+import model.LedgerListener;
+import model.Metrics;
 
 import java.io.IOException;
+import java.io.Reader;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
 import java.nio.charset.StandardCharsets;
-import java.nio.file.Files;
 import java.nio.file.Paths;
-import java.util.stream.Stream;
+import java.nio.file.StandardOpenOption;
 
 // This class is modeled on JsonReader class from :
 // https://github.students.cs.ubc.ca/CPSC210/JsonSerializationDemo
 
 // Represents a reader that reads ledger from JSON data stored in file
 public class JsonReader {
+    private static final LatencyHistogram READS = Metrics.histogram("json.read");
+
     String source;
     Ledger ledger;
+    long journalSeq; // last journal record included in the file, 0 if none
 
     // EFFECTS: constructs a Json reader object with source of the json file
     public JsonReader(String source) {
         this.source = source;
     }
 
-    // EFFECTS: reads ledger from file and returns it
+    /*
+     * EFFECTS: reads ledger from file and returns it; throws IOException if file cannot be read or is malformed
+     *      records are streamed into the ledger as they are parsed, so the document is never held in memory
+     */
     public Ledger read() throws IOException {
-        String jsonData = readFile(source);
-        JSONObject jsonObject = new JSONObject(jsonData);
-        return parseLedger(jsonObject);
+        return read(null);
+    }
+
+    // EFFECTS: reads ledger from file as read() does, telling listener (if not null) about every income,
+    //          expense and goal on the reading thread as soon as it has been parsed
+    public Ledger read(LedgerListener listener) throws IOException {
+        ledger = parse(ReadTarget.building(listener));
+        return ledger;
     }
 
-    // EFFECTS: reads source file as string and returns it
-    public String readFile(String source) throws IOException {
-        StringBuilder builder = new StringBuilder();
+    // EFFECTS: reads the file as read() does but builds no ledger: every income, expense and goal is handed
+    //          to sink on the reading thread as soon as it has been parsed, as a new entry of no ledger, and
+    //          is not kept; throws IOException if file cannot be read or is malformed
+    public void stream(LedgerListener sink) throws IOException {
+        parse(ReadTarget.streaming(sink));
+    }
 
-        try (Stream<String> stream = Files.lines(Paths.get(source), StandardCharsets.UTF_8)) {
-            stream.forEach(s -> builder.append(s));
+    // MODIFIES: target
+    // EFFECTS: parses the file into target and returns what target.finish() returns
+    private Ledger parse(ReadTarget target) throws IOException {
+        long start = READS.start();
+        FlightEvents.LedgerLoad event = new FlightEvents.LedgerLoad();
+        event.begin();
+        journalSeq = 0;
+        Ledger read;
+        try (JsonPullParser parser = new JsonPullParser(openReader(source))) {
+            parseLedger(target, parser);
+        } finally {
+            read = target.finish();
         }
+        READS.stop(start);
+        event.loaded(source, "JSON", target.entryCount());
+        return read;
+    }
+
+    // EFFECTS: returns the sequence number of the last journal record included in the last file read
+    public long getJournalSeq() {
+        return journalSeq;
+    }
 
-        return builder.toString();
+    // EFFECTS: opens a buffered UTF-8 reader over a channel on the source file
+    private Reader openReader(String source) throws IOException {
+        FileChannel channel = FileChannel.open(Paths.get(source), StandardOpenOption.READ);
+        return Channels.newReader(channel, StandardCharsets.UTF_8.newDecoder(), -1);
     }
 
     /*
-     * EFFECTS: parses balance to create a ledger
+     * MODIFIES: target
+     * EFFECTS: parses the top level object into target
      *      do not need to parse balance from json, addItem calls in parseData increments the balance
      */
-    private Ledger parseLedger(JSONObject jsonObject) {
-        ledger = new Ledger();
-        parseData(ledger, jsonObject);
-        return ledger;
+    private void parseLedger(ReadTarget target, JsonPullParser parser) throws IOException {
+        parser.beginObject();
+        while (parser.hasNext()) {
+            String name = parser.nextName();
+            if (name.equals("data")) {
+                parseData(target, parser);
+            } else if (name.equals("journalSeq")) {
+                journalSeq = (long) parser.nextDouble();
+            } else {
+                parser.skipValue();
+            }
+        }
+        parser.endObject();
     }
 
-    // MODIFIES: ledger
-    // EFFECTS: parses lists from JSON object and adds them to ledger
-    private void parseData(Ledger ledger, JSONObject jsonObject) {
-        JSONArray data = jsonObject.getJSONArray("data");
-
-        JSONObject incomesData = (JSONObject) data.get(0);
-        JSONArray incomes = incomesData.getJSONArray("incomes");
-
-        JSONObject expensesData = (JSONObject) data.get(1);
-        JSONArray expenses = expensesData.getJSONArray("expenses");
-
-        JSONObject goalsData = (JSONObject) data.get(2);
-        JSONArray goals = goalsData.getJSONArray("goals");
-
-        // for adding all the objects back to their lists
-        for (Object income : incomes) {
-            JSONObject nextIncome = (JSONObject) income;
-            addIncomeItem(ledger, nextIncome);
+    // MODIFIES: target
+    // EFFECTS: parses the data array holding the incomes, expenses and goals lists and adds them to target
+    private void parseData(ReadTarget target, JsonPullParser parser) throws IOException {
+        parser.beginArray();
+        while (parser.hasNext()) {
+            parser.beginObject();
+            while (parser.hasNext()) {
+                parseList(target, parser, parser.nextName());
+            }
+            parser.endObject();
         }
-        for (Object expense : expenses) {
-            JSONObject nextExpense = (JSONObject) expense;
-            addExpenseItem(ledger, nextExpense);
+        parser.endArray();
+    }
+
+    // MODIFIES: target
+    // EFFECTS: parses the list with given name, adding each of its items to target as it is read
+    private void parseList(ReadTarget target, JsonPullParser parser, String name) throws IOException {
+        parser.beginArray();
+        while (parser.hasNext()) {
+            if (name.equals("incomes")) {
+                addIncomeItem(target, parser);
+            } else if (name.equals("expenses")) {
+                addExpenseItem(target, parser);
+            } else if (name.equals("goals")) {
+                addGoalItem(target, parser);
+            } else {
+                parser.skipValue();
+            }
         }
-        for (Object goal : goals) {
-            JSONObject nextGoal = (JSONObject) goal;
-            addGoalItem(ledger, nextGoal);
+        parser.endArray();
+    }
+
+    // MODIFIES: target
+    // EFFECTS: parses income object and adds it to target
+    private void addIncomeItem(ReadTarget target, JsonPullParser parser) throws IOException {
+        Double amount = null;
+        String source = null;
+        parser.beginObject();
+        while (parser.hasNext()) {
+            String key = parser.nextName();
+            if (key.equals("amount")) {
+                amount = parser.nextDouble();
+            } else if (key.equals("source")) {
+                source = parser.nextString();
+            } else {
+                parser.skipValue();
+            }
         }
+        parser.endObject();
+        target.addIncome(require(amount, "amount"), require(source, "source"));
     }
 
-    // MODIFIES: ledger
-    // EFFECTS: parses income object from JSON object and adds it to incomes list in ledger
-    private void addIncomeItem(Ledger ledger, JSONObject jsonObject) {
-        double amount = jsonObject.getDouble("amount");
-        String source = jsonObject.getString("source");
-        ledger.addIncomeNoLog(amount, source);
+    // MODIFIES: target
+    // EFFECTS: parses expense object and adds it to target
+    private void addExpenseItem(ReadTarget target, JsonPullParser parser) throws IOException {
+        String[] text = new String[3]; // title, date, note
+        Double amount = null;
+        parser.beginObject();
+        while (parser.hasNext()) {
+            String key = parser.nextName();
+            if (key.equals("amount")) {
+                amount = parser.nextDouble();
+            } else if (key.equals("title")) {
+                text[0] = parser.nextString();
+            } else if (key.equals("date")) {
+                text[1] = parser.nextString();
+            } else if (key.equals("note")) {
+                text[2] = parser.nextString();
+            } else {
+                parser.skipValue();
+            }
+        }
+        parser.endObject();
+        target.addExpense(require(text[0], "title"), require(amount, "amount"),
+                require(text[1], "date"), require(text[2], "note"));
     }
 
-    // MODIFIES: ledger
-    // EFFECTS: parses expense object from JSON object and adds it to expenses list in ledger
-    private void addExpenseItem(Ledger ledger, JSONObject jsonObject) {
-        String title = jsonObject.getString("title");
-        double amount = jsonObject.getDouble("amount");
-        String date = jsonObject.getString("date");
-        String note = jsonObject.getString("note");
-        ledger.addExpenseNoLog(title, amount, date, note);
+    // MODIFIES: target
+    // EFFECTS: parses goal object and adds it to target
+    private void addGoalItem(ReadTarget target, JsonPullParser parser) throws IOException {
+        String name = null;
+        Double[] amounts = new Double[2]; // goalAmount, currentAmount
+        Boolean complete = null;
+        parser.beginObject();
+        while (parser.hasNext()) {
+            String key = parser.nextName();
+            if (key.equals("name")) {
+                name = parser.nextString();
+            } else if (key.equals("goalAmount")) {
+                amounts[0] = parser.nextDouble();
+            } else if (key.equals("currentAmount")) {
+                amounts[1] = parser.nextDouble();
+            } else if (key.equals("complete")) {
+                complete = parser.nextBoolean();
+            } else {
+                parser.skipValue();
+            }
+        }
+        parser.endObject();
+        target.addGoal(require(name, "name"), require(amounts[0], "goalAmount"),
+                require(amounts[1], "currentAmount"), require(complete, "complete"));
     }
 
-    // MODIFIES: ledger
-    // EFFECTS: parses goal object from JSON object and adds it to goals list in ledger
-    private void addGoalItem(Ledger ledger, JSONObject jsonObject) {
-        String name = jsonObject.getString("name");
-        double goalAmount = jsonObject.getDouble("goalAmount");
-        double currentAmount = jsonObject.getDouble("currentAmount");
-        boolean complete = jsonObject.getBoolean("complete");
-        ledger.setOldSavingGoal(name, goalAmount, currentAmount, complete);
+    // EFFECTS: returns value; throws IOException naming key if value was missing from its object
+    private <T> T require(T value, String key) throws IOException {
+        if (value == null) {
+            throw new IOException("Missing key '" + key + "' in " + source);
+        }
+        return value;
     }
 }
@@ -1,48 +1,306 @@
 package persistence;
 
+import model.Expense;
+import model.FlightEvents;
+import model.Income;
+import model.LatencyHistogram;
 import model.Ledger;
+import model.LedgerSnapshot;
+import model.Metrics;
+import model.SavingGoal;
 import org.json.JSONObject;
 
-import java.io.File;
-import java.io.FileNotFoundException;
+import java.io.BufferedWriter;
+import java.io.IOException;
 import java.io.PrintWriter;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
 
 // This class is modeled on JsonWriter class from :
 // https://github.students.cs.ubc.ca/CPSC210/JsonSerializationDemo
 
 // Represents a writer that writes JSON representation of ledger to a file
+// The file is replaced atomically when the writer is closed, so a failed write never damages it
 public class JsonWriter {
     private PrintWriter writer;
     private String location;
+    private AtomicFile file;
     private static final int TAB = 4; // spacing
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final LatencyHistogram WRITES = Metrics.histogram("json.write");
+    private static final LatencyHistogram COMMITS = Metrics.histogram("json.commit"); // flush, force, rename
+    private int recordLevel; // nesting level of the members of the record being written
+    private FlightEvents.LedgerSave event; // this save, from open to close
+    private int rows; // entries written
 
     public JsonWriter(String location) {
         this.location = location;
+        this.file = new AtomicFile(location);
+    }
+
+    // EFFECTS: constructs a writer that also keeps the given number of previous versions of the file
+    //          in backupDirectory
+    public JsonWriter(String location, String backupDirectory, int generations) {
+        this.location = location;
+        this.file = new AtomicFile(location, backupDirectory, generations);
     }
 
     // MODIFIES: this
-    // EFFECTS: opens writer; throws FileNotFoundException if destination file cannot
+    // EFFECTS: opens writer on a temporary file next to the destination; throws IOException if it cannot
     // be opened for writing
-    public void open() throws FileNotFoundException {
-        writer = new PrintWriter(new File(location));
+    public void open() throws IOException {
+        event = new FlightEvents.LedgerSave();
+        event.begin();
+        rows = 0;
+        FileChannel channel = file.begin();
+        writer = new PrintWriter(new BufferedWriter(Channels.newWriter(channel,
+                StandardCharsets.UTF_8.newEncoder(), -1), BUFFER_SIZE));
     }
 
-    // MODIFIES: this
-    // EFFECTS: writes JSON representation of workroom to file
+    /*
+     * MODIFIES: this
+     * EFFECTS: writes JSON representation of ledger to file
+     *      each record is streamed to the buffered writer as it is visited, in the same layout
+     *      Ledger.toJson().toString(TAB) produces, so no JSONObject tree or document string is built
+     */
     public void write(Ledger ledger) {
-        JSONObject json = ledger.toJson();
-        saveToFile(json.toString(TAB));
+        write(ledger, 0);
+    }
+
+    /*
+     * MODIFIES: this
+     * EFFECTS: writes JSON representation of ledger to file, recording that it includes every journal
+     *      record up to journalSeq; nothing extra is written when journalSeq is 0
+     */
+    public void write(Ledger ledger, long journalSeq) {
+        write(ledger.getBalance(), ledger.getIncomeList(), ledger.getExpenses(), ledger.getGoals(), journalSeq);
+    }
+
+    // MODIFIES: this
+    // EFFECTS: writes JSON representation of the ledger as it was when snapshot was taken, recording journalSeq
+    //          as write(Ledger, long) does; safe to call while the ledger keeps changing
+    public void write(LedgerSnapshot snapshot, long journalSeq) {
+        write(snapshot.getBalance(), snapshot.getIncomeList(), snapshot.getExpenses(), snapshot.getGoals(),
+                journalSeq);
+    }
+
+    // MODIFIES: this
+    // EFFECTS: writes JSON representation of a ledger with the given balance and entries
+    private void write(double balance, List<Income> incomes, List<Expense> expenses, List<SavingGoal> goals,
+                       long journalSeq) {
+        long start = WRITES.start();
+        rows = incomes.size() + expenses.size() + goals.size();
+        writer.print("{\n");
+        indent(1);
+        writer.print("\"balance\": ");
+        writer.print(JSONObject.numberToString(balance));
+        writer.print(",\n");
+        writeJournalSeq(journalSeq);
+        indent(1);
+        writer.print("\"data\": [\n");
+        writeIncomes(incomes);
+        writer.print(",\n");
+        writeExpenses(expenses);
+        writer.print(",\n");
+        writeGoals(goals);
+        writer.print("\n");
+        indent(1);
+        writer.print("]\n}");
+        WRITES.stop(start);
+    }
+
+    // MODIFIES: this
+    // EFFECTS: writes the journalSeq member of the ledger, unless journalSeq is 0
+    private void writeJournalSeq(long journalSeq) {
+        if (journalSeq > 0) {
+            indent(1);
+            writer.print("\"journalSeq\": ");
+            writer.print(journalSeq);
+            writer.print(",\n");
+        }
+    }
+
+    // MODIFIES: this
+    // EFFECTS: closes writer, forcing the written data to disk and moving it over the destination file;
+    //          throws IOException and leaves the destination untouched if anything could not be written
+    public void close() throws IOException {
+        long start = COMMITS.start();
+        writer.flush();
+        if (writer.checkError()) {
+            file.abort();
+            throw new IOException("Unable to write to file: " + location);
+        }
+        file.commit();
+        COMMITS.stop(start);
+        event.saved(location, "JSON", rows);
+    }
+
+    // MODIFIES: this
+    // EFFECTS: writes the incomes list object
+    private void writeIncomes(List<Income> incomes) {
+        beginList("incomes", incomes.size());
+        for (int i = 0; i < incomes.size(); i++) {
+            Income income = incomes.get(i);
+            beginRecord(i);
+            writeNumber("amount", income.getAmount(), false);
+            writeString("source", income.getSource(), true);
+            endRecord();
+        }
+        endList(incomes.size());
+    }
+
+    // MODIFIES: this
+    // EFFECTS: writes the expenses list object
+    private void writeExpenses(List<Expense> expenses) {
+        beginList("expenses", expenses.size());
+        for (int i = 0; i < expenses.size(); i++) {
+            Expense expense = expenses.get(i);
+            beginRecord(i);
+            writeString("date", expense.getDate(), false);
+            writeString("note", expense.getNote(), false);
+            writeNumber("amount", expense.getAmount(), false);
+            writeString("title", expense.getTitle(), true);
+            endRecord();
+        }
+        endList(expenses.size());
+    }
+
+    // MODIFIES: this
+    // EFFECTS: writes the saving goals list object
+    private void writeGoals(List<SavingGoal> goals) {
+        beginList("goals", goals.size());
+        for (int i = 0; i < goals.size(); i++) {
+            SavingGoal goal = goals.get(i);
+            beginRecord(i);
+            writeNumber("goalAmount", goal.getGoalAmount(), false);
+            writeString("name", goal.getName(), false);
+            writeNumber("currentAmount", goal.getCurrentAmount(), false);
+            indent(recordLevel);
+            writer.print("\"complete\": ");
+            writer.print(goal.isComplete());
+            writer.print("\n");
+            endRecord();
+        }
+        endList(goals.size());
+    }
+
+    /*
+     * MODIFIES: this
+     * EFFECTS: writes the opening of a {"name": [ list object with given number of records
+     *      like JSONObject.toString, a single record is written inline with the list brackets
+     */
+    private void beginList(String name, int size) {
+        indent(2);
+        writer.print("{\"");
+        writer.print(name);
+        if (size == 0) {
+            writer.print("\": []}");
+        } else if (size == 1) {
+            writer.print("\": [");
+            recordLevel = 3;
+        } else {
+            writer.print("\": [\n");
+            recordLevel = 4;
+        }
+    }
+
+    // MODIFIES: this
+    // EFFECTS: writes the closing of a list object opened by beginList
+    private void endList(int size) {
+        if (size == 1) {
+            writer.print("]}");
+        } else if (size > 1) {
+            writer.print("\n");
+            indent(2);
+            writer.print("]}");
+        }
+    }
+
+    // MODIFIES: this
+    // EFFECTS: writes the opening brace of the record at given index in its list
+    private void beginRecord(int index) {
+        if (index > 0) {
+            writer.print(",\n");
+        }
+        if (recordLevel > 3) {
+            indent(recordLevel - 1);
+        }
+        writer.print("{\n");
+    }
+
+    // MODIFIES: this
+    // EFFECTS: writes the closing brace of a record
+    private void endRecord() {
+        indent(recordLevel - 1);
+        writer.print("}");
+    }
+
+    // MODIFIES: this
+    // EFFECTS: writes a numeric member of a record
+    private void writeNumber(String key, double value, boolean last) {
+        indent(recordLevel);
+        writer.print('"');
+        writer.print(key);
+        writer.print("\": ");
+        writer.print(JSONObject.numberToString(value));
+        writer.print(last ? "\n" : ",\n");
+    }
+
+    // MODIFIES: this
+    // EFFECTS: writes a string member of a record
+    private void writeString(String key, String value, boolean last) {
+        indent(recordLevel);
+        writer.print('"');
+        writer.print(key);
+        writer.print("\": ");
+        writeQuoted(value);
+        writer.print(last ? "\n" : ",\n");
+    }
+
+    // MODIFIES: this
+    // EFFECTS: writes value as a quoted JSON string, escaping characters exactly as JSONObject.quote does:
+    //          "</" as "<\/", the short escapes for \b \t \n \f \r, and six-character hex escapes for the other
+    //          control characters, U+0080 to U+009F and U+2000 to U+20FF
+    private void writeQuoted(String value) {
+        writer.print('"');
+        char previous = 0;
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"' || c == '\\' || (c == '/' && previous == '<')) {
+                writer.print('\\');
+                writer.print(c);
+            } else if (c < ' ' || (c >= '\u0080' && c < '\u00a0') || (c >= '\u2000' && c < '\u2100')) {
+                writeEscaped(c);
+            } else {
+                writer.print(c);
+            }
+            previous = c;
+        }
+        writer.print('"');
     }
 
     // MODIFIES: this
-    // EFFECTS: closes writer
-    public void close() {
-        writer.close();
+    // EFFECTS: writes the escape sequence of c, short where JSON has one
+    private void writeEscaped(char c) {
+        int shortEscape = "\b\t\n\f\r".indexOf(c);
+        if (shortEscape >= 0) {
+            writer.print('\\');
+            writer.print("btnfr".charAt(shortEscape));
+        } else {
+            String hex = Integer.toHexString(c);
+            writer.print("\\u");
+            writer.print("0000".substring(hex.length()));
+            writer.print(hex);
+        }
     }
 
     // MODIFIES: this
-    // EFFECTS: writes string to file
-    private void saveToFile(String json) {
-        writer.print(json);
+    // EFFECTS: writes indentation for given nesting level
+    private void indent(int level) {
+        for (int i = 0; i < level * TAB; i++) {
+            writer.print(' ');
+        }
     }
 }
@@ -0,0 +1,649 @@
+package persistence;
+
+import model.Expense;
+import model.Income;
+import model.Ledger;
+import model.LedgerListener;
+import model.LedgerSnapshot;
+import model.Money;
+import model.SavingGoal;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+/*
+ * Represents an event-sourced store of a ledger: the ledger is whatever replaying every change ever made to
+ * it produces. Changes are appended as compact binary records to segment files (changes-<first seq>.log).
+ * Every snapshotInterval changes a binary snapshot of the ledger (snapshot-<seq>-<time>.ledger) is written in
+ * the background and a new segment is started. Loading restores the newest snapshot and replays only the
+ * segment after it, so its cost is bounded by the snapshot interval however long the history grows. Nothing
+ * is deleted, so the ledger as of any moment is rebuilt the same way from the last snapshot before it.
+ *
+ * Record layout (big-endian): int length, then length bytes holding
+ *   long seq, long time (ms), byte op and the op's fields (amounts in cents, strings as int byteLength +
+ *   UTF-8), then int CRC-32 of those bytes. The changes of a batch are written as one record whose fields
+ *   are int count and count times int length + the body of one change, so a batch is replayed whole or not
+ *   at all.
+ */
+public class LedgerEventStore implements LedgerStore, LedgerListener {
+    public static final int DEFAULT_SNAPSHOT_INTERVAL = 1000; // changes between snapshots
+    private static final Pattern SEGMENT = Pattern.compile("changes-(\\d+)\\.log");
+    private static final Pattern SNAPSHOT = Pattern.compile("snapshot-(\\d+)-(\\d+)\\.ledger");
+    private static final byte ADD_INCOME = 1;
+    private static final byte ADD_EXPENSE = 2;
+    private static final byte ADD_GOAL = 3;
+    private static final byte CONTRIBUTE = 4;
+    private static final byte REMOVE_INCOME = 5;
+    private static final byte REMOVE_EXPENSE = 6;
+    private static final byte REMOVE_GOAL = 7;
+    private static final byte SET_INCOME = 8;
+    private static final byte SET_EXPENSE = 9;
+    private static final byte SET_GOAL = 10;
+    private static final byte SET_BALANCE = 11;
+    private static final byte RESET = 12; // another ledger was attached; the snapshot at this seq holds it
+    private static final byte BATCH = 13;
+
+    private final Path directory;
+    private final String importLocation; // JSON ledger to start from when there is no history yet, or null
+    private final int snapshotInterval;
+    private final LongSupplier clock;
+    private final ExecutorService snapshotter;
+    private FileChannel channel;  // segment being appended to
+    private long seq;             // last change recorded
+    private long snapshotSeq;     // last change included in the newest snapshot
+    private int replayed;         // changes replayed by the last load
+    private DataOutputStream batch; // bodies of the changes of the batch being applied, null if none is
+    private ByteArrayOutputStream batchBytes;
+    private int batchSize;
+    private Ledger ledger;
+
+    // Represents a file of the store named after the sequence number it starts or ends at
+    private static final class Entry {
+        final Path path;
+        final long seq;
+        final long time;
+
+        Entry(Path path, long seq, long time) {
+            this.path = path;
+            this.seq = seq;
+            this.time = time;
+        }
+    }
+
+    // Represents a replay of stored changes onto a ledger
+    private static final class Replay {
+        final Ledger target;
+        final long untilTime; // changes made later are not replayed
+        final boolean repair; // cut off a damaged tail instead of just stopping at it
+        long lastSeq;         // last change applied, or the sequence number replay started after
+        int count;
+        boolean stopped;
+
+        Replay(Ledger target, long afterSeq, long untilTime, boolean repair) {
+            this.target = target;
+            this.lastSeq = afterSeq;
+            this.untilTime = untilTime;
+            this.repair = repair;
+        }
+    }
+
+    // EFFECTS: constructs a store kept in directory that starts from the JSON ledger at importLocation (if
+    //          not null and it exists) when there is no history yet, snapshotting at the default interval
+    public LedgerEventStore(String directory, String importLocation) {
+        this(directory, importLocation, DEFAULT_SNAPSHOT_INTERVAL, System::currentTimeMillis);
+    }
+
+    // EFFECTS: constructs a store as above that snapshots every snapshotInterval changes and stamps changes
+    //          with the time given by clock
+    LedgerEventStore(String directory, String importLocation, int snapshotInterval, LongSupplier clock) {
+        this.directory = Paths.get(directory);
+        this.importLocation = importLocation;
+        this.snapshotInterval = snapshotInterval;
+        this.clock = clock;
+        this.snapshotter = Executors.newSingleThreadExecutor(r -> {
+            Thread thread = new Thread(r, "ledger-event-snapshotter");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /*
+     * MODIFIES: this
+     * EFFECTS: restores the newest snapshot that can be read, replays the changes after it, attaches the
+     *      result and returns it; a damaged tail left by a crash is cut off. With no history yet the ledger
+     *      starts empty, or from the JSON ledger to import. Throws IOException if the store cannot be read.
+     */
+    @Override
+    public Ledger load() throws IOException {
+        Files.createDirectories(directory);
+        List<Entry> snapshots = list(SNAPSHOT);
+        Replay replay = null;
+        for (int i = snapshots.size() - 1; i >= 0 && replay == null; i--) {
+            replay = restore(snapshots.get(i), Long.MAX_VALUE, true);
+        }
+        if (replay == null) {
+            replay = new Replay(initialLedger(), 0, Long.MAX_VALUE, true);
+        }
+        replay(replay);
+        seq = replay.lastSeq;
+        snapshotSeq = seq - replay.count;
+        replayed = replay.count;
+        attach(replay.target);
+        return replay.target;
+    }
+
+    /*
+     * EFFECTS: returns the ledger as it was at time millis, rebuilt from the last snapshot taken by then and
+     *      the changes made after it up to millis; throws IOException if the store cannot be read
+     */
+    public Ledger asOf(long millis) throws IOException {
+        List<Entry> snapshots = list(SNAPSHOT);
+        for (int i = snapshots.size() - 1; i >= 0; i--) {
+            if (snapshots.get(i).time <= millis) {
+                Replay replay = restore(snapshots.get(i), millis, false);
+                if (replay != null) {
+                    replay(replay);
+                    return replay.target;
+                }
+            }
+        }
+        Replay replay = new Replay(new Ledger(), 0, millis, false);
+        replay(replay);
+        return replay.target;
+    }
+
+    // EFFECTS: returns the number of changes replayed on top of the snapshot by the last load
+    public int getReplayedOnLoad() {
+        return replayed;
+    }
+
+    /*
+     * MODIFIES: this, ledger
+     * EFFECTS: starts recording every change made to ledger; if another ledger was attached before, records
+     *      that it was replaced and saves ledger as the snapshot to replay from
+     */
+    @Override
+    public void attach(Ledger ledger) throws IOException {
+        Ledger previous = this.ledger;
+        if (previous != null) {
+            previous.removeListener(this);
+        }
+        this.ledger = ledger;
+        ledger.addListener(this);
+        if (channel == null) {
+            openSegment();
+        }
+        if (previous != null && previous != ledger) {
+            append(RESET, out -> { });
+            rollSegment();
+            snapshotSeq = seq;
+            writeSnapshot(ledger.snapshot(), seq, clock.getAsLong());
+        }
+    }
+
+    // MODIFIES: this
+    // EFFECTS: starts a new segment and snapshots the attached ledger in the background, unless nothing
+    //          changed since the last snapshot
+    @Override
+    public void compact() {
+        if (seq == snapshotSeq || ledger == null) {
+            return;
+        }
+        try {
+            rollSegment();
+        } catch (IOException e) {
+            System.out.println("Unable to start a new change log in " + directory);
+        }
+        LedgerSnapshot snapshot = ledger.snapshot();
+        long upTo = seq;
+        long time = clock.getAsLong();
+        snapshotSeq = seq;
+        snapshotter.execute(() -> writeSnapshotQuietly(snapshot, upTo, time));
+    }
+
+    // MODIFIES: this
+    // EFFECTS: waits for a snapshot being written and closes the current segment
+    @Override
+    public void close() throws IOException {
+        snapshotter.shutdown();
+        try {
+            snapshotter.awaitTermination(1, TimeUnit.MINUTES);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (channel != null) {
+            channel.close();
+            channel = null;
+        }
+    }
+
+    @Override
+    public void incomeAdded(int index, Income income) {
+        append(ADD_INCOME, out -> {
+            out.writeLong(income.getAmountCents());
+            writeString(out, income.getSource());
+        });
+    }
+
+    @Override
+    public void expenseAdded(int index, Expense expense) {
+        append(ADD_EXPENSE, out -> writeExpense(out, expense));
+    }
+
+    @Override
+    public void goalAdded(int index, SavingGoal goal) {
+        append(ADD_GOAL, out -> {
+            out.writeLong(goal.getGoalCents());
+            out.writeLong(goal.getCurrentCents());
+            out.writeBoolean(goal.isComplete());
+            writeString(out, goal.getName());
+        });
+    }
+
+    @Override
+    public void contributed(int index, double amount) {
+        append(CONTRIBUTE, out -> {
+            out.writeInt(index);
+            out.writeLong(Money.toCents(amount));
+        });
+    }
+
+    @Override
+    public void incomeRemoved(int index, Income income) {
+        append(REMOVE_INCOME, out -> out.writeInt(index));
+    }
+
+    @Override
+    public void expenseRemoved(int index, Expense expense) {
+        append(REMOVE_EXPENSE, out -> out.writeInt(index));
+    }
+
+    @Override
+    public void goalRemoved(int index, SavingGoal goal) {
+        append(REMOVE_GOAL, out -> out.writeInt(index));
+    }
+
+    @Override
+    public void incomeChanged(int index, Income income) {
+        append(SET_INCOME, out -> {
+            out.writeInt(index);
+            out.writeLong(income.getAmountCents());
+            writeString(out, income.getSource());
+        });
+    }
+
+    @Override
+    public void expenseChanged(int index, Expense expense) {
+        append(SET_EXPENSE, out -> {
+            out.writeInt(index);
+            writeExpense(out, expense);
+        });
+    }
+
+    @Override
+    public void goalChanged(int index, SavingGoal goal) {
+        append(SET_GOAL, out -> {
+            out.writeInt(index);
+            out.writeLong(goal.getGoalCents());
+            out.writeBoolean(goal.isComplete());
+            writeString(out, goal.getName());
+        });
+    }
+
+    @Override
+    public void balanceSet(double balance) {
+        append(SET_BALANCE, out -> out.writeLong(Money.toCents(balance)));
+    }
+
+    // MODIFIES: this
+    // EFFECTS: collects the changes of the batch instead of appending them one by one
+    @Override
+    public void batchStarted() {
+        batchBytes = new ByteArrayOutputStream();
+        batch = new DataOutputStream(batchBytes);
+        batchSize = 0;
+    }
+
+    // MODIFIES: this
+    // EFFECTS: appends the changes of the batch to the current segment as one record, then snapshots if
+    //          snapshotInterval changes have been recorded since the last snapshot
+    @Override
+    public void batchApplied(int changes) {
+        ByteArrayOutputStream bodies = batchBytes;
+        int count = batchSize;
+        batch = null;
+        batchBytes = null;
+        if (count > 0) {
+            append(BATCH, out -> {
+                out.writeInt(count);
+                bodies.writeTo(out);
+            });
+        }
+    }
+
+    // Represents the fields written after the header of a record
+    private interface Fields {
+        void write(DataOutputStream out) throws IOException;
+    }
+
+    // MODIFIES: this
+    // EFFECTS: numbers a record of op with the given fields and appends it to the current segment, then
+    //          snapshots if snapshotInterval changes have been recorded since the last snapshot
+    private void append(byte op, Fields fields) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(64);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeLong(op == BATCH ? seq : ++seq);
+            out.writeLong(clock.getAsLong());
+            out.writeByte(op);
+            fields.write(out);
+            if (batch != null) {
+                batch.writeInt(bytes.size());
+                bytes.writeTo(batch);
+                batchSize++;
+                return;
+            }
+            write(bytes.toByteArray());
+        } catch (IOException e) {
+            System.out.println("Unable to write to change log in " + directory);
+        }
+        if (seq - snapshotSeq >= snapshotInterval) {
+            compact();
+        }
+    }
+
+    // MODIFIES: this
+    // EFFECTS: appends body to the current segment framed by its length and CRC-32
+    private void write(byte[] body) throws IOException {
+        CRC32 crc = new CRC32();
+        crc.update(body, 0, body.length);
+        ByteBuffer buffer = ByteBuffer.allocate(4 + body.length + 4);
+        buffer.putInt(body.length).put(body).putInt((int) crc.getValue());
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+
+    // MODIFIES: replay
+    // EFFECTS: applies the stored changes after replay.lastSeq, in order, until one is made after
+    //          replay.untilTime or the changes run out or are damaged
+    private void replay(Replay replay) throws IOException {
+        List<Entry> segments = list(SEGMENT);
+        int first = 0;
+        while (first + 1 < segments.size() && segments.get(first + 1).seq <= replay.lastSeq + 1) {
+            first++;
+        }
+        for (int i = first; i < segments.size() && !replay.stopped; i++) {
+            replaySegment(replay, segments.get(i).path);
+        }
+    }
+
+    // MODIFIES: replay
+    // EFFECTS: applies the changes in segment after replay.lastSeq; a damaged tail stops the replay and is
+    //          cut off if replay repairs
+    private void replaySegment(Replay replay, Path segment) throws IOException {
+        ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(segment));
+        while (buffer.hasRemaining() && !replay.stopped) {
+            int start = buffer.position();
+            byte[] body = nextRecord(buffer);
+            if (body == null) {
+                replay.stopped = true;
+                if (replay.repair) {
+                    System.out.println("Ignoring damaged change log tail in " + segment);
+                    try (FileChannel file = FileChannel.open(segment, StandardOpenOption.WRITE)) {
+                        file.truncate(start);
+                    }
+                }
+            } else {
+                apply(replay, new DataInputStream(new ByteArrayInputStream(body)));
+            }
+        }
+    }
+
+    // MODIFIES: buffer
+    // EFFECTS: returns the body of the record at the position of buffer and moves past it, or null if the
+    //          record is incomplete or fails its CRC check
+    private static byte[] nextRecord(ByteBuffer buffer) {
+        if (buffer.remaining() < 4) {
+            return null;
+        }
+        int length = buffer.getInt();
+        if (length < 17 || length > buffer.remaining() - 4) {
+            return null;
+        }
+        byte[] body = new byte[length];
+        buffer.get(body);
+        CRC32 crc = new CRC32();
+        crc.update(body, 0, length);
+        return buffer.getInt() == (int) crc.getValue() ? body : null;
+    }
+
+    // MODIFIES: replay
+    // EFFECTS: applies the change in record to replay.target if it comes after replay.lastSeq and was made
+    //          by replay.untilTime; stops the replay at the first change made later
+    private void apply(Replay replay, DataInputStream record) throws IOException {
+        long recordSeq = record.readLong();
+        long time = record.readLong();
+        if (recordSeq <= replay.lastSeq) {
+            return;
+        }
+        if (time > replay.untilTime) {
+            replay.stopped = true;
+            return;
+        }
+        byte op = record.readByte();
+        if (op == BATCH) {
+            applyBatch(replay, record);
+            return;
+        }
+        if (op == RESET) {
+            // the ledger was replaced here, and the snapshot holding its replacement could not be read
+            replay.stopped = true;
+            return;
+        }
+        applyChange(replay.target, op, record);
+        replay.lastSeq = recordSeq;
+        replay.count++;
+    }
+
+    // MODIFIES: replay
+    // EFFECTS: applies each change of the batch in record as apply does
+    private void applyBatch(Replay replay, DataInputStream record) throws IOException {
+        for (int count = record.readInt(); count > 0; count--) {
+            byte[] body = new byte[record.readInt()];
+            record.readFully(body);
+            apply(replay, new DataInputStream(new ByteArrayInputStream(body)));
+        }
+    }
+
+    // MODIFIES: ledger
+    // EFFECTS: applies a change that added an entry or contributed to a goal, or passes it on
+    private void applyChange(Ledger ledger, byte op, DataInputStream in) throws IOException {
+        if (op == ADD_INCOME) {
+            long cents = in.readLong();
+            ledger.addIncomeNoLog(Money.toDouble(cents), readString(in));
+        } else if (op == ADD_EXPENSE) {
+            long cents = in.readLong();
+            ledger.addExpenseNoLog(readString(in), Money.toDouble(cents), readString(in), readString(in));
+        } else if (op == ADD_GOAL) {
+            long goalCents = in.readLong();
+            long currentCents = in.readLong();
+            boolean complete = in.readBoolean();
+            ledger.setOldSavingGoal(readString(in), Money.toDouble(goalCents), Money.toDouble(currentCents),
+                    complete);
+        } else if (op == CONTRIBUTE) {
+            ledger.addToSavingGoalNoLog(in.readInt(), Money.toDouble(in.readLong()));
+        } else if (op == SET_BALANCE) {
+            ledger.setBalance(Money.toDouble(in.readLong()));
+        } else {
+            applyEdit(ledger, op, in);
+        }
+    }
+
+    // MODIFIES: ledger
+    // EFFECTS: applies a change that removed or edited the entry at the index stored in the record
+    private void applyEdit(Ledger ledger, byte op, DataInputStream in) throws IOException {
+        int index = in.readInt();
+        if (op == REMOVE_INCOME) {
+            ledger.removeIncomeNoLog(index);
+        } else if (op == REMOVE_EXPENSE) {
+            ledger.removeExpenseNoLog(index);
+        } else if (op == REMOVE_GOAL) {
+            ledger.removeSavingGoalNoLog(index);
+        } else if (op == SET_INCOME) {
+            Income income = ledger.getIncome(index);
+            income.setAmount(Money.toDouble(in.readLong()));
+            income.setSource(readString(in));
+        } else if (op == SET_EXPENSE) {
+            applyExpenseEdit(ledger.getExpense(index), in);
+        } else if (op == SET_GOAL) {
+            SavingGoal goal = ledger.getSavingGoal(index);
+            goal.setGoalAmount(Money.toDouble(in.readLong()));
+            goal.setComplete(in.readBoolean());
+            goal.setName(readString(in));
+        } else {
+            throw new IOException("Unknown change in change log: " + op);
+        }
+    }
+
+    // MODIFIES: expense
+    // EFFECTS: sets the fields of expense to those stored in the record
+    private static void applyExpenseEdit(Expense expense, DataInputStream in) throws IOException {
+        expense.setAmount(Money.toDouble(in.readLong()));
+        expense.setTitle(readString(in));
+        expense.setDate(readString(in));
+        expense.setNote(readString(in));
+    }
+
+    // EFFECTS: returns a replay starting from snapshot, or null if the snapshot cannot be read
+    private Replay restore(Entry snapshot, long untilTime, boolean repair) {
+        try {
+            Ledger restored = new BinaryReader(snapshot.path.toString()).read();
+            return new Replay(restored, snapshot.seq, untilTime, repair);
+        } catch (IOException e) {
+            System.out.println("Ignoring unreadable snapshot " + snapshot.path);
+            return null;
+        }
+    }
+
+    // EFFECTS: returns the ledger a store without history starts from: the ledger to import, snapshotted
+    //          at sequence number 0 so it can be replayed from, or an empty ledger
+    private Ledger initialLedger() throws IOException {
+        if (importLocation == null || !Files.exists(Paths.get(importLocation)) || !list(SEGMENT).isEmpty()) {
+            return new Ledger();
+        }
+        Ledger imported = new JsonReader(importLocation).read();
+        writeSnapshot(imported.snapshot(), 0, clock.getAsLong());
+        return imported;
+    }
+
+    // EFFECTS: returns the files of the store whose names match pattern, by ascending sequence number
+    private List<Entry> list(Pattern pattern) throws IOException {
+        List<Entry> entries = new ArrayList<>();
+        if (!Files.isDirectory(directory)) {
+            return entries;
+        }
+        try (Stream<Path> files = Files.list(directory)) {
+            files.forEach(path -> {
+                Matcher m = pattern.matcher(path.getFileName().toString());
+                if (m.matches()) {
+                    long time = m.groupCount() > 1 ? Long.parseLong(m.group(2)) : 0;
+                    entries.add(new Entry(path, Long.parseLong(m.group(1)), time));
+                }
+            });
+        }
+        entries.sort(Comparator.comparingLong((Entry e) -> e.seq).thenComparingLong(e -> e.time));
+        return entries;
+    }
+
+    // MODIFIES: this
+    // EFFECTS: opens the newest segment for appending, or starts the first one
+    private void openSegment() throws IOException {
+        Files.createDirectories(directory);
+        List<Entry> segments = list(SEGMENT);
+        Path path = segments.isEmpty() ? segmentPath(seq + 1) : segments.get(segments.size() - 1).path;
+        channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.APPEND);
+    }
+
+    // MODIFIES: this
+    // EFFECTS: closes the current segment and starts a new one with the next change
+    private void rollSegment() throws IOException {
+        channel.close();
+        channel = FileChannel.open(segmentPath(seq + 1), StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.APPEND);
+    }
+
+    private Path segmentPath(long firstSeq) {
+        return directory.resolve("changes-" + firstSeq + ".log");
+    }
+
+    // EFFECTS: writes snapshot as the ledger after change upTo, made at time
+    private void writeSnapshot(LedgerSnapshot snapshot, long upTo, long time) throws IOException {
+        BinaryWriter writer = new BinaryWriter(directory.resolve("snapshot-" + upTo + "-" + time + ".ledger")
+                .toString());
+        writer.open();
+        writer.write(snapshot, upTo);
+        writer.close();
+    }
+
+    // EFFECTS: writes a snapshot as writeSnapshot does, reporting a failure instead of throwing it
+    private void writeSnapshotQuietly(LedgerSnapshot snapshot, long upTo, long time) {
+        try {
+            writeSnapshot(snapshot, upTo, time);
+        } catch (IOException e) {
+            System.out.println("Unable to write snapshot to " + directory);
+        }
+    }
+
+    // EFFECTS: writes the amount, title, date and note of expense
+    private static void writeExpense(DataOutputStream out, Expense expense) throws IOException {
+        out.writeLong(expense.getAmountCents());
+        writeString(out, expense.getTitle());
+        writeString(out, expense.getDate());
+        writeString(out, expense.getNote());
+    }
+
+    // EFFECTS: writes s as its UTF-8 length and bytes, or length -1 for null
+    private static void writeString(DataOutputStream out, String s) throws IOException {
+        if (s == null) {
+            out.writeInt(-1);
+            return;
+        }
+        byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    // EFFECTS: reads a string written by writeString
+    private static String readString(DataInputStream in) throws IOException {
+        int length = in.readInt();
+        if (length < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
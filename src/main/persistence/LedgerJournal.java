@@ -0,0 +1,441 @@
+package persistence;
+
+import model.Expense;
+import model.Income;
+import model.Ledger;
+import model.LedgerListener;
+import model.LedgerSnapshot;
+import model.SavingGoal;
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/*
+ * Represents an append-only journal of ledger changes kept next to a JSON snapshot of the ledger.
+ * Every change made to the attached ledger is appended as one numbered JSON line, so the cost of
+ * persisting a change does not depend on the size of the ledger. On load the journal is replayed on
+ * top of the snapshot, and once it grows past a threshold it is folded into a new snapshot on a
+ * background thread. The snapshot records the last sequence number it includes, so records that are
+ * already part of it are skipped if a crash happens before the old journal is deleted. The changes of a
+ * batch are written together as one line, so a crash while writing it loses the whole batch or none of it.
+ *
+ * Every line is forced to disk before the change that wrote it returns, so a change survives a crash of
+ * the program or the machine once it has been made. A line torn by a crash is cut off when the journal is
+ * loaded, so later records are appended after the last complete one.
+ */
+public class LedgerJournal implements LedgerStore, LedgerListener {
+    public static final long DEFAULT_COMPACT_THRESHOLD = 1024 * 1024; // bytes
+
+    private final String snapshotLocation;
+    private final Path journalPath;
+    private final Path pendingPath; // journal being folded into a snapshot
+    private final long compactThreshold;
+    private final ExecutorService compactor;
+    private final AtomicBoolean compacting;
+    private FileChannel channel;
+    private long journalBytes;
+    private long seq; // sequence number of the last record written or replayed
+    private JSONArray batch; // records of the batch being applied, null if none is
+    private Ledger ledger;
+
+    // EFFECTS: constructs a journal for the snapshot at snapshotLocation, compacting at the default threshold
+    public LedgerJournal(String snapshotLocation) {
+        this(snapshotLocation, DEFAULT_COMPACT_THRESHOLD);
+    }
+
+    // EFFECTS: constructs a journal for the snapshot at snapshotLocation that is compacted into a new
+    //          snapshot whenever it grows past compactThreshold bytes
+    public LedgerJournal(String snapshotLocation, long compactThreshold) {
+        this.snapshotLocation = snapshotLocation;
+        this.journalPath = Paths.get(snapshotLocation + ".journal");
+        this.pendingPath = Paths.get(snapshotLocation + ".journal.pending");
+        this.compactThreshold = compactThreshold;
+        this.compacting = new AtomicBoolean();
+        this.compactor = Executors.newSingleThreadExecutor(r -> {
+            Thread thread = new Thread(r, "ledger-journal-compactor");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /*
+     * MODIFIES: this
+     * EFFECTS: reads the snapshot, replays every journal record it does not include yet, attaches
+     *      the result to this journal and returns it; throws IOException if neither snapshot nor
+     *      journal exists or the snapshot cannot be read
+     */
+    @Override
+    public Ledger load() throws IOException {
+        Ledger loaded = new Ledger();
+        long snapshotSeq = 0;
+        if (Files.exists(Paths.get(snapshotLocation)) || !Files.exists(journalPath)) {
+            JsonReader reader = new JsonReader(snapshotLocation);
+            loaded = reader.read();
+            snapshotSeq = reader.getJournalSeq();
+        }
+        seq = snapshotSeq;
+        boolean intact = replay(loaded, pendingPath, snapshotSeq);
+        intact = replay(loaded, journalPath, snapshotSeq) && intact;
+        attach(loaded);
+        if (!intact) {
+            compact();
+        }
+        return loaded;
+    }
+
+    // MODIFIES: this, ledger
+    // EFFECTS: starts journaling every change made to ledger instead of the previously attached ledger
+    @Override
+    public void attach(Ledger ledger) throws IOException {
+        if (this.ledger != null) {
+            this.ledger.removeListener(this);
+        }
+        this.ledger = ledger;
+        ledger.addListener(this);
+        if (channel == null) {
+            openJournal();
+        }
+    }
+
+    /*
+     * MODIFIES: this
+     * EFFECTS: folds the journal into a new snapshot of the attached ledger on a background thread;
+     *      does nothing if a compaction is already running
+     */
+    @Override
+    public void compact() {
+        if (!compacting.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            rotate();
+        } catch (IOException e) {
+            System.out.println("Unable to rotate journal: " + journalPath);
+        }
+        LedgerSnapshot snapshot = ledger.snapshot();
+        long upTo = seq;
+        compactor.execute(() -> writeSnapshot(snapshot, upTo));
+    }
+
+    // MODIFIES: this
+    // EFFECTS: waits for a running compaction to finish and closes the journal
+    @Override
+    public void close() throws IOException {
+        compactor.shutdown();
+        try {
+            compactor.awaitTermination(1, TimeUnit.MINUTES);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (channel != null) {
+            channel.close();
+            channel = null;
+        }
+    }
+
+    @Override
+    public void incomeAdded(int index, Income income) {
+        append(record("addIncome")
+                .put("amount", income.getAmount())
+                .put("source", income.getSource()));
+    }
+
+    @Override
+    public void expenseAdded(int index, Expense expense) {
+        append(record("addExpense")
+                .put("title", expense.getTitle())
+                .put("amount", expense.getAmount())
+                .put("date", expense.getDate())
+                .put("note", expense.getNote()));
+    }
+
+    @Override
+    public void goalAdded(int index, SavingGoal goal) {
+        append(record("addGoal")
+                .put("name", goal.getName())
+                .put("goalAmount", goal.getGoalAmount())
+                .put("currentAmount", goal.getCurrentAmount())
+                .put("complete", goal.isComplete()));
+    }
+
+    @Override
+    public void contributed(int index, double amount) {
+        append(record("contribute").put("index", index).put("amount", amount));
+    }
+
+    @Override
+    public void incomeRemoved(int index, Income income) {
+        append(record("removeIncome").put("index", index));
+    }
+
+    @Override
+    public void expenseRemoved(int index, Expense expense) {
+        append(record("removeExpense").put("index", index));
+    }
+
+    @Override
+    public void goalRemoved(int index, SavingGoal goal) {
+        append(record("removeGoal").put("index", index));
+    }
+
+    @Override
+    public void incomeChanged(int index, Income income) {
+        append(record("setIncome")
+                .put("index", index)
+                .put("amount", income.getAmount())
+                .put("source", income.getSource()));
+    }
+
+    @Override
+    public void expenseChanged(int index, Expense expense) {
+        append(record("setExpense")
+                .put("index", index)
+                .put("title", expense.getTitle())
+                .put("amount", expense.getAmount())
+                .put("date", expense.getDate())
+                .put("note", expense.getNote()));
+    }
+
+    @Override
+    public void goalChanged(int index, SavingGoal goal) {
+        append(record("setGoal")
+                .put("index", index)
+                .put("name", goal.getName())
+                .put("goalAmount", goal.getGoalAmount())
+                .put("complete", goal.isComplete()));
+    }
+
+    @Override
+    public void balanceSet(double balance) {
+        append(record("setBalance").put("balance", balance));
+    }
+
+    // MODIFIES: this
+    // EFFECTS: collects the records of the batch instead of appending them one by one
+    @Override
+    public void batchStarted() {
+        batch = new JSONArray();
+    }
+
+    // MODIFIES: this
+    // EFFECTS: appends the records of the batch to the journal as one line
+    @Override
+    public void batchApplied(int changes) {
+        JSONArray records = batch;
+        batch = null;
+        if (records != null && records.length() > 0) {
+            write(record("batch").put("seq", seq).put("records", records));
+        }
+    }
+
+    // EFFECTS: returns a new journal record for operation op
+    private JSONObject record(String op) {
+        return new JSONObject().put("op", op);
+    }
+
+    // MODIFIES: this
+    // EFFECTS: numbers record and appends it to the journal, or to the batch being applied
+    private void append(JSONObject record) {
+        record.put("seq", ++seq);
+        if (batch != null) {
+            batch.put(record);
+        } else {
+            write(record);
+        }
+    }
+
+    // MODIFIES: this
+    // EFFECTS: appends record to the journal as one line, compacting if the journal is too big
+    private void write(JSONObject record) {
+        byte[] line = (record.toString() + "\n").getBytes(StandardCharsets.UTF_8);
+        try {
+            ByteBuffer buffer = ByteBuffer.wrap(line);
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            channel.force(false);
+            journalBytes += line.length;
+        } catch (IOException e) {
+            System.out.println("Unable to write to journal: " + journalPath);
+        }
+        if (journalBytes >= compactThreshold) {
+            compact();
+        }
+    }
+
+    /*
+     * MODIFIES: ledger, this, the journal file at path
+     * EFFECTS: applies records in journal at path with a sequence number above snapshotSeq to ledger;
+     *      if replay stopped early at a damaged or torn record, cuts the file off after the last good record
+     *      and returns false
+     */
+    private boolean replay(Ledger ledger, Path path, long snapshotSeq) throws IOException {
+        if (!Files.exists(path)) {
+            return true;
+        }
+        byte[] bytes = Files.readAllBytes(path);
+        int good = replayLines(ledger, bytes, snapshotSeq);
+        if (good == bytes.length) {
+            return true;
+        }
+        System.out.println("Ignoring damaged journal tail in " + path);
+        try (FileChannel file = FileChannel.open(path, StandardOpenOption.WRITE)) {
+            file.truncate(good);
+            file.force(false);
+        }
+        return false;
+    }
+
+    /*
+     * MODIFIES: ledger, this
+     * EFFECTS: applies the complete lines of bytes with a sequence number above snapshotSeq to ledger, up
+     *      to the first that cannot be read or applied, and returns the offset just past the last one applied;
+     *      a last line without its newline was torn by a crash and is not applied
+     */
+    private int replayLines(Ledger ledger, byte[] bytes, long snapshotSeq) {
+        int from = 0;
+        try {
+            for (int to = 0; to < bytes.length; to++) {
+                if (bytes[to] == '\n') {
+                    JSONObject record = new JSONObject(new String(bytes, from, to - from, StandardCharsets.UTF_8));
+                    long recordSeq = record.getLong("seq");
+                    if (recordSeq > snapshotSeq) {
+                        apply(ledger, record);
+                    }
+                    seq = Math.max(seq, recordSeq);
+                    from = to + 1;
+                }
+            }
+        } catch (JSONException e) {
+            // from is where the damage starts
+        }
+        return from;
+    }
+
+    // MODIFIES: ledger
+    // EFFECTS: applies a single journal record to ledger without logging it
+    private void apply(Ledger ledger, JSONObject record) {
+        String op = record.getString("op");
+        if (op.equals("batch")) {
+            applyBatch(ledger, record.getJSONArray("records"));
+        } else if (op.equals("addIncome")) {
+            ledger.addIncomeNoLog(record.getDouble("amount"), record.getString("source"));
+        } else if (op.equals("addExpense")) {
+            ledger.addExpenseNoLog(record.getString("title"), record.getDouble("amount"),
+                    record.getString("date"), record.getString("note"));
+        } else if (op.equals("addGoal")) {
+            ledger.setOldSavingGoal(record.getString("name"), record.getDouble("goalAmount"),
+                    record.getDouble("currentAmount"), record.getBoolean("complete"));
+        } else if (op.equals("contribute")) {
+            ledger.addToSavingGoalNoLog(record.getInt("index"), record.getDouble("amount"));
+        } else if (op.startsWith("remove")) {
+            applyRemoval(ledger, op, record.getInt("index"));
+        } else if (op.equals("setBalance")) {
+            ledger.setBalance(record.getDouble("balance"));
+        } else if (op.startsWith("set")) {
+            applyChange(ledger, record);
+        } else {
+            throw new JSONException("Unknown journal operation '" + op + "'");
+        }
+    }
+
+    // MODIFIES: ledger
+    // EFFECTS: applies the records of a batch to ledger in order without logging them
+    private void applyBatch(Ledger ledger, JSONArray records) {
+        for (int i = 0; i < records.length(); i++) {
+            apply(ledger, records.getJSONObject(i));
+        }
+    }
+
+    // MODIFIES: ledger
+    // EFFECTS: applies a journal record that removed the income, expense or goal at index
+    private void applyRemoval(Ledger ledger, String op, int index) {
+        if (op.equals("removeIncome")) {
+            ledger.removeIncomeNoLog(index);
+        } else if (op.equals("removeExpense")) {
+            ledger.removeExpenseNoLog(index);
+        } else if (op.equals("removeGoal")) {
+            ledger.removeSavingGoalNoLog(index);
+        } else {
+            throw new JSONException("Unknown journal operation '" + op + "'");
+        }
+    }
+
+    // MODIFIES: ledger
+    // EFFECTS: applies a journal record that changed the fields of an existing income, expense or goal
+    private void applyChange(Ledger ledger, JSONObject record) {
+        String op = record.getString("op");
+        int index = record.getInt("index");
+        if (op.equals("setIncome")) {
+            Income income = ledger.getIncome(index);
+            income.setAmount(record.getDouble("amount"));
+            income.setSource(record.getString("source"));
+        } else if (op.equals("setExpense")) {
+            Expense expense = ledger.getExpense(index);
+            expense.setTitle(record.getString("title"));
+            expense.setAmount(record.getDouble("amount"));
+            expense.setDate(record.getString("date"));
+            expense.setNote(record.getString("note"));
+        } else if (op.equals("setGoal")) {
+            SavingGoal goal = ledger.getSavingGoal(index);
+            goal.setName(record.getString("name"));
+            goal.setGoalAmount(record.getDouble("goalAmount"));
+            goal.setComplete(record.getBoolean("complete"));
+        } else {
+            throw new JSONException("Unknown journal operation '" + op + "'");
+        }
+    }
+
+    // MODIFIES: this
+    // EFFECTS: moves the journal aside so it can be folded into a snapshot and starts a new one;
+    //          keeps appending to the current journal if an earlier compaction left one aside
+    private void rotate() throws IOException {
+        if (Files.exists(pendingPath)) {
+            return;
+        }
+        if (channel != null) {
+            channel.close();
+        }
+        if (Files.exists(journalPath)) {
+            Files.move(journalPath, pendingPath);
+        }
+        openJournal();
+    }
+
+    // MODIFIES: this
+    // EFFECTS: opens the journal file for appending, creating it if needed
+    private void openJournal() throws IOException {
+        channel = FileChannel.open(journalPath, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.APPEND);
+        journalBytes = channel.size();
+    }
+
+    // MODIFIES: snapshot file, this
+    // EFFECTS: writes snapshot as including all records up to upTo, then drops the journal set aside for it
+    private void writeSnapshot(LedgerSnapshot snapshot, long upTo) {
+        try {
+            JsonWriter writer = new JsonWriter(snapshotLocation);
+            writer.open();
+            writer.write(snapshot, upTo);
+            writer.close();
+            Files.deleteIfExists(pendingPath);
+        } catch (IOException e) {
+            System.out.println("Unable to write snapshot to file: " + snapshotLocation);
+        } finally {
+            compacting.set(false);
+        }
+    }
+}
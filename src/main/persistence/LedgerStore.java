@@ -0,0 +1,28 @@
+package persistence;
+
+import model.Ledger;
+
+import java.io.IOException;
+
+// Represents a store that keeps a ledger on disk by recording each change made to it as it happens,
+// instead of rewriting the whole ledger
+public interface LedgerStore {
+
+    // MODIFIES: this
+    // EFFECTS: reads the stored ledger, starts recording its changes and returns it; throws IOException if
+    //          it cannot be read
+    Ledger load() throws IOException;
+
+    // MODIFIES: this, ledger
+    // EFFECTS: starts recording every change made to ledger instead of the previously attached ledger;
+    //          throws IOException if the store cannot be written
+    void attach(Ledger ledger) throws IOException;
+
+    // MODIFIES: this
+    // EFFECTS: saves a snapshot of the attached ledger so fewer changes have to be read on the next load
+    void compact();
+
+    // MODIFIES: this
+    // EFFECTS: waits for background work to finish and closes the store
+    void close() throws IOException;
+}
@@ -0,0 +1,102 @@
+package persistence;
+
+import model.Expense;
+import model.Income;
+import model.Ledger;
+import model.LedgerListener;
+import model.Money;
+import model.SavingGoal;
+
+// Represents where a reader puts the entries it parses. Reading builds a new ledger, which tells a listener
+// about every entry added to it. Streaming builds no ledger: every entry is handed to the listener as a new
+// entry that belongs to no ledger, and nothing is kept, so the reader never holds the whole ledger.
+final class ReadTarget {
+    private final Ledger ledger;           // ledger being built; null when streaming
+    private final LedgerListener listener; // told about every entry; null if none
+    private int incomes;                   // entries handed over when streaming
+    private int expenses;
+    private int goals;
+    private long balance;                  // in cents, rebuilt from the entries handed over when streaming
+
+    private ReadTarget(Ledger ledger, LedgerListener listener) {
+        this.ledger = ledger;
+        this.listener = listener;
+        if (ledger != null && listener != null) {
+            ledger.addListener(listener);
+        }
+    }
+
+    // EFFECTS: returns a target building a new ledger that tells listener (if not null) about every entry
+    static ReadTarget building(LedgerListener listener) {
+        return new ReadTarget(new Ledger(), listener);
+    }
+
+    // EFFECTS: returns a target handing every entry to sink and keeping none
+    static ReadTarget streaming(LedgerListener sink) {
+        return new ReadTarget(null, sink);
+    }
+
+    // MODIFIES: this
+    // EFFECTS: adds an income parsed from the file
+    void addIncome(double amount, String source) {
+        if (ledger != null) {
+            ledger.addIncomeNoLog(amount, source);
+            return;
+        }
+        Income income = new Income(amount, source);
+        balance += income.getAmountCents();
+        listener.incomeAdded(incomes++, income);
+    }
+
+    // MODIFIES: this
+    // EFFECTS: adds an expense parsed from the file
+    void addExpense(String title, double amount, String date, String note) {
+        if (ledger != null) {
+            ledger.addExpenseNoLog(title, amount, date, note);
+            return;
+        }
+        Expense expense = new Expense(title, amount, date, note);
+        balance -= expense.getAmountCents();
+        listener.expenseAdded(expenses++, expense);
+    }
+
+    // MODIFIES: this
+    // EFFECTS: adds a saving goal parsed from the file
+    void addGoal(String name, double goalAmount, double currentAmount, boolean complete) {
+        if (ledger != null) {
+            ledger.setOldSavingGoal(name, goalAmount, currentAmount, complete);
+            return;
+        }
+        SavingGoal goal = new SavingGoal(name, goalAmount, currentAmount, complete);
+        balance -= goal.getCurrentCents();
+        listener.goalAdded(goals++, goal);
+    }
+
+    // MODIFIES: this
+    // EFFECTS: sets the balance to stored, the balance saved in the file, if it differs from the one rebuilt
+    //          from the entries, as it was then set by hand (Ledger.setBalance); call after every entry
+    void restoreBalance(double stored) {
+        long cents = Money.toCents(stored);
+        if (ledger != null && cents != ledger.getBalanceCents()) {
+            ledger.setBalance(stored);
+        } else if (ledger == null && cents != balance) {
+            balance = cents;
+            listener.balanceSet(stored);
+        }
+    }
+
+    // EFFECTS: returns the number of entries read so far
+    int entryCount() {
+        return ledger != null ? ledger.entryCount() : incomes + expenses + goals;
+    }
+
+    // MODIFIES: this
+    // EFFECTS: stops telling the listener about changes to the ledger built and returns that ledger; returns
+    //          null when streaming
+    Ledger finish() {
+        if (ledger != null) {
+            ledger.removeListener(listener);
+        }
+        return ledger;
+    }
+}
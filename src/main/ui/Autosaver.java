@@ -0,0 +1,132 @@
+package ui;
+
+import model.Ledger;
+import model.LedgerSnapshot;
+
+import javax.swing.JLabel;
+import javax.swing.SwingUtilities;
+import javax.swing.Timer;
+import java.io.IOException;
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+
+/*
+ * Represents a background autosave that coalesces bursts of ledger changes into a single write.
+ * Every request restarts a short timer on the event dispatch thread. When the timer fires, a snapshot of
+ * the ledger is taken on that thread, in O(1), and handed to one background worker, which writes it and
+ * reports progress in a status label. A snapshot that is still waiting to be written is replaced by a newer
+ * one, so the worker never falls behind by more than one write.
+ */
+public class Autosaver {
+    private static final int DEBOUNCE_MS = 400;
+
+    // Represents the write performed for each coalesced save
+    public interface Save {
+        // EFFECTS: writes snapshot to disk; throws IOException if it cannot be written
+        void save(LedgerSnapshot snapshot) throws IOException;
+    }
+
+    private final Supplier<Ledger> source;
+    private final Save save;
+    private final JLabel status;
+    private final Timer timer;
+    private final ExecutorService worker;
+    private final AtomicReference<LedgerSnapshot> latest;
+    private boolean paused; // true while the ledger is incomplete, such as during a load; nothing is saved then
+
+    // EFFECTS: constructs an autosaver that saves the ledger given by source with save and shows its
+    //          progress in status
+    public Autosaver(Supplier<Ledger> source, Save save, JLabel status) {
+        this.source = source;
+        this.save = save;
+        this.status = status;
+        this.latest = new AtomicReference<>();
+        this.timer = new Timer(DEBOUNCE_MS, e -> saveNow());
+        timer.setRepeats(false);
+        this.worker = Executors.newSingleThreadExecutor(r -> {
+            Thread thread = new Thread(r, "ledger-autosave");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /*
+     * REQUIRES: called on the event dispatch thread
+     * MODIFIES: this
+     * EFFECTS: pauses or resumes saving; while paused, the ledger is not complete and saving it would replace
+     *      a complete file with part of it, so a scheduled save is dropped and requests to save are ignored
+     */
+    public void setPaused(boolean paused) {
+        this.paused = paused;
+        if (paused) {
+            timer.stop();
+        }
+    }
+
+    // REQUIRES: called on the event dispatch thread
+    // MODIFIES: this
+    // EFFECTS: schedules a save once no further changes have been requested for a short while, unless paused
+    public void schedule() {
+        if (paused) {
+            return;
+        }
+        status.setText("Unsaved changes");
+        timer.restart();
+    }
+
+    // REQUIRES: called on the event dispatch thread
+    // MODIFIES: this
+    // EFFECTS: takes a snapshot of the ledger now and queues it to be written in the background, unless paused
+    public void saveNow() {
+        timer.stop();
+        if (paused) {
+            return;
+        }
+        status.setText("Saving...");
+        if (latest.getAndSet(source.get().snapshot()) == null) {
+            worker.execute(this::writeLatest);
+        }
+    }
+
+    // REQUIRES: called on the event dispatch thread
+    // MODIFIES: this
+    // EFFECTS: writes any scheduled save and waits for all queued writes to finish
+    public void close() {
+        if (timer.isRunning()) {
+            saveNow();
+        }
+        worker.shutdown();
+        try {
+            worker.awaitTermination(1, TimeUnit.MINUTES);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    // EFFECTS: writes the most recent queued snapshot, if any, and reports the outcome on the status label
+    private void writeLatest() {
+        LedgerSnapshot snapshot = latest.getAndSet(null);
+        if (snapshot == null) {
+            return;
+        }
+        String result;
+        try {
+            save.save(snapshot);
+            result = "Saved at " + new SimpleDateFormat("HH:mm:ss").format(new Date());
+        } catch (IOException e) {
+            result = "Save failed";
+            System.out.println("Unable to autosave: " + e.getMessage());
+        }
+        String text = result;
+        SwingUtilities.invokeLater(() -> {
+            if (latest.get() == null && !timer.isRunning()) {
+                status.setText(text);
+            }
+        });
+    }
+}
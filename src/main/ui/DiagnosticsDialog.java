@@ -0,0 +1,85 @@
+package ui;
+
+import model.Metrics;
+
+import javax.swing.BorderFactory;
+import javax.swing.JButton;
+import javax.swing.JDialog;
+import javax.swing.JLabel;
+import javax.swing.JPanel;
+import javax.swing.JScrollPane;
+import javax.swing.JSplitPane;
+import javax.swing.JTable;
+import javax.swing.JTextArea;
+import java.awt.BorderLayout;
+import java.awt.Font;
+import java.awt.Frame;
+import java.util.List;
+
+/*
+ * Represents a dialog showing how responsive the app has been since it started: for every action, such
+ * as "Add Expense", how often it ran and the median (p50), 99th percentile (p99) and longest time it kept
+ * the event dispatch thread busy, and below them the last stalls the watchdog caught with the stack the
+ * thread was stuck in.
+ */
+public class DiagnosticsDialog extends JDialog {
+    private static final int FRAMES_SHOWN = 25;
+
+    private final EdtWatchdog watchdog;
+    private final LatencyTableModel model;
+    private final JTextArea stallText;
+    private final JLabel status;
+
+    // REQUIRES: called on the event dispatch thread
+    // EFFECTS: constructs the dialog, showing the latencies and stalls recorded by watchdog so far
+    public DiagnosticsDialog(Frame owner, EdtWatchdog watchdog) {
+        super(owner, "Diagnostics", false);
+        this.watchdog = watchdog;
+        model = new LatencyTableModel();
+        JTable table = new JTable(model);
+        table.getColumnModel().getColumn(0).setPreferredWidth(200);
+        stallText = new JTextArea();
+        stallText.setEditable(false);
+        stallText.setFont(new Font(Font.MONOSPACED, Font.PLAIN, 12));
+        status = new JLabel(" ");
+        status.setBorder(BorderFactory.createEmptyBorder(4, 8, 4, 8));
+
+        JSplitPane split = new JSplitPane(JSplitPane.VERTICAL_SPLIT, new JScrollPane(table),
+                new JScrollPane(stallText));
+        split.setResizeWeight(0.5);
+        add(split, BorderLayout.CENTER);
+        add(bottomBar(), BorderLayout.SOUTH);
+        setSize(640, 520);
+        setLocationRelativeTo(owner);
+        refresh();
+    }
+
+    // EFFECTS: returns the bar holding the status line and the refresh button
+    private JPanel bottomBar() {
+        JPanel bar = new JPanel(new BorderLayout());
+        bar.add(status, BorderLayout.CENTER);
+        JButton refresh = new JButton("Refresh");
+        refresh.addActionListener(e -> refresh());
+        bar.add(refresh, BorderLayout.EAST);
+        return bar;
+    }
+
+    // MODIFIES: this
+    // EFFECTS: shows the latencies and stalls as they are now
+    private void refresh() {
+        model.setActions(watchdog.getActions());
+        List<EdtWatchdog.Stall> stalls = watchdog.getStalls();
+        StringBuilder sb = new StringBuilder();
+        for (EdtWatchdog.Stall stall : stalls) {
+            sb.append(stall.toString(FRAMES_SHOWN)).append("\n\n");
+        }
+        stallText.setText(stalls.isEmpty() ? "No stalls so far." : sb.toString());
+        stallText.setCaretPosition(0);
+        if (!Metrics.ENABLED) {
+            status.setText("Latencies are not recorded when started with -Dledger.metrics=false.");
+        } else {
+            status.setText("Stalls: events that kept the app busy for " + watchdog.getThresholdMillis()
+                    + " ms or more (-Dledger.stallMillis) are listed newest first.");
+        }
+    }
+}
@@ -0,0 +1,261 @@
+package ui;
+
+import model.Counter;
+import model.LatencyHistogram;
+import model.Metrics;
+
+import java.awt.AWTEvent;
+import java.awt.EventQueue;
+import java.awt.Toolkit;
+import java.awt.event.ActionListener;
+import java.text.SimpleDateFormat;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/*
+ * Represents a watchdog over the event dispatch thread (EDT). Installed as the app's event queue, it times
+ * every event the EDT dispatches and records it in the ui.dispatch histogram and, if a listener wrapped
+ * by timed ran during it, in the histogram of that action, such as "Add Expense" (ui.action.Add Expense).
+ * Time the EDT spends waiting for the user in a modal dialog opened by an action is not counted.
+ *
+ * An event that keeps the EDT busy for longer than the stall threshold (-Dledger.stallMillis, 100 by
+ * default) freezes the app. A sampler thread takes a stack trace of the EDT while such an event is still
+ * running, so the stall is reported together with the code it was stuck in; the last stalls are kept for
+ * the diagnostics dialog and each is printed to the console.
+ */
+public class EdtWatchdog extends EventQueue {
+    public static final long STALL_MILLIS = Long.getLong("ledger.stallMillis", 100);
+    private static final int STALLS_KEPT = 20;
+    private static final int FRAMES_PRINTED = 12;
+    private static final LatencyHistogram DISPATCHES = Metrics.histogram("ui.dispatch");
+    private static final Counter STALLS = Metrics.counter("ui.stalls");
+
+    private final long thresholdNanos;
+    private final Map<String, LatencyHistogram> actions; // action -> its histogram, by name
+    private final Deque<Stall> stalls; // newest first; guarded by itself
+    private final Deque<Dispatch> dispatching; // events being dispatched, innermost first; EDT only
+    private volatile Dispatch active; // event the EDT is running now, null while it waits for events
+    private volatile Thread edt;
+
+    // EFFECTS: constructs a watchdog reporting events that keep the EDT busy for thresholdMillis or longer
+    public EdtWatchdog(long thresholdMillis) {
+        this.thresholdNanos = TimeUnit.MILLISECONDS.toNanos(thresholdMillis);
+        this.actions = new ConcurrentSkipListMap<>();
+        this.stalls = new ArrayDeque<>();
+        this.dispatching = new ArrayDeque<>();
+    }
+
+    // EFFECTS: returns a watchdog with the configured threshold, installed as the event queue of the app and
+    //          sampling the EDT from a daemon thread
+    public static EdtWatchdog install() {
+        EdtWatchdog watchdog = new EdtWatchdog(STALL_MILLIS);
+        Toolkit.getDefaultToolkit().getSystemEventQueue().push(watchdog);
+        ScheduledExecutorService sampler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "EDT watchdog");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long period = Math.max(1, STALL_MILLIS / 4);
+        sampler.scheduleAtFixedRate(watchdog::sample, period, period, TimeUnit.MILLISECONDS);
+        return watchdog;
+    }
+
+    /*
+     * EFFECTS: returns a listener that runs listener and counts the time the EDT spends dispatching the
+     *      event that triggered it towards action; the action is listed by getActions from now on
+     */
+    public ActionListener timed(String action, ActionListener listener) {
+        LatencyHistogram histogram = actions.computeIfAbsent(action, a -> Metrics.histogram("ui.action." + a));
+        return e -> {
+            Dispatch dispatch = Thread.currentThread() == edt ? dispatching.peek() : null;
+            if (dispatch != null) {
+                dispatch.action = action;
+                listener.actionPerformed(e);
+            } else {
+                long start = histogram.start(); // not dispatched from this queue, so time the listener alone
+                listener.actionPerformed(e);
+                histogram.stop(start);
+            }
+        };
+    }
+
+    // EFFECTS: returns the histogram of every action passed to timed, by name
+    public Map<String, LatencyHistogram> getActions() {
+        return Collections.unmodifiableMap(actions);
+    }
+
+    // EFFECTS: returns the most recent stalls, newest first
+    public List<Stall> getStalls() {
+        synchronized (stalls) {
+            return new ArrayList<>(stalls);
+        }
+    }
+
+    public long getThresholdMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(thresholdNanos);
+    }
+
+    // MODIFIES: this
+    // EFFECTS: dispatches event and records how long it kept the EDT busy, leaving out time spent in
+    //          events dispatched while it ran, such as those of a modal dialog it opened
+    @Override
+    protected void dispatchEvent(AWTEvent event) {
+        Dispatch outer = dispatching.peek();
+        if (outer == null) {
+            edt = Thread.currentThread();
+        }
+        Dispatch dispatch = new Dispatch(event, System.nanoTime());
+        dispatching.push(dispatch);
+        active = dispatch;
+        try {
+            super.dispatchEvent(event);
+        } finally {
+            dispatching.pop();
+            long end = System.nanoTime();
+            if (outer != null) {
+                outer.excluded += end - dispatch.start;
+                outer.activeSince = end;
+            }
+            active = outer;
+            finished(dispatch, end - dispatch.start - dispatch.excluded);
+        }
+    }
+
+    // MODIFIES: this
+    // EFFECTS: waits for the next event; the time an event being dispatched waits here, in a modal dialog,
+    //          is not counted towards it
+    @Override
+    public AWTEvent getNextEvent() throws InterruptedException {
+        Dispatch waiting = Thread.currentThread() == edt ? dispatching.peek() : null;
+        if (waiting == null) {
+            return super.getNextEvent();
+        }
+        active = null;
+        long start = System.nanoTime();
+        try {
+            return super.getNextEvent();
+        } finally {
+            long end = System.nanoTime();
+            waiting.excluded += end - start;
+            waiting.activeSince = end;
+            active = waiting;
+        }
+    }
+
+    // MODIFIES: this
+    // EFFECTS: records that dispatch kept the EDT busy for busyNanos, and reports it if that is a stall
+    private void finished(Dispatch dispatch, long busyNanos) {
+        DISPATCHES.record(busyNanos);
+        if (dispatch.action != null) {
+            actions.get(dispatch.action).record(busyNanos);
+        }
+        if (busyNanos < thresholdNanos) {
+            return;
+        }
+        STALLS.increment();
+        String name = dispatch.action != null ? dispatch.action : dispatch.event.getClass().getSimpleName();
+        Stall stall = new Stall(name, busyNanos, dispatch.sample);
+        synchronized (stalls) {
+            stalls.addFirst(stall);
+            if (stalls.size() > STALLS_KEPT) {
+                stalls.removeLast();
+            }
+        }
+        System.out.println(stall.toString(FRAMES_PRINTED));
+    }
+
+    // MODIFIES: this
+    // EFFECTS: takes a stack trace of the EDT if the event it is running has kept it busy past the threshold
+    //          and none was taken for that event yet; runs on the sampler thread
+    private void sample() {
+        Dispatch dispatch = active;
+        Thread thread = edt;
+        if (dispatch == null || thread == null || dispatch.sample != null
+                || System.nanoTime() - dispatch.activeSince < thresholdNanos) {
+            return;
+        }
+        StackTraceElement[] stack = thread.getStackTrace();
+        if (active == dispatch) { // still stuck in it, so the stack shows where
+            dispatch.sample = stack;
+        }
+    }
+
+    // Represents an event being dispatched on the EDT
+    private static final class Dispatch {
+        final AWTEvent event;
+        final long start;
+        long excluded; // nanoseconds spent in nested events or waiting for them; EDT only
+        volatile long activeSince; // when the EDT last started or went back to running this event
+        volatile String action; // action of a timed listener run by this event, if any
+        volatile StackTraceElement[] sample; // EDT stack taken while this event stalled it, if any
+
+        Dispatch(AWTEvent event, long start) {
+            this.event = event;
+            this.start = start;
+            this.activeSince = start;
+        }
+    }
+
+    // Represents an event that kept the EDT busy for longer than the threshold
+    public static final class Stall {
+        private final long time;
+        private final String action;
+        private final long busyNanos;
+        private final StackTraceElement[] stack;
+
+        // EFFECTS: constructs a stall of the event named action that ended now, with the EDT stack taken
+        //          during it, or null if none was taken
+        Stall(String action, long busyNanos, StackTraceElement[] stack) {
+            this.time = System.currentTimeMillis();
+            this.action = action;
+            this.busyNanos = busyNanos;
+            this.stack = stack == null ? new StackTraceElement[0] : stack;
+        }
+
+        public long getTime() {
+            return time;
+        }
+
+        // EFFECTS: returns the action or, for an event of no action, the kind of event that stalled
+        public String getAction() {
+            return action;
+        }
+
+        public long getBusyMillis() {
+            return TimeUnit.NANOSECONDS.toMillis(busyNanos);
+        }
+
+        // EFFECTS: returns the stack of the EDT taken during the stall, empty if none was taken
+        public StackTraceElement[] getStack() {
+            return stack.clone();
+        }
+
+        // EFFECTS: returns when and for how long the EDT stalled in which action, followed by at most
+        //          frames frames of its stack
+        public String toString(int frames) {
+            StringBuilder sb = new StringBuilder();
+            sb.append(new SimpleDateFormat("HH:mm:ss").format(new Date(time)));
+            sb.append(" Event dispatch thread stalled for ").append(getBusyMillis()).append(" ms in ")
+                    .append(action);
+            if (stack.length == 0) {
+                sb.append("\n\t(no stack sample: no single stretch of the event lasted long enough)");
+            }
+            for (int i = 0; i < Math.min(frames, stack.length); i++) {
+                sb.append("\n\tat ").append(stack[i]);
+            }
+            if (stack.length > frames) {
+                sb.append("\n\t... ").append(stack.length - frames).append(" more");
+            }
+            return sb.toString();
+        }
+    }
+}
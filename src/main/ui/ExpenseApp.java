@@ -4,7 +4,6 @@ import model.Ledger;
 import persistence.JsonReader;
 import persistence.JsonWriter;
 
-import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.text.DecimalFormat;
 import java.util.Scanner;
@@ -257,7 +256,7 @@ public class ExpenseApp {
             jsonWriter.write(ledger);
             jsonWriter.close();
             System.out.println("Saved data to " + JSON_STORE);
-        } catch (FileNotFoundException e) {
+        } catch (IOException e) {
             System.out.println("Unable to write to file: " + JSON_STORE);
         }
     }
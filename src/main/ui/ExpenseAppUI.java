@@ -8,9 +8,15 @@ package ui;
 import model.*;
 import model.Event;
 import model.EventLog;
+import persistence.BinaryReader;
+import persistence.BinaryWriter;
 import persistence.JsonReader;
 import persistence.JsonWriter;
+import persistence.LedgerEventStore;
+import persistence.LedgerJournal;
+import persistence.LedgerStore;
 
+import javax.imageio.ImageIO;
 import javax.swing.*;
 import javax.swing.border.EmptyBorder;
 import javax.swing.event.ListSelectionEvent;
@@ -21,8 +27,16 @@ import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
 import java.awt.event.MouseAdapter;
 import java.awt.event.MouseEvent;
-import java.io.FileNotFoundException;
+import java.awt.image.BufferedImage;
+import java.io.File;
 import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.format.DateTimeParseException;
+import java.util.concurrent.ExecutionException;
 
 public class ExpenseAppUI extends JFrame {
     private static final int WIDTH = 700; // width of the app
@@ -34,15 +48,43 @@ public class ExpenseAppUI extends JFrame {
     private GoalsPanel goalsPanel;
     private JTabbedPane tabs;
     private JMenuBar menuBar;
-    private JLabel balance;
     private Ledger ledger; // object
     private JsonWriter jsonWriter;
     private JsonReader jsonReader;
-    private static final String JSON_STORE = "./data/data.json";
-    ImageIcon logo = new ImageIcon("./data/logo.png");
-    ImageIcon smallLogo = new ImageIcon(logo.getImage().getScaledInstance(620,150, Image.SCALE_DEFAULT));
-
-    // EFFECTS: constructs the app frame, add various components like panels
+    private BinaryWriter binaryWriter;
+    private BinaryReader binaryReader;
+    private LedgerStore journal; // only used in journal mode
+    private Autosaver autosaver; // saves the binary snapshot in the background when not in journal mode
+    private RefreshScheduler refresher; // refreshes the dashboard once per frame after ledger changes
+    private EdtWatchdog watchdog; // times every action and reports those that freeze the app
+    private JLabel saveStatus;
+    private JProgressBar loadProgress; // shown while the ledger is loaded in the background
+    private JMenu fileMenu;
+    private JMenu exitMenu;
+    private boolean editingEnabled = true; // false while the ledger is being loaded
+    private long loadStarted; // System.nanoTime() when the startup load began
+    private static final String JSON_STORE = System.getProperty("ledger.file", "./data/data.json");
+    // binary snapshot saved after every change; JSON_STORE is kept up to date on Save for export, in every mode
+    private static final String BINARY_STORE = JSON_STORE.replaceFirst("\\.json$", "") + ".ledger";
+    private static final String BACKUP_DIR = "./data/backup";
+    private static final int BACKUP_GENERATIONS = 5;
+    // event-sourced mode keeps every change ever made in EVENT_STORE, so past balances can be rebuilt
+    private static final boolean EVENT_SOURCED = Boolean.getBoolean("ledger.eventSourced");
+    // journal mode appends each change to a journal next to JSON_STORE instead of rewriting it
+    private static final boolean JOURNAL_MODE = Boolean.getBoolean("ledger.journal") || EVENT_SOURCED;
+    private static final String EVENT_STORE = "./data/ledger-events";
+    // load-test mode (see LoadTest) reports how long loading, showing and saving the ledger took, then exits
+    private static final boolean LOAD_TEST = Boolean.getBoolean("ledger.loadTest");
+    private static final LatencyHistogram UPDATES = Metrics.histogram("ui.update");
+    // every event logged, kept across runs for the audit history
+    private static final String EVENT_JOURNAL = "./data/events.journal";
+    private static final String LOGO = "./data/logo.png";
+    private static final int LOGO_WIDTH = 620;
+    private static final int LOGO_HEIGHT = 150;
+
+    // REQUIRES: called on the event dispatch thread
+    // EFFECTS: constructs the app frame, add various components like panels, shows it and starts loading
+    //          the ledger in the background
     public ExpenseAppUI() {
         init();
 
@@ -62,6 +104,7 @@ public class ExpenseAppUI extends JFrame {
             @Override
             public void windowClosing(java.awt.event.WindowEvent windowEvent) {
                 printLog(EventLog.getInstance());
+                closeStores();
                 //Then exit the program
                 System.exit(0);
             }
@@ -79,36 +122,76 @@ public class ExpenseAppUI extends JFrame {
         tabs.setForeground(ColorUIResource.BLACK);
         menuBar = new JMenuBar();
         ledger = new Ledger();
-        jsonWriter = new JsonWriter(JSON_STORE);
+        jsonWriter = new JsonWriter(JSON_STORE, BACKUP_DIR, BACKUP_GENERATIONS);
         jsonReader = new JsonReader(JSON_STORE);
+        binaryWriter = new BinaryWriter(BINARY_STORE, BACKUP_DIR, BACKUP_GENERATIONS);
+        binaryReader = new BinaryReader(BINARY_STORE);
+        saveStatus = new JLabel(" ");
+        loadProgress = new JProgressBar();
+        loadProgress.setMaximumSize(new Dimension(220, 20));
+        loadProgress.setVisible(false);
+        refresher = new RefreshScheduler();
+        watchdog = EdtWatchdog.install();
+        autosaver = new Autosaver(() -> ledger, this::binaryWrite, saveStatus);
+        if (JOURNAL_MODE) {
+            journal = EVENT_SOURCED ? new LedgerEventStore(EVENT_STORE, JSON_STORE) : new LedgerJournal(JSON_STORE);
+        }
+        openEventJournal();
+        registerGauges();
+    }
 
-        balance = new JLabel("0.00");
+    // EFFECTS: starts keeping every logged event in the event journal for the audit history
+    private void openEventJournal() {
+        try {
+            EventLog.getInstance().openJournal(EVENT_JOURNAL);
+        } catch (IOException e) {
+            System.out.println("Unable to open event journal: " + EVENT_JOURNAL);
+        }
     }
 
     // EFFECTS: add tabs to the JTabbedPane tabs
     private void createTabs() {
         dash = new Dashboard();
         tabs.addTab("Dashboard",dash);
+        refresher.register(RefreshScheduler.SUMMARY, dash::setInfoLabel);
+        refresher.register(RefreshScheduler.GOALS, dash::setGoalLabel);
 
-        expensesPanel = new ExpensesPanel();
-        tabs.addTab("Expenses",expensesPanel);
-
-        incomePanel = new IncomePanel();
-        tabs.addTab("Incomes",incomePanel);
-
-        goalsPanel = new GoalsPanel();
-        tabs.addTab("Saving Goals",goalsPanel);
+        // the other tabs are built the first time they are selected
+        tabs.addTab("Expenses",new JPanel());
+        tabs.addTab("Incomes",new JPanel());
+        tabs.addTab("Saving Goals",new JPanel());
+        tabs.addChangeListener(e -> buildSelectedTab());
 
         tabs.setPreferredSize(new Dimension(670,550));
         panel.add(tabs);
     }
 
+    // MODIFIES: this
+    // EFFECTS: builds the selected tab if it is shown for the first time
+    private void buildSelectedTab() {
+        int index = tabs.getSelectedIndex();
+        JPanel built = null;
+        if (index == 1 && expensesPanel == null) {
+            built = expensesPanel = new ExpensesPanel();
+        } else if (index == 2 && incomePanel == null) {
+            built = incomePanel = new IncomePanel();
+        } else if (index == 3 && goalsPanel == null) {
+            built = goalsPanel = new GoalsPanel();
+        }
+        if (built != null) {
+            setButtonsEnabled(built, editingEnabled);
+            tabs.setComponentAt(index, built);
+        }
+    }
+
     /**
      *  MENU BAR
      *  EFFECTS: add menus to the menubar and add actions to the menu items
      */
     private void createMenuBar() {
         JMenu file = new JMenu("File");
+        fileMenu = file;
+        JMenu history = historyMenu();
         JMenu exit = new JMenu("Exit");
         file.setToolTipText("View options to load, save and create new ledger.");
         exit.setToolTipText("Exit application");
@@ -118,19 +201,38 @@ public class ExpenseAppUI extends JFrame {
         addMenuItem(file, new NewFileAction());
         addMenuItem(file, new LoadFileAction());
         addMenuItem(file, new SaveFileAction());
+        file.addSeparator();
+        addMenuItem(file, new DiagnosticsAction());
         menuExit(exit);
         // add menu items to menu bar
         menuBar.add(file);
+        menuBar.add(history);
         menuBar.add(exit);
+        menuBar.add(Box.createHorizontalGlue());
+        menuBar.add(loadProgress);
+        menuBar.add(Box.createRigidArea(new Dimension(10, 0)));
+        menuBar.add(saveStatus);
+        menuBar.add(Box.createRigidArea(new Dimension(10, 0)));
 
         setJMenuBar(menuBar);
     }
 
+    // EFFECTS: returns the menu for looking back at the audit history and past balances
+    private JMenu historyMenu() {
+        JMenu history = new JMenu("History");
+        history.setToolTipText("View the history of changes made to the ledger.");
+        addMenuItem(history, new HistoryAction());
+        addMenuItem(history, new BalanceAsOfAction());
+        return history;
+    }
+
     /**
-     * Adds an item with given handler to the given menu
+     * Adds an item with given handler to the given menu, timed by the watchdog under the name of the item
      */
     private void addMenuItem(JMenu theMenu, AbstractAction action) {
-        JMenuItem menuItem = new JMenuItem(action);
+        String name = (String) action.getValue(Action.NAME);
+        JMenuItem menuItem = new JMenuItem(name);
+        menuItem.addActionListener(watchdog.timed(name, action));
         theMenu.add(menuItem);
     }
 
@@ -138,6 +240,7 @@ public class ExpenseAppUI extends JFrame {
      * Represents the action to be taken when the user clicks exit on menu bar
      */
     private void menuExit(JMenu exit) {
+        exitMenu = exit;
         exit.addMouseListener(new MouseAdapter() {
             public void mouseClicked(MouseEvent e) {
                 int confirmExit = JOptionPane.showConfirmDialog(null,
@@ -146,14 +249,109 @@ public class ExpenseAppUI extends JFrame {
                         JOptionPane.YES_NO_OPTION);
 
                 if (confirmExit == JOptionPane.YES_OPTION) {
-                    jsonWrite();
+                    if (editingEnabled) { // a ledger still being loaded is incomplete and must not be saved
+                        jsonWrite();
+                    }
                     printLog(EventLog.getInstance());
+                    closeStores();
                     System.exit(0);
                 }
             }
         });
     }
 
+    /**
+     * Represents the action to be taken when the user wants to see the audit history
+     */
+    private class HistoryAction extends AbstractAction {
+
+        HistoryAction() {
+            super("Audit History");
+        }
+
+        @Override
+        public void actionPerformed(ActionEvent evt) {
+            new HistoryDialog(ExpenseAppUI.this).setVisible(true);
+        }
+    }
+
+    /**
+     * Represents the action to be taken when the user wants to see how responsive the app has been
+     */
+    private class DiagnosticsAction extends AbstractAction {
+
+        DiagnosticsAction() {
+            super("Diagnostics");
+        }
+
+        @Override
+        public void actionPerformed(ActionEvent evt) {
+            new DiagnosticsDialog(ExpenseAppUI.this, watchdog).setVisible(true);
+        }
+    }
+
+    /**
+     * Represents the action to be taken when the user wants to see the ledger as it was at the end of a day
+     */
+    private class BalanceAsOfAction extends AbstractAction {
+
+        BalanceAsOfAction() {
+            super("Balance As Of...");
+        }
+
+        @Override
+        public void actionPerformed(ActionEvent evt) {
+            if (!EVENT_SOURCED) {
+                JOptionPane.showMessageDialog(null,
+                        "Past balances are only kept when the app is started with -Dledger.eventSourced=true");
+                return;
+            }
+            String day = JOptionPane.showInputDialog(null, "Show the ledger at the end of (yyyy-mm-dd):",
+                    LocalDate.now().toString());
+            if (day != null) {
+                showBalanceAsOf(day.trim());
+            }
+        }
+    }
+
+    // EFFECTS: rebuilds the ledger as it was at the end of day on a background thread and shows its totals
+    private void showBalanceAsOf(String day) {
+        long endOfDay;
+        try {
+            endOfDay = LocalDate.parse(day).plusDays(1).atStartOfDay(ZoneId.systemDefault()).toInstant()
+                    .toEpochMilli() - 1;
+        } catch (DateTimeParseException e) {
+            JOptionPane.showMessageDialog(null, "Dates must be written like 2022-12-25.");
+            return;
+        }
+        LedgerEventStore store = (LedgerEventStore) journal;
+        new SwingWorker<Ledger, Void>() {
+            @Override
+            protected Ledger doInBackground() throws Exception {
+                return store.asOf(endOfDay);
+            }
+
+            @Override
+            protected void done() {
+                balanceAsOfLoaded(day, this);
+            }
+        }.execute();
+    }
+
+    // EFFECTS: shows the balance, income and expense totals of the past ledger rebuilt by worker
+    private void balanceAsOfLoaded(String day, SwingWorker<Ledger, Void> worker) {
+        try {
+            Ledger past = worker.get();
+            JOptionPane.showMessageDialog(null, "At the end of " + day + ":"
+                    + "\nBalance: " + Money.format(past.getBalanceCents())
+                    + "\nTotal income: " + Money.format(past.totalIncomeCents())
+                    + "\nTotal expenses: " + Money.format(past.totalExpensesCents()),
+                    "Balance As Of " + day, JOptionPane.INFORMATION_MESSAGE);
+        } catch (InterruptedException | ExecutionException e) {
+            JOptionPane.showMessageDialog(null, "Unable to rebuild the ledger as of " + day);
+        }
+    }
+
     /**
      * Represents the action to be taken when the user wants to create a new ledger
      */
@@ -171,6 +369,9 @@ public class ExpenseAppUI extends JFrame {
                     JOptionPane.YES_NO_CANCEL_OPTION);
             if (confirmNewFile == JOptionPane.YES_OPTION) {
                 ledger = new Ledger();
+                if (JOURNAL_MODE) {
+                    attachJournal();
+                }
                 update();
             }
         }
@@ -193,10 +394,10 @@ public class ExpenseAppUI extends JFrame {
                     JOptionPane.YES_NO_CANCEL_OPTION);
             if (confirmLoadFile == JOptionPane.YES_OPTION) {
                 try {
-                    ledger = jsonReader.read();
+                    ledger = readLedger();
                     JOptionPane.showMessageDialog(null,
                             "Loaded ledger with balance of $"
-                                    + String.format("%,.2f",ledger.getBalance())
+                                    + Money.format(ledger.getBalanceCents())
                             + " from " + JSON_STORE);
                     update();
                     printLog(EventLog.getInstance());
@@ -245,7 +446,9 @@ public class ExpenseAppUI extends JFrame {
         Dashboard() {
             setLayout(new BoxLayout(this,BoxLayout.PAGE_AXIS));
             setBorder(new EmptyBorder(5, 15, 10, 10));
-            logoLabel = new JLabel(smallLogo);
+            logoLabel = new JLabel();
+            logoLabel.setPreferredSize(new Dimension(LOGO_WIDTH, LOGO_HEIGHT));
+            loadLogo();
             welcomeLabel();
             infoLabel();
             goalLabel();
@@ -257,12 +460,41 @@ public class ExpenseAppUI extends JFrame {
             welcome = new JLabel("<html><h1>Welcome !</h1></html>");
         }
 
+        // MODIFIES: this
+        // EFFECTS: reads and scales the logo on a background thread and shows it once it is ready
+        private void loadLogo() {
+            new SwingWorker<ImageIcon, Void>() {
+                @Override
+                protected ImageIcon doInBackground() throws IOException {
+                    BufferedImage image = ImageIO.read(new File(LOGO));
+                    if (image == null) {
+                        throw new IOException("Unsupported image: " + LOGO);
+                    }
+                    BufferedImage scaled = new BufferedImage(LOGO_WIDTH, LOGO_HEIGHT, BufferedImage.TYPE_INT_ARGB);
+                    Graphics2D g = scaled.createGraphics();
+                    g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+                    g.drawImage(image, 0, 0, LOGO_WIDTH, LOGO_HEIGHT, null);
+                    g.dispose();
+                    return new ImageIcon(scaled);
+                }
+
+                @Override
+                protected void done() {
+                    try {
+                        logoLabel.setIcon(get());
+                    } catch (InterruptedException | ExecutionException e) {
+                        System.out.println("Unable to read logo: " + LOGO);
+                    }
+                }
+            }.execute();
+        }
+
         // EFFECTS: initial info label when no data is loaded
         private void infoLabel() {
             info = new JLabel(homeHtml(
-                    String.format("%,.2f",Double.parseDouble(balance.getText())),
-                    String.format("%,.2f",ledger.totalIncome()),
-                    String.format("%,.2f",ledger.totalExpenses())
+                    Money.format(ledger.getBalanceCents()),
+                    Money.format(ledger.totalIncomeCents()),
+                    Money.format(ledger.totalExpensesCents())
             ));
         }
 
@@ -292,20 +524,23 @@ public class ExpenseAppUI extends JFrame {
         // EFFECTS: sets the info label once data is loaded
         public void setInfoLabel() {
             info.setText(homeHtml(
-                    String.format("%,.2f",Double.parseDouble(balance.getText())),
-                    String.format("%,.2f",ledger.totalIncome()),
-                    String.format("%,.2f",ledger.totalExpenses()
-                    )
+                    Money.format(ledger.getBalanceCents()),
+                    Money.format(ledger.totalIncomeCents()),
+                    Money.format(ledger.totalExpensesCents())
             ));
         }
 
         // EFFECTS: sets the goal label once data is loaded
         private void setGoalLabel() {
+            if (ledger.getGoals().size() == 0) {
+                goalInfo.setText("<html><h2>Latest Saving Goal:</h2><br>You have not created any saving goals.</html>");
+                return;
+            }
             goalInfo.setText("<html><h2>Latest Saving Goal: </h2><br>"
                     + ledger.getSavingGoal((ledger.getGoals()).size() - 1).getName() + ": $"
-                    + String.format("%,.2f",ledger.getSavingGoal((ledger.getGoals()).size() - 1).getCurrentAmount())
+                    + Money.format(ledger.getSavingGoal((ledger.getGoals()).size() - 1).getCurrentCents())
                     + " out of $"
-                    + String.format("%,.2f",ledger.getSavingGoal((ledger.getGoals()).size() - 1).getGoalAmount()));
+                    + Money.format(ledger.getSavingGoal((ledger.getGoals()).size() - 1).getGoalCents()));
         }
 
         // EFFECTS: adds all the components to the dashboard
@@ -328,8 +563,7 @@ public class ExpenseAppUI extends JFrame {
         JPanel incomesPanel;
         JScrollPane scrollPane;
         GridBagConstraints constraints;
-        String[] columnNames = {"Source", "Amount ($)"};
-        Object[][] incomesData;
+        IncomeTableModel incomesModel;
         int rowNum = -1;
 
         /* EFFECTS: constructs this income panel then creates and add components to it
@@ -339,12 +573,13 @@ public class ExpenseAppUI extends JFrame {
             setLayout(new GridBagLayout());
             constraints = new GridBagConstraints();
             constraints.fill = GridBagConstraints.BOTH;
-            scrollPane = new JScrollPane();
+            incomesModel = new IncomeTableModel();
             incomesPanel = new JPanel(new GridLayout());
             setBorder(new EmptyBorder(5, 15, 10, 10));
             welcomeLabel();
             addIncomeButton();
             removeIncomeButton();
+            createTable();
             showIncomes();
         }
 
@@ -363,11 +598,11 @@ public class ExpenseAppUI extends JFrame {
         // EFFECTS: create add income button with a listener for when its clicked
         private void addIncomeButton() {
             addIncomeBtn = new JButton("Add");
-            addIncomeBtn.addActionListener(new ActionListener() {
+            addIncomeBtn.addActionListener(watchdog.timed("Add Income", new ActionListener() {
                 public void actionPerformed(ActionEvent e) {
                     addIncomePopUp();
                 }
-            });
+            }));
             constraints.gridx = 2;
             constraints.gridy = 0;
             constraints.weightx = 0;
@@ -406,11 +641,11 @@ public class ExpenseAppUI extends JFrame {
         // EFFECTS: create remove income button with a listener for when its clicked
         private void removeIncomeButton() {
             removeIncomeBtn = new JButton("Remove");
-            removeIncomeBtn.addActionListener(new ActionListener() {
+            removeIncomeBtn.addActionListener(watchdog.timed("Remove Income", new ActionListener() {
                 public void actionPerformed(ActionEvent e) {
                     removeIncomePopUp();
                 }
-            });
+            }));
             constraints.gridx = 3;
             constraints.gridy = 0;
             constraints.weightx = 0;
@@ -434,7 +669,7 @@ public class ExpenseAppUI extends JFrame {
 
             int confirmDelete = JOptionPane.showConfirmDialog(null,
                     "Confirm removal of " + ledger.getIncome(rowNum).getSource() + ": $"
-                    + String.format("%,.2f", ledger.getIncome(rowNum).getAmount()),
+                    + Money.format(ledger.getIncome(rowNum).getAmountCents()),
                     "Remove Income",
                     JOptionPane.YES_NO_OPTION);
             if (confirmDelete == JOptionPane.YES_OPTION) {
@@ -444,30 +679,14 @@ public class ExpenseAppUI extends JFrame {
             }
         }
 
-        // EFFECTS: if there are incomes in ledger, creates a 2D array of incomes and displays it as a table
+        // EFFECTS: shows the incomes of the current ledger; the table follows later changes by itself
         private void showIncomes() {
-            if (scrollPane.getParent() == incomesPanel) {
-                incomesPanel.remove(scrollPane);
-            }
-            if (ledger.getIncomeList().size() != 0) {
-                incomesData = new Object[ledger.getIncomeList().size()][2];
-                addIncomesToTable(incomesData);
-                createTable();
-                incomesPanel.add(scrollPane);
-                incomesPanel.revalidate();
-                incomesPanel.repaint();
-                constraints.gridwidth = 4;
-                constraints.gridx = 0;
-                constraints.gridy = 1;
-                constraints.weighty = 1;
-                constraints.weightx = 1;
-            }
-            this.add(incomesPanel, constraints);
+            incomesModel.setLedger(ledger);
         }
 
-        // EFFECTS: creates new table with a listener to get selected item index
+        // EFFECTS: creates the incomes table with a listener to get selected item index
         private void createTable() {
-            JTable table = new JTable(incomesData, columnNames);
+            JTable table = new JTable(incomesModel);
             table.setDefaultEditor(Object.class, null);
             table.setSelectionMode(ListSelectionModel.SINGLE_SELECTION);
             table.setRowHeight(30);
@@ -479,16 +698,13 @@ public class ExpenseAppUI extends JFrame {
             });
             table.setFillsViewportHeight(true);
             scrollPane = new JScrollPane(table);
-        }
-
-        // MODIFIES: incomesData
-        // EFFECTS: helper function to add incomes to incomesData 2D array
-        private void addIncomesToTable(Object[][] incomesData) {
-            for (int r = 0; r < ledger.getIncomeList().size(); r++) {
-                Income income = ledger.getIncome(r);
-                incomesData[r][0] = income.getSource();
-                incomesData[r][1] = String.format("%,.2f",income.getAmount());
-            }
+            incomesPanel.add(scrollPane);
+            constraints.gridwidth = 4;
+            constraints.gridx = 0;
+            constraints.gridy = 1;
+            constraints.weighty = 1;
+            constraints.weightx = 1;
+            this.add(incomesPanel, constraints);
         }
     }
 
@@ -502,8 +718,7 @@ public class ExpenseAppUI extends JFrame {
         JPanel expensesPanel;
         GridBagConstraints constraints;
         JScrollPane scrollPane;
-        String[] columnNames = {"Title", "Amount ($)", "Date", "Notes"};
-        Object[][] expensesData;
+        ExpenseTableModel expensesModel;
         int rowNum = -1;
 
         /* EFFECTS: constructs this expenses panel then creates and add components to it
@@ -513,12 +728,13 @@ public class ExpenseAppUI extends JFrame {
             setLayout(new GridBagLayout());
             constraints = new GridBagConstraints();
             constraints.fill = GridBagConstraints.BOTH;
-            scrollPane = new JScrollPane();
+            expensesModel = new ExpenseTableModel();
             expensesPanel = new JPanel(new GridLayout());
             setBorder(new EmptyBorder(5, 15, 10, 10));
             welcomeLabel();
             addExpenseButton();
             removeExpenseButton();
+            createTable();
             showExpenses();
         }
 
@@ -537,11 +753,11 @@ public class ExpenseAppUI extends JFrame {
         // EFFECTS: create add expense button with a listener for when its clicked
         private void addExpenseButton() {
             addExpenseBtn = new JButton("Add");
-            addExpenseBtn.addActionListener(new ActionListener() {
+            addExpenseBtn.addActionListener(watchdog.timed("Add Expense", new ActionListener() {
                 public void actionPerformed(ActionEvent e) {
                     addExpensePopUp();
                 }
-            });
+            }));
             constraints.gridx = 2;
             constraints.gridy = 0;
             constraints.weightx = 0;
@@ -584,11 +800,11 @@ public class ExpenseAppUI extends JFrame {
         // EFFECTS: create remove expense button with a listener for when its clicked
         private void removeExpenseButton() {
             removeExpenseBtn = new JButton("Remove");
-            removeExpenseBtn.addActionListener(new ActionListener() {
+            removeExpenseBtn.addActionListener(watchdog.timed("Remove Expense", new ActionListener() {
                 public void actionPerformed(ActionEvent e) {
                     removeExpensePopUp();
                 }
-            });
+            }));
             constraints.gridx = 3;
             constraints.gridy = 0;
             constraints.weightx = 0;
@@ -606,7 +822,7 @@ public class ExpenseAppUI extends JFrame {
 
             int confirmDelete = JOptionPane.showConfirmDialog(null,
                     "Confirm removal of " + ledger.getExpense(rowNum).getTitle() + ": $"
-                            + String.format("%,.2f", ledger.getExpense(rowNum).getAmount()),
+                            + Money.format(ledger.getExpense(rowNum).getAmountCents()),
                     "Remove Expense",
                     JOptionPane.YES_NO_OPTION);
             if (confirmDelete == JOptionPane.YES_OPTION) {
@@ -616,28 +832,14 @@ public class ExpenseAppUI extends JFrame {
             }
         }
 
-        // EFFECTS: if there are expenses in ledger, creates a 2D array of expenses and displays it as a table
+        // EFFECTS: shows the expenses of the current ledger; the table follows later changes by itself
         private void showExpenses() {
-            if (scrollPane.getParent() == expensesPanel) {
-                expensesPanel.remove(scrollPane);
-            }
-            if (ledger.getExpenses().size() != 0) {
-                expensesData = new Object[ledger.getExpenses().size()][4];
-                addExpensesToTable(expensesData);
-                createTable();
-                expensesPanel.revalidate();
-                expensesPanel.repaint();
-                constraints.gridwidth = 4;
-                constraints.gridx = 0;
-                constraints.gridy = 1;
-                constraints.weighty = 1;
-                constraints.weightx = 1;
-            }
-            this.add(expensesPanel, constraints);
+            expensesModel.setLedger(ledger);
         }
 
+        // EFFECTS: creates the expenses table with a listener to get selected item index
         private void createTable() {
-            JTable table = new JTable(expensesData, columnNames);
+            JTable table = new JTable(expensesModel);
             table.setDefaultEditor(Object.class, null);
             table.setRowHeight(30);
             scrollPane = new JScrollPane(table);
@@ -649,20 +851,13 @@ public class ExpenseAppUI extends JFrame {
                 }
             });
             expensesPanel.add(scrollPane);
+            constraints.gridwidth = 4;
+            constraints.gridx = 0;
+            constraints.gridy = 1;
+            constraints.weighty = 1;
+            constraints.weightx = 1;
+            this.add(expensesPanel, constraints);
         }
-
-        // MODIFIES: expensesData
-        // EFFECTS: helper function to add expenses to expensesData 2D array
-        private void addExpensesToTable(Object[][] expensesData) {
-            for (int r = 0; r < ledger.getExpenses().size(); r++) {
-                Expense expense = ledger.getExpense(r);
-                expensesData[r][0] = expense.getTitle();
-                expensesData[r][1] = String.format("%,.2f",expense.getAmount());
-                expensesData[r][2] = expense.getDate();
-                expensesData[r][3] = expense.getNote();
-            }
-        }
-
     }
 
     /*
@@ -678,8 +873,7 @@ public class ExpenseAppUI extends JFrame {
         JScrollPane scrollPane;
         GridBagConstraints constraints;
         int temp; // value of selected item's index in contribute panel combobox
-        String[] columnNames = {"Title", "Current Amount ($)", "Goal Amount ($)", "Status"};
-        Object[][] goalsData;
+        GoalTableModel goalsModel;
         int rowNum = -1;
 
         /* EFFECTS: constructs this goals panel then creates and add components to it
@@ -689,13 +883,14 @@ public class ExpenseAppUI extends JFrame {
             setLayout(new GridBagLayout());
             constraints = new GridBagConstraints();
             constraints.fill = GridBagConstraints.BOTH;
-            scrollPane = new JScrollPane();
+            goalsModel = new GoalTableModel();
             goalsPanel = new JPanel(new GridLayout());
             setBorder(new EmptyBorder(5, 15, 10, 10));
             welcomeLabel();
             addGoalButton();
             contributeButton();
             removeGoalButton();
+            createTable();
             showGoals();
         }
 
@@ -714,11 +909,11 @@ public class ExpenseAppUI extends JFrame {
         // EFFECTS: creates add saving goal button with a listener for when its clicked
         private void addGoalButton() {
             addGoalBtn = new JButton("Create");
-            addGoalBtn.addActionListener(new ActionListener() {
+            addGoalBtn.addActionListener(watchdog.timed("Create Goal", new ActionListener() {
                 public void actionPerformed(ActionEvent e) {
                     addGoalPopUp();
                 }
-            });
+            }));
             constraints.gridx = 1;
             constraints.gridy = 0;
             constraints.weightx = 0;
@@ -730,11 +925,11 @@ public class ExpenseAppUI extends JFrame {
         // EFFECTS: creates contribute to saving goal button with a listener for when its clicked
         private void contributeButton() {
             contributeBtn = new JButton("Contribute");
-            contributeBtn.addActionListener(new ActionListener() {
+            contributeBtn.addActionListener(watchdog.timed("Contribute", new ActionListener() {
                 public void actionPerformed(ActionEvent e) {
                     contributePopUp();
                 }
-            });
+            }));
             constraints.gridx = 2;
             constraints.gridy = 0;
             constraints.weightx = 0;
@@ -811,22 +1006,22 @@ public class ExpenseAppUI extends JFrame {
                 chooseGoalData[r] = ledger.getSavingGoal(r).getName();
             }
             goalsList = new JComboBox<>(chooseGoalData);
-            goalsList.addActionListener(new ActionListener() {
+            goalsList.addActionListener(watchdog.timed("Select Goal", new ActionListener() {
                 public void actionPerformed(ActionEvent e) {
                     JComboBox comboBox = (JComboBox) e.getSource();
                     temp = comboBox.getSelectedIndex();
                 }
-            });
+            }));
         }
 
         // EFFECTS: create remove saving goal button with a listener for when its clicked
         private void removeGoalButton() {
             removeGoalBtn = new JButton("Remove");
-            removeGoalBtn.addActionListener(new ActionListener() {
+            removeGoalBtn.addActionListener(watchdog.timed("Remove Goal", new ActionListener() {
                 public void actionPerformed(ActionEvent e) {
                     removeGoalPopUp();
                 }
-            });
+            }));
             constraints.gridx = 4;
             constraints.gridy = 0;
             constraints.weightx = 0;
@@ -844,8 +1039,8 @@ public class ExpenseAppUI extends JFrame {
 
             int confirmDelete = JOptionPane.showConfirmDialog(null,
                     "Confirm removal of " + ledger.getSavingGoal(rowNum).getName() + "\nContributed: $"
-                            + String.format("%,.2f", ledger.getSavingGoal(rowNum).getCurrentAmount())
-                            + " out of $" + String.format("%,.2f", ledger.getSavingGoal(rowNum).getGoalAmount()),
+                            + Money.format(ledger.getSavingGoal(rowNum).getCurrentCents())
+                            + " out of $" + Money.format(ledger.getSavingGoal(rowNum).getGoalCents()),
                     "Remove Expense",
                     JOptionPane.YES_NO_OPTION);
             if (confirmDelete == JOptionPane.YES_OPTION) {
@@ -855,29 +1050,14 @@ public class ExpenseAppUI extends JFrame {
             }
         }
 
-        // EFFECTS: if there are goals in ledger, creates a 2D array of goals and displays it as a table
+        // EFFECTS: shows the goals of the current ledger; the table follows later changes by itself
         private void showGoals() {
-            if (scrollPane.getParent() == goalsPanel) {
-                goalsPanel.remove(scrollPane);
-            }
-            if (ledger.getGoals().size() != 0) {
-                goalsData = new Object[ledger.getGoals().size()][4];
-                addGoalsToTable(goalsData);
-                createTable();
-                goalsPanel.add(scrollPane);
-                goalsPanel.revalidate();
-                goalsPanel.repaint();
-                constraints.gridwidth = 5;
-                constraints.gridx = 0;
-                constraints.gridy = 1;
-                constraints.weighty = 1;
-                constraints.weightx = 1;
-            }
-            this.add(goalsPanel, constraints);
+            goalsModel.setLedger(ledger);
         }
 
+        // EFFECTS: creates the goals table with a listener to get selected item index
         private void createTable() {
-            JTable table = new JTable(goalsData, columnNames);
+            JTable table = new JTable(goalsModel);
             table.setDefaultEditor(Object.class, null);
             table.setFillsViewportHeight(true);
             table.setRowHeight(30);
@@ -888,59 +1068,208 @@ public class ExpenseAppUI extends JFrame {
                 }
             });
             scrollPane = new JScrollPane(table);
-        }
-
-        // MODIFIES: goalsData
-        // EFFECTS: helper function to add goals to goalsData 2D array
-        private void addGoalsToTable(Object[][] goalsData) {
-            for (int r = 0; r < ledger.getGoals().size(); r++) {
-                SavingGoal goal = ledger.getSavingGoal(r);
-                goalsData[r][0] = goal.getName();
-                goalsData[r][1] = String.format("%,.2f",goal.getCurrentAmount());
-                goalsData[r][2] = String.format("%,.2f",goal.getGoalAmount());
-                if (goal.isComplete()) {
-                    goalsData[r][3] = "Completed";
-                } else {
-                    goalsData[r][3] = "Ongoing";
-                }
-            }
+            goalsPanel.add(scrollPane);
+            constraints.gridwidth = 5;
+            constraints.gridx = 0;
+            constraints.gridy = 1;
+            constraints.weighty = 1;
+            constraints.weightx = 1;
+            this.add(goalsPanel, constraints);
         }
     }
 
     // MODIFIES: data.json
-    // EFFECTS: saves the ledger to file
+    // EFFECTS: saves the ledger to file; in event-sourced mode the ledger is kept in EVENT_STORE, so JSON_STORE
+    //          is written as well to keep the export up to date
     private void jsonWrite() {
+        if (EVENT_SOURCED) {
+            journal.compact();
+            jsonExport();
+            return;
+        }
+        if (JOURNAL_MODE) {
+            journal.compact();
+            JOptionPane.showMessageDialog(null,"Saved data to " + JSON_STORE);
+            return;
+        }
         try {
             jsonWriter.open();
             jsonWriter.write(ledger);
             jsonWriter.close();
-            update();
+            autosaver.saveNow();
             JOptionPane.showMessageDialog(null,"Saved data to " + JSON_STORE);
-        } catch (FileNotFoundException e) {
+        } catch (IOException e) {
             JOptionPane.showMessageDialog(null,"Unable to write to file: " + JSON_STORE);
         }
     }
 
     // MODIFIES: data.json
-    // EFFECTS: for writing ledger to json without any popups showing
-    private void jsonWriteNoMsg() {
+    // EFFECTS: writes a snapshot of the ledger to JSON_STORE for export
+    private void jsonExport() {
         try {
             jsonWriter.open();
-            jsonWriter.write(ledger);
+            jsonWriter.write(ledger.snapshot(), 0);
             jsonWriter.close();
+            JOptionPane.showMessageDialog(null,"Saved data to " + JSON_STORE);
+        } catch (IOException e) {
+            JOptionPane.showMessageDialog(null,"Unable to write to file: " + JSON_STORE);
+        }
+    }
+
+    // MODIFIES: data.ledger
+    // EFFECTS: for saving ledger after a change without any popups showing
+    //          the binary snapshot is written in the background once a burst of changes is over;
+    //          in journal mode the change has already been appended to the journal. The screen follows
+    //          the change by itself through the table models and the refresh scheduler.
+    private void jsonWriteNoMsg() {
+        if (!JOURNAL_MODE) {
+            autosaver.schedule();
+        }
+    }
+
+    // MODIFIES: data.ledger
+    // EFFECTS: writes snapshot to the binary snapshot file; called on the autosave worker thread
+    private void binaryWrite(LedgerSnapshot snapshot) throws IOException {
+        binaryWriter.open();
+        binaryWriter.write(snapshot, 0);
+        binaryWriter.close();
+    }
+
+    // MODIFIES: this
+    // EFFECTS: loads the ledger at start of UI on a background thread while the frame is showing; rows are
+    //          added to the ledger on screen as they are parsed and editing is turned off until it is done
+    private void getData() {
+        loadStarted = System.nanoTime();
+        update();
+        setEditingEnabled(false);
+        LedgerLoader loader = new LedgerLoader(this::streamLedger, ledger, loadProgress);
+        loader.start(this::loadFinished, e -> {
+            setEditingEnabled(true);
+            JOptionPane.showMessageDialog(null,"Unable to read from file: " + JSON_STORE);
+        });
+    }
+
+    // MODIFIES: this
+    // EFFECTS: finishes the startup load; in journal mode the journal has attached loaded, so it replaces the
+    //          ledger on screen, otherwise loaded is null and every row read has already been added to it
+    private void loadFinished(Ledger loaded) {
+        if (JOURNAL_MODE) {
+            ledger = loaded;
             update();
-        } catch (FileNotFoundException e) {
+        }
+        setEditingEnabled(true);
+        if (LOAD_TEST) {
+            runLoadTest();
+        }
+    }
+
+    // MODIFIES: this, data.json, data.ledger
+    // EFFECTS: times building and painting the expenses tab and saving the ledger in both formats, prints
+    //          those timings with the time the load took, and exits
+    private void runLoadTest() {
+        LoadTest report = new LoadTest(ledger, System.nanoTime() - loadStarted);
+        report.time("render", () -> {
+            tabs.setSelectedIndex(1);
+            validate();
+            panel.paintImmediately(panel.getBounds());
+        });
+        report.time("save JSON", () -> {
+            jsonWriter.open();
+            jsonWriter.write(ledger);
+            jsonWriter.close();
+        });
+        report.time("save binary", () -> binaryWrite(ledger.snapshot()));
+        report.print(JSON_STORE, BINARY_STORE);
+        closeStores();
+        System.exit(0);
+    }
+
+    // EFFECTS: reads the ledger from JSON_STORE, replaying the journal on top of it in journal mode;
+    //          otherwise starts from the binary snapshot if it is at least as new as JSON_STORE
+    private Ledger readLedger() throws IOException {
+        if (JOURNAL_MODE) {
+            return journal.load();
+        }
+        if (binaryIsCurrent()) {
+            return binaryReader.read();
+        }
+        return jsonReader.read();
+    }
+
+    // EFFECTS: in journal mode, returns the ledger read as readLedger() does; otherwise hands every item of
+    //          the ledger to sink as it is read, from the file readLedger() would read, and returns null
+    private Ledger streamLedger(LedgerListener sink) throws IOException {
+        if (JOURNAL_MODE) {
+            return journal.load();
+        }
+        if (binaryIsCurrent()) {
+            binaryReader.stream(sink);
+        } else {
+            jsonReader.stream(sink);
+        }
+        return null;
+    }
+
+    // MODIFIES: this
+    // EFFECTS: turns the File and Exit menus, the buttons that change the ledger and saving it on or off
+    private void setEditingEnabled(boolean enabled) {
+        editingEnabled = enabled;
+        fileMenu.setEnabled(enabled);
+        exitMenu.setEnabled(enabled);
+        setButtonsEnabled(tabs, enabled);
+        autosaver.setPaused(!enabled);
+    }
+
+    // MODIFIES: container
+    // EFFECTS: turns every button inside container on or off
+    private static void setButtonsEnabled(Container container, boolean enabled) {
+        for (Component child : container.getComponents()) {
+            if (child instanceof JButton) {
+                child.setEnabled(enabled);
+            } else if (child instanceof Container) {
+                setButtonsEnabled((Container) child, enabled);
+            }
+        }
+    }
+
+    // EFFECTS: returns true if the binary snapshot exists and was saved no earlier than JSON_STORE
+    private boolean binaryIsCurrent() throws IOException {
+        Path binary = Paths.get(BINARY_STORE);
+        Path json = Paths.get(JSON_STORE);
+        if (!Files.exists(binary)) {
+            return false;
+        }
+        return !Files.exists(json)
+                || Files.getLastModifiedTime(binary).compareTo(Files.getLastModifiedTime(json)) >= 0;
+    }
+
+    // MODIFIES: this
+    // EFFECTS: journals changes to the current ledger and saves it as the new snapshot
+    private void attachJournal() {
+        try {
+            journal.attach(ledger);
+            journal.compact();
+        } catch (IOException e) {
             System.out.println("Unable to write to file: " + JSON_STORE);
         }
     }
 
-    // EFFECTS: loads the JSON, used for loading data at start of UI
-    private void getData() {
+    // EFFECTS: writes pending changes and events and waits for background saves or a running compaction to
+    //          finish, so exiting cannot cut them short
+    private void closeStores() {
         try {
-            ledger = jsonReader.read();
-            update();
+            EventLog.getInstance().closeJournal();
         } catch (IOException e) {
-            JOptionPane.showMessageDialog(null,"Unable to read from file: " + JSON_STORE);
+            System.out.println("Unable to close event journal: " + EVENT_JOURNAL);
+        }
+        if (!JOURNAL_MODE) {
+            autosaver.close();
+            return;
+        }
+        try {
+            journal.close();
+        } catch (IOException e) {
+            System.out.println("Unable to close journal for: " + JSON_STORE);
         }
     }
 
@@ -954,16 +1283,33 @@ public class ExpenseAppUI extends JFrame {
 
     /*
      * MODIFIES: this
-     * Updates the components to display new data
+     * Updates the components to display the current ledger; after that the tables follow its changes
+     * row by row and the dashboard is refreshed at most once per frame by the refresh scheduler
      */
     private void update() {
-        balance.setText(String.valueOf(ledger.getBalance()));
-        dash.setInfoLabel();
-        if (ledger.getGoals().size() != 0) {
-            dash.setGoalLabel();
-        }
-        expensesPanel.showExpenses();
-        incomePanel.showIncomes();
-        goalsPanel.showGoals();
+        long start = UPDATES.start();
+        FlightEvents.UiRefresh event = new FlightEvents.UiRefresh();
+        event.begin();
+        refresher.setLedger(ledger);
+        if (expensesPanel != null) {
+            expensesPanel.showExpenses();
+        }
+        if (incomePanel != null) {
+            incomePanel.showIncomes();
+        }
+        if (goalsPanel != null) {
+            goalsPanel.showGoals();
+        }
+        UPDATES.stop(start);
+        event.refreshed("update", ledger.entryCount());
+    }
+
+    // EFFECTS: shows the number of rows of the ledger on screen and the events the log lost as gauges over
+    //          JMX; the sizes are read without synchronizing, so a reading may be a change behind
+    private void registerGauges() {
+        Metrics.gauge("ledger.incomes", () -> ledger.getIncomeList().size());
+        Metrics.gauge("ledger.expenses", () -> ledger.getExpenses().size());
+        Metrics.gauge("ledger.goals", () -> ledger.getGoals().size());
+        Metrics.gauge("eventlog.dropped", () -> EventLog.getInstance().getDroppedCount());
     }
 }
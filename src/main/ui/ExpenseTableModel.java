@@ -0,0 +1,48 @@
+package ui;
+
+import model.Expense;
+import model.Money;
+
+// Represents the expenses of a ledger as a table of title, amount, date and note
+public class ExpenseTableModel extends LedgerTableModel {
+
+    // EFFECTS: constructs a model showing no ledger
+    public ExpenseTableModel() {
+        super("Title", "Amount ($)", "Date", "Notes");
+    }
+
+    @Override
+    public int getRowCount() {
+        return ledger == null ? 0 : ledger.getExpenses().size();
+    }
+
+    @Override
+    public Object getValueAt(int row, int column) {
+        Expense expense = ledger.getExpense(row);
+        switch (column) {
+            case 0:
+                return expense.getTitle();
+            case 1:
+                return Money.format(expense.getAmountCents());
+            case 2:
+                return expense.getDate();
+            default:
+                return expense.getNote();
+        }
+    }
+
+    @Override
+    public void expenseAdded(int index, Expense expense) {
+        fireTableRowsInserted(index, index);
+    }
+
+    @Override
+    public void expenseRemoved(int index, Expense expense) {
+        fireTableRowsDeleted(index, index);
+    }
+
+    @Override
+    public void expenseChanged(int index, Expense expense) {
+        fireTableRowsUpdated(index, index);
+    }
+}
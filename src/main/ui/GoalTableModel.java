@@ -0,0 +1,53 @@
+package ui;
+
+import model.Money;
+import model.SavingGoal;
+
+// Represents the saving goals of a ledger as a table of name, current amount, goal amount and status
+public class GoalTableModel extends LedgerTableModel {
+
+    // EFFECTS: constructs a model showing no ledger
+    public GoalTableModel() {
+        super("Title", "Current Amount ($)", "Goal Amount ($)", "Status");
+    }
+
+    @Override
+    public int getRowCount() {
+        return ledger == null ? 0 : ledger.getGoals().size();
+    }
+
+    @Override
+    public Object getValueAt(int row, int column) {
+        SavingGoal goal = ledger.getSavingGoal(row);
+        switch (column) {
+            case 0:
+                return goal.getName();
+            case 1:
+                return Money.format(goal.getCurrentCents());
+            case 2:
+                return Money.format(goal.getGoalCents());
+            default:
+                return goal.isComplete() ? "Completed" : "Ongoing";
+        }
+    }
+
+    @Override
+    public void goalAdded(int index, SavingGoal goal) {
+        fireTableRowsInserted(index, index);
+    }
+
+    @Override
+    public void contributed(int index, double amount) {
+        fireTableRowsUpdated(index, index);
+    }
+
+    @Override
+    public void goalRemoved(int index, SavingGoal goal) {
+        fireTableRowsDeleted(index, index);
+    }
+
+    @Override
+    public void goalChanged(int index, SavingGoal goal) {
+        fireTableRowsUpdated(index, index);
+    }
+}
@@ -0,0 +1,180 @@
+package ui;
+
+import model.Event;
+import model.EventJournal;
+import model.EventLog;
+import model.EventQuery;
+
+import javax.swing.BorderFactory;
+import javax.swing.JButton;
+import javax.swing.JComboBox;
+import javax.swing.JDialog;
+import javax.swing.JLabel;
+import javax.swing.JPanel;
+import javax.swing.JScrollPane;
+import javax.swing.JTable;
+import javax.swing.JTextField;
+import javax.swing.SwingWorker;
+import java.awt.BorderLayout;
+import java.awt.Frame;
+import java.awt.Point;
+import java.awt.Rectangle;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.format.DateTimeParseException;
+import java.util.concurrent.ExecutionException;
+
+/*
+ * Represents a dialog showing the audit history: the events logged between two dates, optionally only
+ * those of one type and kind of entry, such as every deletion this month. Matching events are read from
+ * the event journal a page at a time on a background thread, and the next page is only read once the
+ * table is scrolled close to its end, so a long history opens as fast as a short one.
+ */
+public class HistoryDialog extends JDialog {
+    private static final int PAGE = 200;
+    // indexes line up with Event.Type and Event.Kind, whose first constant (MESSAGE, NONE) stands for "Any"
+    private static final String[] TYPES = {"Any", "Added", "Deleted", "Contributed"};
+    private static final String[] KINDS = {"Any", "Income", "Expense", "Saving goal"};
+
+    private final JTextField fromField;
+    private final JTextField toField;
+    private final JComboBox<String> typeBox;
+    private final JComboBox<String> kindBox;
+    private final HistoryTableModel model;
+    private final JTable table;
+    private final JLabel status;
+    private EventQuery query;
+    private long cursor;     // where the next page starts, or -1 once every match is loaded
+    private boolean loading; // a page is being read
+    private int generation;  // incremented by every search, so pages of an earlier search are ignored
+
+    // REQUIRES: called on the event dispatch thread
+    // EFFECTS: constructs the dialog, showing this month's events
+    public HistoryDialog(Frame owner) {
+        super(owner, "Audit History", false);
+        fromField = new JTextField(9);
+        toField = new JTextField(9);
+        typeBox = new JComboBox<>(TYPES);
+        kindBox = new JComboBox<>(KINDS);
+        model = new HistoryTableModel();
+        table = new JTable(model);
+        table.getColumnModel().getColumn(0).setMaxWidth(150);
+        status = new JLabel(" ");
+        status.setBorder(BorderFactory.createEmptyBorder(4, 8, 4, 8));
+
+        JScrollPane scroll = new JScrollPane(table);
+        scroll.getViewport().addChangeListener(e -> loadMoreIfNeeded());
+        add(filterBar(), BorderLayout.NORTH);
+        add(scroll, BorderLayout.CENTER);
+        add(status, BorderLayout.SOUTH);
+        setSize(640, 480);
+        setLocationRelativeTo(owner);
+        showThisMonth();
+    }
+
+    // EFFECTS: returns the bar holding the date range, type and kind filters and their buttons
+    private JPanel filterBar() {
+        JPanel bar = new JPanel();
+        bar.add(new JLabel("From"));
+        bar.add(fromField);
+        bar.add(new JLabel("To"));
+        bar.add(toField);
+        bar.add(typeBox);
+        bar.add(kindBox);
+        JButton thisMonth = new JButton("This month");
+        thisMonth.addActionListener(e -> showThisMonth());
+        bar.add(thisMonth);
+        JButton search = new JButton("Search");
+        search.addActionListener(e -> search());
+        bar.add(search);
+        return bar;
+    }
+
+    // MODIFIES: this
+    // EFFECTS: sets the date range to this month so far and searches it
+    private void showThisMonth() {
+        LocalDate today = LocalDate.now();
+        fromField.setText(today.withDayOfMonth(1).toString());
+        toField.setText(today.toString());
+        search();
+    }
+
+    // MODIFIES: this
+    // EFFECTS: replaces the table with the first page of events matching the filters
+    private void search() {
+        LocalDate from;
+        LocalDate to;
+        try {
+            from = LocalDate.parse(fromField.getText().trim());
+            to = LocalDate.parse(toField.getText().trim());
+        } catch (DateTimeParseException e) {
+            status.setText("Dates must be written like 2022-12-25.");
+            return;
+        }
+        ZoneId zone = ZoneId.systemDefault();
+        int type = typeBox.getSelectedIndex();
+        int kind = kindBox.getSelectedIndex();
+        query = new EventQuery(from.atStartOfDay(zone).toInstant().toEpochMilli(),
+                to.plusDays(1).atStartOfDay(zone).toInstant().toEpochMilli() - 1,
+                type == 0 ? null : Event.Type.values()[type], kind == 0 ? null : Event.Kind.values()[kind]);
+        generation++;
+        loading = false;
+        cursor = 0;
+        model.clear();
+        loadMoreIfNeeded();
+    }
+
+    // MODIFIES: this
+    // EFFECTS: reads the next page if there is one and the table is scrolled within a quarter page of its end
+    private void loadMoreIfNeeded() {
+        if (loading || cursor < 0 || query == null) {
+            return;
+        }
+        Rectangle visible = table.getVisibleRect();
+        int lastVisible = table.rowAtPoint(new Point(0, visible.y + visible.height - 1));
+        if (lastVisible >= 0 && lastVisible < model.getRowCount() - PAGE / 4) {
+            return;
+        }
+        loadPage();
+    }
+
+    // MODIFIES: this
+    // EFFECTS: reads the next page on a background thread and adds it to the table
+    private void loadPage() {
+        loading = true;
+        status.setText("Loading...");
+        final int search = generation;
+        final EventQuery current = query;
+        final long start = cursor;
+        new SwingWorker<EventJournal.Page, Void>() {
+            @Override
+            protected EventJournal.Page doInBackground() throws Exception {
+                return EventLog.getInstance().history(current, start, PAGE);
+            }
+
+            @Override
+            protected void done() {
+                if (search == generation) {
+                    pageLoaded(this);
+                }
+            }
+        }.execute();
+    }
+
+    // MODIFIES: this
+    // EFFECTS: adds the page read by worker to the table and reads another if the table is still not full
+    private void pageLoaded(SwingWorker<EventJournal.Page, Void> worker) {
+        loading = false;
+        try {
+            EventJournal.Page page = worker.get();
+            model.append(page.getEvents());
+            cursor = page.getNext();
+        } catch (InterruptedException | ExecutionException e) {
+            cursor = -1;
+            status.setText("Unable to read the event history.");
+            return;
+        }
+        status.setText(model.getRowCount() + " events" + (cursor >= 0 ? ", scroll down for more" : ""));
+        loadMoreIfNeeded();
+    }
+}
@@ -0,0 +1,66 @@
+package ui;
+
+import model.Event;
+
+import javax.swing.table.AbstractTableModel;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.List;
+
+// Represents the events loaded so far for the audit history as a table of time and description
+public class HistoryTableModel extends AbstractTableModel {
+    private static final String[] COLUMNS = {"Time", "Event"};
+
+    private final List<Event> events;
+    private final SimpleDateFormat timeFormat;
+
+    // EFFECTS: constructs a model with no events
+    public HistoryTableModel() {
+        this.events = new ArrayList<>();
+        this.timeFormat = new SimpleDateFormat("yyyy-MM-dd HH:mm:ss");
+    }
+
+    // REQUIRES: called on the event dispatch thread
+    // MODIFIES: this
+    // EFFECTS: drops every event
+    public void clear() {
+        int rows = events.size();
+        events.clear();
+        if (rows > 0) {
+            fireTableRowsDeleted(0, rows - 1);
+        }
+    }
+
+    // REQUIRES: called on the event dispatch thread
+    // MODIFIES: this
+    // EFFECTS: adds page to the end of the table
+    public void append(List<Event> page) {
+        if (page.isEmpty()) {
+            return;
+        }
+        int first = events.size();
+        events.addAll(page);
+        fireTableRowsInserted(first, events.size() - 1);
+    }
+
+    @Override
+    public int getRowCount() {
+        return events.size();
+    }
+
+    @Override
+    public int getColumnCount() {
+        return COLUMNS.length;
+    }
+
+    @Override
+    public String getColumnName(int column) {
+        return COLUMNS[column];
+    }
+
+    @Override
+    public Object getValueAt(int row, int column) {
+        Event event = events.get(row);
+        return column == 0 ? timeFormat.format(event.getDate()) : event.getDescription();
+    }
+}
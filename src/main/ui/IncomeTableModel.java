@@ -0,0 +1,39 @@
+package ui;
+
+import model.Income;
+import model.Money;
+
+// Represents the incomes of a ledger as a table of source and amount
+public class IncomeTableModel extends LedgerTableModel {
+
+    // EFFECTS: constructs a model showing no ledger
+    public IncomeTableModel() {
+        super("Source", "Amount ($)");
+    }
+
+    @Override
+    public int getRowCount() {
+        return ledger == null ? 0 : ledger.getIncomeList().size();
+    }
+
+    @Override
+    public Object getValueAt(int row, int column) {
+        Income income = ledger.getIncome(row);
+        return column == 0 ? income.getSource() : Money.format(income.getAmountCents());
+    }
+
+    @Override
+    public void incomeAdded(int index, Income income) {
+        fireTableRowsInserted(index, index);
+    }
+
+    @Override
+    public void incomeRemoved(int index, Income income) {
+        fireTableRowsDeleted(index, index);
+    }
+
+    @Override
+    public void incomeChanged(int index, Income income) {
+        fireTableRowsUpdated(index, index);
+    }
+}
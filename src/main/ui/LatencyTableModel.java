@@ -0,0 +1,62 @@
+package ui;
+
+import model.LatencyHistogram;
+
+import javax.swing.table.AbstractTableModel;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+// Represents the latencies of the actions of the app as a table of how often each ran and how long it kept
+// the event dispatch thread busy, as they were when last set
+public class LatencyTableModel extends AbstractTableModel {
+    private static final String[] COLUMNS = {"Action", "Count", "p50 (ms)", "p99 (ms)", "Max (ms)"};
+
+    private final List<String> actions;
+    private final List<long[]> latencies; // count, then p50, p99 and max in nanoseconds
+
+    // EFFECTS: constructs a model with no actions
+    public LatencyTableModel() {
+        this.actions = new ArrayList<>();
+        this.latencies = new ArrayList<>();
+    }
+
+    // REQUIRES: called on the event dispatch thread
+    // MODIFIES: this
+    // EFFECTS: replaces the table with the current latencies of the given histograms, by action
+    public void setActions(Map<String, LatencyHistogram> histograms) {
+        actions.clear();
+        latencies.clear();
+        for (Map.Entry<String, LatencyHistogram> entry : histograms.entrySet()) {
+            LatencyHistogram histogram = entry.getValue();
+            actions.add(entry.getKey());
+            latencies.add(new long[] {histogram.getCount(), histogram.getPercentileNanos(0.5),
+                histogram.getPercentileNanos(0.99), histogram.getMaxNanos()});
+        }
+        fireTableDataChanged();
+    }
+
+    @Override
+    public int getRowCount() {
+        return actions.size();
+    }
+
+    @Override
+    public int getColumnCount() {
+        return COLUMNS.length;
+    }
+
+    @Override
+    public String getColumnName(int column) {
+        return COLUMNS[column];
+    }
+
+    @Override
+    public Object getValueAt(int row, int column) {
+        if (column == 0) {
+            return actions.get(row);
+        }
+        long value = latencies.get(row)[column - 1];
+        return column == 1 ? Long.toString(value) : String.format("%.1f", value / 1e6);
+    }
+}
@@ -0,0 +1,158 @@
+package ui;
+
+import model.Expense;
+import model.Income;
+import model.Ledger;
+import model.LedgerBatch;
+import model.LedgerListener;
+import model.SavingGoal;
+
+import javax.swing.JProgressBar;
+import javax.swing.Timer;
+import java.io.IOException;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.function.Consumer;
+
+/*
+ * Represents the load of a ledger while the frame is already on screen. The file is read and parsed on a
+ * background thread, which builds no ledger of its own: every income, expense and goal is handed over into
+ * a queue as soon as it has been parsed, and a timer on the event dispatch thread moves the queue into the
+ * ledger on screen a time slice at a time, so rows appear in the tables while the rest is still being
+ * parsed and the frame stays responsive however large the file is. Each item is parsed into one entry that
+ * the ledger on screen then keeps, and only the items not yet moved are queued. Each slice is added as one
+ * batch, so the tables are refreshed once per slice rather than once per row.
+ */
+public class LedgerLoader implements LedgerListener {
+    private static final int TICK_MS = 16;
+    private static final long SLICE_NANOS = 8_000_000; // time spent adding rows per tick
+
+    // Represents the read performed on the background thread
+    public interface Source {
+        // EFFECTS: hands every item of the ledger to sink as it is parsed, each a new entry of no ledger,
+        //          followed by sink.balanceSet if the balance was set by hand, and returns null; a source that
+        //          cannot do so returns the whole ledger instead; throws IOException if it cannot be read
+        Ledger read(LedgerListener sink) throws IOException;
+    }
+
+    private final Source source;
+    private final Ledger target;
+    private final JProgressBar progress;
+    private final Queue<Object> parsed; // parsed items not yet added to target
+    private final Timer drain;
+    private Consumer<Ledger> onLoaded;
+    private Consumer<IOException> onFailed;
+    private volatile boolean finished;
+    private volatile Ledger loaded;
+    private volatile Double balance; // balance set by hand in the file, set on target last; null if none
+    private volatile IOException failure;
+    private int rows;
+
+    // EFFECTS: constructs a loader that adds what source reads to target and reports progress in progress
+    public LedgerLoader(Source source, Ledger target, JProgressBar progress) {
+        this.source = source;
+        this.target = target;
+        this.progress = progress;
+        this.parsed = new ConcurrentLinkedQueue<>();
+        this.drain = new Timer(TICK_MS, e -> drainSlice());
+    }
+
+    /*
+     * REQUIRES: called on the event dispatch thread
+     * MODIFIES: this
+     * EFFECTS: starts reading on a background thread; once every parsed item has been added to the target,
+     *      calls onLoaded with the ledger the source returned (null if it handed over its items), or onFailed
+     *      if it could not be read
+     */
+    public void start(Consumer<Ledger> onLoaded, Consumer<IOException> onFailed) {
+        this.onLoaded = onLoaded;
+        this.onFailed = onFailed;
+        progress.setIndeterminate(true);
+        progress.setStringPainted(true);
+        progress.setString("Loading...");
+        progress.setVisible(true);
+        Thread reader = new Thread(this::readAll, "ledger-loader");
+        reader.setDaemon(true);
+        reader.start();
+        drain.start();
+    }
+
+    // EFFECTS: reads the ledger on the loader thread and records the outcome
+    private void readAll() {
+        try {
+            loaded = source.read(this);
+        } catch (IOException e) {
+            failure = e;
+        } finally {
+            finished = true;
+        }
+    }
+
+    /*
+     * REQUIRES: called on the event dispatch thread
+     * MODIFIES: this, target
+     * EFFECTS: adds queued items to the target until the time slice is used up, and finishes the load once
+     *      the reader is done and the queue is empty
+     */
+    private void drainSlice() {
+        boolean done = finished; // read before polling, so nothing queued before the reader finished is missed
+        long deadline = System.nanoTime() + SLICE_NANOS;
+        LedgerBatch batch = target.batch();
+        Object item;
+        while (System.nanoTime() < deadline && (item = parsed.poll()) != null) {
+            add(batch, item);
+            rows++;
+        }
+        batch.commitNoLog();
+        progress.setString("Loading... " + String.format("%,d", rows) + " rows");
+        if (done && parsed.isEmpty()) {
+            drain.stop();
+            progress.setVisible(false);
+            if (failure != null) {
+                onFailed.accept(failure);
+            } else {
+                if (balance != null) {
+                    target.setBalance(balance);
+                }
+                onLoaded.accept(loaded);
+            }
+        }
+    }
+
+    // MODIFIES: batch
+    // EFFECTS: queues adding a parsed item itself to the target
+    private void add(LedgerBatch batch, Object item) {
+        if (item instanceof Expense) {
+            batch.addExpense((Expense) item);
+        } else if (item instanceof Income) {
+            batch.addIncome((Income) item);
+        } else {
+            batch.addSavingGoal((SavingGoal) item);
+        }
+    }
+
+    /*
+     *  Called on the loader thread as the source parses items. Each item is a new entry that belongs to no
+     *  ledger and that the source keeps no reference to, so it is handed over as it is.
+     */
+
+    @Override
+    public void incomeAdded(int index, Income income) {
+        parsed.add(income);
+    }
+
+    @Override
+    public void expenseAdded(int index, Expense expense) {
+        parsed.add(expense);
+    }
+
+    @Override
+    public void goalAdded(int index, SavingGoal goal) {
+        parsed.add(goal);
+    }
+
+    @Override
+    public void balanceSet(double balance) {
+        this.balance = balance;
+    }
+}
@@ -0,0 +1,94 @@
+package ui;
+
+import model.FlightEvents;
+import model.LatencyHistogram;
+import model.Ledger;
+import model.LedgerListener;
+import model.Metrics;
+
+import javax.swing.event.TableModelEvent;
+import javax.swing.table.AbstractTableModel;
+
+/*
+ * Represents a table model that reads its rows straight from a ledger whenever the table asks for them.
+ * It listens to the ledger and turns each change into an event for just the rows involved, so adding
+ * one row to a large ledger repaints that row instead of rebuilding and laying out the whole table.
+ * While the ledger applies a batch those events are held back, and one event for the whole table is
+ * sent once the batch has been applied.
+ */
+public abstract class LedgerTableModel extends AbstractTableModel implements LedgerListener {
+    private static final LatencyHistogram REBUILDS = Metrics.histogram("ui.table.rebuild");
+    private final String[] columnNames;
+    protected Ledger ledger; // ledger shown, null until one is set
+    private boolean inBatch;
+    private boolean changedInBatch;
+
+    // EFFECTS: constructs a model with the given column headers showing no ledger
+    protected LedgerTableModel(String... columnNames) {
+        this.columnNames = columnNames;
+    }
+
+    // REQUIRES: called on the event dispatch thread
+    // MODIFIES: this, ledger
+    // EFFECTS: shows the rows of ledger and follows its changes instead of those of the previous ledger
+    public void setLedger(Ledger ledger) {
+        if (this.ledger == ledger) {
+            return;
+        }
+        if (this.ledger != null) {
+            this.ledger.removeListener(this);
+        }
+        this.ledger = ledger;
+        ledger.addListener(this);
+        rebuild();
+    }
+
+    // MODIFIES: this
+    // EFFECTS: holds back row events until the batch has been applied
+    @Override
+    public void batchStarted() {
+        inBatch = true;
+        changedInBatch = false;
+    }
+
+    // MODIFIES: this
+    // EFFECTS: tells the table that all of its rows may have changed if the batch changed any of them
+    @Override
+    public void batchApplied(int changes) {
+        inBatch = false;
+        if (changedInBatch) {
+            rebuild();
+        }
+    }
+
+    // EFFECTS: tells the table that all of its rows may have changed, so it lays them out again
+    private void rebuild() {
+        long start = REBUILDS.start();
+        FlightEvents.UiRefresh event = new FlightEvents.UiRefresh();
+        event.begin();
+        fireTableDataChanged();
+        REBUILDS.stop(start);
+        event.refreshed("table", getRowCount());
+    }
+
+    // MODIFIES: this
+    // EFFECTS: sends event to the table's listeners, or only remembers that rows changed during a batch
+    @Override
+    public void fireTableChanged(TableModelEvent event) {
+        if (inBatch) {
+            changedInBatch = true;
+        } else {
+            super.fireTableChanged(event);
+        }
+    }
+
+    @Override
+    public int getColumnCount() {
+        return columnNames.length;
+    }
+
+    @Override
+    public String getColumnName(int column) {
+        return columnNames[column];
+    }
+}
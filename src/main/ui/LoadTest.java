@@ -0,0 +1,113 @@
+package ui;
+
+import model.Ledger;
+import model.LedgerGenerator;
+import model.LedgerSnapshot;
+import persistence.BinaryWriter;
+import persistence.JsonWriter;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/*
+ * Represents a load test of the app on a large generated ledger. From the command line it generates a
+ * ledger file, or opens one in ExpenseAppUI in load-test mode; the app then times how long the load took,
+ * how long the expenses tab takes to be built and painted and how long saving takes, prints the timings
+ * and exits.
+ *
+ * Usage:
+ *   LoadTest generate <file> <expenses> [incomes] [goals] [seed]
+ *       writes a generated ledger to file, as JSON unless it ends in .ledger; JSON is streamed, so any
+ *       number of rows can be written, while the binary format keeps every distinct text in memory
+ *   LoadTest <file>
+ *       opens the ledger in file (.json or .ledger) in the app and reports load, render and save timings;
+ *       saving writes both formats next to file
+ */
+public class LoadTest {
+    private static final long DEFAULT_SEED = 42;
+
+    private final Ledger ledger;
+    private final Map<String, Long> timings; // nanoseconds taken by each step, in the order taken
+
+    // Represents a step of the load test that is timed
+    interface Step {
+        void run() throws IOException;
+    }
+
+    // EFFECTS: constructs a report on the load test of ledger, whose load took loadNanos
+    LoadTest(Ledger ledger, long loadNanos) {
+        this.ledger = ledger;
+        this.timings = new LinkedHashMap<>();
+        timings.put("load", loadNanos);
+    }
+
+    // EFFECTS: generates a ledger file or runs the load test as described above
+    public static void main(String[] args) throws IOException {
+        if (args.length >= 3 && args[0].equals("generate")) {
+            generate(Paths.get(args[1]), args);
+        } else if (args.length == 1) {
+            System.setProperty("ledger.file", args[0].replaceFirst("\\.ledger$", ".json"));
+            System.setProperty("ledger.loadTest", "true");
+            Main.main(new String[0]);
+        } else {
+            System.out.println("Usage: LoadTest generate <file> <expenses> [incomes] [goals] [seed]");
+            System.out.println("       LoadTest <file>");
+        }
+    }
+
+    // MODIFIES: file
+    // EFFECTS: writes the ledger generated from the counts and seed in args to file and prints how long it took
+    private static void generate(Path file, String[] args) throws IOException {
+        int expenses = Integer.parseInt(args[2]);
+        int incomes = args.length > 3 ? Integer.parseInt(args[3]) : Math.max(1, expenses / 20);
+        int goals = args.length > 4 ? Integer.parseInt(args[4]) : 10;
+        long seed = args.length > 5 ? Long.parseLong(args[5]) : DEFAULT_SEED;
+        long start = System.nanoTime();
+        LedgerSnapshot snapshot = new LedgerGenerator(incomes, expenses, goals, seed).generate();
+        if (file.toString().endsWith(".ledger")) {
+            BinaryWriter writer = new BinaryWriter(file.toString());
+            writer.open();
+            writer.write(snapshot, 0);
+            writer.close();
+        } else {
+            JsonWriter writer = new JsonWriter(file.toString());
+            writer.open();
+            writer.write(snapshot, 0);
+            writer.close();
+        }
+        System.out.printf("Generated %,d incomes, %,d expenses and %,d goals into %s (%,d bytes) in %,d ms%n",
+                incomes, expenses, goals, file, Files.size(file), (System.nanoTime() - start) / 1_000_000);
+    }
+
+    // MODIFIES: this
+    // EFFECTS: runs step and records how long it took under name; prints a message if it failed
+    void time(String name, Step step) {
+        long start = System.nanoTime();
+        try {
+            step.run();
+        } catch (IOException e) {
+            System.out.println("Unable to " + name + ": " + e.getMessage());
+        }
+        timings.put(name, System.nanoTime() - start);
+    }
+
+    // EFFECTS: prints the size of the ledger, every timing and the sizes of the given files
+    void print(String... files) {
+        System.out.printf("Load test: %,d incomes, %,d expenses, %,d goals%n", ledger.getIncomeList().size(),
+                ledger.getExpenses().size(), ledger.getGoals().size());
+        for (Map.Entry<String, Long> timing : timings.entrySet()) {
+            System.out.printf("  %-12s %,10d ms%n", timing.getKey(), timing.getValue() / 1_000_000);
+        }
+        for (String file : files) {
+            try {
+                System.out.printf("  %s: %,d bytes%n", file, Files.size(Paths.get(file)));
+            } catch (IOException e) {
+                System.out.println("  " + file + ": not written");
+            }
+        }
+    }
+}
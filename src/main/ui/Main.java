@@ -7,7 +7,7 @@ import java.awt.*;
 public class Main {
     public static void main(String[] args) {
         setFont(new FontUIResource(new Font("Arial", Font.PLAIN, 16)));
-        new ExpenseAppUI();
+        SwingUtilities.invokeLater(ExpenseAppUI::new);
     }
 
     // EFFECTS: sets gui components font to font of our choice
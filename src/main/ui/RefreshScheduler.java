@@ -0,0 +1,146 @@
+package ui;
+
+import model.Expense;
+import model.FlightEvents;
+import model.Income;
+import model.LatencyHistogram;
+import model.Ledger;
+import model.LedgerListener;
+import model.Metrics;
+import model.SavingGoal;
+
+import javax.swing.Timer;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/*
+ * Represents a scheduler that coalesces ledger changes into at most one refresh per frame.
+ * Each change marks the parts of the screen it affects as dirty and starts a one-frame timer on the
+ * event dispatch thread; when the timer fires, every dirty part is refreshed once, no matter how many
+ * changes arrived in between. Parts that no change touched are left alone.
+ */
+public class RefreshScheduler implements LedgerListener {
+    public static final int SUMMARY = 1; // balance and totals
+    public static final int GOALS = 2;   // saving goals
+    public static final int ALL = SUMMARY | GOALS;
+    private static final int FRAME_MS = 16;
+    private static final LatencyHistogram REFRESHES = Metrics.histogram("ui.refresh");
+
+    private final Map<Integer, Runnable> refreshers; // part -> refresh, in registration order
+    private final Timer timer;
+    private Ledger ledger;
+    private int dirty; // parts changed since the last refresh
+
+    // EFFECTS: constructs a scheduler with nothing to refresh
+    public RefreshScheduler() {
+        this.refreshers = new LinkedHashMap<>();
+        this.timer = new Timer(FRAME_MS, e -> refreshNow());
+        timer.setRepeats(false);
+    }
+
+    // MODIFIES: this
+    // EFFECTS: runs refresher whenever part is dirty at the end of a frame
+    public void register(int part, Runnable refresher) {
+        refreshers.put(part, refresher);
+    }
+
+    // REQUIRES: called on the event dispatch thread
+    // MODIFIES: this, ledger
+    // EFFECTS: follows the changes of ledger instead of the previous ledger and, if it is a different
+    //          ledger, schedules a refresh of every part
+    public void setLedger(Ledger ledger) {
+        if (this.ledger == ledger) {
+            return;
+        }
+        if (this.ledger != null) {
+            this.ledger.removeListener(this);
+        }
+        this.ledger = ledger;
+        ledger.addListener(this);
+        markDirty(ALL);
+    }
+
+    // REQUIRES: called on the event dispatch thread
+    // MODIFIES: this
+    // EFFECTS: schedules a refresh of parts at the end of the current frame
+    public void markDirty(int parts) {
+        dirty |= parts;
+        if (!timer.isRunning()) {
+            timer.start();
+        }
+    }
+
+    // REQUIRES: called on the event dispatch thread
+    // MODIFIES: this
+    // EFFECTS: refreshes every dirty part now
+    public void refreshNow() {
+        long start = REFRESHES.start();
+        FlightEvents.UiRefresh event = new FlightEvents.UiRefresh();
+        event.begin();
+        timer.stop();
+        int parts = dirty;
+        dirty = 0;
+        for (Map.Entry<Integer, Runnable> entry : refreshers.entrySet()) {
+            if ((parts & entry.getKey()) != 0) {
+                entry.getValue().run();
+            }
+        }
+        REFRESHES.stop(start);
+        event.refreshed("dashboard", ledger == null ? 0 : ledger.entryCount());
+    }
+
+    @Override
+    public void incomeAdded(int index, Income income) {
+        markDirty(SUMMARY);
+    }
+
+    @Override
+    public void expenseAdded(int index, Expense expense) {
+        markDirty(SUMMARY);
+    }
+
+    @Override
+    public void goalAdded(int index, SavingGoal goal) {
+        markDirty(SUMMARY | GOALS);
+    }
+
+    @Override
+    public void contributed(int index, double amount) {
+        markDirty(SUMMARY | GOALS);
+    }
+
+    @Override
+    public void incomeRemoved(int index, Income income) {
+        markDirty(SUMMARY);
+    }
+
+    @Override
+    public void expenseRemoved(int index, Expense expense) {
+        markDirty(SUMMARY);
+    }
+
+    @Override
+    public void goalRemoved(int index, SavingGoal goal) {
+        markDirty(SUMMARY | GOALS);
+    }
+
+    @Override
+    public void incomeChanged(int index, Income income) {
+        markDirty(SUMMARY);
+    }
+
+    @Override
+    public void expenseChanged(int index, Expense expense) {
+        markDirty(SUMMARY);
+    }
+
+    @Override
+    public void goalChanged(int index, SavingGoal goal) {
+        markDirty(GOALS);
+    }
+
+    @Override
+    public void balanceSet(double balance) {
+        markDirty(SUMMARY);
+    }
+}
@@ -0,0 +1,145 @@
+package model;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ConcurrentLedgerTest {
+
+    @Test
+    public void testStripeCount() {
+        assertEquals(2, ConcurrentLedger.stripeCount(1));
+        assertEquals(4, ConcurrentLedger.stripeCount(2));
+        assertEquals(8, ConcurrentLedger.stripeCount(3));
+        assertEquals(8, ConcurrentLedger.stripeCount(4));
+        assertEquals(32, ConcurrentLedger.stripeCount(12));
+    }
+
+    @Test
+    public void testAddRemoveAndSnapshot() {
+        Ledger base = new Ledger();
+        base.addIncome(1000, "Salary");
+        Income salary = base.getIncome(0);
+        ConcurrentLedger ledger = new ConcurrentLedger(base);
+        ledger.addIncome(250.5, "Refund");
+        Expense expense = ledger.addExpense("Uber Eats", 67.34, "Oct 27", "Lunch");
+        assertEquals(118316, ledger.getBalanceCents());
+        assertEquals(2, ledger.incomeCount());
+
+        assertTrue(ledger.removeIncome(salary));
+        assertTrue(ledger.removeExpense(expense));
+        assertFalse(ledger.removeExpense(expense));
+        assertFalse(ledger.removeIncome(new Income(250.5, "Refund")));
+        assertEquals(25050, ledger.getBalanceCents());
+
+        LedgerSnapshot snapshot = ledger.snapshot();
+        assertEquals(1, snapshot.getIncomeList().size());
+        assertEquals("Refund", snapshot.getIncome(0).getSource());
+        assertEquals(0, snapshot.getExpenses().size());
+        assertEquals(25050, snapshot.getBalanceCents());
+    }
+
+    @Test
+    public void testConcurrentAddRemoveKeepsTotalsConsistent() throws InterruptedException {
+        ConcurrentLedger ledger = new ConcurrentLedger();
+        int producers = 4;
+        int perThread = 3000;
+        AtomicBoolean producing = new AtomicBoolean(true);
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+        AtomicLong removedIncome = new AtomicLong();
+        AtomicLong removedExpenses = new AtomicLong();
+        int[] removed = new int[2];
+        Queue<Income> incomes = new ConcurrentLinkedQueue<>();
+        Queue<Expense> expenses = new ConcurrentLinkedQueue<>();
+
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < producers; t++) {
+            threads.add(new Thread(() -> {
+                for (int i = 1; i <= perThread; i++) {
+                    incomes.add(ledger.addIncome(i / 100.0, "Statement line " + i));
+                    expenses.add(ledger.addExpense("Card line " + i, i / 200.0, "2022-01-" + (1 + i % 28), ""));
+                }
+            }));
+        }
+        // removes entries as they are added, some of them while still pending in a stripe
+        Thread remover = new Thread(() -> {
+            while (producing.get()) {
+                Income income = incomes.poll();
+                if (income != null) {
+                    assertTrue(ledger.removeIncome(income));
+                    removedIncome.addAndGet(income.getAmountCents());
+                    removed[0]++;
+                }
+                Expense expense = expenses.poll();
+                if (expense != null) {
+                    assertTrue(ledger.removeExpense(expense));
+                    removedExpenses.addAndGet(expense.getAmountCents());
+                    removed[1]++;
+                }
+            }
+        });
+        Thread reader = new Thread(() -> {
+            while (producing.get()) {
+                checkConsistent(ledger.snapshot());
+            }
+        });
+        List<Thread> watchers = new ArrayList<>();
+        watchers.add(remover);
+        watchers.add(reader);
+        for (Thread thread : watchers) {
+            thread.setUncaughtExceptionHandler((th, e) -> failure.compareAndSet(null, e));
+            thread.start();
+        }
+        for (Thread thread : threads) {
+            thread.setUncaughtExceptionHandler((th, e) -> failure.compareAndSet(null, e));
+            thread.start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        producing.set(false);
+        for (Thread thread : watchers) {
+            thread.join();
+        }
+        assertNull(failure.get());
+
+        long lineSum = (long) perThread * (perThread + 1) / 2; // cents of incomes added by one producer
+        long addedIncome = producers * lineSum;
+        long addedExpenses = 0;
+        for (int i = 1; i <= perThread; i++) {
+            addedExpenses += producers * Money.toCents(i / 200.0);
+        }
+        LedgerSnapshot snapshot = ledger.snapshot();
+        checkConsistent(snapshot);
+        assertEquals(producers * perThread - removed[0], snapshot.getIncomeList().size());
+        assertEquals(producers * perThread - removed[1], snapshot.getExpenses().size());
+        assertEquals(addedIncome - removedIncome.get(), snapshot.totalIncomeCents());
+        assertEquals(addedExpenses - removedExpenses.get(), snapshot.totalExpensesCents());
+        assertEquals(snapshot.totalIncomeCents(), ledger.totalIncomeCents());
+        assertEquals(snapshot.totalExpensesCents(), ledger.totalExpensesCents());
+        assertEquals(snapshot.getBalanceCents(), ledger.getBalanceCents());
+    }
+
+    // checks that the totals and balance of snapshot match the entries in it
+    private static void checkConsistent(LedgerSnapshot snapshot) {
+        long income = 0;
+        for (Income i : snapshot.getIncomeList()) {
+            income += i.getAmountCents();
+        }
+        long expenses = 0;
+        for (Expense e : snapshot.getExpenses()) {
+            expenses += e.getAmountCents();
+        }
+        assertEquals(income, snapshot.totalIncomeCents());
+        assertEquals(expenses, snapshot.totalExpensesCents());
+        assertEquals(income - expenses, snapshot.getBalanceCents());
+    }
+}
@@ -0,0 +1,47 @@
+package model;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class DatesTest {
+
+    private static int day(int year, int month, int dayOfMonth) {
+        return (int) LocalDate.of(year, month, dayOfMonth).toEpochDay();
+    }
+
+    @Test
+    public void testParseDayMonthYear() {
+        assertEquals(day(2022, 12, 25), Dates.parseEpochDay("25 Dec, 2022"));
+        assertEquals(day(2022, 11, 2), Dates.parseEpochDay("2 Nov, 2022"));
+        assertEquals(day(2022, 9, 29), Dates.parseEpochDay("29 September 2022"));
+    }
+
+    @Test
+    public void testParseMonthDayYear() {
+        assertEquals(day(2022, 9, 29), Dates.parseEpochDay("Sept 29, 2022"));
+        assertEquals(day(2022, 12, 25), Dates.parseEpochDay("dec 25th 2022"));
+        assertEquals(day(2023, 1, 1), Dates.parseEpochDay("Jan 1st, 2023"));
+    }
+
+    @Test
+    public void testParseNumeric() {
+        assertEquals(day(2022, 12, 25), Dates.parseEpochDay("2022-12-25"));
+        assertEquals(day(1969, 12, 31), Dates.parseEpochDay("1969-12-31"));
+    }
+
+    @Test
+    public void testParseUnknown() {
+        assertEquals(Dates.UNKNOWN, Dates.parseEpochDay(null));
+        assertEquals(Dates.UNKNOWN, Dates.parseEpochDay(""));
+        assertEquals(Dates.UNKNOWN, Dates.parseEpochDay("Sept 29"));
+        assertEquals(Dates.UNKNOWN, Dates.parseEpochDay("25/12/2022"));
+        assertEquals(Dates.UNKNOWN, Dates.parseEpochDay("31 Nov, 2022"));
+        assertEquals(Dates.UNKNOWN, Dates.parseEpochDay("29 Feb 2022"));
+        assertEquals(Dates.UNKNOWN, Dates.parseEpochDay("Yesterday 2022"));
+        assertEquals(Dates.UNKNOWN, Dates.parseEpochDay("Dec Jan 5 2022"));
+        assertEquals(day(2024, 2, 29), Dates.parseEpochDay("29 Feb 2024"));
+    }
+}
@@ -0,0 +1,164 @@
+package model;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class EventJournalTest {
+    static final String LOCATION = "./data/testEventJournal.journal";
+    EventJournal journal;
+
+    @BeforeEach
+    public void setup() throws IOException {
+        Files.deleteIfExists(Paths.get(LOCATION));
+        Files.deleteIfExists(Paths.get(LOCATION + ".idx"));
+        journal = new EventJournal(LOCATION);
+        journal.open();
+    }
+
+    @AfterEach
+    public void tearDown() throws IOException {
+        journal.close();
+    }
+
+    // appends count events logged one second apart from second start, alternating additions and deletions
+    void appendEvents(int start, int count) {
+        for (int i = start; i < start + count; i++) {
+            Event.Type type = i % 2 == 0 ? Event.Type.ADDED : Event.Type.DELETED;
+            journal.append(new Event(i * 1000L, type, Event.Kind.EXPENSE, i, 0, "Expense " + i));
+        }
+        journal.flush();
+    }
+
+    List<Event> all(EventQuery query, int pageSize) throws IOException {
+        List<Event> events = new ArrayList<>();
+        long cursor = 0;
+        do {
+            EventJournal.Page page = journal.query(query, cursor, pageSize);
+            events.addAll(page.getEvents());
+            cursor = page.getNext();
+        } while (cursor >= 0);
+        return events;
+    }
+
+    @Test
+    public void testAppendAndQueryAll() throws IOException {
+        appendEvents(0, 10);
+        assertEquals(10, journal.size());
+        List<Event> events = all(EventQuery.all(), 100);
+        assertEquals(10, events.size());
+        assertEquals("Added an expense 'Expense 0' of amount $0.00", events.get(0).getDescription());
+        assertEquals("Deleted expense 'Expense 9' of amount $0.09", events.get(9).getDescription());
+    }
+
+    @Test
+    public void testTimeRangeSeeksToBlocks() throws IOException {
+        appendEvents(0, EventJournal.BLOCK * 20);
+        int from = EventJournal.BLOCK * 10 + 5;
+        List<Event> events = all(new EventQuery(from * 1000L, (from + 9) * 1000L, null, null), 100);
+        assertEquals(10, events.size());
+        assertEquals(from * 1000L, events.get(0).getTimestamp());
+        assertEquals((from + 9) * 1000L, events.get(9).getTimestamp());
+        assertEquals(1, journal.blocksRead());
+    }
+
+    @Test
+    public void testTypeFilterAndPaging() throws IOException {
+        appendEvents(0, EventJournal.BLOCK * 3 + 7);
+        EventQuery deletions = new EventQuery(Long.MIN_VALUE, Long.MAX_VALUE, Event.Type.DELETED, null);
+        EventJournal.Page first = journal.query(deletions, 0, 50);
+        assertEquals(50, first.getEvents().size());
+        assertTrue(first.hasMore());
+        List<Event> events = all(deletions, 50);
+        assertEquals((EventJournal.BLOCK * 3 + 7) / 2, events.size());
+        for (int i = 0; i < events.size(); i++) {
+            assertEquals(Event.Type.DELETED, events.get(i).getType());
+            assertEquals((2 * i + 1) * 1000L, events.get(i).getTimestamp());
+        }
+    }
+
+    @Test
+    public void testReopenKeepsEventsAndIndex() throws IOException {
+        appendEvents(0, EventJournal.BLOCK * 2 + 3);
+        journal.close();
+        journal = new EventJournal(LOCATION);
+        journal.open();
+        assertEquals(EventJournal.BLOCK * 2 + 3, journal.size());
+        appendEvents(EventJournal.BLOCK * 2 + 3, EventJournal.BLOCK);
+        List<Event> events = all(EventQuery.all(), 1000);
+        assertEquals(EventJournal.BLOCK * 3 + 3, events.size());
+        for (int i = 0; i < events.size(); i++) {
+            assertEquals(i * 1000L, events.get(i).getTimestamp());
+        }
+    }
+
+    @Test
+    public void testReopenRebuildsMissingIndexAndDropsTornTail() throws IOException {
+        appendEvents(0, EventJournal.BLOCK + 1);
+        journal.close();
+        Files.delete(Paths.get(LOCATION + ".idx"));
+        Path path = Paths.get(LOCATION);
+        Files.write(path, "12345\tADDED\tEXP".getBytes(StandardCharsets.UTF_8), StandardOpenOption.APPEND);
+
+        journal = new EventJournal(LOCATION);
+        journal.open();
+        assertEquals(EventJournal.BLOCK + 1, journal.size());
+        appendEvents(EventJournal.BLOCK + 1, 1);
+        List<Event> events = all(new EventQuery(EventJournal.BLOCK * 1000L, Long.MAX_VALUE, null, null), 10);
+        assertEquals(2, events.size());
+        assertEquals((EventJournal.BLOCK + 1) * 1000L, events.get(1).getTimestamp());
+    }
+
+    @Test
+    public void testReopenCompletesPartialIndex() throws IOException {
+        appendEvents(0, EventJournal.BLOCK * 3 + 5);
+        journal.close();
+        Path index = Paths.get(LOCATION + ".idx");
+        byte[] entries = Files.readAllBytes(index);
+        assertEquals(3 * 32, entries.length);
+        Files.write(index, Arrays.copyOf(entries, 32 + 7)); // one entry and part of the next
+
+        journal = new EventJournal(LOCATION);
+        journal.open();
+        journal.close();
+        assertArrayEquals(entries, Files.readAllBytes(index));
+
+        journal = new EventJournal(LOCATION);
+        journal.open();
+        assertEquals(EventJournal.BLOCK * 3 + 5, journal.size());
+        int from = EventJournal.BLOCK * 2 + 1;
+        List<Event> events = all(new EventQuery(from * 1000L, from * 1000L, null, null), 10);
+        assertEquals(1, events.size());
+        assertEquals(1, journal.blocksRead());
+    }
+
+    @Test
+    public void testEventLogHistory() throws IOException {
+        EventLog log = new EventLog(16, 100, 10);
+        journal.close();
+        log.openJournal(LOCATION);
+        log.logEvent(Event.added(Event.Kind.INCOME, "Company XYZ", 446870));
+        log.logEvent(Event.deleted(Event.Kind.INCOME, "Company XYZ", 446870, 0));
+        EventQuery deletions = new EventQuery(0, Long.MAX_VALUE, Event.Type.DELETED, null);
+        EventJournal.Page page = log.history(deletions, 0, 10);
+        assertEquals(1, page.getEvents().size());
+        assertEquals("Deleted income 'Company XYZ' of amount $4,468.70", page.getEvents().get(0).getDescription());
+        log.closeJournal();
+
+        page = log.history(deletions, 0, 10);
+        assertEquals(1, page.getEvents().size());
+        assertFalse(page.hasMore());
+    }
+}
@@ -6,7 +6,7 @@ import org.junit.jupiter.api.Test;
 import java.util.ArrayList;
 import java.util.List;
 
-import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.*;
 
 public class EventLogTest {
 
@@ -96,4 +96,116 @@ public class EventLogTest {
         assertEquals("Deleted saving goal 'Get a new car' ($0.00 out of $14,800.99)"
                 , eventsList.get(6).getDescription());
     }
+
+    @Test
+    public void testOverflowSpillsToDisk() {
+        EventLog small = new EventLog(4, 3, 100);
+        for (int i = 0; i < 20; i++) {
+            small.logEvent(new Event("Event " + i));
+        }
+        for (Event next : small) {
+            eventsList.add(next);
+        }
+        assertEquals(20, eventsList.size());
+        for (int i = 0; i < 20; i++) {
+            assertEquals("Event " + i, eventsList.get(i).getDescription());
+        }
+        assertEquals(0, small.getDroppedCount());
+    }
+
+    @Test
+    public void testSpilledEventKeepsDescriptionAndDate() {
+        EventLog small = new EventLog(4, 10, 10);
+        Event tricky = new Event("Added an expense 'Tab\there' \\ with\na new line");
+        small.logEvent(tricky);
+        for (int i = 0; i < 10; i++) {
+            small.logEvent(new Event("Event " + i));
+        }
+        Event first = small.iterator().next();
+        assertEquals(tricky, first);
+    }
+
+    @Test
+    public void testSpilledEventKeepsNullText() {
+        EventLog small = new EventLog(4, 10, 10);
+        small.logEvent(Event.added(Event.Kind.INCOME, null, 100));
+        small.logEvent(Event.added(Event.Kind.INCOME, "null", 100));
+        for (int i = 0; i < 10; i++) {
+            small.logEvent(new Event("Event " + i));
+        }
+        for (Event next : small) {
+            eventsList.add(next);
+        }
+        assertNull(eventsList.get(0).getText());
+        assertEquals("null", eventsList.get(1).getText());
+    }
+
+    @Test
+    public void testOldestSegmentsDropped() {
+        EventLog small = new EventLog(4, 2, 2);
+        for (int i = 0; i < 20; i++) {
+            small.logEvent(new Event("Event " + i));
+        }
+        for (Event next : small) {
+            eventsList.add(next);
+        }
+        assertTrue(small.getDroppedCount() > 0);
+        assertEquals(20 - small.getDroppedCount(), eventsList.size());
+        assertEquals("Event 19", eventsList.get(eventsList.size() - 1).getDescription());
+        int previous = -1;
+        for (Event next : eventsList) {
+            int number = Integer.parseInt(next.getDescription().substring("Event ".length()));
+            assertEquals(previous == -1 ? number : previous + 1, number);
+            previous = number;
+        }
+    }
+
+    @Test
+    public void testClearAfterOverflow() {
+        EventLog small = new EventLog(4, 3, 100);
+        for (int i = 0; i < 20; i++) {
+            small.logEvent(new Event("Event " + i));
+        }
+        small.clear();
+        small.logEvent(new Event("After"));
+        for (Event next : small) {
+            eventsList.add(next);
+        }
+        assertEquals(2, eventsList.size());
+        assertEquals("Event log cleared.", eventsList.get(0).getDescription());
+        assertEquals("After", eventsList.get(1).getDescription());
+    }
+
+    @Test
+    public void testConcurrentProducers() throws InterruptedException {
+        EventLog shared = new EventLog(64, 1000, 100);
+        int threads = 4;
+        int perThread = 5000;
+        List<Thread> producers = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            String name = "T" + t + " ";
+            producers.add(new Thread(() -> {
+                for (int i = 0; i < perThread; i++) {
+                    shared.logEvent(new Event(name + i));
+                }
+            }));
+        }
+        for (Thread producer : producers) {
+            producer.start();
+        }
+        for (Thread producer : producers) {
+            producer.join();
+        }
+
+        int[] nextExpected = new int[threads];
+        int count = 0;
+        for (Event next : shared) {
+            String[] parts = next.getDescription().split(" ");
+            int t = Integer.parseInt(parts[0].substring(1));
+            assertEquals(nextExpected[t]++, Integer.parseInt(parts[1]));
+            count++;
+        }
+        assertEquals(threads * perThread, count);
+        assertEquals(0, shared.getDroppedCount());
+    }
 }
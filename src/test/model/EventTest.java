@@ -0,0 +1,57 @@
+package model;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Date;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class EventTest {
+
+    @Test
+    public void testMessage() {
+        Event event = new Event("Event log cleared.");
+        assertEquals(Event.Type.MESSAGE, event.getType());
+        assertEquals(Event.Kind.NONE, event.getKind());
+        assertEquals("Event log cleared.", event.getDescription());
+        assertEquals(new Date(event.getTimestamp()), event.getDate());
+    }
+
+    @Test
+    public void testAddedDescriptions() {
+        Event expense = Event.added(Event.Kind.EXPENSE, "Mobile 1", 7560);
+        assertEquals(Event.Type.ADDED, expense.getType());
+        assertEquals(Event.Kind.EXPENSE, expense.getKind());
+        assertEquals(7560, expense.getAmountCents());
+        assertEquals("Mobile 1", expense.getText());
+        assertEquals("Added an expense 'Mobile 1' of amount $75.60", expense.getDescription());
+        assertEquals("Added an income 'Company XYZ' of amount $4,468.70",
+                Event.added(Event.Kind.INCOME, "Company XYZ", 446870).getDescription());
+        assertEquals("Added a saving goal 'Get a new car' of goal amount $14,800.99",
+                Event.added(Event.Kind.SAVING_GOAL, "Get a new car", 1480099).getDescription());
+    }
+
+    @Test
+    public void testDeletedAndContributedDescriptions() {
+        assertEquals("Deleted expense 'Mobile 1' of amount $75.60",
+                Event.deleted(Event.Kind.EXPENSE, "Mobile 1", 7560, 0).getDescription());
+        assertEquals("Deleted income 'Company XYZ' of amount $4,468.70",
+                Event.deleted(Event.Kind.INCOME, "Company XYZ", 446870, 0).getDescription());
+        assertEquals("Deleted saving goal 'Get a new car' ($5,000.00 out of $14,800.99)",
+                Event.deleted(Event.Kind.SAVING_GOAL, "Get a new car", 500000, 1480099).getDescription());
+        assertEquals("Contributed $5,000.00 to 'Get a new car'.",
+                Event.contributed("Get a new car", 500000).getDescription());
+    }
+
+    @Test
+    public void testToStringAndEquality() {
+        Event event = new Event(1000L, Event.Type.ADDED, Event.Kind.EXPENSE, 7560, 0, "Mobile 1");
+        Event same = new Event(1000L, Event.Type.MESSAGE, Event.Kind.NONE, 0, 0,
+                "Added an expense 'Mobile 1' of amount $75.60");
+        assertEquals(new Date(1000L) + "\nAdded an expense 'Mobile 1' of amount $75.60", event.toString());
+        assertEquals(event, same);
+        assertEquals(event.hashCode(), same.hashCode());
+        assertNotEquals(event, new Event(2000L, Event.Type.ADDED, Event.Kind.EXPENSE, 7560, 0, "Mobile 1"));
+        assertNotEquals(event, null);
+    }
+}
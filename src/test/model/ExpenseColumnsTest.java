@@ -0,0 +1,140 @@
+package model;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ConcurrentModificationException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ExpenseColumnsTest {
+    ExpenseColumns columns;
+
+    @BeforeEach
+    public void setup() {
+        columns = new ExpenseColumns();
+        columns.add(new Expense("Mobile", 75.60, "Sept 29", "Mobile Bill"));
+        columns.add(new Expense("Groceries", 120.05, "Sept 30", ""));
+        columns.add(new Expense("Mobile", 24.40, "Sept 29", "Top up"));
+    }
+
+    @Test
+    public void testAddAndGet() {
+        assertEquals(3, columns.size());
+        Expense expense = columns.get(1);
+        assertEquals("Groceries", expense.getTitle());
+        assertEquals(120.05, expense.getAmount());
+        assertEquals(12005, expense.getAmountCents());
+        assertEquals("Sept 30", expense.getDate());
+        assertEquals("", expense.getNote());
+    }
+
+    @Test
+    public void testGetOutOfRange() {
+        assertThrows(IndexOutOfBoundsException.class, () -> columns.get(3));
+        assertThrows(IndexOutOfBoundsException.class, () -> columns.get(-1));
+    }
+
+    @Test
+    public void testGrowsPastInitialCapacity() {
+        for (int i = 0; i < 100; i++) {
+            columns.add(1, new Expense("Coffee " + i, i, "Oct 1", ""));
+        }
+        assertEquals(103, columns.size());
+        assertEquals("Coffee 99", columns.get(1).getTitle());
+        assertEquals("Mobile", columns.get(0).getTitle());
+        assertEquals("Groceries", columns.get(101).getTitle());
+    }
+
+    @Test
+    public void testRepeatedStringsShareIds() {
+        assertEquals(columns.titleId(0), columns.titleId(2));
+        assertEquals(columns.dateId(0), columns.dateId(2));
+        assertNotEquals(columns.titleId(0), columns.titleId(1));
+        assertEquals("Mobile", columns.string(columns.titleId(2)));
+    }
+
+    @Test
+    public void testTotals() {
+        assertEquals(7560 + 12005 + 2440, columns.totalCents());
+        assertEquals(7560 + 2440, columns.totalCentsForTitle(columns.titleId(0)));
+    }
+
+    @Test
+    public void testViewWritesThrough() {
+        Expense expense = columns.get(2);
+        expense.setTitle("Phone");
+        expense.setAmount(30);
+        expense.setNote("Changed");
+        assertEquals("Phone", columns.get(2).getTitle());
+        assertEquals(3000, columns.amountCents(2));
+        assertEquals("Changed", columns.get(2).getNote());
+    }
+
+    @Test
+    public void testRemoveReturnsDetachedCopy() {
+        Expense removed = columns.remove(0);
+        assertEquals(2, columns.size());
+        assertEquals("Groceries", columns.get(0).getTitle());
+        assertEquals("Mobile", removed.getTitle());
+        assertEquals(7560, removed.getAmountCents());
+        removed.setAmount(1);
+        assertEquals(12005 + 2440, columns.totalCents());
+    }
+
+    @Test
+    public void testStaleViewFailsFast() {
+        Expense view = columns.get(2);
+        assertEquals(2, columns.indexOf(view));
+        columns.remove(0);
+        assertEquals(-1, columns.indexOf(view));
+        assertThrows(ConcurrentModificationException.class, view::getTitle);
+        assertThrows(ConcurrentModificationException.class, () -> view.setAmount(1));
+    }
+
+    @Test
+    public void testFrozenCopyIsNotChangedByLaterWrites() {
+        ExpenseColumns frozen = columns.freeze();
+        columns.get(0).setTitle("Internet");
+        columns.get(1).setNote("Changed");
+        columns.remove(2);
+        columns.add(new Expense("Rent", 1500, "2022-11-01", ""));
+        assertEquals(3, frozen.size());
+        assertEquals("Mobile", frozen.get(0).getTitle());
+        assertEquals("Internet", columns.get(0).getTitle());
+        assertEquals(7560 + 12005 + 2440, frozen.totalCents());
+        assertEquals("Rent", columns.get(2).getTitle());
+        assertThrows(UnsupportedOperationException.class, () -> frozen.get(0).setAmount(1));
+        assertThrows(UnsupportedOperationException.class, () -> frozen.add(columns.get(0)));
+    }
+
+    @Test
+    public void testColumnarLedger() {
+        Ledger ledger = new Ledger(true);
+        assertTrue(ledger.isColumnar());
+        ledger.setVerifyAggregates(true);
+        ledger.addIncome(1000, "Company XYZ");
+        ledger.addExpense("Mobile", 75.60, "Sept 29", "Mobile Bill");
+        ledger.addExpense("Groceries", 120.05, "Sept 30", "");
+        int[] changedIndex = {-1};
+        ledger.addListener(new LedgerListener() {
+            @Override
+            public void expenseChanged(int index, Expense expense) {
+                changedIndex[0] = index;
+            }
+        });
+
+        ledger.getExpense(1).setAmount(20);
+        assertEquals(1, changedIndex[0]);
+        assertEquals(9560, ledger.totalExpensesCents());
+        assertEquals(100000 - 9560, ledger.getBalanceCents());
+
+        ledger.removeExpense(0);
+        assertEquals(2000, ledger.totalExpensesCents());
+        assertEquals("Groceries", ledger.getExpense(0).getTitle());
+
+        Ledger copy = ledger.copy();
+        assertTrue(copy.isColumnar());
+        assertEquals(ledger.getBalanceCents(), copy.getBalanceCents());
+    }
+}
@@ -0,0 +1,137 @@
+package model;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class LedgerBatchTest {
+    private Ledger ledger;
+    private List<String> calls;
+
+    @BeforeEach
+    public void setup() {
+        ledger = new Ledger();
+        ledger.addIncome(1000, "Salary");
+        ledger.setSavingGoal("Buy a new car", 500);
+        calls = new ArrayList<>();
+        ledger.addListener(new LedgerListener() {
+            @Override
+            public void incomeAdded(int index, Income income) {
+                calls.add("incomeAdded");
+            }
+
+            @Override
+            public void batchStarted() {
+                calls.add("batchStarted");
+            }
+
+            @Override
+            public void batchApplied(int changes) {
+                calls.add("batchApplied " + changes);
+            }
+        });
+        EventLog.getInstance().clear();
+    }
+
+    @Test
+    public void testCommitAppliesChangesInOrder() {
+        LedgerBatch batch = ledger.batch()
+                .addIncome(250.5, "Refund")
+                .addExpense("Uber Eats", 67.34, "Oct 27", "Lunch")
+                .addToSavingGoal(0, 200)
+                .setSavingGoal("Trip", 300)
+                .removeIncome(0)
+                .addToSavingGoal(1, 300);
+        assertEquals(6, batch.size());
+        assertTrue(batch.commit());
+
+        assertEquals(0, batch.size());
+        assertEquals(1, ledger.getIncomeList().size());
+        assertEquals("Refund", ledger.getIncome(0).getSource());
+        assertEquals("Lunch", ledger.getExpense(0).getNote());
+        assertEquals(20000, ledger.getSavingGoal(0).getCurrentCents());
+        assertTrue(ledger.getSavingGoal(1).isComplete());
+        assertEquals(100000 + 25050 - 6734 - 50000 - 100000, ledger.getBalanceCents());
+        assertEquals(25050, ledger.totalIncomeCents());
+    }
+
+    @Test
+    public void testInvalidChangeRollsBackWholeBatch() {
+        long balance = ledger.getBalanceCents();
+        LedgerBatch batch = ledger.batch()
+                .addIncome(250.5, "Refund")
+                .addToSavingGoal(0, 500)
+                .addToSavingGoal(0, 1);
+        assertFalse(batch.commit());
+        assertFalse(ledger.batch().removeExpense(0).commit());
+        assertFalse(ledger.batch().addIncome(5, "Refund").removeIncome(0).removeIncome(1).commit());
+        assertFalse(ledger.batch().addExpense("Refund", -5, "Oct 27", "").commit());
+
+        assertEquals(3, batch.size());
+        assertEquals(1, ledger.getIncomeList().size());
+        assertEquals(0, ledger.getSavingGoal(0).getCurrentCents());
+        assertEquals(balance, ledger.getBalanceCents());
+        assertTrue(calls.isEmpty());
+        assertEquals(1, countEvents());
+    }
+
+    @Test
+    public void testCommitNotifiesAndLogsOnce() {
+        LedgerBatch batch = ledger.batch();
+        for (int i = 1; i <= 3; i++) {
+            batch.addIncome(i, "Income " + i);
+        }
+        batch.addToSavingGoal(0, 12.5);
+        assertTrue(batch.commit());
+
+        List<String> expected = new ArrayList<>();
+        expected.add("batchStarted");
+        for (int i = 0; i < 3; i++) {
+            expected.add("incomeAdded");
+        }
+        expected.add("batchApplied 4");
+        assertEquals(expected, calls);
+        assertEquals(2, countEvents());
+        Event last = null;
+        for (Event event : EventLog.getInstance()) {
+            last = event;
+        }
+        assertEquals("Applied a batch of 4 changes: added 3 incomes of $6.00, made 1 contributions of $12.50",
+                last.getDescription());
+    }
+
+    @Test
+    public void testCommitNoLogAndEmptyBatch() {
+        assertTrue(ledger.batch().commit());
+        assertTrue(ledger.batch().addIncome(5, "Refund").commitNoLog());
+        assertEquals(2, ledger.getIncomeList().size());
+        assertEquals(1, countEvents());
+    }
+
+    @Test
+    public void testBatchOfManyEntriesMatchesSingleChanges() {
+        Ledger single = new Ledger(true);
+        LedgerBatch batch = ledger.batch();
+        for (int i = 0; i < 5000; i++) {
+            single.addExpenseNoLog("Expense " + i, i / 100.0, "2022-01-01", "");
+            batch.addExpense("Expense " + i, i / 100.0, "2022-01-01", "");
+        }
+        assertTrue(batch.commitNoLog());
+        assertEquals(5000, ledger.getExpenses().size());
+        assertEquals(single.totalExpensesCents(), ledger.totalExpensesCents());
+        assertEquals("Expense 4999", ledger.getExpense(4999).getTitle());
+    }
+
+    // EFFECTS: returns the number of events in the event log
+    private static int countEvents() {
+        int count = 0;
+        for (Event ignored : EventLog.getInstance()) {
+            count++;
+        }
+        return count;
+    }
+}
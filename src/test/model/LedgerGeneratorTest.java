@@ -0,0 +1,67 @@
+package model;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class LedgerGeneratorTest {
+
+    @Test
+    public void testSameSeedGivesSameLedger() {
+        LedgerSnapshot first = new LedgerGenerator(10, 100, 3, 7).generate();
+        LedgerSnapshot second = new LedgerGenerator(10, 100, 3, 7).generate();
+        LedgerSnapshot other = new LedgerGenerator(10, 100, 3, 8).generate();
+
+        assertEquals(10, first.getIncomeList().size());
+        assertEquals(100, first.getExpenses().size());
+        assertEquals(3, first.getGoals().size());
+        boolean differs = false;
+        for (int i = 0; i < 100; i++) {
+            Expense a = first.getExpense(i);
+            Expense b = second.getExpense(i);
+            assertEquals(a.getTitle(), b.getTitle());
+            assertEquals(a.getAmountCents(), b.getAmountCents());
+            assertEquals(a.getDate(), b.getDate());
+            assertEquals(a.getNote(), b.getNote());
+            differs |= a.getAmountCents() != other.getExpense(i).getAmountCents();
+        }
+        assertTrue(differs);
+        assertEquals(first.getBalanceCents(), second.getBalanceCents());
+    }
+
+    @Test
+    public void testTotalsMatchEntries() {
+        LedgerGenerator generator = new LedgerGenerator(50, 2000, 20, 1);
+        LedgerSnapshot snapshot = generator.generate();
+        Ledger ledger = generator.generateLedger();
+
+        assertEquals(ledger.totalIncomeCents(), snapshot.totalIncomeCents());
+        assertEquals(ledger.totalExpensesCents(), snapshot.totalExpensesCents());
+        assertEquals(ledger.getBalanceCents(), snapshot.getBalanceCents());
+        for (SavingGoal goal : snapshot.getGoals()) {
+            assertTrue(goal.getCurrentCents() <= goal.getGoalCents());
+            assertEquals(goal.isComplete(), goal.getCurrentCents() == goal.getGoalCents());
+        }
+    }
+
+    @Test
+    public void testEntriesLookRealistic() {
+        LedgerSnapshot snapshot = new LedgerGenerator(1, 10000, 0, 3).generate();
+        Map<String, Integer> titles = new HashMap<>();
+        int longNotes = 0;
+        for (Expense expense : snapshot.getExpenses()) {
+            titles.merge(expense.getTitle(), 1, Integer::sum);
+            assertNotEquals(Dates.UNKNOWN, expense.getEpochDay());
+            assertTrue(expense.getAmountCents() >= 100 && expense.getAmountCents() <= 102400);
+            if (expense.getNote().length() > 100) {
+                longNotes++;
+            }
+        }
+        assertTrue(titles.get("Groceries") > 10 * titles.get("Gift"));
+        assertTrue(longNotes > 1000 && longNotes < 2000);
+        assertThrows(IndexOutOfBoundsException.class, () -> snapshot.getExpense(10000));
+    }
+}
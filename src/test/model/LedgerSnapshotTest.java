@@ -0,0 +1,146 @@
+package model;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class LedgerSnapshotTest {
+
+    @Test
+    public void testSnapshotIsNotChangedByLaterChanges() {
+        Ledger ledger = new Ledger();
+        ledger.addIncome(28990.12,"ABC Corp.");
+        ledger.addExpense("Uber Eats", 67.34, "Oct 27", "Lunch");
+        ledger.setSavingGoal("Buy a new car", 12500);
+        LedgerSnapshot before = ledger.snapshot();
+
+        ledger.addToSavingGoal(0, 3300);
+        ledger.getExpense(0).setNote("Food Delivery");
+        ledger.getIncome(0).setAmount(100);
+        ledger.removeExpense(0);
+        ledger.addIncome(50, "Gift");
+        LedgerSnapshot after = ledger.snapshot();
+
+        assertEquals(1, before.getIncomeList().size());
+        assertEquals(28990.12, before.getIncome(0).getAmount(), 0.001);
+        assertEquals("Lunch", before.getExpense(0).getNote());
+        assertEquals(0, before.getSavingGoal(0).getCurrentCents());
+        assertEquals(2892278, before.getBalanceCents());
+        assertEquals(2899012, before.totalIncomeCents());
+        assertEquals(6734, before.totalExpensesCents());
+
+        assertEquals(2, after.getIncomeList().size());
+        assertEquals(0, after.getExpenses().size());
+        assertEquals(330000, after.getSavingGoal(0).getCurrentCents());
+        assertEquals(ledger.getBalanceCents(), after.getBalanceCents());
+        assertEquals(5, after.getVersion() - before.getVersion());
+    }
+
+    @Test
+    public void testSnapshotListsCannotBeModified() {
+        Ledger ledger = new Ledger();
+        ledger.addIncome(100, "Gift");
+        LedgerSnapshot snapshot = ledger.snapshot();
+        assertThrows(UnsupportedOperationException.class, () -> snapshot.getIncomeList().remove(0));
+        assertThrows(IndexOutOfBoundsException.class, () -> snapshot.getExpense(0));
+    }
+
+    @Test
+    public void testSnapshotsOfManyEntries() {
+        Ledger ledger = new Ledger(true);
+        int count = 323;
+        for (int i = 0; i < count; i++) {
+            ledger.addExpenseNoLog("Expense " + i, i, "2022-01-01", "");
+        }
+        LedgerSnapshot first = ledger.snapshot();
+        ledger.removeExpenseNoLog(64);
+        ledger.getExpense(0).setTitle("Renamed");
+        LedgerSnapshot second = ledger.snapshot();
+        for (int i = 0; i < count - 2; i++) {
+            ledger.removeExpenseNoLog(0);
+        }
+        LedgerSnapshot third = ledger.snapshot();
+
+        assertEquals(count, first.getExpenses().size());
+        for (int i = 0; i < count; i++) {
+            assertEquals("Expense " + i, first.getExpense(i).getTitle());
+        }
+        assertEquals(count - 1, second.getExpenses().size());
+        assertEquals("Renamed", second.getExpense(0).getTitle());
+        assertEquals("Expense 65", second.getExpense(64).getTitle());
+        assertEquals("Expense " + (count - 1), second.getExpense(count - 2).getTitle());
+        assertEquals(1, third.getExpenses().size());
+    }
+
+    @Test
+    public void testSnapshotSharesStatesUntilTheNextWrite() {
+        Ledger ledger = new Ledger();
+        ledger.addIncome(100, "Gift");
+        ledger.addExpense("Uber Eats", 67.34, "Oct 27", "Lunch");
+        ledger.setSavingGoal("Buy a new car", 12500);
+        LedgerSnapshot first = ledger.snapshot();
+        LedgerSnapshot second = ledger.snapshot();
+        ledger.getExpense(0).setAmount(10);
+        ledger.getSavingGoal(0).setName("Buy a bike");
+        ledger.addIncome(50, "Refund");
+        LedgerSnapshot third = ledger.snapshot();
+
+        assertEquals(first.getVersion(), second.getVersion());
+        assertEquals(6734, second.getExpense(0).getAmountCents());
+        assertEquals("Buy a new car", second.getSavingGoal(0).getName());
+        assertEquals(1, second.getIncomeList().size());
+        assertEquals(1000, third.getExpense(0).getAmountCents());
+        assertEquals("Buy a bike", third.getSavingGoal(0).getName());
+        assertEquals(2, third.getIncomeList().size());
+        second.getIncome(0).setAmount(1);
+        assertEquals(10000, second.getIncome(0).getAmountCents());
+        assertEquals(10000, ledger.getIncome(0).getAmountCents());
+        assertThrows(UnsupportedOperationException.class, () -> second.getExpenses().remove(0));
+    }
+
+    @Test
+    public void testReaderSeesConsistentVersionsWhileWriterChanges() throws InterruptedException {
+        Ledger ledger = new Ledger();
+        AtomicReference<LedgerSnapshot> latest = new AtomicReference<>(ledger.snapshot());
+        AtomicBoolean writing = new AtomicBoolean(true);
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+        Thread reader = new Thread(() -> {
+            while (writing.get()) {
+                checkConsistent(latest.get());
+            }
+        });
+        reader.setUncaughtExceptionHandler((th, e) -> failure.compareAndSet(null, e));
+        reader.start();
+        for (int i = 1; i <= 20000; i++) {
+            ledger.addIncomeNoLog(i / 100.0, "Income " + i);
+            ledger.addExpenseNoLog("Expense " + i, i / 200.0, "2022-01-01", "");
+            if (i % 3 == 0) {
+                ledger.removeIncomeNoLog(i % ledger.getIncomeList().size());
+                ledger.getExpense(i / 2).setAmount(1);
+            }
+            latest.set(ledger.snapshot());
+        }
+        writing.set(false);
+        reader.join();
+        assertNull(failure.get());
+        checkConsistent(ledger.snapshot());
+    }
+
+    // checks that the totals and balance of snapshot match the entries in it
+    private static void checkConsistent(LedgerSnapshot snapshot) {
+        long income = 0;
+        for (Income i : snapshot.getIncomeList()) {
+            income += i.getAmountCents();
+        }
+        long expenses = 0;
+        for (Expense e : snapshot.getExpenses()) {
+            expenses += e.getAmountCents();
+        }
+        assertEquals(income, snapshot.totalIncomeCents());
+        assertEquals(expenses, snapshot.totalExpensesCents());
+        assertEquals(income - expenses, snapshot.getBalanceCents());
+    }
+}
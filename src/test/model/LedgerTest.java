@@ -5,6 +5,13 @@ import org.json.JSONObject;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
 import static org.junit.jupiter.api.Assertions.*;
 
 public class LedgerTest {
@@ -187,4 +194,224 @@ public class LedgerTest {
         assertEquals(500, ledger.getSavingGoal(0).getCurrentAmount());
 
     }
+
+    @Test
+    public void testListenerNotified() {
+        List<String> changes = new ArrayList<>();
+        ledger.addListener(new LedgerListener() {
+            @Override
+            public void expenseAdded(int index, Expense expense) {
+                changes.add("expenseAdded " + index + " " + expense.getTitle());
+            }
+
+            @Override
+            public void contributed(int index, double amount) {
+                changes.add("contributed " + index + " " + amount);
+            }
+
+            @Override
+            public void goalRemoved(int index, SavingGoal goal) {
+                changes.add("goalRemoved " + index + " " + goal.getName());
+            }
+        });
+        ledger.addExpense("Mobile 1", 75.60, "Sept 29", "Mobile Bill");
+        ledger.setSavingGoal("Get a new car", 14800.99);
+        ledger.addToSavingGoal(0, 100);
+        ledger.addToSavingGoal(0, -1);
+        ledger.removeSavingGoal(0);
+
+        assertEquals(3, changes.size());
+        assertEquals("expenseAdded 0 Mobile 1", changes.get(0));
+        assertEquals("contributed 0 100.0", changes.get(1));
+        assertEquals("goalRemoved 0 Get a new car", changes.get(2));
+    }
+
+    @Test
+    public void testCopy() {
+        ledger.addIncome(4468.70,"Company XYZ");
+        ledger.addExpense("Mobile 1", 75.60, "Sept 29", "Mobile Bill");
+        ledger.setOldSavingGoal("Get a new car", 15000,2500, false);
+        Ledger copy = ledger.copy();
+        ledger.getExpense(0).setTitle("Changed");
+        ledger.removeIncome(0);
+
+        assertEquals(1, copy.getIncomeList().size());
+        assertEquals("Mobile 1", copy.getExpense(0).getTitle());
+        assertEquals(2500, copy.getSavingGoal(0).getCurrentAmount());
+        assertEquals(1893.10, copy.getBalance());
+    }
+
+    @Test
+    public void testTotalsFollowAmountChanges() {
+        ledger.setVerifyAggregates(true);
+        ledger.addIncome(4000,"Company XYZ");
+        ledger.addExpense("Mobile 1", 75.60, "Sept 29", "Mobile Bill");
+        ledger.addExpense("Mobile 2", 24.40, "Sept 28", "Mobile Bill2");
+
+        ledger.getIncome(0).setAmount(4500);
+        ledger.getExpense(0).setAmount(100);
+        assertEquals(4500, ledger.totalIncome());
+        assertEquals(124.40, ledger.totalExpenses(), 0.0001);
+        assertEquals(4375.60, ledger.getBalance(), 0.0001);
+
+        Expense removed = ledger.getExpense(1);
+        ledger.removeExpense(1);
+        removed.setAmount(1000);
+        assertEquals(100, ledger.totalExpenses(), 0.0001);
+        assertEquals(4400, ledger.getBalance(), 0.0001);
+
+        ledger.removeIncome(0);
+        assertEquals(0, ledger.totalIncome());
+    }
+
+    @Test
+    public void testListenerNotifiedOfFieldChanges() {
+        ledger.addExpense("Mobile 1", 75.60, "Sept 29", "Mobile Bill");
+        ledger.addExpense("Mobile 2", 85.60, "Sept 28", "Mobile Bill2");
+        List<Integer> changed = new ArrayList<>();
+        ledger.addListener(new LedgerListener() {
+            @Override
+            public void expenseChanged(int index, Expense expense) {
+                changed.add(index);
+            }
+        });
+        ledger.getExpense(1).setNote("Roaming");
+        ledger.getExpense(0).setDate("Sept 30");
+
+        assertEquals(2, changed.size());
+        assertEquals(1, changed.get(0));
+        assertEquals(0, changed.get(1));
+    }
+
+    @Test
+    public void testChangesAfterRemovalReportCurrentIndex() {
+        ledger.addIncome(100, "Gift");
+        ledger.addIncome(200, "Bonus");
+        ledger.addExpense("Mobile 1", 75.60, "Sept 29", "Mobile Bill");
+        ledger.addExpense("Mobile 2", 85.60, "Sept 28", "Mobile Bill2");
+        ledger.setSavingGoal("Car", 1000);
+        ledger.setSavingGoal("Trip", 500);
+        List<String> changed = new ArrayList<>();
+        ledger.addListener(new LedgerListener() {
+            @Override
+            public void incomeChanged(int index, Income income) {
+                changed.add(income.getSource() + " " + index);
+            }
+
+            @Override
+            public void expenseChanged(int index, Expense expense) {
+                changed.add(expense.getTitle() + " " + index);
+            }
+
+            @Override
+            public void goalChanged(int index, SavingGoal goal) {
+                changed.add(goal.getName() + " " + index);
+            }
+        });
+        Income bonus = ledger.getIncome(1);
+        Expense mobile = ledger.getExpense(1);
+        SavingGoal trip = ledger.getSavingGoal(1);
+        ledger.removeIncome(0);
+        ledger.removeExpense(0);
+        ledger.removeSavingGoal(0);
+        bonus.setAmount(250);
+        mobile.setDate("2022-09-27");
+        trip.setName("Holiday");
+        ledger.addExpense("Rent", 1200, "2022-09-26", "");
+        ledger.getExpense(1).setNote("Monthly");
+
+        assertEquals(Arrays.asList("Bonus 0", "Mobile 2 0", "Holiday 0", "Rent 1"), changed);
+        assertEquals(1, ledger.getExpensesBetween(LocalDate.of(2022, 9, 27), LocalDate.of(2022, 9, 27)).size());
+    }
+
+    @Test
+    public void testTotalsExactInCents() {
+        Ledger exact = new Ledger();
+        for (int i = 0; i < 10; i++) {
+            exact.addIncome(0.1, "Interest");
+        }
+        exact.addExpense("Snack", 0.3, "Jan 1, 2022", "");
+        assertEquals(100, exact.totalIncomeCents());
+        assertEquals(30, exact.totalExpensesCents());
+        assertEquals(70, exact.getBalanceCents());
+        assertEquals(0.7, exact.getBalance());
+    }
+
+    @Test
+    public void testExpensesBetween() {
+        ledger.addExpense("Rent", 1200, "1 Dec, 2022", "");
+        ledger.addExpense("Mobile", 75.60, "29 Nov, 2022", "");
+        ledger.addExpense("Coffee", 4.50, "Sept 29", "");
+        ledger.addExpense("Groceries", 120.05, "30 Nov, 2022", "");
+        ledger.addExpense("Fuel", 60, "1 Nov, 2022", "");
+
+        List<Expense> november = ledger.getExpensesBetween(LocalDate.of(2022, 11, 1), LocalDate.of(2022, 11, 30));
+        assertEquals(3, november.size());
+        assertEquals("Fuel", november.get(0).getTitle());
+        assertEquals("Mobile", november.get(1).getTitle());
+        assertEquals("Groceries", november.get(2).getTitle());
+        assertEquals(6000 + 7560 + 12005, ledger.totalExpensesCentsIn(YearMonth.of(2022, 11)));
+        assertEquals(120000, ledger.totalExpensesCentsIn(YearMonth.of(2022, 12)));
+        assertEquals(0, ledger.totalExpensesCentsIn(YearMonth.of(2022, 9)));
+    }
+
+    @Test
+    public void testDateIndexFollowsChanges() {
+        ledger.addExpense("Rent", 1200, "1 Dec, 2022", "");
+        ledger.addExpense("Mobile", 75.60, "29 Nov, 2022", "");
+        ledger.addExpense("Groceries", 120.05, "30 Nov, 2022", "");
+        YearMonth november = YearMonth.of(2022, 11);
+
+        ledger.getExpense(0).setDate("15 Nov, 2022");
+        assertEquals(120000 + 7560 + 12005, ledger.totalExpensesCentsIn(november));
+        ledger.removeExpense(1);
+        assertEquals(120000 + 12005, ledger.totalExpensesCentsIn(november));
+        ledger.getExpense(1).setAmount(100);
+        assertEquals(120000 + 10000, ledger.totalExpensesCentsIn(november));
+        ledger.getExpense(1).setDate("Sometime");
+        assertEquals(120000, ledger.totalExpensesCentsIn(november));
+
+        List<Expense> all = ledger.getExpensesBetween(LocalDate.MIN, LocalDate.MAX);
+        assertEquals(1, all.size());
+        assertEquals("Rent", all.get(0).getTitle());
+    }
+
+    @Test
+    public void testDateIndexColumnar() {
+        Ledger columnar = new Ledger(true);
+        columnar.addExpense("Rent", 1200, "1 Dec, 2022", "");
+        columnar.addExpense("Mobile", 75.60, "29 Nov, 2022", "");
+        columnar.addExpense("Groceries", 120.05, "30 Nov, 2022", "");
+        columnar.getExpense(0).setDate("15 Nov, 2022");
+        columnar.removeExpense(1);
+        assertEquals(120000 + 12005, columnar.totalExpensesCentsIn(YearMonth.of(2022, 11)));
+        Ledger copy = columnar.copy();
+        assertEquals("Rent", copy.getExpensesBetween(LocalDate.of(2022, 11, 1), LocalDate.of(2022, 11, 15))
+                .get(0).getTitle());
+    }
+
+    @Test
+    public void testDateIndexAfterManyRemovals() {
+        Random random = new Random(7);
+        for (int i = 0; i < 2000; i++) {
+            ledger.addExpenseNoLog("E" + i, 1 + i % 50, (1 + i % 28) + " Nov, 2022", "");
+        }
+        for (int round = 0; round < 40; round++) {
+            for (int i = 0; i < 30; i++) {
+                int size = ledger.getExpenses().size();
+                int row = i % 3 == 0 ? size - 1 : random.nextInt(size);
+                ledger.removeExpenseNoLog(row);
+            }
+            ledger.getExpense(random.nextInt(ledger.getExpenses().size())).setDate("3 Nov, 2022");
+            ledger.addExpenseNoLog("New" + round, 7, "9 Nov, 2022", "");
+            LocalDate from = LocalDate.of(2022, 11, 1 + round % 10);
+            LocalDate to = from.plusDays(round % 7);
+            long expected = 0;
+            for (Expense e : ledger.getExpenses()) {
+                LocalDate date = LocalDate.ofEpochDay(e.getEpochDay());
+                expected += date.isBefore(from) || date.isAfter(to) ? 0 : e.getAmountCents();
+            }
+            assertEquals(expected, ledger.totalExpensesCentsBetween(from, to));
+        }
+    }
 }
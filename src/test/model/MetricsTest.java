@@ -0,0 +1,79 @@
+package model;
+
+import org.junit.jupiter.api.Test;
+
+import javax.management.AttributeNotFoundException;
+import javax.management.MBeanAttributeInfo;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class MetricsTest {
+
+    @Test
+    public void testCounterCountsLedgerChanges() {
+        Counter added = Metrics.counter("ledger.added");
+        Counter removed = Metrics.counter("ledger.removed");
+        long addedBefore = added.getCount();
+        long removedBefore = removed.getCount();
+        Ledger ledger = new Ledger();
+        ledger.addIncome(100, "Gift");
+        ledger.addExpense("Uber Eats", 67.34, "Oct 27", "Lunch");
+        ledger.removeIncome(0);
+
+        assertSame(added, Metrics.counter("ledger.added"));
+        assertEquals(2, added.getCount() - addedBefore);
+        assertEquals(1, removed.getCount() - removedBefore);
+    }
+
+    @Test
+    public void testHistogramPercentiles() {
+        LatencyHistogram histogram = Metrics.histogram("test.percentiles");
+        for (int i = 1; i <= 1000; i++) {
+            histogram.record(i * 1000L);
+        }
+        assertEquals(1000, histogram.getCount());
+        assertEquals(500500, histogram.getMeanNanos());
+        assertEquals(1000000, histogram.getMaxNanos());
+        assertEquals(500000, histogram.getPercentileNanos(0.5), 500000 * 0.125);
+        assertEquals(990000, histogram.getPercentileNanos(0.99), 990000 * 0.125);
+        assertTrue(histogram.getPercentileNanos(0.5) >= 500000);
+        assertEquals(1000000, histogram.getPercentileNanos(1));
+        assertEquals(0, Metrics.histogram("test.empty").getPercentileNanos(0.99));
+    }
+
+    @Test
+    public void testBucketsCoverEveryDuration() {
+        long[] durations = {0, 1, 15, 16, 17, 31, 32, 1000, 123456789, Long.MAX_VALUE};
+        for (long nanos : durations) {
+            int bucket = LatencyHistogram.bucketOf(nanos);
+            assertTrue(LatencyHistogram.upperBound(bucket) >= nanos);
+            assertTrue(bucket == 0 || LatencyHistogram.upperBound(bucket - 1) < nanos);
+        }
+    }
+
+    @Test
+    public void testMetricsAreReadableOverJmx() throws Exception {
+        Metrics.counter("test.jmx.counter").add(5);
+        Metrics.gauge("test.jmx.gauge", () -> 42);
+        Metrics.histogram("test.jmx.latency").record(3_000_000);
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        ObjectName name = new ObjectName(Metrics.OBJECT_NAME);
+
+        assertEquals(5L, server.getAttribute(name, "test.jmx.counter"));
+        assertEquals(42L, server.getAttribute(name, "test.jmx.gauge"));
+        assertEquals(1L, server.getAttribute(name, "test.jmx.latency.count"));
+        assertEquals(3000L, server.getAttribute(name, "test.jmx.latency.maxMicros"));
+        Set<String> attributes = new HashSet<>();
+        for (MBeanAttributeInfo info : server.getMBeanInfo(name).getAttributes()) {
+            attributes.add(info.getName());
+        }
+        assertTrue(attributes.contains("test.jmx.latency.p99Micros"));
+        assertTrue(attributes.contains("ledger.added"));
+        assertThrows(AttributeNotFoundException.class, () -> Metrics.getInstance().getAttribute("test.none"));
+    }
+}
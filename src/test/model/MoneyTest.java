@@ -0,0 +1,51 @@
+package model;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class MoneyTest {
+
+    @Test
+    public void testToCents() {
+        assertEquals(446870, Money.toCents(4468.70));
+        assertEquals(30, Money.toCents(0.1 + 0.2));
+        assertEquals(5297981, Money.toCents(52979.81000000001));
+        assertEquals(-1250, Money.toCents(-12.5));
+    }
+
+    @Test
+    public void testToDouble() {
+        assertEquals(4468.70, Money.toDouble(446870));
+        assertEquals(0.3, Money.toDouble(Money.toCents(0.1) + Money.toCents(0.2)));
+    }
+
+    @Test
+    public void testFormat() {
+        assertEquals("0.00", Money.format(0));
+        assertEquals("0.05", Money.format(5));
+        assertEquals("-0.05", Money.format(-5));
+        assertEquals("999.99", Money.format(99999));
+        assertEquals("1,000.00", Money.format(100000));
+        assertEquals("4,468.70", Money.format(446870));
+        assertEquals("-1,234,567.08", Money.format(-123456708));
+        assertEquals("92,233,720,368,547,758.07", Money.format(Long.MAX_VALUE));
+        assertEquals("-92,233,720,368,547,758.08", Money.format(Long.MIN_VALUE));
+    }
+
+    @Test
+    public void testFormatMatchesStringFormat() {
+        long[] samples = {1, 99, 100, 101000, 12345678, 100000000, 987654321012L};
+        for (long cents : samples) {
+            assertEquals(String.format(java.util.Locale.US, "%,.2f", cents / 100.0), Money.format(cents));
+            assertEquals(String.format(java.util.Locale.US, "%,.2f", -cents / 100.0), Money.format(-cents));
+        }
+    }
+
+    @Test
+    public void testAppendTo() {
+        StringBuilder sb = new StringBuilder("$");
+        assertSame(sb, Money.appendTo(sb, 1000050));
+        assertEquals("$10,000.50", sb.toString());
+    }
+}
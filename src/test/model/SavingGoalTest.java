@@ -67,4 +67,13 @@ public class SavingGoalTest {
         assertTrue(goal.addToCurrentAmount(14480.00));
         assertTrue(goal.isComplete());
     }
+
+    @Test
+    public void testAddToCurrentAmountCompleteInParts() {
+        SavingGoal small = new SavingGoal("Coffee", 0.3);
+        assertTrue(small.addToCurrentAmount(0.1));
+        assertTrue(small.addToCurrentAmount(0.2));
+        assertTrue(small.isComplete());
+        assertEquals(30, small.getCurrentCents());
+    }
 }
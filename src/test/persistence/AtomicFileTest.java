@@ -0,0 +1,93 @@
+package persistence;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class AtomicFileTest {
+    private static final String TARGET = "./data/testAtomicFile.txt";
+    private static final String BACKUPS = "./data/testAtomicBackups";
+
+    @BeforeEach
+    void setup() throws IOException {
+        deleteFiles();
+    }
+
+    @AfterEach
+    void cleanup() throws IOException {
+        deleteFiles();
+    }
+
+    private void deleteFiles() throws IOException {
+        Files.deleteIfExists(Paths.get(TARGET));
+        Files.deleteIfExists(Paths.get(TARGET + ".tmp"));
+        for (int i = 1; i <= 4; i++) {
+            Files.deleteIfExists(Paths.get(BACKUPS, "testAtomicFile.txt." + i));
+        }
+        Files.deleteIfExists(Paths.get(BACKUPS));
+    }
+
+    // EFFECTS: replaces the contents of file with text and commits it
+    private void save(AtomicFile file, String text) throws IOException {
+        FileChannel channel = file.begin();
+        channel.write(ByteBuffer.wrap(text.getBytes(StandardCharsets.UTF_8)));
+        file.commit();
+    }
+
+    private String read(Path path) throws IOException {
+        return new String(Files.readAllBytes(path), StandardCharsets.UTF_8);
+    }
+
+    @Test
+    void testCommitReplacesTarget() throws IOException {
+        AtomicFile file = new AtomicFile(TARGET);
+        save(file, "first");
+        save(file, "second");
+        assertEquals("second", read(Paths.get(TARGET)));
+        assertFalse(Files.exists(Paths.get(TARGET + ".tmp")));
+    }
+
+    @Test
+    void testAbortKeepsTarget() throws IOException {
+        AtomicFile file = new AtomicFile(TARGET);
+        save(file, "kept");
+        FileChannel channel = file.begin();
+        channel.write(ByteBuffer.wrap("partial".getBytes(StandardCharsets.UTF_8)));
+        file.abort();
+        assertEquals("kept", read(Paths.get(TARGET)));
+        assertFalse(Files.exists(Paths.get(TARGET + ".tmp")));
+    }
+
+    @Test
+    void testInvalidPath() {
+        try {
+            new AtomicFile("./data/my\0illegal:fileName.json").begin();
+            fail("IOException expected");
+        } catch (IOException e) {
+            // pass
+        }
+    }
+
+    @Test
+    void testBackupsAreRotatedAndBounded() throws IOException {
+        AtomicFile file = new AtomicFile(TARGET, BACKUPS, 3);
+        for (int i = 1; i <= 5; i++) {
+            save(file, "version " + i);
+        }
+        assertEquals("version 5", read(Paths.get(TARGET)));
+        assertEquals("version 4", read(Paths.get(BACKUPS, "testAtomicFile.txt.1")));
+        assertEquals("version 3", read(Paths.get(BACKUPS, "testAtomicFile.txt.2")));
+        assertEquals("version 2", read(Paths.get(BACKUPS, "testAtomicFile.txt.3")));
+        assertFalse(Files.exists(Paths.get(BACKUPS, "testAtomicFile.txt.4")));
+    }
+}
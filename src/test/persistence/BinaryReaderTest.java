@@ -0,0 +1,101 @@
+package persistence;
+
+import model.Ledger;
+import model.LedgerListener;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.fail;
+
+public class BinaryReaderTest {
+    Ledger ledger;
+
+    @BeforeEach
+    void setup() {
+        ledger = new Ledger();
+    }
+
+    // EFFECTS: reads the snapshot at source, failing the test unless an IOException is thrown
+    private void assertUnreadable(String source) {
+        BinaryReader reader = new BinaryReader(source);
+        try {
+            ledger = reader.read();
+            fail("IOException expected");
+        } catch (IOException e) {
+            // pass
+        }
+    }
+
+    @Test
+    void testReaderNonExistentFile() {
+        assertUnreadable("./data/noSuchFile.ledger");
+    }
+
+    @Test
+    void testReaderNotASnapshot() {
+        assertUnreadable("./data/testGeneralLedger.json");
+    }
+
+    @Test
+    void testReaderUnsupportedVersion() throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(8).putInt(BinaryWriter.MAGIC).putInt(BinaryWriter.VERSION + 1);
+        Files.write(Paths.get("./data/testReaderFutureVersion.ledger"), header.array());
+        assertUnreadable("./data/testReaderFutureVersion.ledger");
+    }
+
+    @Test
+    void testReaderTruncatedFile() throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(12).putInt(BinaryWriter.MAGIC).putInt(BinaryWriter.VERSION);
+        Files.write(Paths.get("./data/testReaderTruncated.ledger"), header.array());
+        assertUnreadable("./data/testReaderTruncated.ledger");
+    }
+
+    @Test
+    void testReaderVersion1File() throws IOException {
+        byte[] source = "Salary".getBytes("UTF-8");
+        ByteBuffer file = ByteBuffer.allocate(4 + 4 + 8 + 8 + 4 + 4 + source.length + 4 + 4 + 12 + 4 + 4)
+                .putInt(BinaryWriter.MAGIC).putInt(1).putLong(0).putDouble(1500.1)
+                .putInt(1).putInt(source.length).put(source)
+                .putInt(1).putInt(12).putDouble(1500.1).putInt(0)
+                .putInt(0)
+                .putInt(0);
+        Files.write(Paths.get("./data/testReaderVersion1.ledger"), file.array());
+        BinaryReader reader = new BinaryReader("./data/testReaderVersion1.ledger");
+        ledger = reader.read();
+        assertEquals(150010, ledger.getIncome(0).getAmountCents());
+        assertEquals("Salary", ledger.getIncome(0).getSource());
+        assertEquals(150010, ledger.getBalanceCents());
+    }
+
+    @Test
+    void testReaderKeepsBalanceSetByHand() throws IOException {
+        ledger.addIncome(100, "Gift");
+        ledger.setBalance(42.5);
+        BinaryWriter writer = new BinaryWriter("./data/testReaderBalance.ledger");
+        writer.open();
+        writer.write(ledger);
+        writer.close();
+
+        Ledger read = new BinaryReader("./data/testReaderBalance.ledger").read();
+        assertEquals(4250, read.getBalanceCents());
+        assertEquals(10000, read.totalIncomeCents());
+        List<Double> balances = new ArrayList<>();
+        new BinaryReader("./data/testReaderBalance.ledger").stream(new LedgerListener() {
+            @Override
+            public void balanceSet(double balance) {
+                balances.add(balance);
+            }
+        });
+        assertEquals(Collections.singletonList(42.5), balances);
+        Files.delete(Paths.get("./data/testReaderBalance.ledger"));
+    }
+}
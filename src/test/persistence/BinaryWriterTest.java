@@ -0,0 +1,103 @@
+package persistence;
+
+import model.Ledger;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.fail;
+
+public class BinaryWriterTest extends JsonTest {
+    Ledger ledger;
+
+    @BeforeEach
+    void setup() {
+        ledger = new Ledger();
+    }
+
+    @Test
+    void testWriterInvalidFile() {
+        try {
+            BinaryWriter writer = new BinaryWriter("./data/noSuchDirectory/illegal.ledger");
+            writer.open();
+            fail("IOException was expected");
+        } catch (IOException e) {
+            // pass
+        }
+    }
+
+    @Test
+    void testWriterEmptyLedger() {
+        try {
+            BinaryWriter writer = new BinaryWriter("./data/testWriterEmptyLedger.ledger");
+            writer.open();
+            writer.write(ledger);
+            writer.close();
+
+            BinaryReader reader = new BinaryReader("./data/testWriterEmptyLedger.ledger");
+            ledger = reader.read();
+            assertEquals(0, ledger.getBalance());
+            assertEquals(0, reader.getJournalSeq());
+            assertEquals(0,ledger.getIncomeList().size());
+            assertEquals(0,ledger.getExpenses().size());
+            assertEquals(0,ledger.getGoals().size());
+        } catch (IOException e) {
+            fail("Exception should not have been thrown");
+        }
+    }
+
+    @Test
+    void testWriterGeneralLedger() {
+        try {
+            ledger.addIncome(28990.12,"ABC Corp.");
+            ledger.addExpense("Uber Eats", 67.34, "Oct 27", "Food Delivery");
+            ledger.addExpense("Uber Eats", 12.5, "Oct 27", "Caf\u00e9 \u2615");
+            ledger.setSavingGoal("Buy a new car", 12500);
+            ledger.addToSavingGoal(0,3300);
+            ledger.setOldSavingGoal("Trip", 500, 500, true);
+            BinaryWriter writer = new BinaryWriter("./data/testWriterGeneralLedger.ledger");
+            writer.open();
+            writer.write(ledger, 42);
+            writer.close();
+
+            BinaryReader reader = new BinaryReader("./data/testWriterGeneralLedger.ledger");
+            ledger = reader.read();
+            assertEquals(42, reader.getJournalSeq());
+            assertEquals(25110.28, ledger.getBalance(), 0.001);
+            checkIncome("ABC Corp.", 28990.12, ledger.getIncome(0));
+            checkExpense("Uber Eats", 67.34, "Oct 27", "Food Delivery", ledger.getExpense(0));
+            checkExpense("Uber Eats", 12.5, "Oct 27", "Caf\u00e9 \u2615", ledger.getExpense(1));
+            checkGoal("Buy a new car", 12500, 3300, false, ledger.getSavingGoal(0));
+            checkGoal("Trip", 500, 500, true, ledger.getSavingGoal(1));
+        } catch (IOException e) {
+            fail("Exception should not have been thrown");
+        }
+    }
+
+    @Test
+    void testWriterLargeLedger() {
+        try {
+            StringBuilder longNote = new StringBuilder();
+            for (int i = 0; i < 20000; i++) {
+                longNote.append('n');
+            }
+            for (int i = 0; i < 5000; i++) {
+                ledger.addExpenseNoLog("Expense " + (i % 50), 1.25, "Oct 27", i == 10 ? longNote.toString() : "");
+            }
+            BinaryWriter writer = new BinaryWriter("./data/testWriterLargeLedger.ledger");
+            writer.open();
+            writer.write(ledger);
+            writer.close();
+
+            ledger = new BinaryReader("./data/testWriterLargeLedger.ledger").read();
+            assertEquals(5000, ledger.getExpenses().size());
+            assertEquals(-6250, ledger.getBalance(), 0.001);
+            checkExpense("Expense 49", 1.25, "Oct 27", "", ledger.getExpense(4999));
+            assertEquals(20000, ledger.getExpense(10).getNote().length());
+        } catch (IOException e) {
+            fail("Exception should not have been thrown");
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package persistence;
+
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import model.Ledger;
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class FlightEventsTest {
+
+    @Test
+    void testLoadSaveAndMutationAreRecorded() throws IOException {
+        String file = "./data/testFlightEvents.json";
+        List<RecordedEvent> events;
+        try (Recording recording = new Recording()) {
+            recording.enable("expensetracker.LedgerLoad");
+            recording.enable("expensetracker.LedgerSave");
+            recording.enable("expensetracker.LedgerMutation").withThreshold(Duration.ZERO);
+            recording.start();
+            Ledger ledger = new Ledger();
+            ledger.addIncome(100, "Gift");
+            ledger.batch().addExpense("Uber Eats", 67.34, "Oct 27", "Lunch").addExpense("Bus", 3, "Oct 28", "")
+                    .commitNoLog();
+            JsonWriter writer = new JsonWriter(file);
+            writer.open();
+            writer.write(ledger);
+            writer.close();
+            new JsonReader(file).read();
+            recording.stop();
+            events = dump(recording);
+        }
+
+        RecordedEvent save = find(events, "expensetracker.LedgerSave", "format", "JSON");
+        assertEquals(file, save.getString("file"));
+        assertEquals(3, save.getInt("rows"));
+        assertEquals(new File(file).length(), save.getLong("bytes"));
+        RecordedEvent load = find(events, "expensetracker.LedgerLoad", "format", "JSON");
+        assertEquals(3, load.getInt("rows"));
+        assertEquals(1, find(events, "expensetracker.LedgerMutation", "operation", "addIncome").getInt("rows"));
+        RecordedEvent batch = find(events, "expensetracker.LedgerMutation", "operation", "batch");
+        assertEquals(2, batch.getInt("changes"));
+        assertEquals(3, batch.getInt("rows"));
+    }
+
+    // EFFECTS: returns the events of a stopped recording
+    private static List<RecordedEvent> dump(Recording recording) throws IOException {
+        Path path = Files.createTempFile("ledger", ".jfr");
+        try {
+            recording.dump(path);
+            return new ArrayList<>(RecordingFile.readAllEvents(path));
+        } finally {
+            Files.delete(path);
+        }
+    }
+
+    // EFFECTS: returns the first event named name whose field is value; fails if there is none
+    private static RecordedEvent find(List<RecordedEvent> events, String name, String field, String value) {
+        for (RecordedEvent event : events) {
+            if (event.getEventType().getName().equals(name) && value.equals(event.getString(field))) {
+                return event;
+            }
+        }
+        return fail("No " + name + " event with " + field + " " + value);
+    }
+}
@@ -0,0 +1,87 @@
+package persistence;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assertions.fail;
+
+public class JsonPullParserTest {
+
+    @Test
+    void testReadsSeparatedMembers() {
+        try {
+            JsonPullParser parser = new JsonPullParser(new StringReader("{\"a\": [1, 2], \"b\": {\"c\": true}}"));
+            parser.beginObject();
+            assertTrue(parser.hasNext());
+            assertEquals("a", parser.nextName());
+            parser.beginArray();
+            assertTrue(parser.hasNext());
+            assertEquals(1, parser.nextDouble());
+            assertTrue(parser.hasNext());
+            assertEquals(2, parser.nextDouble());
+            assertFalse(parser.hasNext());
+            parser.endArray();
+            assertTrue(parser.hasNext());
+            assertEquals("b", parser.nextName());
+            parser.skipValue();
+            assertFalse(parser.hasNext());
+            parser.endObject();
+        } catch (IOException e) {
+            fail("Couldn't parse valid JSON");
+        }
+    }
+
+    @Test
+    void testMissingComma() {
+        checkMalformedArray("[1 2]");
+        checkMalformedObject("{\"a\": 1 \"b\": 2}");
+    }
+
+    @Test
+    void testLeadingComma() {
+        checkMalformedArray("[,1]");
+        checkMalformedObject("{, \"a\": 1}");
+    }
+
+    @Test
+    void testTrailingComma() {
+        checkMalformedArray("[1,]");
+        checkMalformedObject("{\"a\": 1,}");
+    }
+
+    // EFFECTS: fails unless reading every number of the array in json throws IOException
+    private void checkMalformedArray(String json) {
+        JsonPullParser parser = new JsonPullParser(new StringReader(json));
+        try {
+            parser.beginArray();
+            while (parser.hasNext()) {
+                parser.nextDouble();
+            }
+            parser.endArray();
+            fail("IOException expected for " + json);
+        } catch (IOException e) {
+            // pass
+        }
+    }
+
+    // EFFECTS: fails unless reading every member of the object in json throws IOException
+    private void checkMalformedObject(String json) {
+        JsonPullParser parser = new JsonPullParser(new StringReader(json));
+        try {
+            parser.beginObject();
+            while (parser.hasNext()) {
+                parser.nextName();
+                parser.skipValue();
+            }
+            parser.endObject();
+            fail("IOException expected for " + json);
+        } catch (IOException e) {
+            // pass
+        }
+    }
+}
@@ -1,12 +1,18 @@
 package persistence;
 
+import model.Expense;
+import model.Income;
 import model.Ledger;
+import model.LedgerBatch;
+import model.LedgerListener;
+import model.SavingGoal;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
 import java.io.IOException;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.junit.jupiter.api.Assertions.fail;
 
 public class JsonReaderTest extends JsonTest {
@@ -54,4 +60,61 @@ public class JsonReaderTest extends JsonTest {
             fail("Couldn't read from file");
         }
     }
+
+    @Test
+    void testStreamHandsOverEveryItem() {
+        Ledger streamed = new Ledger();
+        LedgerBatch batch = streamed.batch();
+        JsonReader reader = new JsonReader("./data/testGeneralLedger.json");
+        try {
+            reader.stream(new LedgerListener() {
+                @Override
+                public void incomeAdded(int index, Income income) {
+                    batch.addIncome(income);
+                }
+
+                @Override
+                public void expenseAdded(int index, Expense expense) {
+                    batch.addExpense(expense);
+                }
+
+                @Override
+                public void goalAdded(int index, SavingGoal goal) {
+                    batch.addSavingGoal(goal);
+                }
+            });
+            assertTrue(batch.commitNoLog());
+            assertEquals(25622.78, streamed.getBalance());
+            checkExpense("Uber Eats", 67.34, "Oct 27", "Food Delivery", streamed.getExpense(0));
+            checkIncome("ABC Corp.", 28990.12, streamed.getIncome(0));
+            checkGoal("Buy a new car", 12500, 3300, false, streamed.getSavingGoal(0));
+        } catch (IOException e) {
+            fail("Couldn't read from file");
+        }
+    }
+
+    @Test
+    void testReaderReorderedLedger() {
+        JsonReader reader = new JsonReader("./data/testReorderedLedger.json");
+        try {
+            ledger = reader.read();
+            assertEquals(687.5, ledger.getBalance());
+            checkExpense("Caf\u00e9 \\ Bakery", 12.5, "2 Nov, 2022", "", ledger.getExpense(0));
+            checkIncome("Part-time", 1200, ledger.getIncome(0));
+            checkGoal("Trip to \"Banff\"", 500, 500, true, ledger.getSavingGoal(0));
+        } catch (IOException e) {
+            fail("Couldn't read from file");
+        }
+    }
+
+    @Test
+    void testReaderMalformedFile() {
+        JsonReader reader = new JsonReader("./data/testMalformedLedger.json");
+        try {
+            ledger = reader.read();
+            fail("IOException expected");
+        } catch (IOException e) {
+            // pass
+        }
+    }
 }
@@ -1,10 +1,14 @@
 package persistence;
 
 import model.Ledger;
+import model.LedgerSnapshot;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.fail;
@@ -70,4 +74,78 @@ public class JsonWriterTest extends JsonTest {
             fail("Exception should not have been thrown");
         }
     }
+
+    @Test
+    void testWriterMatchesJsonLayout() {
+        try {
+            ledger.addIncome(28990.12,"ABC Corp.");
+            ledger.addIncome(1050,"Tutoring \"Math\"");
+            ledger.addExpense("Uber Eats", 67.34, "Oct 27", "Food Delivery");
+            ledger.addExpense("Caf\u00e9", 4.5, "28 Oct, 2022", "Line one\nLine two");
+            ledger.setSavingGoal("Buy a new car", 12500);
+            JsonWriter writer = new JsonWriter("./data/testWriterLayoutLedger.json");
+            writer.open();
+            writer.write(ledger);
+            writer.close();
+
+            String written = new String(Files.readAllBytes(Paths.get("./data/testWriterLayoutLedger.json")),
+                    StandardCharsets.UTF_8);
+            assertEquals(ledger.toJson().toString(4), written);
+
+            JsonReader reader = new JsonReader("./data/testWriterLayoutLedger.json");
+            ledger = reader.read();
+            assertEquals(2, ledger.getIncomeList().size());
+            checkIncome("Tutoring \"Math\"", 1050, ledger.getIncome(1));
+            checkExpense("Caf\u00e9", 4.5, "28 Oct, 2022", "Line one\nLine two", ledger.getExpense(1));
+        } catch (IOException e) {
+            fail("Exception should not have been thrown");
+        }
+    }
+
+    @Test
+    void testWriterSnapshot() {
+        try {
+            ledger.addIncome(28990.12,"ABC Corp.");
+            ledger.addExpense("Uber Eats", 67.34, "Oct 27", "Food Delivery");
+            LedgerSnapshot snapshot = ledger.snapshot();
+            ledger.addIncome(100, "Gift");
+            ledger.getExpense(0).setNote("Changed after the snapshot");
+            JsonWriter writer = new JsonWriter("./data/testWriterSnapshot.json");
+            writer.open();
+            writer.write(snapshot, 0);
+            writer.close();
+
+            JsonReader reader = new JsonReader("./data/testWriterSnapshot.json");
+            ledger = reader.read();
+            assertEquals(28922.78, ledger.getBalance(), 0.001);
+            assertEquals(1, ledger.getIncomeList().size());
+            checkExpense("Uber Eats", 67.34, "Oct 27", "Food Delivery", ledger.getExpense(0));
+        } catch (IOException e) {
+            fail("Exception should not have been thrown");
+        }
+    }
+
+    @Test
+    void testWriterEscapesLikeJsonObject() {
+        try {
+            String odd = "</script> a/b \b\f\t\r\n\u0001\u001f \u007f\u0080\u009f\u00a0 \u2028\u20ac\u2100 \"\\";
+            ledger.addIncome(1, odd);
+            ledger.addExpense(odd, 2, odd, odd);
+            ledger.setSavingGoal(odd, 3);
+            JsonWriter writer = new JsonWriter("./data/testWriterEscapes.json");
+            writer.open();
+            writer.write(ledger);
+            writer.close();
+
+            String written = new String(Files.readAllBytes(Paths.get("./data/testWriterEscapes.json")),
+                    StandardCharsets.UTF_8);
+            assertEquals(ledger.toJson().toString(4), written);
+
+            ledger = new JsonReader("./data/testWriterEscapes.json").read();
+            checkIncome(odd, 1, ledger.getIncome(0));
+            checkExpense(odd, 2, odd, odd, ledger.getExpense(0));
+        } catch (IOException e) {
+            fail("Exception should not have been thrown");
+        }
+    }
 }
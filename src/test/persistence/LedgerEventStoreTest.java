@@ -0,0 +1,203 @@
+package persistence;
+
+import model.Ledger;
+import model.LedgerBatch;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.Comparator;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class LedgerEventStoreTest extends JsonTest {
+    private static final String DIRECTORY = "./data/testLedgerEvents";
+    private static final String IMPORT = "./data/testLedgerEventsImport.json";
+    private final AtomicLong clock = new AtomicLong(1000);
+
+    @BeforeEach
+    void setup() throws IOException {
+        deleteFiles();
+    }
+
+    @AfterEach
+    void cleanup() throws IOException {
+        deleteFiles();
+    }
+
+    private void deleteFiles() throws IOException {
+        Files.deleteIfExists(Paths.get(IMPORT));
+        Path directory = Paths.get(DIRECTORY);
+        if (Files.exists(directory)) {
+            try (Stream<Path> files = Files.walk(directory)) {
+                for (Path path : files.sorted(Comparator.reverseOrder()).collect(Collectors.toList())) {
+                    Files.delete(path);
+                }
+            }
+        }
+    }
+
+    private LedgerEventStore store(int snapshotInterval) {
+        return new LedgerEventStore(DIRECTORY, IMPORT, snapshotInterval, clock::get);
+    }
+
+    @Test
+    void testReplayOnLoad() throws IOException {
+        LedgerEventStore store = store(LedgerEventStore.DEFAULT_SNAPSHOT_INTERVAL);
+        Ledger ledger = store.load();
+        ledger.addIncome(28990.12,"ABC Corp.");
+        ledger.addIncome(100,"Gift");
+        ledger.addExpense("Uber Eats", 67.34, "Oct 27", "Lunch");
+        ledger.setSavingGoal("Buy a new car", 12500);
+        ledger.addToSavingGoal(0,3300);
+        ledger.removeIncome(1);
+        ledger.getExpense(0).setNote("Food Delivery");
+        store.close();
+
+        LedgerEventStore reopened = store(LedgerEventStore.DEFAULT_SNAPSHOT_INTERVAL);
+        ledger = reopened.load();
+        reopened.close();
+        assertEquals(7, reopened.getReplayedOnLoad());
+        assertEquals(25622.78, ledger.getBalance(), 0.001);
+        assertEquals(1, ledger.getIncomeList().size());
+        checkIncome("ABC Corp.", 28990.12, ledger.getIncome(0));
+        checkExpense("Uber Eats", 67.34, "Oct 27", "Food Delivery", ledger.getExpense(0));
+        checkGoal("Buy a new car", 12500, 3300, false, ledger.getSavingGoal(0));
+    }
+
+    @Test
+    void testSnapshotsBoundReplay() throws IOException {
+        LedgerEventStore store = store(10);
+        Ledger ledger = store.load();
+        for (int i = 0; i < 35; i++) {
+            ledger.addIncome(i, "Income " + i);
+        }
+        store.close();
+
+        LedgerEventStore reopened = store(10);
+        ledger = reopened.load();
+        reopened.close();
+        assertEquals(5, reopened.getReplayedOnLoad());
+        assertEquals(35, ledger.getIncomeList().size());
+        assertEquals(595, ledger.getBalance(), 0.001);
+        checkIncome("Income 34", 34, ledger.getIncome(34));
+    }
+
+    @Test
+    void testBatchIsReplayedWhole() throws IOException {
+        LedgerEventStore store = store(10);
+        Ledger ledger = store.load();
+        ledger.addIncome(100, "Gift");
+        LedgerBatch batch = ledger.batch();
+        for (int i = 0; i < 12; i++) {
+            batch.addIncome(i, "Income " + i);
+        }
+        batch.removeIncome(0).commit();
+        ledger.addExpense("Uber Eats", 67.34, "Oct 27", "Lunch");
+        store.close();
+
+        LedgerEventStore reopened = store(10);
+        ledger = reopened.load();
+        reopened.close();
+        assertEquals(1, reopened.getReplayedOnLoad());
+        assertEquals(12, ledger.getIncomeList().size());
+        assertEquals(66 - 67.34, ledger.getBalance(), 0.001);
+        checkIncome("Income 0", 0, ledger.getIncome(0));
+    }
+
+    @Test
+    void testAsOf() throws IOException {
+        LedgerEventStore store = store(2);
+        Ledger ledger = store.load();
+        for (int day = 1; day <= 5; day++) {
+            clock.set(day * 1000L);
+            ledger.addIncome(100, "Day " + day);
+        }
+        clock.set(6000);
+        ledger.removeIncome(0);
+        ledger.addExpense("Rent", 250, "Jun 1", "");
+
+        assertEquals(0, store.asOf(500).getIncomeList().size());
+        assertEquals(100, store.asOf(1000).getBalance(), 0.001);
+        assertEquals(300, store.asOf(3500).getBalance(), 0.001);
+        assertEquals(500, store.asOf(5999).getBalance(), 0.001);
+        Ledger now = store.asOf(6000);
+        assertEquals(150, now.getBalance(), 0.001);
+        checkIncome("Day 2", 100, now.getIncome(0));
+        store.close();
+    }
+
+    @Test
+    void testDamagedTailIsCutOff() throws IOException {
+        LedgerEventStore store = store(LedgerEventStore.DEFAULT_SNAPSHOT_INTERVAL);
+        Ledger ledger = store.load();
+        ledger.addIncome(100, "Gift");
+        ledger.addExpense("Uber Eats", 67.34, "Oct 27", "Lunch");
+        store.close();
+        Path segment = Paths.get(DIRECTORY, "changes-1.log");
+        Files.write(segment, new byte[] {0, 0, 0, 40, 1, 2, 3}, StandardOpenOption.APPEND);
+
+        LedgerEventStore reopened = store(LedgerEventStore.DEFAULT_SNAPSHOT_INTERVAL);
+        ledger = reopened.load();
+        assertEquals(2, reopened.getReplayedOnLoad());
+        ledger.addIncome(50, "Refund");
+        reopened.close();
+
+        LedgerEventStore again = store(LedgerEventStore.DEFAULT_SNAPSHOT_INTERVAL);
+        ledger = again.load();
+        again.close();
+        assertEquals(3, again.getReplayedOnLoad());
+        assertEquals(82.66, ledger.getBalance(), 0.001);
+        checkIncome("Refund", 50, ledger.getIncome(1));
+    }
+
+    @Test
+    void testImportsJsonLedger() throws IOException {
+        Ledger imported = new Ledger();
+        imported.addIncome(1000, "Salary");
+        JsonWriter writer = new JsonWriter(IMPORT);
+        writer.open();
+        writer.write(imported);
+        writer.close();
+
+        LedgerEventStore store = store(LedgerEventStore.DEFAULT_SNAPSHOT_INTERVAL);
+        Ledger ledger = store.load();
+        ledger.addExpense("Books", 80, "Sep 3", "");
+        store.close();
+        Files.delete(Paths.get(IMPORT));
+
+        LedgerEventStore reopened = store(LedgerEventStore.DEFAULT_SNAPSHOT_INTERVAL);
+        ledger = reopened.load();
+        reopened.close();
+        assertEquals(1, reopened.getReplayedOnLoad());
+        checkIncome("Salary", 1000, ledger.getIncome(0));
+        checkExpense("Books", 80, "Sep 3", "", ledger.getExpense(0));
+    }
+
+    @Test
+    void testAttachAnotherLedger() throws IOException {
+        LedgerEventStore store = store(LedgerEventStore.DEFAULT_SNAPSHOT_INTERVAL);
+        Ledger ledger = store.load();
+        ledger.addIncome(100, "Gift");
+        Ledger replacement = new Ledger();
+        store.attach(replacement);
+        ledger.addIncome(5, "Not recorded");
+        replacement.addExpense("Rent", 250, "Jun 1", "");
+        store.close();
+
+        LedgerEventStore reopened = store(LedgerEventStore.DEFAULT_SNAPSHOT_INTERVAL);
+        Ledger loaded = reopened.load();
+        reopened.close();
+        assertTrue(loaded.getIncomeList().isEmpty());
+        assertEquals(1, reopened.getReplayedOnLoad());
+        assertEquals(-250, loaded.getBalance(), 0.001);
+    }
+}
@@ -0,0 +1,194 @@
+package persistence;
+
+import model.Ledger;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class LedgerJournalTest extends JsonTest {
+    private static final String SNAPSHOT = "./data/testJournalLedger.json";
+    private static final Path JOURNAL = Paths.get(SNAPSHOT + ".journal");
+    private static final Path PENDING = Paths.get(SNAPSHOT + ".journal.pending");
+
+    @BeforeEach
+    void setup() throws IOException {
+        deleteFiles();
+    }
+
+    @AfterEach
+    void cleanup() throws IOException {
+        deleteFiles();
+    }
+
+    private void deleteFiles() throws IOException {
+        Files.deleteIfExists(Paths.get(SNAPSHOT));
+        Files.deleteIfExists(JOURNAL);
+        Files.deleteIfExists(PENDING);
+    }
+
+    // EFFECTS: writes an empty snapshot and returns a journal attached to the ledger loaded from it
+    private LedgerJournal emptyJournal(long threshold) throws IOException {
+        JsonWriter writer = new JsonWriter(SNAPSHOT);
+        writer.open();
+        writer.write(new Ledger());
+        writer.close();
+        return new LedgerJournal(SNAPSHOT, threshold);
+    }
+
+    @Test
+    void testLoadMissingFiles() {
+        try {
+            new LedgerJournal(SNAPSHOT).load();
+            fail("IOException expected");
+        } catch (IOException e) {
+            // pass
+        }
+    }
+
+    @Test
+    void testBatchIsOneLine() throws IOException {
+        LedgerJournal journal = emptyJournal(LedgerJournal.DEFAULT_COMPACT_THRESHOLD);
+        Ledger ledger = journal.load();
+        ledger.addIncome(100,"Gift");
+        ledger.batch()
+                .addIncome(28990.12,"ABC Corp.")
+                .addExpense("Uber Eats", 67.34, "Oct 27", "Lunch")
+                .setSavingGoal("Buy a new car", 12500)
+                .addToSavingGoal(0,3300)
+                .removeIncome(0)
+                .commit();
+        journal.close();
+        assertEquals(2, Files.readAllLines(JOURNAL).size());
+
+        LedgerJournal reopened = new LedgerJournal(SNAPSHOT);
+        ledger = reopened.load();
+        reopened.close();
+        assertEquals(25622.78, ledger.getBalance(), 0.001);
+        checkIncome("ABC Corp.", 28990.12, ledger.getIncome(0));
+        checkExpense("Uber Eats", 67.34, "Oct 27", "Lunch", ledger.getExpense(0));
+        checkGoal("Buy a new car", 12500, 3300, false, ledger.getSavingGoal(0));
+    }
+
+    @Test
+    void testReplayOnLoad() throws IOException {
+        LedgerJournal journal = emptyJournal(LedgerJournal.DEFAULT_COMPACT_THRESHOLD);
+        Ledger ledger = journal.load();
+        ledger.addIncome(28990.12,"ABC Corp.");
+        ledger.addIncome(100,"Gift");
+        ledger.addExpense("Uber Eats", 67.34, "Oct 27", "Lunch");
+        ledger.setSavingGoal("Buy a new car", 12500);
+        ledger.addToSavingGoal(0,3300);
+        ledger.removeIncome(1);
+        ledger.getExpense(0).setNote("Food Delivery");
+        journal.close();
+        assertEquals(7, Files.readAllLines(JOURNAL).size());
+
+        LedgerJournal reopened = new LedgerJournal(SNAPSHOT);
+        ledger = reopened.load();
+        reopened.close();
+        assertEquals(25622.78, ledger.getBalance(), 0.001);
+        assertEquals(1, ledger.getIncomeList().size());
+        checkIncome("ABC Corp.", 28990.12, ledger.getIncome(0));
+        checkExpense("Uber Eats", 67.34, "Oct 27", "Food Delivery", ledger.getExpense(0));
+        checkGoal("Buy a new car", 12500, 3300, false, ledger.getSavingGoal(0));
+    }
+
+    @Test
+    void testCompaction() throws IOException {
+        LedgerJournal journal = emptyJournal(200);
+        Ledger ledger = journal.load();
+        for (int i = 0; i < 10; i++) {
+            ledger.addExpense("Coffee " + i, 4.25, "Oct 27", "");
+        }
+        journal.close();
+        assertFalse(Files.exists(PENDING));
+        assertTrue(Files.readAllLines(JOURNAL).size() < 10);
+
+        JsonReader reader = new JsonReader(SNAPSHOT);
+        assertTrue(reader.read().getExpenses().size() > 0);
+        assertTrue(reader.getJournalSeq() > 0);
+
+        LedgerJournal reopened = new LedgerJournal(SNAPSHOT);
+        ledger = reopened.load();
+        reopened.close();
+        assertEquals(10, ledger.getExpenses().size());
+        assertEquals("Coffee 9", ledger.getExpense(9).getTitle());
+        assertEquals(-42.5, ledger.getBalance(), 0.001);
+    }
+
+    @Test
+    void testSkipsRecordsAlreadyInSnapshot() throws IOException {
+        LedgerJournal journal = emptyJournal(LedgerJournal.DEFAULT_COMPACT_THRESHOLD);
+        Ledger ledger = journal.load();
+        ledger.addIncome(500, "Gift");
+        journal.close();
+        // simulate a crash after the snapshot was written but before the old journal was dropped
+        Files.copy(JOURNAL, PENDING);
+        JsonWriter writer = new JsonWriter(SNAPSHOT);
+        writer.open();
+        writer.write(ledger, 1);
+        writer.close();
+
+        LedgerJournal reopened = new LedgerJournal(SNAPSHOT);
+        ledger = reopened.load();
+        reopened.close();
+        assertEquals(1, ledger.getIncomeList().size());
+        assertEquals(500, ledger.getBalance());
+    }
+
+    @Test
+    void testDamagedTailIsDropped() throws IOException {
+        LedgerJournal journal = emptyJournal(LedgerJournal.DEFAULT_COMPACT_THRESHOLD);
+        Ledger ledger = journal.load();
+        ledger.addIncome(500, "Gift");
+        journal.close();
+        Files.write(JOURNAL, "{\"op\":\"addInc".getBytes(StandardCharsets.UTF_8), StandardOpenOption.APPEND);
+
+        LedgerJournal reopened = new LedgerJournal(SNAPSHOT);
+        ledger = reopened.load();
+        ledger.addIncome(20, "Refund");
+        reopened.close();
+
+        LedgerJournal again = new LedgerJournal(SNAPSHOT);
+        ledger = again.load();
+        again.close();
+        assertEquals(2, ledger.getIncomeList().size());
+        assertEquals(520, ledger.getBalance());
+    }
+
+    @Test
+    void testTornTailIsCutOffWhileJournalIsSetAside() throws IOException {
+        LedgerJournal journal = emptyJournal(LedgerJournal.DEFAULT_COMPACT_THRESHOLD);
+        Ledger ledger = journal.load();
+        ledger.addIncome(500, "Gift");
+        journal.close();
+        // simulate a crash during a compaction, after the journal was set aside, then a crash mid-record
+        Files.move(JOURNAL, PENDING);
+        LedgerJournal reopened = new LedgerJournal(SNAPSHOT);
+        ledger = reopened.load();
+        ledger.addIncome(20, "Refund");
+        reopened.close();
+        Files.write(JOURNAL, "{\"op\":\"addInc".getBytes(StandardCharsets.UTF_8), StandardOpenOption.APPEND);
+
+        LedgerJournal torn = new LedgerJournal(SNAPSHOT);
+        ledger = torn.load();
+        ledger.addIncome(7, "Cashback");
+        torn.close();
+
+        LedgerJournal again = new LedgerJournal(SNAPSHOT);
+        ledger = again.load();
+        again.close();
+        assertEquals(3, ledger.getIncomeList().size());
+        assertEquals("Cashback", ledger.getIncome(2).getSource());
+        assertEquals(527, ledger.getBalance());
+    }
+}